@@ -0,0 +1,68 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.benchmark.Database;
+import br.com.caiquejh.rquery.benchmark.Filters;
+import br.com.caiquejh.rquery.benchmark.model.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of filtering a million persons in memory with {@link CollectionFilter}, on pools of
+ * increasing parallelism.
+ *
+ * @author Caique Oliveira
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CollectionFilterBenchmark {
+
+    @Param({"1000000"})
+    private int persons;
+
+    @Param({"1", "2", "4", "8"})
+    private int parallelism;
+
+    @Param({"short", "long"})
+    private String filter;
+
+    private List<Person> elements;
+    private ForkJoinPool pool;
+    private CollectionFilter<Person> ordered;
+    private CollectionFilter<Person> unordered;
+
+    @Setup
+    public void setUp() {
+        elements = Database.generate(persons);
+        pool = new ForkJoinPool(parallelism);
+        String query = Filters.named(filter)[0];
+        ordered = CollectionFilter.of(Person.class, query).withPool(pool);
+        unordered = CollectionFilter.of(Person.class, query).withPool(pool).withUnordered();
+    }
+
+    @TearDown
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public List<Person> filter() {
+        return ordered.filter(elements);
+    }
+
+    @Benchmark
+    public List<Person> filterUnordered() {
+        return unordered.filter(elements);
+    }
+
+    @Benchmark
+    public long count() {
+        return ordered.count(elements);
+    }
+}
@@ -0,0 +1,91 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.benchmark.Database;
+import br.com.caiquejh.rquery.benchmark.Filters;
+import br.com.caiquejh.rquery.benchmark.model.Person;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.tree.ParseTreeWalker;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cost of turning an already parsed query into compiled nodes, and into a {@link Predicate}
+ * of a Hibernate {@link CriteriaBuilder}, including the conversion of the literals.
+ *
+ * @author Caique Oliveira
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CriteriaRQueryLangListenerBenchmark {
+
+    @Param({"short", "long", "corpus"})
+    private String filter;
+
+    private Database database;
+    private Session session;
+    private CriteriaBuilder builder;
+
+    private String[] queries;
+    private RQueryLangParser.QueryContext[] trees;
+    private CompiledQuery<Person>[] compiled;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        database = Database.create(0);
+        session = database.getSessionFactory().openSession();
+        builder = session.getCriteriaBuilder();
+
+        queries = Filters.named(filter);
+        trees = new RQueryLangParser.QueryContext[queries.length];
+        compiled = new CompiledQuery[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            RQueryLangLexer lexer = new RQueryLangLexer(CharStreams.fromString(queries[i]));
+            trees[i] = new RQueryLangParser(new CommonTokenStream(lexer)).query();
+            compiled[i] = RQuery.compile(Person.class, queries[i]);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        session.close();
+        database.close();
+    }
+
+    @Benchmark
+    public QueryNode buildNode() {
+        CriteriaRQueryLangListener listener = new CriteriaRQueryLangListener(new QueryNodeFactory(Person.class, UnaryOperator.identity()));
+        ParseTreeWalker.DEFAULT.walk(listener, trees[next++ % trees.length]);
+        return listener.toQueryNode();
+    }
+
+    @Benchmark
+    public Predicate buildPredicate() {
+        CriteriaQuery<Person> query = builder.createQuery(Person.class);
+        Root<Person> root = query.from(Person.class);
+        int i = next++ % trees.length;
+        CriteriaRQueryLangListener listener = new CriteriaRQueryLangListener(new QueryNodeFactory(Person.class, UnaryOperator.identity()));
+        ParseTreeWalker.DEFAULT.walk(listener, trees[i]);
+        return new CompiledQuery<>(Person.class, queries[i], listener.toQueryNode()).toPredicate(root, builder);
+    }
+
+    @Benchmark
+    public Predicate replayCompiled() {
+        CriteriaQuery<Person> query = builder.createQuery(Person.class);
+        Root<Person> root = query.from(Person.class);
+        return compiled[next++ % compiled.length].toPredicate(root, builder);
+    }
+}
@@ -0,0 +1,52 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.benchmark.Database;
+import br.com.caiquejh.rquery.benchmark.Filters;
+import br.com.caiquejh.rquery.benchmark.model.Person;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.Predicate;
+
+/**
+ * Cost of evaluating a compiled query in memory, over one generated person, with the
+ * interpreted predicate or with the class generated for the query.
+ *
+ * @author Caique Oliveira
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InMemoryPredicateBenchmark {
+
+    @Param({"short", "long", "corpus"})
+    private String filter;
+
+    @Param({"interpreted", "generated"})
+    private String tier;
+
+    private Person[] persons;
+    private Predicate<Person>[] predicates;
+    private int next;
+
+    @Setup
+    @SuppressWarnings("unchecked")
+    public void setUp() {
+        persons = Database.generate(1024).toArray(new Person[0]);
+        RQuery.setPredicateClassGeneration(tier.equals("generated"));
+        String[] queries = Filters.named(filter);
+        predicates = new Predicate[queries.length];
+        for (int i = 0; i < queries.length; i++) {
+            predicates[i] = RQuery.predicate(Person.class, queries[i]);
+        }
+    }
+
+    @Benchmark
+    public boolean test() {
+        int i = next++;
+        return predicates[i % predicates.length].test(persons[i & (persons.length - 1)]);
+    }
+}
@@ -0,0 +1,82 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.benchmark.Database;
+import br.com.caiquejh.rquery.benchmark.model.Person;
+import br.com.caiquejh.rquery.spring.KeysetExecutor;
+import br.com.caiquejh.rquery.spring.KeysetRequest;
+import br.com.caiquejh.rquery.spring.RQuerySpecification;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Sort;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of reading one page of a filtered listing at increasing depths, skipping the previous
+ * pages with an offset or starting after the key of the previous page.
+ *
+ * @author Caique Oliveira
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class KeysetPaginationBenchmark {
+
+    private static final int SIZE = 20;
+    private static final Sort SORT = Sort.by("id");
+
+    @Param({"200000"})
+    private int persons;
+
+    @Param({"0", "1000", "4000"})
+    private int page;
+
+    private Database database;
+    private Session session;
+    private RQuerySpecification<Person> specification;
+    private KeysetExecutor executor;
+    private String after;
+
+    @Setup
+    public void setUp() {
+        database = Database.create(persons);
+        session = database.getSessionFactory().openSession();
+        specification = RQuerySpecification.of(Person.class, "active is true");
+        executor = new KeysetExecutor(session);
+        if (page > 0) {
+            after = executor.findAll(Person.class, specification, KeysetRequest.first(page * SIZE, SORT)).getNext();
+            session.clear();
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        session.close();
+        database.close();
+    }
+
+    @Benchmark
+    public List<Person> offset() {
+        CriteriaBuilder builder = session.getCriteriaBuilder();
+        CriteriaQuery<Person> query = builder.createQuery(Person.class);
+        Root<Person> root = query.from(Person.class);
+        query.where(specification.toPredicate(root, query, builder)).orderBy(builder.asc(root.get("id")));
+        List<Person> result = session.createQuery(query).setFirstResult(page * SIZE).setMaxResults(SIZE).getResultList();
+        session.clear();
+        return result;
+    }
+
+    @Benchmark
+    public List<Person> keyset() {
+        List<Person> result = executor.findAll(Person.class, specification, KeysetRequest.of(SIZE, SORT, after)).getContent();
+        session.clear();
+        return result;
+    }
+}
@@ -0,0 +1,101 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.benchmark.Database;
+import br.com.caiquejh.rquery.benchmark.model.Person;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Cost of filters with {@code in} lists of 1k, 10k and 100k identifiers, compiled by each front
+ * end and counted in the database with each {@link InListStrategy}.
+ *
+ * @author Caique Oliveira
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class LargeInListBenchmark {
+
+    @State(Scope.Benchmark)
+    public static class Lists {
+
+        @Param({"1000", "10000", "100000"})
+        private int size;
+
+        private String query;
+
+        @Setup
+        public void setUp() {
+            query = IntStream.range(0, size).mapToObj(i -> String.valueOf(size - i * 2L))
+                    .collect(Collectors.joining(", ", "id in (", ")"));
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Compilation {
+
+        @Param({"ANTLR", "HAND_WRITTEN"})
+        private FrontEnd frontEnd;
+
+        @Setup
+        public void setUp() {
+            RQuery.setCacheMaximumWeight(0);
+        }
+
+        @TearDown
+        public void tearDown() {
+            RQuery.setCacheMaximumWeight(1 << 20);
+        }
+    }
+
+    @State(Scope.Thread)
+    public static class Execution {
+
+        @Param({"SINGLE", "CHUNKED"})
+        private InListStrategy strategy;
+
+        @Param("100000")
+        private int persons;
+
+        private Database database;
+        private Session session;
+
+        @Setup
+        public void setUp() {
+            database = Database.create(persons);
+            session = database.getSessionFactory().openSession();
+            RQuery.setInListStrategy(strategy);
+        }
+
+        @TearDown
+        public void tearDown() {
+            session.close();
+            database.close();
+            RQuery.setInListStrategy(InListStrategy.SINGLE);
+        }
+    }
+
+    @Benchmark
+    public CompiledQuery<Person> compile(Lists lists, Compilation compilation) {
+        return RQuery.compile(Person.class, lists.query, UnaryOperator.identity(), compilation.frontEnd);
+    }
+
+    @Benchmark
+    public Long count(Lists lists, Execution execution) {
+        CriteriaBuilder builder = execution.session.getCriteriaBuilder();
+        CriteriaQuery<Long> query = builder.createQuery(Long.class);
+        Root<Person> root = query.from(Person.class);
+        query.select(builder.count(root)).where(RQuery.from(root, builder).parse(lists.query));
+        return execution.session.createQuery(query).getSingleResult();
+    }
+}
@@ -0,0 +1,72 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.benchmark.Filters;
+import br.com.caiquejh.rquery.benchmark.model.Person;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.antlr.v4.runtime.Token;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
+
+/**
+ * Cost of the generated ANTLR lexer and parser alone, without building any predicate,
+ * from fresh instances in full LL and from the reused per-thread instances in SLL, and of
+ * the hand-written scanner and parser, which also resolve the attributes and convert the literals.
+ *
+ * @author Caique Oliveira
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LexerParserBenchmark {
+
+    @Param({"short", "long"})
+    private String filter;
+
+    private String query;
+    private QueryNodeFactory factory;
+
+    @Setup
+    public void setUp() {
+        query = Filters.named(filter)[0];
+        factory = new QueryNodeFactory(Person.class, UnaryOperator.identity());
+    }
+
+    @Benchmark
+    public List<? extends Token> lex() {
+        return new RQueryLangLexer(CharStreams.fromString(query)).getAllTokens();
+    }
+
+    @Benchmark
+    public RQueryLangParser.QueryContext parse() {
+        RQueryLangLexer lexer = new RQueryLangLexer(CharStreams.fromString(query));
+        return new RQueryLangParser(new CommonTokenStream(lexer)).query();
+    }
+
+    @Benchmark
+    public RQueryLangParser.QueryContext parseTwoStage() {
+        return AntlrQueryParser.parse(query, null);
+    }
+
+    @Benchmark
+    public int scanHandWritten() {
+        RQueryLangScanner scanner = new RQueryLangScanner(query);
+        int tokens = 0;
+        while (scanner.type() != Token.EOF) {
+            scanner.next();
+            tokens++;
+        }
+        return tokens;
+    }
+
+    @Benchmark
+    public QueryNode parseHandWritten() {
+        return RecursiveDescentQueryParser.parse(query, factory);
+    }
+}
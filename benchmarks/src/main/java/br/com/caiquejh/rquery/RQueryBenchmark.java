@@ -0,0 +1,82 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.benchmark.Database;
+import br.com.caiquejh.rquery.benchmark.Filters;
+import br.com.caiquejh.rquery.benchmark.model.Person;
+import org.hibernate.Session;
+import org.openjdk.jmh.annotations.*;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * End-to-end cost of {@link RQuery#parse(String)}, alone and followed by the execution
+ * of the query against generated persons.
+ *
+ * @author Caique Oliveira
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class RQueryBenchmark {
+
+    @Param({"short", "long", "corpus"})
+    private String filter;
+
+    @Param({"true", "false"})
+    private boolean cached;
+
+    @Param({"ANTLR", "HAND_WRITTEN"})
+    private FrontEnd frontEnd;
+
+    @Param("10000")
+    private int persons;
+
+    private Database database;
+    private Session session;
+    private CriteriaBuilder builder;
+
+    private String[] queries;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        database = Database.create(persons);
+        session = database.getSessionFactory().openSession();
+        builder = session.getCriteriaBuilder();
+        queries = Filters.named(filter);
+        RQuery.clearCache();
+        RQuery.setCacheMaximumWeight(cached ? 1 << 20 : 0);
+        RQuery.setDefaultFrontEnd(frontEnd);
+    }
+
+    @TearDown
+    public void tearDown() {
+        session.close();
+        database.close();
+    }
+
+    @Benchmark
+    public Predicate parse() {
+        CriteriaQuery<Person> query = builder.createQuery(Person.class);
+        Root<Person> root = query.from(Person.class);
+        return RQuery.from(root, builder).parse(queries[next++ % queries.length]);
+    }
+
+    @Benchmark
+    public List<Person> parseAndExecute() {
+        CriteriaQuery<Person> query = builder.createQuery(Person.class);
+        Root<Person> root = query.from(Person.class);
+        Predicate predicate = RQuery.from(root, builder).parse(queries[next++ % queries.length]);
+        List<Person> result = session.createQuery(query.where(predicate)).setMaxResults(20).getResultList();
+        session.clear();
+        return result;
+    }
+}
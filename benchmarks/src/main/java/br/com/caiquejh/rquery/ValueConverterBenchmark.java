@@ -0,0 +1,98 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.benchmark.model.Gender;
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.time.*;
+import java.util.Date;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Cost of {@link ValueConverter#convert(Class, String, String)} for each registered type.
+ *
+ * @author Caique Oliveira
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ValueConverterBenchmark {
+
+    @Param({"string", "uuid", "localDate", "localTime", "localDateTime", "zonedDateTime", "offsetDateTime",
+            "instant", "date", "primitiveInt", "integer", "primitiveShort", "shortValue", "primitiveLong",
+            "longValue", "primitiveFloat", "floatValue", "primitiveDouble", "doubleValue", "bigInteger",
+            "bigDecimal", "gender"})
+    private String field;
+
+    private String value;
+
+    @Setup
+    public void setUp() {
+        switch (field) {
+            case "string":
+            case "gender":
+                value = "FEMALE";
+                break;
+            case "uuid":
+                value = "2f1c6c4e-5a9b-4c39-9a52-8b7e1a8f0d11";
+                break;
+            case "localDate":
+                value = "2022-05-21";
+                break;
+            case "localTime":
+                value = "15:00:00";
+                break;
+            case "localDateTime":
+            case "zonedDateTime":
+            case "offsetDateTime":
+            case "instant":
+            case "date":
+                value = "2022-05-21 15:00:00";
+                break;
+            case "primitiveFloat":
+            case "floatValue":
+            case "primitiveDouble":
+            case "doubleValue":
+            case "bigDecimal":
+                value = "1234.5678";
+                break;
+            default:
+                value = "1234";
+        }
+    }
+
+    @Benchmark
+    public Object convert() {
+        return ValueConverter.convert(Example.class, field, value);
+    }
+
+    private static class Example {
+        String string;
+        UUID uuid;
+        LocalDate localDate;
+        LocalTime localTime;
+        LocalDateTime localDateTime;
+        ZonedDateTime zonedDateTime;
+        OffsetDateTime offsetDateTime;
+        Instant instant;
+        Date date;
+        int primitiveInt;
+        Integer integer;
+        short primitiveShort;
+        Short shortValue;
+        long primitiveLong;
+        Long longValue;
+        float primitiveFloat;
+        Float floatValue;
+        double primitiveDouble;
+        Double doubleValue;
+        BigInteger bigInteger;
+        BigDecimal bigDecimal;
+        Gender gender;
+    }
+}
@@ -0,0 +1,34 @@
+package br.com.caiquejh.rquery.benchmark;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.results.format.ResultFormatType;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.ChainedOptionsBuilder;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Run the benchmarks matching the given patterns with the allocation profiler
+ * ({@code -prof gc}), writing the results to {@code target/jmh-result.json}.
+ *
+ * <p>It is the same as {@code java -jar target/benchmarks.jar <patterns> -prof gc -rf json},
+ * kept here so the allocation figures are always collected the same way.</p>
+ *
+ * @author Caique Oliveira
+ */
+public final class BenchmarkRunner {
+
+    private BenchmarkRunner() {
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        ChainedOptionsBuilder options = new OptionsBuilder()
+                .addProfiler(GCProfiler.class)
+                .resultFormat(ResultFormatType.JSON)
+                .result("target/jmh-result.json");
+        for (String pattern : args) {
+            options.include(pattern);
+        }
+        new Runner(options.build()).run();
+    }
+}
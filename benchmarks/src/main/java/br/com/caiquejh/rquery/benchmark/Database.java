@@ -0,0 +1,127 @@
+package br.com.caiquejh.rquery.benchmark;
+
+import br.com.caiquejh.rquery.benchmark.model.Address;
+import br.com.caiquejh.rquery.benchmark.model.Company;
+import br.com.caiquejh.rquery.benchmark.model.Gender;
+import br.com.caiquejh.rquery.benchmark.model.Person;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.Transaction;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistry;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.UUID;
+
+/**
+ * In-memory H2 database with generated persons.
+ *
+ * @author Caique Oliveira
+ */
+public final class Database implements AutoCloseable {
+
+    private static final String[] FIRST_NAMES = {"Maria", "Ana", "Bruno", "Carla", "Diego", "Elisa", "Fabio", "Joana", "Jose", "Lucas"};
+    private static final String[] LAST_NAMES = {"Silva", "Santos", "Oliveira", "Souza", "Lima", "Pereira", "Costa", "Jobim"};
+    private static final String[] CITIES = {"Campinas", "Recife", "Curitiba", "Salvador", "Manaus", "Natal"};
+    private static final String[] COMPANIES = {"Acme", "Tech Corp", "Globex", "Initech", "Umbrella"};
+    private static final String[] COUNTRIES = {"BR", "PT", "AR", "US"};
+    private static final Gender[] GENDERS = Gender.values();
+
+    private final StandardServiceRegistry registry;
+    private final SessionFactory sessionFactory;
+
+    private Database() {
+        registry = new StandardServiceRegistryBuilder().configure().build();
+        sessionFactory = new MetadataSources(registry).buildMetadata().buildSessionFactory();
+    }
+
+    /**
+     * Create the schema and insert the persons.
+     *
+     * @param persons number of persons to generate
+     * @return the database
+     */
+    public static Database create(int persons) {
+        Database database = new Database();
+        database.populate(persons);
+        return database;
+    }
+
+    public SessionFactory getSessionFactory() {
+        return sessionFactory;
+    }
+
+    /**
+     * Generate the persons in memory, like the ones inserted in the database.
+     *
+     * @param persons number of persons to generate
+     * @return the persons, with their companies
+     */
+    public static List<Person> generate(int persons) {
+        Random random = new Random(42);
+        Company[] companies = companies();
+        List<Person> generated = new ArrayList<>(persons);
+        for (int i = 0; i < persons; i++) {
+            generated.add(person(random, i, companies));
+        }
+        return generated;
+    }
+
+    private void populate(int persons) {
+        Random random = new Random(42);
+        try (Session session = sessionFactory.openSession()) {
+            Transaction transaction = session.beginTransaction();
+            Company[] companies = companies();
+            for (Company company : companies) {
+                session.persist(company);
+            }
+            for (int i = 0; i < persons; i++) {
+                Person person = person(random, i, companies);
+                session.persist(person);
+                if (i % 500 == 0) {
+                    session.flush();
+                    session.clear();
+                }
+            }
+            transaction.commit();
+        }
+    }
+
+    private static Company[] companies() {
+        Company[] companies = new Company[COMPANIES.length];
+        for (int i = 0; i < companies.length; i++) {
+            companies[i] = new Company(COMPANIES[i], COUNTRIES[i % COUNTRIES.length]);
+        }
+        return companies;
+    }
+
+    private static Person person(Random random, int i, Company[] companies) {
+        Person person = new Person();
+        person.setExternalId(new UUID(random.nextLong(), random.nextLong()));
+        person.setFirstName(FIRST_NAMES[random.nextInt(FIRST_NAMES.length)]);
+        person.setLastName(LAST_NAMES[random.nextInt(LAST_NAMES.length)]);
+        person.setEmail(random.nextInt(10) == 0 ? null : "person" + i + "@mail.com");
+        person.setAge(18 + random.nextInt(60));
+        person.setActive(random.nextBoolean());
+        person.setSalary(BigDecimal.valueOf(1000 + random.nextInt(9000)));
+        person.setBirthDate(LocalDate.of(1950, 1, 1).plusDays(random.nextInt(20000)));
+        person.setCreatedAt(LocalDateTime.of(2020, 1, 1, 0, 0).plusMinutes(random.nextInt(1500000)));
+        person.setGender(GENDERS[random.nextInt(GENDERS.length)]);
+        person.setAddress(new Address(CITIES[random.nextInt(CITIES.length)], "Street " + random.nextInt(100),
+                String.valueOf(random.nextInt(2000)), random.nextInt(5) == 0 ? null : String.valueOf(10000 + i)));
+        person.setCompany(companies[random.nextInt(companies.length)]);
+        return person;
+    }
+
+    @Override
+    public void close() {
+        sessionFactory.close();
+        StandardServiceRegistryBuilder.destroy(registry);
+    }
+}
@@ -0,0 +1,76 @@
+package br.com.caiquejh.rquery.benchmark;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Filters used by the benchmarks.
+ *
+ * @author Caique Oliveira
+ */
+public final class Filters {
+
+    public static final String SHORT = "age > 30";
+
+    public static final String LONG = "(firstName starts 'Jo' or lastName starts 'Jo') and active is true"
+            + " and (age >= 18 and age <= 65) and gender in ('FEMALE', 'NON_BINARY', 'AGENDER')"
+            + " and address.city != 'Recife' and email is not null and salary between 1000 and 9000.50"
+            + " or (company.name contains 'Tech' && createdAt >= '2022-01-01 00:00:00')";
+
+    private Filters() {
+    }
+
+    /**
+     * @param name {@code short}, {@code long} or {@code corpus}
+     * @return the filters of that kind; only the corpus has more than one
+     */
+    public static String[] named(String name) {
+        switch (name) {
+            case "short":
+                return new String[]{SHORT};
+            case "long":
+                return new String[]{LONG};
+            case "corpus":
+                return corpus();
+            default:
+                throw new IllegalArgumentException("Unknown filter set: " + name);
+        }
+    }
+
+    /**
+     * Load the traffic corpus, with each filter repeated by its weight, in a
+     * deterministic shuffled order.
+     *
+     * @return the filters of the corpus
+     */
+    public static String[] corpus() {
+        List<String> filters = new ArrayList<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                Filters.class.getResourceAsStream("/filters.txt"), StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                line = line.trim();
+                if (line.isEmpty() || line.startsWith("#")) {
+                    continue;
+                }
+                int space = line.indexOf(' ');
+                int weight = Integer.parseInt(line.substring(0, space));
+                String filter = line.substring(space + 1);
+                for (int i = 0; i < weight; i++) {
+                    filters.add(filter);
+                }
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        Collections.shuffle(filters, new Random(42));
+        return filters.toArray(new String[0]);
+    }
+}
@@ -0,0 +1,54 @@
+package br.com.caiquejh.rquery.benchmark.model;
+
+import javax.persistence.Embeddable;
+
+@Embeddable
+public class Address {
+
+    private String city;
+    private String street;
+    private String number;
+    private String postalCode;
+
+    public Address() {
+    }
+
+    public Address(String city, String street, String number, String postalCode) {
+        this.city = city;
+        this.street = street;
+        this.number = number;
+        this.postalCode = postalCode;
+    }
+
+    public String getCity() {
+        return city;
+    }
+
+    public void setCity(String city) {
+        this.city = city;
+    }
+
+    public String getStreet() {
+        return street;
+    }
+
+    public void setStreet(String street) {
+        this.street = street;
+    }
+
+    public String getNumber() {
+        return number;
+    }
+
+    public void setNumber(String number) {
+        this.number = number;
+    }
+
+    public String getPostalCode() {
+        return postalCode;
+    }
+
+    public void setPostalCode(String postalCode) {
+        this.postalCode = postalCode;
+    }
+}
@@ -0,0 +1,9 @@
+package br.com.caiquejh.rquery.benchmark.model;
+
+public enum Gender {
+    MALE,
+    FEMALE,
+    NON_BINARY,
+    AGENDER,
+    UNDEFINED
+}
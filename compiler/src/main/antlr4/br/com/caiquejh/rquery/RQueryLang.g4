@@ -46,6 +46,8 @@ op_string
     | NOT CONTAINS
     | STARTS
     | NOT STARTS
+    | MATCHES
+    | NOT MATCHES
     ;
 
 op_between
@@ -110,6 +112,9 @@ IN
 IS
     : I S
     ;
+MATCHES
+    : M A T C H E S
+    ;
 NOT
     : N O T
     ;
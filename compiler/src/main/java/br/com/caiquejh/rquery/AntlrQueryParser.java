@@ -0,0 +1,145 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+import org.antlr.v4.runtime.*;
+import org.antlr.v4.runtime.atn.PredictionMode;
+import org.antlr.v4.runtime.misc.ParseCancellationException;
+import org.antlr.v4.runtime.tree.ParseTreeListener;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parse rqueries with the generated ANTLR parser, reusing one lexer and parser per thread.
+ *
+ * <p>Each query is first parsed in {@link PredictionMode#SLL} with a {@link BailErrorStrategy},
+ * which is enough for almost every input. Only when it fails the query is parsed again in
+ * full {@link PredictionMode#LL}, which also reports the syntax errors. The DFA cache of the
+ * generated parser is static, so it stays shared by the parsers of every thread.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class AntlrQueryParser {
+
+    private static final ThreadLocal<AntlrQueryParser> PARSERS = ThreadLocal.withInitial(AntlrQueryParser::new);
+
+    private static final LongAdder PARSES = new LongAdder();
+    private static final LongAdder FALLBACKS = new LongAdder();
+
+    private final RQueryLangLexer lexer = new RQueryLangLexer(null);
+    private final CommonTokenStream tokens = new CommonTokenStream(lexer);
+    private final RQueryLangParser parser = new RQueryLangParser(tokens) {
+        /*
+         * The generated rules exit in a finally block, so a failed parse would still notify
+         * the listener of the rules it was inside, hiding the first error behind another one.
+         */
+        @Override
+        protected void triggerExitRuleEvent() {
+            if (failed || _ctx.exception != null) {
+                return;
+            }
+            try {
+                super.triggerExitRuleEvent();
+            } catch (RuntimeException e) {
+                failed = true;
+                throw e;
+            }
+        }
+    };
+    private final ANTLRErrorListener errorListener = new BaseErrorListener() {
+        @Override
+        public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) {
+            failed = true;
+            throw new RQueryException("Failed to parse at line " + line + " and at column " + charPositionInLine + " due to " + msg);
+        }
+    };
+    private final ANTLRErrorStrategy bailErrorStrategy = new BailErrorStrategy();
+    private final ANTLRErrorStrategy defaultErrorStrategy = new DefaultErrorStrategy();
+
+    private boolean inUse;
+    private boolean failed;
+
+    private AntlrQueryParser() {
+        parser.removeErrorListeners();
+    }
+
+    /**
+     * Parse the query notifying the listener while parsing.
+     *
+     * <p>The listener may be notified of a partial parse before the fallback to LL, so it must
+     * restart its state on {@code enterQuery}.</p>
+     *
+     * @param query    the rquery
+     * @param listener the parse listener, may be null
+     * @return the parse tree
+     * @throws RQueryException if a syntax error occurs
+     */
+    static RQueryLangParser.QueryContext parse(String query, ParseTreeListener listener) {
+        return parse(query, listener, ParseProfile.DISABLED);
+    }
+
+    /**
+     * Parse the query notifying the listener while parsing, lexing every token first when the
+     * profile is enabled, to time the lexing and count the tokens.
+     *
+     * @param query    the rquery
+     * @param listener the parse listener, may be null
+     * @param profile  the profile of the parse
+     * @return the parse tree
+     * @throws RQueryException if a syntax error occurs
+     */
+    static RQueryLangParser.QueryContext parse(String query, ParseTreeListener listener, ParseProfile profile) {
+        AntlrQueryParser current = PARSERS.get();
+        if (current.inUse) {
+            return new AntlrQueryParser().doParse(query, listener, profile);
+        }
+        current.inUse = true;
+        try {
+            return current.doParse(query, listener, profile);
+        } finally {
+            current.inUse = false;
+        }
+    }
+
+    private RQueryLangParser.QueryContext doParse(String query, ParseTreeListener listener, ParseProfile profile) {
+        PARSES.increment();
+        failed = false;
+        lexer.setInputStream(CharStreams.fromString(query));
+        tokens.setTokenSource(lexer);
+        if (profile.isEnabled()) {
+            long lexing = profile.now();
+            tokens.fill();
+            profile.stop(ParsePhase.LEX, lexing);
+            profile.setTokenCount(tokens.size() - 1);
+        }
+        parser.setTokenStream(tokens);
+        if (listener != null) {
+            parser.addParseListener(listener);
+        }
+        try {
+            parser.getInterpreter().setPredictionMode(PredictionMode.SLL);
+            parser.setErrorHandler(bailErrorStrategy);
+            try {
+                return parser.query();
+            } catch (ParseCancellationException e) {
+                FALLBACKS.increment();
+            }
+            failed = false;
+            tokens.seek(0);
+            parser.reset();
+            parser.getInterpreter().setPredictionMode(PredictionMode.LL);
+            parser.setErrorHandler(defaultErrorStrategy);
+            parser.addErrorListener(errorListener);
+            try {
+                return parser.query();
+            } finally {
+                parser.removeErrorListeners();
+            }
+        } finally {
+            parser.removeParseListeners();
+        }
+    }
+
+    static ParserStats stats() {
+        return new ParserStats(PARSES.sum(), FALLBACKS.sum());
+    }
+}
@@ -0,0 +1,143 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+import org.apache.commons.lang3.ClassUtils;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.Function;
+
+/**
+ * Read an attribute of an object without reflection on each call.
+ *
+ * <p>The public getter of a public type is called by a class spun by the
+ * {@link LambdaMetafactory}, which the JIT inlines like a direct call. Other attributes are
+ * read by a method handle of the getter or of the field. Accessors are kept per type, in a
+ * {@link ClassValue} like the {@link AttributeTable}.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class AttributeAccessor {
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+    private static final MethodType FUNCTION = MethodType.methodType(Function.class);
+    private static final MethodType APPLY = MethodType.methodType(Object.class, Object.class);
+
+    private static final ClassValue<ConcurrentMap<String, Function<Object, Object>>> ACCESSORS =
+            new ClassValue<ConcurrentMap<String, Function<Object, Object>>>() {
+                @Override
+                protected ConcurrentMap<String, Function<Object, Object>> computeValue(Class<?> type) {
+                    return new ConcurrentHashMap<>();
+                }
+            };
+
+    private AttributeAccessor() {
+    }
+
+    /**
+     * @param type the type that declares or inherits the attribute
+     * @param name the name of the attribute
+     * @return the function reading the attribute of an instance of the type
+     * @throws RQueryException if the type has neither a getter nor a field of the attribute
+     */
+    static Function<Object, Object> of(Class<?> type, String name) {
+        ConcurrentMap<String, Function<Object, Object>> accessors = ACCESSORS.get(type);
+        Function<Object, Object> accessor = accessors.get(name);
+        if (accessor == null) {
+            accessor = create(type, name);
+            accessors.putIfAbsent(name, accessor);
+        }
+        return accessor;
+    }
+
+    private static Function<Object, Object> create(Class<?> type, String name) {
+        Method getter = getter(type, name);
+        try {
+            if (getter != null && isLinkable(type)) {
+                return metafactory(type, getter);
+            }
+            MethodHandle handle = getter != null ? LOOKUP.unreflect(getter) : LOOKUP.unreflectGetter(field(type, name));
+            return handle(handle.asType(APPLY));
+        } catch (Throwable e) {
+            throw new RQueryException("Cannot read the attribute '" + name + "' of " + type.getSimpleName(), e);
+        }
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Function<Object, Object> metafactory(Class<?> type, Method getter) throws Throwable {
+        MethodHandle handle = LOOKUP.unreflect(getter);
+        CallSite site = LambdaMetafactory.metafactory(LOOKUP, "apply", FUNCTION, APPLY.erase(), handle,
+                MethodType.methodType(ClassUtils.primitiveToWrapper(getter.getReturnType()), type));
+        return (Function<Object, Object>) site.getTarget().invokeExact();
+    }
+
+    private static Function<Object, Object> handle(MethodHandle handle) {
+        return instance -> {
+            try {
+                return handle.invokeExact(instance);
+            } catch (RuntimeException | Error e) {
+                throw e;
+            } catch (Throwable e) {
+                throw new IllegalStateException(e);
+            }
+        };
+    }
+
+    /**
+     * @param type a type
+     * @return whether classes defined next to this one can refer to the type directly: it is
+     * public and its class loader is the one of rquery or one of its parents
+     */
+    static boolean isLinkable(Class<?> type) {
+        if (!Modifier.isPublic(type.getModifiers())) {
+            return false;
+        }
+        try {
+            return Class.forName(type.getName(), false, AttributeAccessor.class.getClassLoader()) == type;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    /**
+     * @param type the type that declares or inherits the attribute
+     * @param name the name of the attribute
+     * @return the public getter of the attribute, or null if there is none
+     */
+    static Method getter(Class<?> type, String name) {
+        String suffix = Character.toUpperCase(name.charAt(0)) + name.substring(1);
+        for (String prefix : new String[]{"get", "is"}) {
+            try {
+                Method method = type.getMethod(prefix + suffix);
+                if (method.getReturnType() != void.class && !Modifier.isStatic(method.getModifiers())
+                        && Modifier.isPublic(method.getDeclaringClass().getModifiers())) {
+                    return method;
+                }
+            } catch (NoSuchMethodException e) {
+                // try the next prefix, then the field
+            }
+        }
+        return null;
+    }
+
+    private static Field field(Class<?> type, String name) throws NoSuchFieldException {
+        for (Class<?> clazz : ClassUtils.hierarchy(type)) {
+            try {
+                Field field = clazz.getDeclaredField(name);
+                field.setAccessible(true);
+                return field;
+            } catch (NoSuchFieldException e) {
+                // look in the superclass
+            }
+        }
+        throw new NoSuchFieldException(name);
+    }
+}
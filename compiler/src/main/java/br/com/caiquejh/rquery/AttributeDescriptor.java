@@ -0,0 +1,99 @@
+package br.com.caiquejh.rquery;
+
+/**
+ * One attribute of an {@link AttributeTable}, with the type a path continues from and the
+ * converter of the literals compared with it.
+ *
+ * @author Caique Oliveira
+ */
+final class AttributeDescriptor {
+
+    private final String name;
+    private final Class<?> type;
+    private final Class<?> elementType;
+    private final boolean managed;
+    private final boolean fromMetamodel;
+
+    private volatile ValueConverter.TypeConverter converter;
+
+    AttributeDescriptor(String name, Class<?> type, Class<?> elementType, boolean managed, boolean fromMetamodel) {
+        this.name = name;
+        this.type = type;
+        this.elementType = elementType;
+        this.managed = managed;
+        this.fromMetamodel = fromMetamodel;
+    }
+
+    /**
+     * @return the name of the attribute
+     */
+    String getName() {
+        return name;
+    }
+
+    /**
+     * @return the type of the attribute
+     */
+    Class<?> getType() {
+        return type;
+    }
+
+    /**
+     * @return the type a path continues from, the element type for collections
+     */
+    Class<?> getElementType() {
+        return elementType;
+    }
+
+    /**
+     * @return whether the metamodel says the element type is an entity, an embeddable or a mapped
+     * superclass
+     */
+    boolean isManaged() {
+        return managed;
+    }
+
+    /**
+     * @return the table of the class a path continues from, the element type for collections,
+     * or null when the attribute cannot be navigated: the metamodel says so, or, without the
+     * metamodel, it is a basic type like a primitive, an enumeration or a class of the JDK
+     */
+    AttributeTable target() {
+        if (managed) {
+            return AttributeTable.of(elementType);
+        }
+        return fromMetamodel || isBasic(elementType) ? null : AttributeTable.of(elementType);
+    }
+
+    /**
+     * @return whether the other attribute, of another metamodel, has the same types
+     */
+    boolean isSameAs(AttributeDescriptor other) {
+        return name.equals(other.name) && type == other.type && elementType == other.elementType
+                && fromMetamodel == other.fromMetamodel && managed == other.managed;
+    }
+
+    private static boolean isBasic(Class<?> type) {
+        return type.isPrimitive() || type.isEnum() || type.isArray()
+                || type.getName().startsWith("java.") || type.getName().startsWith("javax.");
+    }
+
+    /**
+     * Convert a literal to the type of the attribute, with the default converter of the type.
+     *
+     * @param value the literal, without quotes
+     * @return the converted value
+     */
+    Object convert(String value) {
+        ValueConverter.TypeConverter current = converter;
+        if (current == null) {
+            converter = current = ValueConverter.converterOf(type);
+        }
+        return current.convert(value);
+    }
+
+    @Override
+    public String toString() {
+        return name + ": " + type.getSimpleName();
+    }
+}
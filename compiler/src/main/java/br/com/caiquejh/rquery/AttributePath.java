@@ -0,0 +1,131 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+
+/**
+ * A dotted attribute path resolved against an entity type.
+ *
+ * <p>The path {@code comments.author.email} has the joins {@code comments} and
+ * {@code comments.author} and the leaf {@code email}, declared by the element type
+ * of the last join.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class AttributePath {
+
+    private final String path;
+    private final String[] segments;
+    private final String[] joinPaths;
+    private final Class<?> ownerType;
+    private final AttributeDescriptor leaf;
+    private final boolean multivalued;
+
+    AttributePath(String path, String[] segments, Class<?> ownerType, AttributeDescriptor leaf, boolean multivalued) {
+        this.path = path;
+        this.segments = segments;
+        this.ownerType = ownerType;
+        this.leaf = leaf;
+        this.multivalued = multivalued;
+        this.joinPaths = new String[segments.length - 1];
+        int end = -1;
+        for (int i = 0; i < joinPaths.length; i++) {
+            end = path.indexOf('.', end + 1);
+            joinPaths[i] = path.substring(0, end);
+        }
+    }
+
+    /**
+     * Resolve a dotted path against the entity type.
+     *
+     * @param entityType the entity where the path starts
+     * @param path       the dotted path
+     * @return the resolved path
+     * @throws RQueryException if any segment of the path does not exist
+     */
+    static AttributePath resolve(Class<?> entityType, String path) {
+        return AttributeTable.of(entityType).resolve(path);
+    }
+
+    /**
+     * @return the full dotted path
+     */
+    String getPath() {
+        return path;
+    }
+
+    /**
+     * @return the name of the last segment
+     */
+    String getName() {
+        return segments[segments.length - 1];
+    }
+
+    /**
+     * @return the number of joins needed to reach the leaf
+     */
+    int getJoinCount() {
+        return joinPaths.length;
+    }
+
+    /**
+     * @param index index of the join
+     * @return the path of the join, used as its identity inside a query
+     */
+    String getJoinPath(int index) {
+        return joinPaths[index];
+    }
+
+    /**
+     * @param index index of the join
+     * @return the attribute joined from the previous join
+     */
+    String getJoinName(int index) {
+        return segments[index];
+    }
+
+    /**
+     * @return whether a join of the path is a collection, so the path has many values
+     */
+    boolean isMultivalued() {
+        return multivalued;
+    }
+
+    /**
+     * @return the type that declares the leaf attribute
+     */
+    Class<?> getOwnerType() {
+        return ownerType;
+    }
+
+    /**
+     * @return the type of the leaf attribute
+     */
+    Class<?> getType() {
+        return leaf.getType();
+    }
+
+    /**
+     * @return the leaf attribute
+     */
+    AttributeDescriptor getLeaf() {
+        return leaf;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        AttributePath that = (AttributePath) o;
+        return path.equals(that.path) && ownerType.equals(that.ownerType);
+    }
+
+    @Override
+    public int hashCode() {
+        return path.hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return path;
+    }
+}
@@ -0,0 +1,258 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+import org.apache.commons.lang3.ClassUtils;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.Type;
+import java.lang.ref.WeakReference;
+import java.lang.reflect.Field;
+import java.lang.reflect.ParameterizedType;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * The attributes of a managed type, built once and shared by every query of the type.
+ *
+ * <p>A table is built from the JPA metamodel once the type is seen through a
+ * {@link javax.persistence.criteria.Root}, and from the declared fields until then. Each
+ * attribute leads to the table of its type, so the tables form the trie of every dotted
+ * path, and the paths already resolved are remembered by the table they start from.</p>
+ *
+ * <p>Tables are kept in a {@link ClassValue}: reading one does not lock, and it is
+ * unloaded together with its class. The metamodels with the same attributes, of several
+ * persistence units or of a restarted one, share a table, which holds them weakly.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class AttributeTable {
+
+    private static final int MAXIMUM_PATHS = 256;
+
+    private static final ClassValue<AtomicReference<AttributeTable>> TABLES = new ClassValue<AtomicReference<AttributeTable>>() {
+        @Override
+        protected AtomicReference<AttributeTable> computeValue(Class<?> type) {
+            return new AtomicReference<>();
+        }
+    };
+
+    private final Class<?> type;
+    private final Map<String, AttributeDescriptor> attributes;
+    private final ConcurrentMap<String, AttributePath> paths = new ConcurrentHashMap<>();
+
+    /**
+     * The metamodels of the type with these attributes, copied on write, or null when the table
+     * is built from the fields.
+     */
+    private volatile WeakReference<ManagedType<?>>[] managedTypes;
+
+    private AttributeTable(Class<?> type, ManagedType<?> managedType, Map<String, AttributeDescriptor> attributes) {
+        this.type = type;
+        this.attributes = attributes;
+        this.managedTypes = managedType == null ? null : references(Collections.singletonList(managedType));
+    }
+
+    /**
+     * @param type the type
+     * @return the table of the type, built from its fields if the metamodel was not seen yet
+     */
+    static AttributeTable of(Class<?> type) {
+        AtomicReference<AttributeTable> holder = TABLES.get(type);
+        AttributeTable table = holder.get();
+        if (table == null) {
+            holder.compareAndSet(null, new AttributeTable(type, null, fromFields(type)));
+            table = holder.get();
+        }
+        return table;
+    }
+
+    /**
+     * @param managedType the metamodel of the type
+     * @return the table of the type built from the metamodel, which replaces the one of its class,
+     * and the one of another metamodel only when the attributes differ, so the metamodels of
+     * several persistence units, or of a restarted one, share the resolved paths
+     */
+    static AttributeTable of(ManagedType<?> managedType) {
+        AtomicReference<AttributeTable> holder = TABLES.get(managedType.getJavaType());
+        AttributeTable table = holder.get();
+        if (table != null && table.isOf(managedType)) {
+            return table;
+        }
+        Map<String, AttributeDescriptor> attributes = fromMetamodel(managedType);
+        if (table != null && table.managedTypes != null && sameAttributes(table.attributes, attributes)) {
+            table.add(managedType);
+            return table;
+        }
+        table = new AttributeTable(managedType.getJavaType(), managedType, attributes);
+        holder.set(table);
+        return table;
+    }
+
+    private boolean isOf(ManagedType<?> managedType) {
+        WeakReference<ManagedType<?>>[] current = managedTypes;
+        if (current != null) {
+            for (WeakReference<ManagedType<?>> reference : current) {
+                if (reference.get() == managedType) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Remember another metamodel with the same attributes, forgetting the ones collected.
+     */
+    private synchronized void add(ManagedType<?> managedType) {
+        List<ManagedType<?>> live = new ArrayList<>();
+        for (WeakReference<ManagedType<?>> reference : managedTypes) {
+            ManagedType<?> current = reference.get();
+            if (current != null && current != managedType) {
+                live.add(current);
+            }
+        }
+        live.add(managedType);
+        managedTypes = references(live);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static WeakReference<ManagedType<?>>[] references(List<ManagedType<?>> managedTypes) {
+        WeakReference<ManagedType<?>>[] references = new WeakReference[managedTypes.size()];
+        for (int i = 0; i < references.length; i++) {
+            references[i] = new WeakReference<>(managedTypes.get(i));
+        }
+        return references;
+    }
+
+    /**
+     * @return the table the attribute leads to, built from a metamodel of this table when one is
+     * still in use
+     */
+    private AttributeTable target(AttributeDescriptor attribute) {
+        WeakReference<ManagedType<?>>[] current = managedTypes;
+        if (attribute.isManaged() && current != null) {
+            for (int i = current.length - 1; i >= 0; i--) {
+                ManagedType<?> managedType = current[i].get();
+                if (managedType != null) {
+                    return of((ManagedType<?>) elementType(managedType.getAttribute(attribute.getName())));
+                }
+            }
+        }
+        return attribute.target();
+    }
+
+    /**
+     * @param name name of the attribute
+     * @return the attribute, or null if the type has no such attribute
+     */
+    AttributeDescriptor get(String name) {
+        return attributes.get(name);
+    }
+
+    /**
+     * Resolve a dotted path starting from this type.
+     *
+     * @param path the dotted path
+     * @return the resolved path
+     * @throws RQueryException if any segment of the path does not exist
+     */
+    AttributePath resolve(String path) {
+        AttributePath resolved = paths.get(path);
+        if (resolved == null) {
+            resolved = doResolve(path);
+            if (paths.size() < MAXIMUM_PATHS) {
+                paths.putIfAbsent(path, resolved);
+            }
+        }
+        return resolved;
+    }
+
+    private AttributePath doResolve(String path) {
+        String[] segments = path.split("\\.");
+        AttributeTable table = this;
+        Class<?> owner = type;
+        boolean multivalued = false;
+        for (int i = 0; ; i++) {
+            AttributeDescriptor attribute = table == null ? null : table.get(segments[i]);
+            if (attribute == null) {
+                throw new RQueryException("Unknown attribute '" + segments[i] + "' of " + owner.getSimpleName()
+                        + " in '" + path + "'");
+            }
+            if (i == segments.length - 1) {
+                return new AttributePath(path, segments, owner, attribute, multivalued);
+            }
+            multivalued |= attribute.getType() != attribute.getElementType();
+            table = table.target(attribute);
+            owner = table == null ? attribute.getType() : table.type;
+        }
+    }
+
+    private static boolean sameAttributes(Map<String, AttributeDescriptor> attributes,
+                                          Map<String, AttributeDescriptor> others) {
+        if (attributes.size() != others.size()) {
+            return false;
+        }
+        for (AttributeDescriptor other : others.values()) {
+            AttributeDescriptor attribute = attributes.get(other.getName());
+            if (attribute == null || !attribute.isSameAs(other)) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private static Map<String, AttributeDescriptor> fromMetamodel(ManagedType<?> managedType) {
+        Map<String, AttributeDescriptor> attributes = new HashMap<>();
+        for (Attribute<?, ?> attribute : managedType.getAttributes()) {
+            Type<?> elementType = elementType(attribute);
+            attributes.put(attribute.getName(), new AttributeDescriptor(attribute.getName(), attribute.getJavaType(),
+                    elementType.getJavaType(), elementType instanceof ManagedType, true));
+        }
+        return attributes;
+    }
+
+    private static Type<?> elementType(Attribute<?, ?> attribute) {
+        return attribute instanceof PluralAttribute
+                ? ((PluralAttribute<?, ?, ?>) attribute).getElementType()
+                : ((SingularAttribute<?, ?>) attribute).getType();
+    }
+
+    private static Map<String, AttributeDescriptor> fromFields(Class<?> type) {
+        Map<String, AttributeDescriptor> attributes = new HashMap<>();
+        for (Class<?> clazz : ClassUtils.hierarchy(type)) {
+            for (Field field : clazz.getDeclaredFields()) {
+                attributes.putIfAbsent(field.getName(), new AttributeDescriptor(field.getName(), field.getType(),
+                        elementType(field), false, false));
+            }
+        }
+        return attributes;
+    }
+
+    private static Class<?> elementType(Field field) {
+        Class<?> type = field.getType();
+        if (type.isArray()) {
+            return type.getComponentType();
+        }
+        int argument = Collection.class.isAssignableFrom(type) ? 0 : Map.class.isAssignableFrom(type) ? 1 : -1;
+        if (argument >= 0 && field.getGenericType() instanceof ParameterizedType) {
+            java.lang.reflect.Type elementType = ((ParameterizedType) field.getGenericType()).getActualTypeArguments()[argument];
+            if (elementType instanceof Class) {
+                return (Class<?>) elementType;
+            }
+            if (elementType instanceof ParameterizedType) {
+                return (Class<?>) ((ParameterizedType) elementType).getRawType();
+            }
+        }
+        return type;
+    }
+}
@@ -0,0 +1,105 @@
+package br.com.caiquejh.rquery;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * How often an attribute of an entity was filtered, in an {@link AttributeUsageReport}.
+ *
+ * @author Caique Oliveira
+ */
+public final class AttributeUsage {
+
+    private final Class<?> entityType;
+    private final String path;
+    private final long[] operationCounts;
+    private final long orCount;
+    private final boolean indexed;
+    private final long count;
+    private final long entityCount;
+
+    AttributeUsage(Class<?> entityType, String path, long[] operationCounts, long orCount, boolean indexed,
+                   long entityCount) {
+        this.entityType = entityType;
+        this.path = path;
+        this.operationCounts = operationCounts;
+        this.orCount = orCount;
+        this.indexed = indexed;
+        long count = 0;
+        for (long operationCount : operationCounts) {
+            count += operationCount;
+        }
+        this.count = count;
+        this.entityCount = entityCount;
+    }
+
+    AttributeUsage withEntityCount(long entityCount) {
+        return new AttributeUsage(entityType, path, operationCounts, orCount, indexed, entityCount);
+    }
+
+    /**
+     * @return the entity type of the queries
+     */
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * @return the dotted path of the attribute, after the field mapper
+     */
+    public String getPath() {
+        return path;
+    }
+
+    /**
+     * @return how many comparisons of the attribute were parsed
+     */
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * @return how many comparisons of the attribute were parsed by operator, like {@code =} or
+     * {@code contains}, for the operators used
+     */
+    public Map<String, Long> getOperations() {
+        Map<String, Long> operations = new LinkedHashMap<>();
+        Operation[] values = Operation.values();
+        for (int i = 0; i < operationCounts.length; i++) {
+            if (operationCounts[i] > 0) {
+                operations.put(values[i].symbol(), operationCounts[i]);
+            }
+        }
+        return Collections.unmodifiableMap(operations);
+    }
+
+    /**
+     * @return how many comparisons of the attribute were inside an {@code or}, which an index of
+     * the attribute alone may not serve
+     */
+    public long getOrCount() {
+        return orCount;
+    }
+
+    /**
+     * @return the ratio of the comparisons of the entity that compared this attribute
+     */
+    public double getShare() {
+        return entityCount == 0 ? 0 : (double) count / entityCount;
+    }
+
+    /**
+     * @return whether the mapping declares an index led by the column of the attribute: the
+     * identifier, a unique column or the first column of an {@code @Index} of the table
+     */
+    public boolean isIndexed() {
+        return indexed;
+    }
+
+    @Override
+    public String toString() {
+        return entityType.getSimpleName() + "." + path + " " + getOperations() + " or=" + orCount
+                + (indexed ? " indexed" : " not indexed");
+    }
+}
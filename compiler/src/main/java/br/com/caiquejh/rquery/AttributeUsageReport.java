@@ -0,0 +1,57 @@
+package br.com.caiquejh.rquery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Snapshot of how often each attribute was filtered since the recording was enabled, see
+ * {@link RQuery#setAttributeUsageRecording(boolean)}, to tell which attributes deserve an index.
+ *
+ * @author Caique Oliveira
+ */
+public final class AttributeUsageReport {
+
+    private final List<AttributeUsage> attributes;
+
+    AttributeUsageReport(List<AttributeUsage> attributes) {
+        List<AttributeUsage> sorted = new ArrayList<>(attributes);
+        sorted.sort(Comparator.comparingLong(AttributeUsage::getCount).reversed()
+                .thenComparing(usage -> usage.getEntityType().getName())
+                .thenComparing(AttributeUsage::getPath));
+        this.attributes = Collections.unmodifiableList(sorted);
+    }
+
+    /**
+     * @return the attributes filtered, the most filtered first
+     */
+    public List<AttributeUsage> getAttributes() {
+        return attributes;
+    }
+
+    /**
+     * @param minimumShare the minimum ratio, from 0 to 1, of the comparisons of the entity that
+     *                     compared the attribute
+     * @return the attributes without an index that take at least the share of the comparisons of
+     * their entity, the most filtered first
+     */
+    public List<AttributeUsage> getUnindexed(double minimumShare) {
+        List<AttributeUsage> unindexed = new ArrayList<>();
+        for (AttributeUsage usage : attributes) {
+            if (!usage.isIndexed() && usage.getCount() > 0 && usage.getShare() >= minimumShare) {
+                unindexed.add(usage);
+            }
+        }
+        return Collections.unmodifiableList(unindexed);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder report = new StringBuilder();
+        for (AttributeUsage usage : attributes) {
+            report.append(usage).append('\n');
+        }
+        return report.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package br.com.caiquejh.rquery;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * The counters of how often each attribute is filtered, by operation, when the recording is
+ * enabled with {@link RQueryConfig#withAttributeUsageRecording(boolean)}.
+ *
+ * <p>Each {@link RQueryEngine} counts the queries it compiled, and keeps its counters when it is
+ * reconfigured. The attributes of a compiled query are resolved to their counters once, so
+ * recording a parse only increments a {@link LongAdder} per comparison. The counters of an entity
+ * type are kept in a {@link ClassValue}, and unloaded together with the type.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class AttributeUsages {
+
+    private final Set<Class<?>> types = Collections.synchronizedSet(Collections.newSetFromMap(new WeakHashMap<>()));
+    private final ClassValue<Map<String, Counters>> counters = new ClassValue<Map<String, Counters>>() {
+        @Override
+        protected Map<String, Counters> computeValue(Class<?> type) {
+            types.add(type);
+            return new ConcurrentHashMap<>();
+        }
+    };
+
+    /**
+     * Count the comparisons of the compiled query.
+     *
+     * @param compiled the compiled query, of the engine of these counters
+     */
+    void record(CompiledQuery<?> compiled) {
+        for (Use use : compiled.getUses(this)) {
+            use.counters.operations[use.operation.ordinal()].increment();
+            if (use.inOr) {
+                use.counters.inOr.increment();
+            }
+        }
+    }
+
+    /**
+     * @param entityType the entity type of the query
+     * @param node       the compiled query
+     * @return the comparisons of the query, bound to their counters
+     */
+    Use[] uses(Class<?> entityType, QueryNode node) {
+        List<Use> uses = new ArrayList<>();
+        collect(entityType, node, false, uses);
+        return uses.toArray(new Use[0]);
+    }
+
+    private void collect(Class<?> entityType, QueryNode node, boolean inOr, List<Use> uses) {
+        if (node instanceof LogicalNode) {
+            LogicalNode logical = (LogicalNode) node;
+            for (QueryNode operand : logical.getOperands()) {
+                collect(entityType, operand, inOr || logical.getOperation() == Operation.OR, uses);
+            }
+            return;
+        }
+        ExpressionNode expression = (ExpressionNode) node;
+        AttributePath attribute = expression.getAttribute();
+        Counters counters = this.counters.get(entityType)
+                .computeIfAbsent(attribute.getPath(), path -> new Counters(entityType, attribute));
+        uses.add(new Use(counters, expression.getOperation(), inOr));
+    }
+
+    AttributeUsageReport report() {
+        List<Class<?>> counted;
+        synchronized (types) {
+            counted = new ArrayList<>(types);
+        }
+        List<AttributeUsage> usages = new ArrayList<>();
+        for (Class<?> type : counted) {
+            Map<String, Counters> attributes = counters.get(type);
+            long entityCount = 0;
+            List<AttributeUsage> entityUsages = new ArrayList<>();
+            for (Counters counters : attributes.values()) {
+                AttributeUsage usage = counters.snapshot();
+                entityUsages.add(usage);
+                entityCount += usage.getCount();
+            }
+            for (AttributeUsage usage : entityUsages) {
+                usages.add(usage.withEntityCount(entityCount));
+            }
+        }
+        return new AttributeUsageReport(usages);
+    }
+
+    static final class Use {
+
+        private final Counters counters;
+        private final Operation operation;
+        private final boolean inOr;
+
+        Use(Counters counters, Operation operation, boolean inOr) {
+            this.counters = counters;
+            this.operation = operation;
+            this.inOr = inOr;
+        }
+    }
+
+    private static final class Counters {
+
+        private final Class<?> entityType;
+        private final String path;
+        private final boolean indexed;
+        private final LongAdder[] operations = new LongAdder[Operation.values().length];
+        private final LongAdder inOr = new LongAdder();
+
+        Counters(Class<?> entityType, AttributePath attribute) {
+            this.entityType = entityType;
+            this.path = attribute.getPath();
+            this.indexed = IndexedAttributes.isIndexed(entityType, attribute);
+            for (int i = 0; i < operations.length; i++) {
+                operations[i] = new LongAdder();
+            }
+        }
+
+        AttributeUsage snapshot() {
+            long[] counts = new long[operations.length];
+            for (int i = 0; i < counts.length; i++) {
+                counts[i] = operations[i].sum();
+            }
+            return new AttributeUsage(entityType, path, counts, inOr.sum(), indexed, 0);
+        }
+    }
+}
@@ -0,0 +1,111 @@
+package br.com.caiquejh.rquery;
+
+/**
+ * Snapshot of the counters of a rquery cache.
+ *
+ * @author Caique Oliveira
+ */
+public final class CacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long size;
+    private final long weight;
+    private final long maximumWeight;
+    private final long fallbackCount;
+
+    CacheStats(long hitCount, long missCount, long evictionCount, long size, long weight, long maximumWeight) {
+        this(hitCount, missCount, evictionCount, size, weight, maximumWeight, 0);
+    }
+
+    private CacheStats(long hitCount, long missCount, long evictionCount, long size, long weight, long maximumWeight,
+                       long fallbackCount) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.size = size;
+        this.weight = weight;
+        this.maximumWeight = maximumWeight;
+        this.fallbackCount = fallbackCount;
+    }
+
+    /**
+     * @param fallbackCount how many entries could not be generated
+     * @return a copy of these counters with the fallback count
+     */
+    CacheStats withFallbackCount(long fallbackCount) {
+        return new CacheStats(hitCount, missCount, evictionCount, size, weight, maximumWeight, fallbackCount);
+    }
+
+    /**
+     * @return how many lookups found a cached entry
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return how many lookups had to compile the query
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return how many entries were removed to keep the cache within its maximum weight
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return the number of cached entries
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the sum of the weights of the cached entries
+     */
+    public long getWeight() {
+        return weight;
+    }
+
+    /**
+     * @return the maximum weight of the cache
+     */
+    public long getMaximumWeight() {
+        return maximumWeight;
+    }
+
+    /**
+     * @return how many predicates were interpreted because no class could be generated for them,
+     * always 0 for the compiled query cache
+     */
+    public long getFallbackCount() {
+        return fallbackCount;
+    }
+
+    /**
+     * @return the ratio of lookups that found a cached entry, or 1 when there was no lookup
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "CacheStats{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", size=" + size +
+                ", weight=" + weight +
+                ", maximumWeight=" + maximumWeight +
+                ", fallbackCount=" + fallbackCount +
+                '}';
+    }
+}
@@ -0,0 +1,155 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Filter large collections in memory with a rquery, in parallel on a {@link ForkJoinPool}.
+ *
+ * <p>The input is split into chunks, each one filtered by a task with the predicate of
+ * {@link CompiledQuery#asPredicate()}, and the matches of the chunks are collected without
+ * a shared lock. The result keeps the order of the input unless {@link #withUnordered()} is
+ * used, and {@link #count(List)} skips collecting the matches.</p>
+ *
+ * @param <T> Type of element
+ * @author Caique Oliveira
+ */
+public class CollectionFilter<T> {
+
+    private static final long MINIMUM_CHUNK_SIZE = 1024;
+
+    private final Predicate<T> predicate;
+
+    private ForkJoinPool pool = ForkJoinPool.commonPool();
+    private boolean ordered = true;
+    private long chunkSize;
+
+    private CollectionFilter(Predicate<T> predicate) {
+        this.predicate = predicate;
+    }
+
+    /**
+     * Compile the query string for the element type.
+     *
+     * @param elementType class of the elements
+     * @param query       the rquery
+     * @param <T>         type of element
+     * @return the filter of the query
+     * @throws RQueryException if a syntax or semantic error occurs
+     */
+    public static <T> CollectionFilter<T> of(Class<T> elementType, String query) throws RQueryException {
+        return of(RQuery.compile(elementType, query));
+    }
+
+    /**
+     * Create from an already compiled query.
+     *
+     * @param compiledQuery the compiled query
+     * @param <T>           type of element
+     * @return the filter of the query
+     */
+    public static <T> CollectionFilter<T> of(CompiledQuery<T> compiledQuery) {
+        return new CollectionFilter<>(requireNonNull(compiledQuery, "Compiled query cannot be null").asPredicate());
+    }
+
+    /**
+     * Run the tasks on the pool, instead of the common pool.
+     *
+     * @param pool the fork-join pool
+     * @return the instance this
+     */
+    public CollectionFilter<T> withPool(ForkJoinPool pool) {
+        this.pool = requireNonNull(pool, "Pool cannot be null");
+        return this;
+    }
+
+    /**
+     * Collect the matches in the order the chunks complete, instead of the order of the input.
+     *
+     * @return the instance this
+     */
+    public CollectionFilter<T> withUnordered() {
+        this.ordered = false;
+        return this;
+    }
+
+    /**
+     * Choose the maximum number of elements filtered by one task. By default, the input is
+     * split in four chunks for each thread of the pool, of at least {@value #MINIMUM_CHUNK_SIZE} elements.
+     *
+     * @param chunkSize the maximum size of a chunk
+     * @return the instance this
+     */
+    public CollectionFilter<T> withChunkSize(long chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        this.chunkSize = chunkSize;
+        return this;
+    }
+
+    /**
+     * @param elements the elements
+     * @return the elements matching the query
+     */
+    public List<T> filter(List<T> elements) {
+        return filter(requireNonNull(elements, "Elements cannot be null").spliterator());
+    }
+
+    /**
+     * @param elements the elements, which must not be used after
+     * @return the elements matching the query
+     */
+    public List<T> filter(Spliterator<T> elements) {
+        requireNonNull(elements, "Elements cannot be null");
+        Queue<List<T>> unordered = ordered ? null : new ConcurrentLinkedQueue<>();
+        FilterTask<T> task = new FilterTask<>(elements, predicate, threshold(elements), unordered, false);
+        pool.invoke(task);
+        List<T> matches = new ArrayList<>((int) task.size());
+        if (unordered == null) {
+            task.drainTo(matches);
+        } else {
+            unordered.forEach(matches::addAll);
+        }
+        return matches;
+    }
+
+    /**
+     * @param elements the elements
+     * @return the number of elements matching the query
+     */
+    public long count(List<T> elements) {
+        return count(requireNonNull(elements, "Elements cannot be null").spliterator());
+    }
+
+    /**
+     * @param elements the elements, which must not be used after
+     * @return the number of elements matching the query
+     */
+    public long count(Spliterator<T> elements) {
+        requireNonNull(elements, "Elements cannot be null");
+        FilterTask<T> task = new FilterTask<>(elements, predicate, threshold(elements), null, true);
+        pool.invoke(task);
+        return task.size();
+    }
+
+    private long threshold(Spliterator<T> elements) {
+        if (chunkSize > 0) {
+            return chunkSize;
+        }
+        long size = elements.estimateSize();
+        if (size == Long.MAX_VALUE) {
+            return MINIMUM_CHUNK_SIZE;
+        }
+        return Math.max(size / (pool.getParallelism() * 4L), MINIMUM_CHUNK_SIZE);
+    }
+}
@@ -0,0 +1,341 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+import org.apache.commons.lang3.ClassUtils;
+
+import javax.persistence.AttributeOverride;
+import javax.persistence.AttributeOverrides;
+import javax.persistence.Column;
+import javax.persistence.ElementCollection;
+import javax.persistence.Embeddable;
+import javax.persistence.Embedded;
+import javax.persistence.EmbeddedId;
+import javax.persistence.EnumType;
+import javax.persistence.Enumerated;
+import javax.persistence.Id;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToMany;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToMany;
+import javax.persistence.OneToOne;
+import javax.persistence.Temporal;
+import javax.persistence.TemporalType;
+import javax.persistence.Transient;
+import java.lang.reflect.Field;
+import java.lang.reflect.Modifier;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The columns of the attributes of an entity, for the SQL written by
+ * {@link CompiledQuery#toSql(SqlDialect, ColumnMapping)}.
+ *
+ * <p>{@link #of(Class)} reads the mapping annotations of the fields of the entity and of its
+ * super classes: the {@link Column} of each attribute, the attributes of its {@link Embedded}
+ * values with their {@link AttributeOverride}s, and the {@link JoinColumn} of each
+ * {@link ManyToOne} and {@link OneToOne}, as the column of the identifier of the association,
+ * like {@code author.id}. The other paths of an association need the join to be written by the
+ * caller and their column to be given with {@link #withColumn(String, String)}.</p>
+ *
+ * <p>A mapping is immutable: each {@code with} method returns a copy with the change.</p>
+ *
+ * <pre>{@code
+ * ColumnMapping columns = ColumnMapping.of(Post.class).withAlias("p").withColumn("author.name", "a.name");
+ * }</pre>
+ *
+ * @author Caique Oliveira
+ */
+public final class ColumnMapping {
+
+    private static final UnaryOperator<String> SNAKE_CASE = ColumnMapping::toSnakeCase;
+
+    private final Class<?> entityType;
+    private final Map<String, MappedColumn> mapped;
+    private final String idPath;
+    private final Map<String, String> explicit;
+    private final UnaryOperator<String> naming;
+    private final String alias;
+
+    private ColumnMapping(Class<?> entityType, Map<String, MappedColumn> mapped, String idPath,
+                          Map<String, String> explicit, UnaryOperator<String> naming, String alias) {
+        this.entityType = entityType;
+        this.mapped = mapped;
+        this.idPath = idPath;
+        this.explicit = explicit;
+        this.naming = naming;
+        this.alias = alias;
+    }
+
+    /**
+     * Read the columns of the entity from its mapping annotations, named like JPA names them by
+     * default, the column of the annotation or else the name of the attribute.
+     *
+     * @param entityType class of the entity
+     * @return the mapping of the entity
+     */
+    public static ColumnMapping of(Class<?> entityType) {
+        requireNonNull(entityType, "Entity type cannot be null");
+        Map<String, MappedColumn> mapped = new LinkedHashMap<>();
+        String idPath = scan(entityType, "", Collections.emptyMap(), mapped);
+        return new ColumnMapping(entityType, Collections.unmodifiableMap(mapped), idPath, Collections.emptyMap(),
+                UnaryOperator.identity(), null);
+    }
+
+    /**
+     * @return the naming of Spring Boot, which writes {@code lastName} as {@code last_name}
+     */
+    public static UnaryOperator<String> snakeCase() {
+        return SNAKE_CASE;
+    }
+
+    /**
+     * Name the columns read from the annotations as the physical naming strategy of the
+     * provider does, like {@link #snakeCase()}.
+     *
+     * @param naming the naming of the columns
+     * @return a copy with the naming
+     */
+    public ColumnMapping withNaming(UnaryOperator<String> naming) {
+        return new ColumnMapping(entityType, mapped, idPath, explicit,
+                requireNonNull(naming, "Naming cannot be null"), alias);
+    }
+
+    /**
+     * Qualify the columns read from the annotations with the alias of the table in the statement.
+     *
+     * @param alias the alias of the table of the entity
+     * @return a copy with the alias
+     */
+    public ColumnMapping withAlias(String alias) {
+        return new ColumnMapping(entityType, mapped, idPath, explicit, naming,
+                requireNonNull(alias, "Alias cannot be null"));
+    }
+
+    /**
+     * Write an attribute path as the SQL expression, used as it is, instead of its column.
+     *
+     * @param path   the attribute path, after the field mapper is applied
+     * @param column the column, qualified by the alias of its table when needed
+     * @return a copy with the column
+     */
+    public ColumnMapping withColumn(String path, String column) {
+        Map<String, String> changed = new HashMap<>(explicit);
+        changed.put(requireNonNull(path, "Path cannot be null"), requireNonNull(column, "Column cannot be null"));
+        return new ColumnMapping(entityType, mapped, idPath, Collections.unmodifiableMap(changed), naming, alias);
+    }
+
+    /**
+     * @return the entity type of this mapping
+     */
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * @return the attribute paths read from the annotations, in the order of the fields, like
+     * {@code address.city} for an embedded value and {@code author.id} for an association
+     */
+    public Set<String> getPaths() {
+        return mapped.keySet();
+    }
+
+    /**
+     * @param path the attribute path
+     * @return the column of the path, qualified by the alias
+     * @throws RQueryException if the path has no column
+     */
+    public String getColumn(String path) {
+        String column = explicit.get(path);
+        if (column != null) {
+            return column;
+        }
+        MappedColumn mappedColumn = mapped.get(path);
+        if (mappedColumn == null) {
+            throw new RQueryException("No column for '" + path + "' of " + entityType.getSimpleName()
+                    + " - join its table and map it with withColumn");
+        }
+        String name = naming.apply(mappedColumn.name);
+        return alias == null ? name : alias + "." + name;
+    }
+
+    /**
+     * @return the column of the identifier of the entity
+     * @throws RQueryException if the entity has no single identifier
+     */
+    String getIdColumn() {
+        if (idPath == null) {
+            throw new RQueryException(entityType.getSimpleName() + " has no single identifier");
+        }
+        return getColumn(idPath);
+    }
+
+    /**
+     * @return the class of the identifier of the entity
+     * @throws RQueryException if the entity has no single identifier
+     */
+    Class<?> getIdType() {
+        if (idPath == null) {
+            throw new RQueryException(entityType.getSimpleName() + " has no single identifier");
+        }
+        return mapped.get(idPath).type;
+    }
+
+    /**
+     * @return how the enumeration of the path is stored, {@link EnumType#ORDINAL} unless annotated
+     */
+    EnumType getEnumType(String path) {
+        MappedColumn mappedColumn = mapped.get(path);
+        return mappedColumn == null ? EnumType.ORDINAL : mappedColumn.enumType;
+    }
+
+    /**
+     * @return the temporal type of the {@link java.util.Date} of the path, a timestamp unless annotated
+     */
+    TemporalType getTemporalType(String path) {
+        MappedColumn mappedColumn = mapped.get(path);
+        return mappedColumn == null ? TemporalType.TIMESTAMP : mappedColumn.temporalType;
+    }
+
+    /**
+     * Collect the columns of the fields of the type.
+     *
+     * @return the path of the identifier, or null when the type has none or many
+     */
+    private static String scan(Class<?> type, String prefix, Map<String, String> overrides,
+                               Map<String, MappedColumn> mapped) {
+        String idPath = null;
+        int ids = 0;
+        for (Class<?> clazz : ClassUtils.hierarchy(type)) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (Modifier.isStatic(field.getModifiers()) || Modifier.isTransient(field.getModifiers())
+                        || field.isAnnotationPresent(Transient.class) || field.isSynthetic()) {
+                    continue;
+                }
+                String name = field.getName();
+                if (field.isAnnotationPresent(Id.class)) {
+                    idPath = prefix + name;
+                    ids++;
+                } else if (field.isAnnotationPresent(EmbeddedId.class)) {
+                    ids += 2;
+                }
+                if (field.isAnnotationPresent(OneToMany.class) || field.isAnnotationPresent(ManyToMany.class)
+                        || field.isAnnotationPresent(ElementCollection.class)) {
+                    continue;
+                }
+                if (field.isAnnotationPresent(ManyToOne.class) || field.isAnnotationPresent(OneToOne.class)) {
+                    association(field, prefix, mapped);
+                } else if (field.isAnnotationPresent(Embedded.class) || field.isAnnotationPresent(EmbeddedId.class)
+                        || field.getType().isAnnotationPresent(Embeddable.class)) {
+                    scan(field.getType(), prefix + name + ".", overrides(field, prefix + name + "."), mapped);
+                } else {
+                    Column column = field.getAnnotation(Column.class);
+                    String columnName = overrides.get(name);
+                    if (columnName == null) {
+                        columnName = column == null || column.name().isEmpty() ? name : column.name();
+                    }
+                    mapped.put(prefix + name, new MappedColumn(columnName, field));
+                }
+            }
+        }
+        return ids == 1 ? idPath : null;
+    }
+
+    /**
+     * Map the identifier of the association to its join column.
+     */
+    private static void association(Field field, String prefix, Map<String, MappedColumn> mapped) {
+        OneToOne oneToOne = field.getAnnotation(OneToOne.class);
+        if (oneToOne != null && !oneToOne.mappedBy().isEmpty()) {
+            return;
+        }
+        Field targetId = idField(field.getType());
+        if (targetId == null) {
+            return;
+        }
+        Column idColumn = targetId.getAnnotation(Column.class);
+        JoinColumn joinColumn = field.getAnnotation(JoinColumn.class);
+        String columnName;
+        if (joinColumn != null && !joinColumn.name().isEmpty()) {
+            columnName = joinColumn.name();
+        } else if (idColumn != null && !idColumn.name().isEmpty()) {
+            columnName = field.getName() + "_" + idColumn.name();
+        } else {
+            columnName = field.getName() + "_" + targetId.getName();
+        }
+        mapped.put(prefix + field.getName() + "." + targetId.getName(), new MappedColumn(columnName, targetId));
+    }
+
+    /**
+     * @return the single {@link Id} field of the type, or null
+     */
+    private static Field idField(Class<?> type) {
+        Field id = null;
+        for (Class<?> clazz : ClassUtils.hierarchy(type)) {
+            for (Field field : clazz.getDeclaredFields()) {
+                if (field.isAnnotationPresent(EmbeddedId.class) || field.isAnnotationPresent(Id.class) && id != null) {
+                    return null;
+                }
+                if (field.isAnnotationPresent(Id.class)) {
+                    id = field;
+                }
+            }
+        }
+        return id;
+    }
+
+    private static Map<String, String> overrides(Field field, String prefix) {
+        Map<String, String> overrides = new HashMap<>();
+        AttributeOverrides many = field.getAnnotation(AttributeOverrides.class);
+        AttributeOverride one = field.getAnnotation(AttributeOverride.class);
+        for (AttributeOverride override : many == null ? new AttributeOverride[0] : many.value()) {
+            overrides.put(override.name(), override.column().name());
+        }
+        if (one != null) {
+            overrides.put(one.name(), one.column().name());
+        }
+        return overrides;
+    }
+
+    private static String toSnakeCase(String name) {
+        StringBuilder snake = new StringBuilder(name.length() + 4);
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (c == '.') {
+                snake.append('_');
+            } else if (Character.isUpperCase(c) && i > 0 && !Character.isUpperCase(name.charAt(i - 1))
+                    && name.charAt(i - 1) != '_') {
+                snake.append('_').append(Character.toLowerCase(c));
+            } else {
+                snake.append(Character.toLowerCase(c));
+            }
+        }
+        return snake.toString();
+    }
+
+    /**
+     * A column read from the annotations, with how its values are stored.
+     */
+    private static final class MappedColumn {
+
+        private final String name;
+        private final Class<?> type;
+        private final EnumType enumType;
+        private final TemporalType temporalType;
+
+        MappedColumn(String name, Field field) {
+            Enumerated enumerated = field.getAnnotation(Enumerated.class);
+            Temporal temporal = field.getAnnotation(Temporal.class);
+            this.name = name;
+            this.type = field.getType();
+            this.enumType = enumerated == null ? EnumType.ORDINAL : enumerated.value();
+            this.temporalType = temporal == null ? TemporalType.TIMESTAMP : temporal.value();
+        }
+
+    }
+}
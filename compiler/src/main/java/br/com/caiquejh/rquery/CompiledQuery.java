@@ -0,0 +1,220 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * An immutable, already parsed rquery for an entity type.
+ *
+ * <p>The attributes are resolved and the literals are converted on compilation, so
+ * the same instance can be replayed onto any number of queries, from any thread. It can
+ * also be evaluated in memory, over objects of the entity type, with {@link #asPredicate()}.</p>
+ *
+ * @param <T> Type of entity
+ * @author Caique Oliveira
+ */
+public final class CompiledQuery<T> {
+
+    private final Class<T> entityType;
+    private final String query;
+    private final QueryNode node;
+    private final RQueryConfig config;
+    private final PredicateClassGenerator generator;
+
+    private volatile java.util.function.Predicate<Object> interpreted;
+    private volatile Set<Class<?>> referencedTypes;
+    private volatile AttributeUsages.Use[] uses;
+    private volatile SqlWhere sql;
+
+    CompiledQuery(Class<T> entityType, String query, QueryNode node) {
+        this(entityType, query, node, RQueryConfig.defaults(), null);
+    }
+
+    /**
+     * @param entityType class of the entity
+     * @param query      the source rquery
+     * @param node       the compiled query
+     * @param config     the configuration the query is replayed with
+     * @param generator  the generator of the predicate classes, or null to interpret the query in memory
+     */
+    CompiledQuery(Class<T> entityType, String query, QueryNode node, RQueryConfig config,
+                  PredicateClassGenerator generator) {
+        this.entityType = entityType;
+        this.query = query;
+        this.node = node;
+        this.config = config;
+        this.generator = generator;
+    }
+
+    /**
+     * Build the {@link Predicate} of this query for the root.
+     *
+     * @param root the root type
+     * @param cb   the criteria builder
+     * @return a Predicate to filter the data
+     */
+    public Predicate toPredicate(Root<T> root, CriteriaBuilder cb) {
+        return toPredicate(JoinContext.of(root), cb);
+    }
+
+    /**
+     * Build the {@link Predicate} of this query for the root of the join context, reusing
+     * its joins.
+     *
+     * @param joins the join context of the root
+     * @param cb    the criteria builder
+     * @return a Predicate to filter the data
+     */
+    public Predicate toPredicate(JoinContext joins, CriteriaBuilder cb) {
+        return node.accept(new CriteriaQueryNodeVisitor(requireNonNull(cb, "Criteria builder cannot be null"),
+                requireNonNull(joins, "Join context cannot be null"), config));
+    }
+
+    /**
+     * Build the {@link Predicate} of this query for the root of the join context, with every
+     * literal bound as a parameter instead of written into the statement.
+     *
+     * @param joins the join context of the root
+     * @param cb    the criteria builder
+     * @return the predicate and the values of its parameters, to be bound to the query
+     */
+    public ParameterizedPredicate toParameterizedPredicate(JoinContext joins, CriteriaBuilder cb) {
+        ParameterizedCriteriaQueryNodeVisitor visitor = new ParameterizedCriteriaQueryNodeVisitor(
+                requireNonNull(cb, "Criteria builder cannot be null"), requireNonNull(joins, "Join context cannot be null"),
+                config);
+        return new ParameterizedPredicate(node.accept(visitor), visitor.getBindings());
+    }
+
+    /**
+     * Write this query as the condition of a SQL {@code where}, to be run with JDBC instead of a
+     * criteria query. The condition is written once for the dialect and the mapping, and kept
+     * until this query is written for another one.
+     *
+     * @param dialect the SQL dialect of the database
+     * @param columns the columns of the entity type
+     * @return the condition and the values of its placeholders
+     * @throws RQueryException if an attribute of the query has no column
+     * @throws IllegalArgumentException if the mapping is of another entity type
+     */
+    public SqlWhere toSql(SqlDialect dialect, ColumnMapping columns) {
+        requireNonNull(dialect, "Dialect cannot be null");
+        requireNonNull(columns, "Column mapping cannot be null");
+        if (columns.getEntityType() != entityType) {
+            throw new IllegalArgumentException("Column mapping is of another entity type");
+        }
+        SqlWhere current = sql;
+        if (current == null || current.getDialect() != dialect || current.getColumns() != columns) {
+            sql = current = SqlQueryNodeVisitor.write(node, dialect, columns, config);
+        }
+        return current;
+    }
+
+    /**
+     * Evaluate this query in memory, over objects of the entity type, instead of in the
+     * database. The attributes are read by their getters, or by their fields when there is no
+     * getter, and the predicate can be used from any thread.
+     *
+     * <p>When the predicate classes are generated, see {@link RQueryConfig#withPredicateClassGeneration(boolean)},
+     * the predicate is an instance of a class dedicated to this query, which should be kept
+     * instead of asked for on each evaluation.</p>
+     *
+     * @return the predicate of the objects matching this query
+     * @throws RQueryException if an attribute of the query cannot be read
+     */
+    @SuppressWarnings("unchecked")
+    public java.util.function.Predicate<T> asPredicate() {
+        if (generator != null && config.isPredicateClassGeneration() && PredicateClassGenerator.isAvailable()) {
+            return (java.util.function.Predicate<T>) generator.get(entityType, node, config.getStringMatching(),
+                    this::interpret);
+        }
+        return (java.util.function.Predicate<T>) interpret(node);
+    }
+
+    private java.util.function.Predicate<Object> interpret(QueryNode node) {
+        java.util.function.Predicate<Object> current = interpreted;
+        if (current == null) {
+            interpreted = current = InMemoryQueryNodeVisitor.of(entityType, node, config.getStringMatching());
+        }
+        return current;
+    }
+
+    /**
+     * @return the entity type this query was compiled for
+     */
+    public Class<T> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * The types whose changes can change the result of this query: the entity type, and the
+     * types reached by the joins of its attributes, like {@code Author} for {@code author.name}.
+     *
+     * @return the referenced types, the entity type first
+     */
+    public Set<Class<?>> getReferencedTypes() {
+        Set<Class<?>> types = referencedTypes;
+        if (types == null) {
+            Set<Class<?>> collected = new LinkedHashSet<>();
+            collected.add(entityType);
+            collectReferencedTypes(node, collected);
+            referencedTypes = types = Collections.unmodifiableSet(collected);
+        }
+        return types;
+    }
+
+    private void collectReferencedTypes(QueryNode node, Set<Class<?>> types) {
+        if (node instanceof LogicalNode) {
+            for (QueryNode operand : ((LogicalNode) node).getOperands()) {
+                collectReferencedTypes(operand, types);
+            }
+            return;
+        }
+        AttributePath attribute = ((ExpressionNode) node).getAttribute();
+        for (int i = 0; i < attribute.getJoinCount(); i++) {
+            types.add(AttributePath.resolve(entityType, attribute.getJoinPath(i)).getLeaf().getElementType());
+        }
+    }
+
+    /**
+     * @return the source rquery
+     */
+    public String getQuery() {
+        return query;
+    }
+
+    QueryNode getNode() {
+        return node;
+    }
+
+    /**
+     * @return the configuration of the engine that compiled this query
+     */
+    RQueryConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * @param usages the counters of the engine that compiled this query
+     * @return the comparisons of this query, bound to the counters of their attributes
+     */
+    AttributeUsages.Use[] getUses(AttributeUsages usages) {
+        AttributeUsages.Use[] current = uses;
+        if (current == null) {
+            uses = current = usages.uses(entityType, node);
+        }
+        return current;
+    }
+
+    @Override
+    public String toString() {
+        return node.toString();
+    }
+}
@@ -0,0 +1,134 @@
+package br.com.caiquejh.rquery;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.util.List;
+
+/**
+ * Replay a compiled query onto the root of a {@link JoinContext} and a {@link CriteriaBuilder},
+ * with the options of the {@link RQueryConfig} it was compiled with.
+ *
+ * @author Caique Oliveira
+ */
+class CriteriaQueryNodeVisitor implements QueryNodeVisitor<Predicate> {
+
+    private final CriteriaBuilder builder;
+    private final JoinContext joins;
+    private final RQueryConfig config;
+
+    CriteriaQueryNodeVisitor(CriteriaBuilder builder, JoinContext joins, RQueryConfig config) {
+        this.builder = builder;
+        this.joins = joins;
+        this.config = config;
+    }
+
+    @Override
+    public Predicate visitLogical(LogicalNode node) {
+        List<QueryNode> operands = node.getOperands();
+        Predicate[] predicates = new Predicate[operands.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = operands.get(i).accept(this);
+        }
+        return node.getOperation() == Operation.AND ? builder.and(predicates) : builder.or(predicates);
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Predicate visitExpression(ExpressionNode node) {
+        Path attribute = path(node.getAttribute());
+        List<Object> values = node.getValues();
+        switch (node.getOperation()) {
+            case EQUAL:
+                return builder.equal(attribute, node.getValue());
+            case NOT_EQUAL:
+                return builder.notEqual(attribute, node.getValue());
+            case GREATER_THAN:
+                return builder.greaterThan(attribute, (Comparable) node.getValue());
+            case GREATER_EQUAL_THAN:
+                return builder.greaterThanOrEqualTo(attribute, (Comparable) node.getValue());
+            case LESS_THAN:
+                return builder.lessThan(attribute, (Comparable) node.getValue());
+            case LESS_EQUAL_THAN:
+                return builder.lessThanOrEqualTo(attribute, (Comparable) node.getValue());
+            case IS_TRUE:
+                return builder.isTrue(attribute);
+            case IS_FALSE:
+                return builder.isFalse(attribute);
+            case IS_NULL:
+                return builder.isNull(attribute);
+            case IS_NOT_NULL:
+                return builder.isNotNull(attribute);
+            case CONTAINS:
+            case STARTS:
+            case NOT_CONTAINS:
+            case NOT_STARTS:
+                return match(node, attribute);
+            case MATCHES:
+            case NOT_MATCHES:
+                return config.isFullTextEnabled() ? fullText(node, attribute) : match(node, attribute);
+            case IN:
+                return in(attribute, values);
+            case NOT_IN:
+                return builder.not(in(attribute, values));
+            case BETWEEN:
+                return builder.between(attribute, (Comparable) values.get(0), (Comparable) values.get(1));
+            default:
+                throw new IllegalStateException("Unexpected operation: " + node.getOperation());
+        }
+    }
+
+    /**
+     * @return the {@code like} of the string operation, as the {@link StringMatchStrategy} of the attribute says
+     */
+    Predicate match(ExpressionNode node, Path<?> attribute) {
+        Expression<String> operand = config.getStringMatching().of(node.getAttribute()).operand(builder, attribute);
+        Expression<String> pattern = string(StringMatching.pattern(node.getOperation(), (String) node.getValue()));
+        Operation operation = node.getOperation();
+        return operation == Operation.CONTAINS || operation == Operation.STARTS || operation == Operation.MATCHES
+                ? builder.like(operand, pattern, StringMatching.ESCAPE)
+                : builder.notLike(operand, pattern, StringMatching.ESCAPE);
+    }
+
+    /**
+     * @return the full-text search of the needle, as the {@link FullTextDialect} says
+     */
+    Predicate fullText(ExpressionNode node, Path<?> attribute) {
+        String value = (String) node.getValue();
+        Predicate matches = config.getFullTextDialect().matches(builder, attribute, string(value), value);
+        return node.getOperation() == Operation.MATCHES ? matches : builder.not(matches);
+    }
+
+    Expression<String> string(String value) {
+        return builder.literal(value);
+    }
+
+    /**
+     * @return the predicate of the attribute in the values, in chunks when the list is large
+     */
+    Predicate in(Path<?> attribute, List<Object> values) {
+        List<List<Object>> chunks = config.getInLists().chunks(values);
+        if (chunks.size() == 1) {
+            return inChunk(attribute, values);
+        }
+        Predicate[] predicates = new Predicate[chunks.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = inChunk(attribute, chunks.get(i));
+        }
+        return builder.or(predicates);
+    }
+
+    Predicate inChunk(Path<?> attribute, List<Object> values) {
+        return attribute.in(values);
+    }
+
+    Path<?> path(AttributePath attribute) {
+        From<?, ?> from = joins.getRoot();
+        for (int i = 0; i < attribute.getJoinCount(); i++) {
+            from = joins.join(from, attribute.getJoinPath(i), attribute.getJoinName(i));
+        }
+        return from.get(attribute.getName());
+    }
+}
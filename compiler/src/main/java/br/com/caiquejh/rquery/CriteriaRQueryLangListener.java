@@ -1,268 +1,168 @@
 package br.com.caiquejh.rquery;
 
 import org.antlr.v4.runtime.ParserRuleContext;
+import org.antlr.v4.runtime.Token;
+import org.antlr.v4.runtime.misc.Interval;
 import org.antlr.v4.runtime.tree.ParseTree;
-
-import javax.persistence.criteria.CriteriaBuilder;
-import javax.persistence.criteria.From;
-import javax.persistence.criteria.Predicate;
-import javax.persistence.criteria.Root;
-import java.util.*;
-import java.util.function.UnaryOperator;
-import java.util.stream.Collectors;
-
-class CriteriaRQueryLangListener<T> extends RQueryLangBaseListener {
-
-    private final CriteriaBuilder builder;
-
-    private final UnaryOperator<String> mapField;
-    private final Map<String, From<?, ?>> mappedFrom = new LinkedHashMap<>();
-
-    private From<?, ?> from;
-
-    private String attribute;
-    private Object value;
-    private List<Object> list;
-
+import org.antlr.v4.runtime.tree.TerminalNode;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Build the compiled query while the generated parser parses it.
+ *
+ * <p>Operators are found from the token types, and the text of the input is only read for
+ * attributes and literals. The logical operators have no precedence, so expressions and
+ * terms are combined as soon as they end, and only the literals of the current expression
+ * are kept, in an array reused across expressions.</p>
+ *
+ * @author Caique Oliveira
+ */
+class CriteriaRQueryLangListener extends RQueryLangBaseListener {
+
+    private final QueryNodeFactory factory;
+
+    private AttributePath attribute;
     private Operation operation;
-    private List<Operation> termLogicalOperators;
-    private List<Operation> queryLogicalOperators;
+    private Object[] values = new Object[2];
+    private int valueCount;
 
-    private Deque<Predicate> terms;
-    private Deque<Predicate> expressions;
-    private Predicate termsResult;
-    private Predicate expressionsResult;
-    private Predicate currentPredicate;
+    private QueryNode term;
+    private Operation termOperator;
+    private QueryNode query;
+    private Operation queryOperator;
 
-    public CriteriaRQueryLangListener(CriteriaBuilder builder, Root<T> root, UnaryOperator<String> mapField) {
-        this.builder = builder;
-        this.from = root;
-        this.mapField = mapField;
-        this.mappedFrom.put(".", root);
+    CriteriaRQueryLangListener(QueryNodeFactory factory) {
+        this.factory = factory;
     }
 
     @Override
     public void enterQuery(RQueryLangParser.QueryContext ctx) {
-        terms = new LinkedList<>();
-        expressions = new LinkedList<>();
-        list = new LinkedList<>();
-        termLogicalOperators = new LinkedList<>();
-        queryLogicalOperators = new LinkedList<>();
+        term = null;
+        termOperator = null;
+        query = null;
+        queryOperator = null;
+    }
+
+    @Override
+    public void enterExpression(RQueryLangParser.ExpressionContext ctx) {
+        valueCount = 0;
     }
 
     @Override
     public void exitAttribute(RQueryLangParser.AttributeContext ctx) {
-        String text = ctx.getText();
-        text = mapField.apply(text);
-        if (text.contains(".")) {
-            int lastDotIndex = text.lastIndexOf('.');
-            this.attribute = text.substring(lastDotIndex + 1);
-            String[] attrs = text.split("\\.");
-            StringBuilder acc = new StringBuilder(attrs[0]);
-            for (int i = 1; i < attrs.length; i++) {
-                String attr = attrs[i - 1];
-                from = mappedFrom.computeIfAbsent(acc.toString(),
-                        key -> mappedFrom.get(getJoinEntity(key)).join(attr));
-                acc.append('.').append(attrs[i]);
-            }
-        } else {
-            this.attribute = text;
-        }
+        attribute = factory.attribute(attributeText(ctx));
     }
 
-    private String getJoinEntity(String key) {
-        String[] split = key.split("\\.");
-        return split.length <= 1 ? "." : split[split.length - 2];
+    /**
+     * Read the attribute from the input at once, instead of joining the text of its tokens.
+     */
+    private static String attributeText(RQueryLangParser.AttributeContext ctx) {
+        if (ctx.stop == ctx.start) {
+            return ctx.start.getText();
+        }
+        boolean contiguous = true;
+        int end = ctx.start.getStartIndex();
+        for (int i = 0; i < ctx.getChildCount(); i++) {
+            Token token = ((TerminalNode) ctx.getChild(i)).getSymbol();
+            contiguous &= token.getStartIndex() == end;
+            end = token.getStopIndex() + 1;
+        }
+        String text = ctx.start.getInputStream().getText(Interval.of(ctx.start.getStartIndex(), ctx.stop.getStopIndex()));
+        return contiguous ? text : text.replaceAll("\\s", "");
     }
 
     @Override
     public void exitValue(RQueryLangParser.ValueContext ctx) {
-        if (ctx.STRING() != null) {
-            value = ValueConverter.convert(from.getJavaType(), attribute, parseString(ctx.STRING().getText()));
-        } else if (ctx.NUMBER() != null) {
-            value = ValueConverter.convert(from.getJavaType(), attribute, ctx.NUMBER().getText());
+        String text = ctx.start.getType() == RQueryLangParser.STRING ? stringContent(ctx.start) : ctx.start.getText();
+        if (valueCount == values.length) {
+            values = Arrays.copyOf(values, valueCount * 2);
         }
-        list.add(value);
-    }
-
-    private String parseString(String text) {
-        return text.substring(1, text.length() - 1);
+        values[valueCount++] = factory.literal(attribute, text);
     }
 
-    @Override
-    public void enterList(RQueryLangParser.ListContext ctx) {
-        list.clear();
+    private static String stringContent(Token token) {
+        return token.getInputStream().getText(Interval.of(token.getStartIndex() + 1, token.getStopIndex() - 1));
     }
 
     @Override
     public void exitOp_relational(RQueryLangParser.Op_relationalContext ctx) {
-        operation = Operation.fromToken(ctx.getText().trim());
+        operation = operation(ctx);
     }
 
     @Override
     public void exitOp_bool(RQueryLangParser.Op_boolContext ctx) {
-        operation = extractOperation(ctx);
+        operation = operation(ctx);
     }
 
     @Override
     public void exitOp_string(RQueryLangParser.Op_stringContext ctx) {
-        operation = extractOperation(ctx);
+        operation = operation(ctx);
     }
 
     @Override
     public void exitOp_list(RQueryLangParser.Op_listContext ctx) {
-        operation = extractOperation(ctx);
+        operation = operation(ctx);
     }
 
     @Override
     public void exitOp_between(RQueryLangParser.Op_betweenContext ctx) {
-        operation = Operation.fromToken(ctx.getText().trim());
+        operation = operation(ctx);
     }
 
     @Override
     public void exitOp_logical(RQueryLangParser.Op_logicalContext ctx) {
         if (ctx.parent instanceof RQueryLangParser.TermContext) {
-            termLogicalOperators.add(Operation.fromToken(ctx.getText().trim()));
+            termOperator = operation(ctx);
         } else if (ctx.parent instanceof RQueryLangParser.QueryContext) {
-            queryLogicalOperators.add(Operation.fromToken(ctx.getText().trim()));
+            queryOperator = operation(ctx);
         }
     }
 
-    private Operation extractOperation(ParserRuleContext ctx) {
-        return Operation.fromToken(ctx.children.stream()
-                .map(ParseTree::getText)
-                .collect(Collectors.joining(" ")));
+    private static Operation operation(ParserRuleContext ctx) {
+        ParseTree second = ctx.getChildCount() > 1 ? ctx.getChild(1) : null;
+        return Operation.fromTokenTypes(ctx.start.getType(),
+                second instanceof TerminalNode ? ((TerminalNode) second).getSymbol().getType() : Token.INVALID_TYPE);
     }
 
     @Override
-    @SuppressWarnings({"rawtypes", "unchecked"})
     public void exitExpression(RQueryLangParser.ExpressionContext ctx) {
-        String string = null;
-        if (ctx.STRING() != null) {
-            string = parseString(ctx.STRING().getText()).toUpperCase();
-        }
         switch (operation) {
-            case EQUAL:
-                currentPredicate = builder.equal(from.get(attribute), value);
-                break;
-            case NOT_EQUAL:
-                currentPredicate = builder.notEqual(from.get(attribute), value);
-                break;
-            case GREATER_THAN:
-                currentPredicate = builder.greaterThan(from.get(attribute), (Comparable) value);
-                break;
-            case GREATER_EQUAL_THAN:
-                currentPredicate = builder.greaterThanOrEqualTo(from.get(attribute), (Comparable) value);
-                break;
-            case LESS_THAN:
-                currentPredicate = builder.lessThan(from.get(attribute), (Comparable) value);
-                break;
-            case LESS_EQUAL_THAN:
-                currentPredicate = builder.lessThanOrEqualTo(from.get(attribute), (Comparable) value);
-                break;
-            case IS_TRUE:
-                currentPredicate = builder.isTrue(from.get(attribute));
-                break;
-            case IS_FALSE:
-                currentPredicate = builder.isFalse(from.get(attribute));
-                break;
-            case IS_NULL:
-                currentPredicate = builder.isNull(from.get(attribute));
-                break;
-            case IS_NOT_NULL:
-                currentPredicate = builder.isNotNull(from.get(attribute));
-                break;
             case CONTAINS:
-                currentPredicate = builder.like(builder.upper(from.get(attribute)),
-                        "%" + string + "%");
-                break;
-            case STARTS:
-                currentPredicate = builder.like(builder.upper(from.get(attribute)),
-                        string + "%");
-                break;
             case NOT_CONTAINS:
-                currentPredicate = builder.notLike(builder.upper(from.get(attribute)),
-                        "%" + string + "%");
-                break;
+            case STARTS:
             case NOT_STARTS:
-                currentPredicate = builder.notLike(builder.upper(from.get(attribute)),
-                        string + "%");
-                break;
-            case IN:
-                currentPredicate = from.get(attribute).in(list);
+            case MATCHES:
+            case NOT_MATCHES:
+                values[valueCount++] = factory.needle(attribute, stringContent(ctx.stop));
                 break;
-            case NOT_IN:
-                currentPredicate = builder.not(from.get(attribute).in(list));
-                break;
-            case BETWEEN:
-                currentPredicate = builder.between(from.get(attribute),
-                        (Comparable) list.get(list.size() - 2), (Comparable) list.get(list.size() - 1));
-                break;
-        }
-        expressions.add(currentPredicate);
-    }
-
-    @Override
-    public void enterTerm(RQueryLangParser.TermContext ctx) {
-        expressionsResult = null;
-    }
-
-    @Override
-    public void exitTerm(RQueryLangParser.TermContext ctx) {
-        for (Operation operation : termLogicalOperators) {
-            switch (operation) {
-                case AND:
-                    if (expressionsResult == null) {
-                        expressionsResult = builder.and(expressions.pollFirst(), expressions.pollFirst());
-                    } else {
-                        expressionsResult = builder.and(expressionsResult, expressions.pollFirst());
-                    }
-                    break;
-                case OR:
-                    if (expressionsResult == null) {
-                        expressionsResult = builder.or(expressions.pollFirst(), expressions.pollFirst());
-                    } else {
-                        expressionsResult = builder.or(expressionsResult, expressions.pollFirst());
-                    }
-                    break;
-            }
-
+            default:
         }
-        if (termLogicalOperators.isEmpty()) {
-            expressionsResult = expressions.pollFirst();
+        QueryNode expression = factory.expression(attribute, operation, values());
+        term = termOperator == null ? expression : factory.logical(termOperator, term, expression);
+    }
+
+    private List<Object> values() {
+        switch (valueCount) {
+            case 0:
+                return Collections.emptyList();
+            case 1:
+                return Collections.singletonList(values[0]);
+            default:
+                return Arrays.asList(Arrays.copyOf(values, valueCount));
         }
-        terms.add(expressionsResult);
-        termLogicalOperators.clear();
     }
 
     @Override
-    public void exitQuery(RQueryLangParser.QueryContext ctx) {
-        for (Operation operation : queryLogicalOperators) {
-            switch (operation) {
-                case AND:
-                    if (termsResult == null) {
-                        termsResult = builder.and(terms.pollFirst(), terms.pollFirst());
-                    } else {
-                        termsResult = builder.and(termsResult, terms.pollFirst());
-                    }
-                    break;
-                case OR:
-                    if (termsResult == null) {
-                        termsResult = builder.or(terms.pollFirst(), terms.pollFirst());
-                    } else {
-                        termsResult = builder.or(termsResult, terms.pollFirst());
-                    }
-                    break;
-            }
-
-        }
-        if (queryLogicalOperators.isEmpty()) {
-            termsResult = terms.pollFirst();
-        }
-        queryLogicalOperators.clear();
+    public void exitTerm(RQueryLangParser.TermContext ctx) {
+        query = queryOperator == null ? term : factory.logical(queryOperator, query, term);
+        term = null;
+        termOperator = null;
     }
 
-    public Predicate toPredicate() {
-        return this.termsResult;
+    QueryNode toQueryNode() {
+        return this.query;
     }
 }
@@ -0,0 +1,93 @@
+package br.com.caiquejh.rquery;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * A single comparison of an attribute, with its literals already converted to the
+ * type of the attribute.
+ *
+ * <p>For the string operations the only value is the needle, normalised by the
+ * {@link StringMatchStrategy} of the attribute.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class ExpressionNode extends QueryNode {
+
+    private final AttributePath attribute;
+    private final Operation operation;
+    private final List<Object> values;
+
+    ExpressionNode(AttributePath attribute, Operation operation, List<Object> values) {
+        this.attribute = attribute;
+        this.operation = operation;
+        this.values = values instanceof SortedLongList ? values : Collections.unmodifiableList(values);
+    }
+
+    @Override
+    <R> R accept(QueryNodeVisitor<R> visitor) {
+        return visitor.visitExpression(this);
+    }
+
+    AttributePath getAttribute() {
+        return attribute;
+    }
+
+    Operation getOperation() {
+        return operation;
+    }
+
+    List<Object> getValues() {
+        return values;
+    }
+
+    Object getValue() {
+        return values.get(0);
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        ExpressionNode that = (ExpressionNode) o;
+        return attribute.equals(that.attribute) && operation == that.operation && values.equals(that.values);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(attribute, operation, values);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder(attribute.getPath()).append(' ').append(operation.symbol());
+        switch (operation) {
+            case IN:
+            case NOT_IN:
+                sb.append(" (");
+                for (int i = 0; i < values.size(); i++) {
+                    if (i > 0) sb.append(", ");
+                    appendLiteral(sb, values.get(i));
+                }
+                return sb.append(')').toString();
+            case BETWEEN:
+                appendLiteral(sb.append(' '), values.get(0));
+                appendLiteral(sb.append(" and "), values.get(1));
+                return sb.toString();
+            default:
+                for (Object value : values) {
+                    appendLiteral(sb.append(' '), value);
+                }
+                return sb.toString();
+        }
+    }
+
+    private static void appendLiteral(StringBuilder sb, Object value) {
+        if (value instanceof Number) {
+            sb.append(value);
+        } else {
+            sb.append('\'').append(value).append('\'');
+        }
+    }
+}
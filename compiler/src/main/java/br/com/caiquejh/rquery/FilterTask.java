@@ -0,0 +1,129 @@
+package br.com.caiquejh.rquery;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.Spliterator;
+import java.util.concurrent.CountedCompleter;
+import java.util.function.Predicate;
+
+/**
+ * Filter the elements of a spliterator on a fork-join pool, splitting it until the chunks
+ * are at most the threshold.
+ *
+ * <p>Each chunk is filtered into a list of its own, so no lock is shared between the
+ * workers. In order, the lists of the chunks stay in the tree of the tasks and are
+ * concatenated at the end, in the order the spliterator was split. Without order, they are
+ * handed to a lock-free queue as they complete. Counting keeps only the number of
+ * matches of each chunk.</p>
+ *
+ * @param <T> Type of element
+ * @author Caique Oliveira
+ */
+final class FilterTask<T> extends CountedCompleter<Void> {
+
+    private final Spliterator<T> spliterator;
+    private final Predicate<? super T> predicate;
+    private final long threshold;
+    private final Queue<List<T>> unordered;
+    private final boolean count;
+
+    private FilterTask<T> left;
+    private FilterTask<T> right;
+    private List<T> matches;
+    private long size;
+
+    /**
+     * @param spliterator the elements
+     * @param predicate   the filter
+     * @param threshold   the maximum size of a chunk filtered by one task
+     * @param unordered   the queue of the matches of each chunk, or null to keep the order
+     * @param count       whether only the number of matches is wanted
+     */
+    FilterTask(Spliterator<T> spliterator, Predicate<? super T> predicate, long threshold, Queue<List<T>> unordered,
+               boolean count) {
+        this(null, spliterator, predicate, threshold, unordered, count);
+    }
+
+    private FilterTask(FilterTask<T> parent, Spliterator<T> spliterator, Predicate<? super T> predicate, long threshold,
+                       Queue<List<T>> unordered, boolean count) {
+        super(parent);
+        this.spliterator = spliterator;
+        this.predicate = predicate;
+        this.threshold = threshold;
+        this.unordered = unordered;
+        this.count = count;
+    }
+
+    @Override
+    public void compute() {
+        Spliterator<T> rest = spliterator;
+        Spliterator<T> prefix;
+        FilterTask<T> task = this;
+        while (rest.estimateSize() > threshold && (prefix = rest.trySplit()) != null) {
+            task.addToPendingCount(1);
+            task.left = new FilterTask<>(task, prefix, predicate, threshold, unordered, count);
+            task.right = new FilterTask<>(task, rest, predicate, threshold, unordered, count);
+            task.left.fork();
+            task = task.right;
+        }
+        task.filter(rest);
+        task.tryComplete();
+    }
+
+    private void filter(Spliterator<T> chunk) {
+        if (count) {
+            long[] matched = new long[1];
+            chunk.forEachRemaining(element -> {
+                if (predicate.test(element)) {
+                    matched[0]++;
+                }
+            });
+            size = matched[0];
+            return;
+        }
+        long estimate = chunk.estimateSize();
+        List<T> found = new ArrayList<>(estimate < threshold ? (int) Math.min(estimate, 1024) : 16);
+        chunk.forEachRemaining(element -> {
+            if (predicate.test(element)) {
+                found.add(element);
+            }
+        });
+        size = found.size();
+        if (unordered != null) {
+            if (!found.isEmpty()) {
+                unordered.add(found);
+            }
+        } else {
+            matches = found;
+        }
+    }
+
+    @Override
+    public void onCompletion(CountedCompleter<?> caller) {
+        if (left != null) {
+            size = left.size + right.size;
+        }
+    }
+
+    /**
+     * @return the number of matches, once completed
+     */
+    long size() {
+        return size;
+    }
+
+    /**
+     * Concatenate the matches of the chunks in their order, once completed.
+     *
+     * @param target the list receiving the matches
+     */
+    void drainTo(List<T> target) {
+        if (left != null) {
+            left.drainTo(target);
+            right.drainTo(target);
+        } else if (matches != null) {
+            target.addAll(matches);
+        }
+    }
+}
@@ -0,0 +1,21 @@
+package br.com.caiquejh.rquery;
+
+/**
+ * The parser used to compile a rquery. Both accept the same language and compile it
+ * to the same query.
+ *
+ * @author Caique Oliveira
+ */
+public enum FrontEnd {
+
+    /**
+     * The parser generated by ANTLR from {@code RQueryLang.g4}.
+     */
+    ANTLR,
+
+    /**
+     * A hand-written scanner and recursive-descent parser, which skips the parse tree
+     * and only creates strings for the attributes and literals.
+     */
+    HAND_WRITTEN
+}
@@ -0,0 +1,24 @@
+package br.com.caiquejh.rquery;
+
+/**
+ * The {@link FullTextDialect} of the {@code matches} operator when there is no full-text index.
+ *
+ * @author Caique Oliveira
+ */
+final class FullText {
+
+    static final FullTextDialect NONE = (builder, attribute, text, value) -> {
+        throw new IllegalStateException("No full-text dialect");
+    };
+
+    private FullText() {
+    }
+
+    /**
+     * @param dialect the dialect of an engine
+     * @return whether {@code matches} is a full-text search, instead of a {@code contains}
+     */
+    static boolean isEnabled(FullTextDialect dialect) {
+        return dialect != NONE;
+    }
+}
@@ -0,0 +1,80 @@
+package br.com.caiquejh.rquery;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.sql.DataSource;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * How the {@code matches} operator searches the full-text index of the database, chosen with
+ * {@link RQuery#setFullTextDialect(FullTextDialect)}.
+ *
+ * <p>Without a dialect, {@link #none()}, {@code matches} is compared like {@code contains}. The
+ * compiled queries evaluated in memory always compare it like {@code contains}.</p>
+ *
+ * @author Caique Oliveira
+ */
+public interface FullTextDialect {
+
+    /**
+     * @param builder   the criteria builder
+     * @param attribute the path of the attribute searched
+     * @param text      the text searched, normalised by the {@link StringMatchStrategy} of the attribute
+     * @param value     the value of the text, for the dialects searching before the statement runs
+     * @return the predicate of the attribute matching the text
+     */
+    Predicate matches(CriteriaBuilder builder, Path<?> attribute, Expression<String> text, String value);
+
+    /**
+     * No full-text search, the default: {@code matches} is compared like {@code contains}.
+     *
+     * @return the dialect
+     */
+    static FullTextDialect none() {
+        return FullText.NONE;
+    }
+
+    /**
+     * Call a boolean database function with the attribute and the text: {@code name(column, 'text')}.
+     *
+     * @param name the name of the function
+     * @return the dialect
+     */
+    static FullTextDialect function(String name) {
+        requireNonNull(name, "Function cannot be null");
+        return (builder, attribute, text, value) -> builder.isTrue(builder.function(name, Boolean.class, attribute, text));
+    }
+
+    /**
+     * The text search of PostgreSQL, through the function {@code rquery_matches}, which the
+     * planner inlines, so a GIN index of the same {@code to_tsvector} is used:
+     *
+     * <pre>
+     * create function rquery_matches(document text, query text) returns boolean
+     *     as $$ select to_tsvector('english', document) @@ plainto_tsquery('english', query) $$
+     *     language sql immutable;
+     * create index posts_content_search on posts using gin (to_tsvector('english', content));
+     * </pre>
+     *
+     * @return the dialect
+     */
+    static FullTextDialect postgreSql() {
+        return function("rquery_matches");
+    }
+
+    /**
+     * The built-in full-text search of H2, for the entities with a single identifier. The index
+     * is searched once for each predicate built, on a connection of the data source, and the rows
+     * are looked up by the identifiers found, see {@link H2FullText}.
+     *
+     * @param dataSource the data source of the database searched
+     * @return the dialect
+     */
+    static FullTextDialect h2(DataSource dataSource) {
+        requireNonNull(dataSource, "Data source cannot be null");
+        return (builder, attribute, text, value) -> H2FullText.matches(dataSource, builder, attribute, value);
+    }
+}
@@ -0,0 +1,135 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+
+import javax.persistence.Entity;
+import javax.persistence.Table;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.metamodel.Bindable;
+import javax.persistence.metamodel.IdentifiableType;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.sql.DataSource;
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * The built-in full-text search of H2, for {@link FullTextDialect#h2(DataSource)}, meant for
+ * local databases and tests.
+ *
+ * <p>H2 searches every indexed column of a table at once, with {@code FT_SEARCH_DATA}, so the
+ * row of the attribute matches when any indexed column of its table has every word of the
+ * text. A criteria query cannot select from {@code FT_SEARCH_DATA}, so the index is searched
+ * once when the predicate is built, and the rows are looked up by the identifiers found. The
+ * search runs on its own connection, and sees the rows committed before it. The SQL of
+ * {@link SqlDialect#H2} searches in a subquery of the statement instead.</p>
+ *
+ * @author Caique Oliveira
+ */
+public final class H2FullText {
+
+    private static final String SEARCH = "SELECT KEYS FROM FT_SEARCH_DATA(?, 0, 0) WHERE \"TABLE\" = ?";
+
+    private H2FullText() {
+    }
+
+    /**
+     * Create the full-text index of the columns of a table, replacing any index of the table.
+     *
+     * @param connection the connection to the database
+     * @param schema     the schema of the table, like {@code PUBLIC}
+     * @param table      the table, like {@code POSTS}
+     * @param columns    the columns indexed, separated by commas, or null for every column
+     * @throws SQLException if the index cannot be created
+     */
+    public static void createIndex(Connection connection, String schema, String table, String columns) throws SQLException {
+        try (Statement statement = connection.createStatement()) {
+            statement.execute("CREATE ALIAS IF NOT EXISTS FT_INIT FOR \"org.h2.fulltext.FullText.init\"");
+            statement.execute("CALL FT_INIT()");
+        }
+        try (PreparedStatement drop = connection.prepareStatement("CALL FT_DROP_INDEX(?, ?)");
+             PreparedStatement create = connection.prepareStatement("CALL FT_CREATE_INDEX(?, ?, ?)")) {
+            drop.setString(1, schema);
+            drop.setString(2, table);
+            drop.execute();
+            create.setString(1, schema);
+            create.setString(2, table);
+            create.setString(3, columns);
+            create.execute();
+        }
+    }
+
+    static Predicate matches(DataSource dataSource, CriteriaBuilder builder, Path<?> attribute, String text) {
+        Path<?> owner = attribute.getParentPath();
+        IdentifiableType<?> type = identifiableType(owner.getModel());
+        if (type == null || !type.hasSingleIdAttribute()) {
+            throw new RQueryException("Full-text search of '" + attribute.getJavaType().getSimpleName()
+                    + "' needs an entity with a single identifier");
+        }
+        Class<?> idType = type.getIdType().getJavaType();
+        SingularAttribute<?, ?> id = type.getId(idType);
+        List<Object> keys = search(dataSource, tableOf(type.getJavaType()), text, ValueConverter.converterOf(idType));
+        return keys.isEmpty() ? builder.disjunction() : owner.get(id.getName()).in(keys);
+    }
+
+    /**
+     * @return the identifiers of the rows of the table having every word of the text, converted
+     * to the type of the identifier
+     */
+    private static List<Object> search(DataSource dataSource, String table, String text,
+                                       ValueConverter.TypeConverter converter) {
+        List<Object> keys = new ArrayList<>();
+        try (Connection connection = dataSource.getConnection();
+             PreparedStatement statement = connection.prepareStatement(SEARCH)) {
+            statement.setString(1, text);
+            statement.setString(2, table);
+            try (ResultSet result = statement.executeQuery()) {
+                while (result.next()) {
+                    Array array = result.getArray(1);
+                    Object[] values = (Object[]) array.getArray();
+                    if (values.length == 1) {
+                        keys.add(converter.convert(String.valueOf(values[0])));
+                    }
+                }
+            }
+        } catch (SQLException e) {
+            throw new RQueryException("Full-text search of " + table + " failed", e);
+        }
+        return keys;
+    }
+
+    private static IdentifiableType<?> identifiableType(Bindable<?> model) {
+        Object type = model;
+        if (model instanceof SingularAttribute) {
+            type = ((SingularAttribute<?, ?>) model).getType();
+        } else if (model instanceof PluralAttribute) {
+            type = ((PluralAttribute<?, ?, ?>) model).getElementType();
+        }
+        return type instanceof IdentifiableType ? (IdentifiableType<?>) type : null;
+    }
+
+    /**
+     * @return the name of the table of the entity, upper cased like H2 keeps the names not quoted
+     */
+    static String tableOf(Class<?> entityType) {
+        for (Class<?> type = entityType; type != null; type = type.getSuperclass()) {
+            Table table = type.getAnnotation(Table.class);
+            if (table != null && !table.name().isEmpty()) {
+                return table.name().toUpperCase();
+            }
+            Entity entity = type.getAnnotation(Entity.class);
+            if (entity != null) {
+                return (entity.name().isEmpty() ? type.getSimpleName() : entity.name()).toUpperCase();
+            }
+        }
+        return entityType.getSimpleName().toUpperCase();
+    }
+}
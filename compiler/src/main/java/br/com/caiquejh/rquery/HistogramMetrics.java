@@ -0,0 +1,85 @@
+package br.com.caiquejh.rquery;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * {@link RQueryMetrics} that keeps a {@link Histogram} of the nanoseconds of each phase and of
+ * the whole parse, and of the bytes allocated by each parse, in memory.
+ *
+ * <pre>{@code
+ * HistogramMetrics metrics = new HistogramMetrics();
+ * RQuery.setMetrics(metrics);
+ * long p99 = metrics.getPhase(ParsePhase.PARSE).getPercentile(99);
+ * }</pre>
+ *
+ * @author Caique Oliveira
+ */
+public final class HistogramMetrics implements RQueryMetrics {
+
+    private final Map<ParsePhase, Histogram> phases = new EnumMap<>(ParsePhase.class);
+    private final Histogram total = new Histogram();
+    private final Histogram allocatedBytes = new Histogram();
+    private final LongAdder parses = new LongAdder();
+    private final LongAdder compilations = new LongAdder();
+
+    public HistogramMetrics() {
+        for (ParsePhase phase : ParsePhase.values()) {
+            phases.put(phase, new Histogram());
+        }
+    }
+
+    @Override
+    public void record(ParseSample sample) {
+        parses.increment();
+        if (sample.isCompiled()) {
+            compilations.increment();
+        }
+        for (ParsePhase phase : ParsePhase.values()) {
+            if (sample.hasPhase(phase)) {
+                phases.get(phase).record(sample.getNanos(phase));
+            }
+        }
+        total.record(sample.getTotalNanos());
+        if (sample.getAllocatedBytes() >= 0) {
+            allocatedBytes.record(sample.getAllocatedBytes());
+        }
+    }
+
+    /**
+     * @param phase the phase
+     * @return the nanoseconds of the phase, in the parses it ran
+     */
+    public Histogram getPhase(ParsePhase phase) {
+        return phases.get(phase);
+    }
+
+    /**
+     * @return the nanoseconds of the whole parses
+     */
+    public Histogram getTotal() {
+        return total;
+    }
+
+    /**
+     * @return the bytes allocated by the parses, empty when the JVM does not measure them
+     */
+    public Histogram getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    /**
+     * @return the number of parses recorded
+     */
+    public long getParseCount() {
+        return parses.sum();
+    }
+
+    /**
+     * @return the number of parses that compiled the query, instead of finding it in the cache
+     */
+    public long getCompilationCount() {
+        return compilations.sum();
+    }
+}
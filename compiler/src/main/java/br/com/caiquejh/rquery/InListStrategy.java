@@ -0,0 +1,25 @@
+package br.com.caiquejh.rquery;
+
+/**
+ * How the {@code in} and {@code not in} lists larger than the threshold of
+ * {@link RQuery#setLargeInListThreshold(int)} are written in the criteria queries.
+ *
+ * @author Caique Oliveira
+ */
+public enum InListStrategy {
+
+    /**
+     * One {@code in} with all the values, the default. The database can look the values up in
+     * an index at once, but some databases limit the number of values of a list, or of
+     * parameters of a statement.
+     */
+    SINGLE,
+
+    /**
+     * A disjunction of {@code in} of at most {@link RQuery#setInListChunkSize(int) chunk size}
+     * values each, so {@code a in (1, 2, 3)} in chunks of 2 is {@code a in (1, 2) or a in (3)}.
+     * It keeps within the limits of the database, but some databases, like H2, no longer use an
+     * index for the disjunction.
+     */
+    CHUNKED
+}
@@ -0,0 +1,97 @@
+package br.com.caiquejh.rquery;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.List;
+
+/**
+ * The handling of the large {@code in} and {@code not in} lists.
+ *
+ * <p>On compilation, the lists larger than the threshold are sorted and their repeated values
+ * removed, into a {@link SortedLongList} when the values are integral. On replay, they are
+ * split as the {@link InListStrategy} says. The options are immutable, kept by the
+ * {@link RQueryConfig} of an engine and given to the compiled queries it compiles.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class InLists {
+
+    static final int DEFAULT_THRESHOLD = 1000;
+    static final int DEFAULT_CHUNK_SIZE = 1000;
+
+    static final InLists DEFAULTS = new InLists(DEFAULT_THRESHOLD, InListStrategy.SINGLE, DEFAULT_CHUNK_SIZE);
+
+    private final int threshold;
+    private final InListStrategy strategy;
+    private final int chunkSize;
+
+    private InLists(int threshold, InListStrategy strategy, int chunkSize) {
+        this.threshold = threshold;
+        this.strategy = strategy;
+        this.chunkSize = chunkSize;
+    }
+
+    InLists withThreshold(int threshold) {
+        return new InLists(threshold, strategy, chunkSize);
+    }
+
+    InLists withStrategy(InListStrategy strategy) {
+        return new InLists(threshold, strategy, chunkSize);
+    }
+
+    InLists withChunkSize(int chunkSize) {
+        return new InLists(threshold, strategy, chunkSize);
+    }
+
+    int getThreshold() {
+        return threshold;
+    }
+
+    InListStrategy getStrategy() {
+        return strategy;
+    }
+
+    int getChunkSize() {
+        return chunkSize;
+    }
+
+    /**
+     * @param values the values of a list
+     * @return the values sorted and without repetitions when the list is larger than the threshold,
+     * otherwise the values
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    List<Object> compact(List<Object> values) {
+        if (values.size() <= threshold || values instanceof SortedLongList) {
+            return values;
+        }
+        if (SortedLongList.supports(values)) {
+            return SortedLongList.of(values);
+        }
+        List<Object> distinct = new ArrayList<>(new LinkedHashSet<>(values));
+        Object first = distinct.get(0);
+        if (first instanceof Comparable && !(first instanceof BigDecimal)
+                && distinct.stream().allMatch(value -> value != null && value.getClass() == first.getClass())) {
+            distinct.sort((left, right) -> ((Comparable) left).compareTo(right));
+        }
+        return Collections.unmodifiableList(distinct);
+    }
+
+    /**
+     * @param values the values of a list
+     * @return the chunks the list is written in, only the list unless it is larger than the threshold
+     */
+    List<List<Object>> chunks(List<Object> values) {
+        int size = chunkSize;
+        if (values.size() <= threshold || strategy == InListStrategy.SINGLE || values.size() <= size) {
+            return Collections.singletonList(values);
+        }
+        List<List<Object>> chunks = new ArrayList<>((values.size() + size - 1) / size);
+        for (int from = 0; from < values.size(); from += size) {
+            chunks.add(values.subList(from, Math.min(from + size, values.size())));
+        }
+        return chunks;
+    }
+}
@@ -0,0 +1,370 @@
+package br.com.caiquejh.rquery;
+
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Turn a compiled query into a {@link Predicate} over plain objects, with the semantics of
+ * the query the {@link CriteriaQueryNodeVisitor} builds.
+ *
+ * <p>Like the single inner join the Criteria query shares between the expressions of a path,
+ * each collection reached by the query is bound to one of its elements at a time, the same for
+ * every expression, and the object matches when any binding of the elements does: in
+ * {@code comments.content = 'A' and comments.author.age > 30}, the same comment must satisfy
+ * both, and an empty collection matches nothing, even on the other side of an {@code or}. A path
+ * through a null single-valued attribute makes its own expression false, without the rest of
+ * the query, which differs from the inner join only under {@code or}. Like SQL, a comparison
+ * with a null attribute is false, except for {@code is null}. The needles of the string
+ * operations are compared without wildcards, ignoring case unless the
+ * {@link StringMatchStrategy} of the attribute normalises the values otherwise, and
+ * {@code matches} is {@code contains}, without a full-text index.</p>
+ *
+ * @author Caique Oliveira
+ */
+class InMemoryQueryNodeVisitor implements QueryNodeVisitor<Predicate<Object>> {
+
+    private static final int MAXIMUM_LINEAR_IN = 8;
+
+    private final Class<?> entityType;
+    private final StringMatching stringMatching;
+    private final List<String> joins;
+
+    private InMemoryQueryNodeVisitor(Class<?> entityType, StringMatching stringMatching, List<String> joins) {
+        this.entityType = entityType;
+        this.stringMatching = stringMatching;
+        this.joins = joins;
+    }
+
+    /**
+     * @param entityType     the class of the objects tested
+     * @param node           the compiled query
+     * @param stringMatching the strategies the query compares strings with
+     * @return the predicate of the objects matching the query
+     */
+    static Predicate<Object> of(Class<?> entityType, QueryNode node, StringMatching stringMatching) {
+        List<String> joins = new ArrayList<>();
+        collectJoins(entityType, node, joins);
+        Predicate<Object> predicate = node.accept(new InMemoryQueryNodeVisitor(entityType, stringMatching, joins));
+        if (joins.isEmpty()) {
+            return predicate;
+        }
+        Navigation[] navigations = new Navigation[joins.size()];
+        for (int i = 0; i < navigations.length; i++) {
+            String[] segments = joins.get(i).split("\\.");
+            navigations[i] = Navigation.of(entityType, segments, segments.length - 1, joins);
+        }
+        return instance -> {
+            Object[] row = new Object[navigations.length + 1];
+            row[0] = instance;
+            return bind(row, navigations, 0, predicate);
+        };
+    }
+
+    /**
+     * Add the paths of the joins through collections, each after the joins it continues from.
+     */
+    private static void collectJoins(Class<?> entityType, QueryNode node, List<String> joins) {
+        if (node instanceof LogicalNode) {
+            for (QueryNode operand : ((LogicalNode) node).getOperands()) {
+                collectJoins(entityType, operand, joins);
+            }
+            return;
+        }
+        AttributePath attribute = ((ExpressionNode) node).getAttribute();
+        Class<?> owner = entityType;
+        for (int i = 0; i < attribute.getJoinCount(); i++) {
+            AttributeDescriptor join = AttributeTable.of(owner).get(attribute.getJoinName(i));
+            if (join.getType() != join.getElementType() && !joins.contains(attribute.getJoinPath(i))) {
+                joins.add(attribute.getJoinPath(i));
+            }
+            owner = join.getElementType();
+        }
+    }
+
+    /**
+     * Test the predicate of the query with each element of the collection of the join, and the
+     * following joins, bound in the row.
+     */
+    private static boolean bind(Object[] row, Navigation[] joins, int index, Predicate<Object> predicate) {
+        if (index == joins.length) {
+            return predicate.test(row);
+        }
+        Object collection = joins[index].navigate(row);
+        Iterable<?> elements = collection instanceof Map ? ((Map<?, ?>) collection).values()
+                : collection instanceof Object[] ? Arrays.asList((Object[]) collection)
+                : (Iterable<?>) collection;
+        if (elements == null) {
+            return false;
+        }
+        for (Object element : elements) {
+            if (element != null) {
+                row[index + 1] = element;
+                if (bind(row, joins, index + 1, predicate)) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    @Override
+    public Predicate<Object> visitLogical(LogicalNode node) {
+        List<QueryNode> operands = node.getOperands();
+        @SuppressWarnings("unchecked")
+        Predicate<Object>[] predicates = new Predicate[operands.size()];
+        for (int i = 0; i < predicates.length; i++) {
+            predicates[i] = operands.get(i).accept(this);
+        }
+        if (predicates.length == 2) {
+            Predicate<Object> left = predicates[0];
+            Predicate<Object> right = predicates[1];
+            return node.getOperation() == Operation.AND
+                    ? instance -> left.test(instance) && right.test(instance)
+                    : instance -> left.test(instance) || right.test(instance);
+        }
+        boolean and = node.getOperation() == Operation.AND;
+        return instance -> {
+            for (Predicate<Object> predicate : predicates) {
+                if (predicate.test(instance) != and) {
+                    return !and;
+                }
+            }
+            return and;
+        };
+    }
+
+    @Override
+    public Predicate<Object> visitExpression(ExpressionNode node) {
+        Predicate<Object> leaf = leaf(node);
+        AttributePath attribute = node.getAttribute();
+        String[] segments = new String[attribute.getJoinCount() + 1];
+        for (int i = 0; i < attribute.getJoinCount(); i++) {
+            segments[i] = attribute.getJoinName(i);
+        }
+        segments[segments.length - 1] = attribute.getName();
+        Navigation navigation = Navigation.of(entityType, segments, attribute.getJoinCount(), joins);
+        Function<Object, Object>[] accessors = navigation.accessors;
+        if (!joins.isEmpty()) {
+            int start = navigation.start;
+            return row -> test(((Object[]) row)[start], accessors, leaf);
+        }
+        if (accessors.length == 1) {
+            Function<Object, Object> accessor = accessors[0];
+            return instance -> leaf.test(accessor.apply(instance));
+        }
+        return instance -> test(instance, accessors, leaf);
+    }
+
+    private static boolean test(Object instance, Function<Object, Object>[] accessors, Predicate<Object> leaf) {
+        Object value = instance;
+        for (int i = 0; i < accessors.length - 1; i++) {
+            value = accessors[i].apply(value);
+            if (value == null) {
+                return false;
+            }
+        }
+        return leaf.test(accessors[accessors.length - 1].apply(value));
+    }
+
+    /**
+     * The way from the object a path starts from, the entity or the element bound to the last
+     * collection of the path, to the end of the path.
+     */
+    private static final class Navigation {
+
+        /**
+         * The index in the row of the object the path starts from.
+         */
+        private final int start;
+        private final Function<Object, Object>[] accessors;
+
+        private Navigation(int start, Function<Object, Object>[] accessors) {
+            this.start = start;
+            this.accessors = accessors;
+        }
+
+        /**
+         * @param joinable the number of leading segments that may be a bound join
+         */
+        @SuppressWarnings("unchecked")
+        static Navigation of(Class<?> entityType, String[] segments, int joinable, List<String> joins) {
+            Class<?>[] owners = new Class<?>[segments.length];
+            Class<?> owner = entityType;
+            int start = 0;
+            int first = 0;
+            StringBuilder prefix = new StringBuilder();
+            for (int i = 0; i < segments.length; i++) {
+                owners[i] = owner;
+                owner = AttributeTable.of(owner).get(segments[i]).getElementType();
+                if (i < joinable) {
+                    prefix.append(i == 0 ? "" : ".").append(segments[i]);
+                    int join = joins.indexOf(prefix.toString());
+                    if (join >= 0) {
+                        start = join + 1;
+                        first = i + 1;
+                    }
+                }
+            }
+            Function<Object, Object>[] accessors = new Function[segments.length - first];
+            for (int i = first; i < segments.length; i++) {
+                accessors[i - first] = AttributeAccessor.of(owners[i], segments[i]);
+            }
+            return new Navigation(start, accessors);
+        }
+
+        /**
+         * @return the value at the end of the path, or null when the path goes through null
+         */
+        Object navigate(Object[] row) {
+            Object value = row[start];
+            for (Function<Object, Object> accessor : accessors) {
+                if (value == null) {
+                    return null;
+                }
+                value = accessor.apply(value);
+            }
+            return value;
+        }
+    }
+
+    private Predicate<Object> leaf(ExpressionNode node) {
+        List<Object> values = node.getValues();
+        Object expected = values.isEmpty() ? null : node.getValue();
+        if (isStringMatch(node.getOperation())) {
+            StringMatchStrategy strategy = stringMatching.of(node.getAttribute());
+            if (strategy != StringMatching.UPPER_CASE) {
+                return normalized(node.getOperation(), strategy, (String) expected);
+            }
+        }
+        switch (node.getOperation()) {
+            case EQUAL:
+                return value -> value != null && equal(value, expected);
+            case NOT_EQUAL:
+                return value -> value != null && !equal(value, expected);
+            case GREATER_THAN:
+                return value -> value != null && compare(value, expected) > 0;
+            case GREATER_EQUAL_THAN:
+                return value -> value != null && compare(value, expected) >= 0;
+            case LESS_THAN:
+                return value -> value != null && compare(value, expected) < 0;
+            case LESS_EQUAL_THAN:
+                return value -> value != null && compare(value, expected) <= 0;
+            case IS_TRUE:
+                return Boolean.TRUE::equals;
+            case IS_FALSE:
+                return Boolean.FALSE::equals;
+            case IS_NULL:
+                return value -> value == null;
+            case IS_NOT_NULL:
+                return value -> value != null;
+            case CONTAINS:
+            case MATCHES:
+                return value -> value != null && contains(value.toString(), (String) expected);
+            case STARTS:
+                return value -> value != null && starts(value.toString(), (String) expected);
+            case NOT_CONTAINS:
+            case NOT_MATCHES:
+                return value -> value != null && !contains(value.toString(), (String) expected);
+            case NOT_STARTS:
+                return value -> value != null && !starts(value.toString(), (String) expected);
+            case IN:
+                Predicate<Object> in = in(values);
+                return value -> value != null && in.test(value);
+            case NOT_IN:
+                Predicate<Object> notIn = in(values).negate();
+                return value -> value != null && notIn.test(value);
+            case BETWEEN:
+                Object lower = values.get(0);
+                Object upper = values.get(1);
+                return value -> value != null && compare(value, lower) >= 0 && compare(value, upper) <= 0;
+            default:
+                throw new IllegalStateException("Unexpected operation: " + node.getOperation());
+        }
+    }
+
+    private static Predicate<Object> in(List<Object> values) {
+        if (values instanceof SortedLongList) {
+            return values::contains;
+        }
+        if (isLinearIn(values)) {
+            Object[] array = values.toArray();
+            return value -> in(value, array);
+        }
+        Set<Object> set = new HashSet<>(values);
+        return set::contains;
+    }
+
+    static boolean isStringMatch(Operation operation) {
+        return operation == Operation.CONTAINS || operation == Operation.STARTS || operation == Operation.MATCHES
+                || operation == Operation.NOT_CONTAINS || operation == Operation.NOT_STARTS || operation == Operation.NOT_MATCHES;
+    }
+
+    /**
+     * @return the string operation comparing the value normalised by the strategy, case sensitive
+     */
+    private static Predicate<Object> normalized(Operation operation, StringMatchStrategy strategy, String needle) {
+        switch (operation) {
+            case CONTAINS:
+            case MATCHES:
+                return value -> value != null && strategy.normalize(value.toString()).contains(needle);
+            case STARTS:
+                return value -> value != null && strategy.normalize(value.toString()).startsWith(needle);
+            case NOT_CONTAINS:
+            case NOT_MATCHES:
+                return value -> value != null && !strategy.normalize(value.toString()).contains(needle);
+            default:
+                return value -> value != null && !strategy.normalize(value.toString()).startsWith(needle);
+        }
+    }
+
+    /**
+     * @return whether the values of {@code in} are better searched one by one than in a set
+     */
+    static boolean isLinearIn(List<Object> values) {
+        return values.size() <= MAXIMUM_LINEAR_IN || values.get(0) instanceof BigDecimal;
+    }
+
+    static boolean in(Object value, Object[] values) {
+        for (Object expected : values) {
+            if (equal(value, expected)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Equal like in SQL, where {@code 1.0 = 1.00}.
+     */
+    static boolean equal(Object value, Object expected) {
+        if (value instanceof BigDecimal && expected instanceof BigDecimal) {
+            return ((BigDecimal) value).compareTo((BigDecimal) expected) == 0;
+        }
+        return value.equals(expected);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static int compare(Object value, Object expected) {
+        return ((Comparable) value).compareTo(expected);
+    }
+
+    static boolean starts(String value, String needle) {
+        return value.regionMatches(true, 0, needle, 0, needle.length());
+    }
+
+    static boolean contains(String value, String needle) {
+        for (int i = 0, last = value.length() - needle.length(); i <= last; i++) {
+            if (value.regionMatches(true, i, needle, 0, needle.length())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,198 @@
+package br.com.caiquejh.rquery;
+
+import org.apache.commons.lang3.ClassUtils;
+
+import javax.persistence.Column;
+import javax.persistence.EmbeddedId;
+import javax.persistence.Entity;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.ManyToOne;
+import javax.persistence.OneToOne;
+import javax.persistence.Table;
+import javax.persistence.UniqueConstraint;
+import java.beans.Introspector;
+import java.lang.reflect.AnnotatedElement;
+import java.lang.reflect.Field;
+import java.lang.reflect.Method;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.BiConsumer;
+
+/**
+ * The attributes of a type the database can look up by an index, read from its mapping
+ * annotations: the identifier, the unique columns and the first column of each index and
+ * unique constraint of its {@link Table}.
+ *
+ * <p>Columns are matched to attributes by their name, ignoring case and underscores, so
+ * {@code first_name} is the column of {@code firstName} when no {@link Column} names it, and
+ * {@code referrer_id} the one of the association {@code referrer} when no {@link JoinColumn}
+ * names it. The attributes of an embeddable are looked up in the table of the entity that
+ * embeds it.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class IndexedAttributes {
+
+    private static final ClassValue<Set<String>> LEADING_COLUMNS = new ClassValue<Set<String>>() {
+        @Override
+        protected Set<String> computeValue(Class<?> type) {
+            return Collections.unmodifiableSet(leadingColumns(type));
+        }
+    };
+
+    private static final ClassValue<Set<String>> KEYS = new ClassValue<Set<String>>() {
+        @Override
+        protected Set<String> computeValue(Class<?> type) {
+            Set<String> keys = new HashSet<>();
+            scan(type, (name, element) -> {
+                if (isKey(element)) {
+                    keys.add(name);
+                }
+            });
+            return Collections.unmodifiableSet(keys);
+        }
+    };
+
+    private static final ClassValue<Map<String, String>> COLUMNS = new ClassValue<Map<String, String>>() {
+        @Override
+        protected Map<String, String> computeValue(Class<?> type) {
+            Map<String, String> columns = new HashMap<>();
+            scan(type, (name, element) -> columns.putIfAbsent(name, normalize(column(element, name))));
+            return Collections.unmodifiableMap(columns);
+        }
+    };
+
+    private IndexedAttributes() {
+    }
+
+    /**
+     * @param type the type that declares the attribute, and whose table holds its column
+     * @param name the name of the attribute
+     * @return whether an index of the type starts with the column of the attribute
+     */
+    static boolean isIndexed(Class<?> type, String name) {
+        return isIndexed(type, type, name);
+    }
+
+    /**
+     * @param entityType the entity where the path starts
+     * @param attribute  the resolved path
+     * @return whether an index of the table that holds the column of the leaf starts with it
+     */
+    static boolean isIndexed(Class<?> entityType, AttributePath attribute) {
+        return isIndexed(tableOwner(entityType, attribute), attribute.getOwnerType(), attribute.getName());
+    }
+
+    private static boolean isIndexed(Class<?> tableType, Class<?> type, String name) {
+        if (KEYS.get(type).contains(name)) {
+            return true;
+        }
+        String column = COLUMNS.get(type).get(name);
+        return LEADING_COLUMNS.get(tableType).contains(column == null ? normalize(name) : column);
+    }
+
+    /**
+     * @return the entity whose table holds the column of the leaf: its owner, or the last
+     * entity of the path before the embeddables
+     */
+    private static Class<?> tableOwner(Class<?> entityType, AttributePath attribute) {
+        if (attribute.getOwnerType().isAnnotationPresent(Entity.class)) {
+            return attribute.getOwnerType();
+        }
+        for (int i = attribute.getJoinCount() - 1; i >= 0; i--) {
+            Class<?> owner = AttributePath.resolve(entityType, attribute.getJoinPath(i)).getOwnerType();
+            if (owner.isAnnotationPresent(Entity.class)) {
+                return owner;
+            }
+        }
+        return entityType;
+    }
+
+    private static Set<String> leadingColumns(Class<?> type) {
+        Set<String> leadingColumns = new HashSet<>();
+        for (Class<?> clazz : ClassUtils.hierarchy(type)) {
+            Table table = clazz.getAnnotation(Table.class);
+            if (table != null) {
+                for (Index index : table.indexes()) {
+                    leadingColumns.add(normalize(index.columnList().split(",")[0]));
+                }
+                for (UniqueConstraint constraint : table.uniqueConstraints()) {
+                    if (constraint.columnNames().length > 0) {
+                        leadingColumns.add(normalize(constraint.columnNames()[0]));
+                    }
+                }
+            }
+        }
+        return leadingColumns;
+    }
+
+    /**
+     * Give the consumer the name and the annotated field or getter of each attribute.
+     */
+    private static void scan(Class<?> type, BiConsumer<String, AnnotatedElement> consumer) {
+        for (Class<?> clazz : ClassUtils.hierarchy(type)) {
+            for (Field field : clazz.getDeclaredFields()) {
+                consumer.accept(field.getName(), field);
+            }
+            for (Method method : clazz.getDeclaredMethods()) {
+                String property = property(method);
+                if (property != null) {
+                    consumer.accept(property, method);
+                }
+            }
+        }
+    }
+
+    private static boolean isKey(AnnotatedElement element) {
+        if (element.isAnnotationPresent(Id.class) || element.isAnnotationPresent(EmbeddedId.class)) {
+            return true;
+        }
+        Column column = element.getAnnotation(Column.class);
+        JoinColumn joinColumn = element.getAnnotation(JoinColumn.class);
+        return column != null && column.unique() || joinColumn != null && joinColumn.unique();
+    }
+
+    private static String column(AnnotatedElement element, String name) {
+        JoinColumn joinColumn = element.getAnnotation(JoinColumn.class);
+        if (joinColumn != null && !joinColumn.name().isEmpty()) {
+            return joinColumn.name();
+        }
+        if (joinColumn != null || element.isAnnotationPresent(ManyToOne.class) || element.isAnnotationPresent(OneToOne.class)) {
+            return name + "_id";
+        }
+        Column column = element.getAnnotation(Column.class);
+        return column == null || column.name().isEmpty() ? name : column.name();
+    }
+
+    private static String property(Method method) {
+        String name = method.getName();
+        if (method.getParameterCount() != 0) {
+            return null;
+        }
+        if (name.startsWith("get") && name.length() > 3) {
+            return Introspector.decapitalize(name.substring(3));
+        }
+        if (name.startsWith("is") && name.length() > 2) {
+            return Introspector.decapitalize(name.substring(2));
+        }
+        return null;
+    }
+
+    private static String normalize(String column) {
+        StringBuilder normalized = new StringBuilder(column.length());
+        for (char c : column.trim().toCharArray()) {
+            if (Character.isLetterOrDigit(c)) {
+                normalized.append(c);
+            } else if (c == ' ') {
+                break;
+            }
+        }
+        return normalized.toString().toLowerCase(Locale.ROOT);
+    }
+}
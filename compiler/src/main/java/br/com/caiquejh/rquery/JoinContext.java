@@ -0,0 +1,117 @@
+package br.com.caiquejh.rquery;
+
+import javax.persistence.criteria.Fetch;
+import javax.persistence.criteria.From;
+import javax.persistence.criteria.Join;
+import javax.persistence.criteria.JoinType;
+import javax.persistence.criteria.Root;
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The joins of the rqueries applied to one {@link Root}, so each attribute path is joined
+ * only once however many filters use it.
+ *
+ * <p>Before creating a join, the joins and fetches already made on the root, by other
+ * filters or by the application, are looked up and reused, unless they have an {@code ON}
+ * restriction. Sharing one instance between several {@link RQuery} also shares the join
+ * type chosen for each path, {@link JoinType#INNER} unless configured.</p>
+ *
+ * <p>Like the criteria query it belongs to, it must not be used by more than one thread.</p>
+ *
+ * @author Caique Oliveira
+ */
+public final class JoinContext {
+
+    private final Root<?> root;
+    private final Map<String, From<?, ?>> joins = new HashMap<>();
+    private final Map<String, JoinType> joinTypes = new HashMap<>();
+
+    private JoinType defaultJoinType = JoinType.INNER;
+
+    private JoinContext(Root<?> root) {
+        this.root = root;
+    }
+
+    /**
+     * Create the join context of a root.
+     *
+     * @param root the root type
+     * @return a new join context
+     */
+    public static JoinContext of(Root<?> root) {
+        return new JoinContext(requireNonNull(root, "Root cannot be null"));
+    }
+
+    /**
+     * Choose the join type of an attribute path, like {@code comments} or {@code comments.author}.
+     *
+     * <p>A path with a join type only reuses an existing join of the same type. Without one,
+     * it reuses an existing join of any type.</p>
+     *
+     * @param path     the path of the join, after the field mapper is applied
+     * @param joinType the join type
+     * @return the instance this
+     */
+    public JoinContext withJoinType(String path, JoinType joinType) {
+        joinTypes.put(requireNonNull(path, "Path cannot be null"), requireNonNull(joinType, "Join type cannot be null"));
+        return this;
+    }
+
+    /**
+     * Choose the join type of the paths without one.
+     *
+     * @param joinType the join type
+     * @return the instance this
+     */
+    public JoinContext withDefaultJoinType(JoinType joinType) {
+        this.defaultJoinType = requireNonNull(joinType, "Join type cannot be null");
+        return this;
+    }
+
+    /**
+     * @return the root the joins start from
+     */
+    public Root<?> getRoot() {
+        return root;
+    }
+
+    /**
+     * @param parent the join of the path before the last segment, or the root
+     * @param path   the full path of the join
+     * @param name   the last segment of the path
+     * @return the join of the path, reused if it exists
+     */
+    From<?, ?> join(From<?, ?> parent, String path, String name) {
+        From<?, ?> join = joins.get(path);
+        if (join == null) {
+            JoinType joinType = joinTypes.get(path);
+            join = existing(parent, name, joinType);
+            if (join == null) {
+                join = parent.join(name, joinType == null ? defaultJoinType : joinType);
+            }
+            joins.put(path, join);
+        }
+        return join;
+    }
+
+    private static From<?, ?> existing(From<?, ?> parent, String name, JoinType joinType) {
+        for (Join<?, ?> join : parent.getJoins()) {
+            if (join.getOn() == null && matches(join.getAttribute().getName(), join.getJoinType(), name, joinType)) {
+                return join;
+            }
+        }
+        for (Fetch<?, ?> fetch : parent.getFetches()) {
+            if (fetch instanceof From && matches(fetch.getAttribute().getName(), fetch.getJoinType(), name, joinType)) {
+                return (From<?, ?>) fetch;
+            }
+        }
+        return null;
+    }
+
+    private static boolean matches(String attribute, JoinType type, String name, JoinType joinType) {
+        return attribute.equals(name) && (joinType == null || joinType == type);
+    }
+}
@@ -0,0 +1,62 @@
+package br.com.caiquejh.rquery;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Conjunction or disjunction of the operands.
+ *
+ * @author Caique Oliveira
+ */
+final class LogicalNode extends QueryNode {
+
+    private final Operation operation;
+    private final List<QueryNode> operands;
+
+    LogicalNode(Operation operation, QueryNode left, QueryNode right) {
+        this(operation, Arrays.asList(left, right));
+    }
+
+    LogicalNode(Operation operation, List<QueryNode> operands) {
+        this.operation = operation;
+        this.operands = Collections.unmodifiableList(operands);
+    }
+
+    @Override
+    <R> R accept(QueryNodeVisitor<R> visitor) {
+        return visitor.visitLogical(this);
+    }
+
+    Operation getOperation() {
+        return operation;
+    }
+
+    List<QueryNode> getOperands() {
+        return operands;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (o == null || getClass() != o.getClass()) return false;
+        LogicalNode that = (LogicalNode) o;
+        return operation == that.operation && operands.equals(that.operands);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(operation, operands);
+    }
+
+    @Override
+    public String toString() {
+        StringBuilder sb = new StringBuilder("(");
+        for (int i = 0; i < operands.size(); i++) {
+            if (i > 0) sb.append(' ').append(operation.symbol()).append(' ');
+            sb.append(operands.get(i));
+        }
+        return sb.append(')').toString();
+    }
+}
@@ -0,0 +1,81 @@
+package br.com.caiquejh.rquery;
+
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.ToLongFunction;
+
+/**
+ * Bounded least recently used cache, where each entry weighs what the weigher says.
+ *
+ * <p>Values are loaded outside the lock, so two threads missing the same key at the
+ * same time may both load it; the last one wins.</p>
+ *
+ * @param <K> type of key
+ * @param <V> type of value
+ * @author Caique Oliveira
+ */
+final class LruCache<K, V> {
+
+    private final LinkedHashMap<K, V> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final ToLongFunction<V> weigher;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    private long maximumWeight;
+    private long weight;
+
+    LruCache(long maximumWeight, ToLongFunction<V> weigher) {
+        this.maximumWeight = maximumWeight;
+        this.weigher = weigher;
+    }
+
+    V get(K key, Function<? super K, ? extends V> loader) {
+        V value;
+        synchronized (this) {
+            value = entries.get(key);
+        }
+        if (value != null) {
+            hits.increment();
+            return value;
+        }
+        misses.increment();
+        value = loader.apply(key);
+        synchronized (this) {
+            V previous = entries.put(key, value);
+            weight += weigher.applyAsLong(value);
+            if (previous != null) {
+                weight -= weigher.applyAsLong(previous);
+            }
+            evict();
+        }
+        return value;
+    }
+
+    synchronized void setMaximumWeight(long maximumWeight) {
+        this.maximumWeight = maximumWeight;
+        evict();
+    }
+
+    synchronized void clear() {
+        entries.clear();
+        weight = 0;
+    }
+
+    synchronized CacheStats stats() {
+        return new CacheStats(hits.sum(), misses.sum(), evictions.sum(), entries.size(), weight, maximumWeight);
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<K, V>> iterator = entries.entrySet().iterator();
+        while (weight > maximumWeight && iterator.hasNext()) {
+            weight -= weigher.applyAsLong(iterator.next().getValue());
+            iterator.remove();
+            evictions.increment();
+        }
+    }
+}
@@ -1,7 +1,5 @@
 package br.com.caiquejh.rquery;
 
-import java.util.stream.Stream;
-
 enum Operation {
     EQUAL("="),
     NOT_EQUAL("!=", "<>"),
@@ -19,6 +17,8 @@ enum Operation {
     NOT_CONTAINS("not contains"),
     STARTS("starts"),
     NOT_STARTS("not starts"),
+    MATCHES("matches"),
+    NOT_MATCHES("not matches"),
 
     IN("in"),
     NOT_IN("not in"),
@@ -28,16 +28,76 @@ enum Operation {
     AND("and", "&&"),
     OR("or", "||");
 
+    private static final int TOKEN_TYPES = RQueryLangLexer.VOCABULARY.getMaxTokenType() + 1;
+    private static final Operation[] BY_TOKEN = new Operation[TOKEN_TYPES];
+    private static final Operation[] BY_TOKEN_AFTER_NOT = new Operation[TOKEN_TYPES];
+    private static final Operation[] BY_TOKEN_AFTER_IS = new Operation[TOKEN_TYPES];
+
+    static {
+        BY_TOKEN[RQueryLangLexer.EQ] = EQUAL;
+        BY_TOKEN[RQueryLangLexer.NOT_EQ1] = NOT_EQUAL;
+        BY_TOKEN[RQueryLangLexer.NOT_EQ2] = NOT_EQUAL;
+        BY_TOKEN[RQueryLangLexer.GT] = GREATER_THAN;
+        BY_TOKEN[RQueryLangLexer.GT_EQ] = GREATER_EQUAL_THAN;
+        BY_TOKEN[RQueryLangLexer.LT] = LESS_THAN;
+        BY_TOKEN[RQueryLangLexer.LT_EQ] = LESS_EQUAL_THAN;
+        BY_TOKEN[RQueryLangLexer.CONTAINS] = CONTAINS;
+        BY_TOKEN[RQueryLangLexer.STARTS] = STARTS;
+        BY_TOKEN[RQueryLangLexer.MATCHES] = MATCHES;
+        BY_TOKEN[RQueryLangLexer.IN] = IN;
+        BY_TOKEN[RQueryLangLexer.BETWEEN] = BETWEEN;
+        BY_TOKEN[RQueryLangLexer.AND] = AND;
+        BY_TOKEN[RQueryLangLexer.AMP2] = AND;
+        BY_TOKEN[RQueryLangLexer.OR] = OR;
+        BY_TOKEN[RQueryLangLexer.PIPE2] = OR;
+
+        BY_TOKEN_AFTER_NOT[RQueryLangLexer.IN] = NOT_IN;
+        BY_TOKEN_AFTER_NOT[RQueryLangLexer.CONTAINS] = NOT_CONTAINS;
+        BY_TOKEN_AFTER_NOT[RQueryLangLexer.STARTS] = NOT_STARTS;
+        BY_TOKEN_AFTER_NOT[RQueryLangLexer.MATCHES] = NOT_MATCHES;
+
+        BY_TOKEN_AFTER_IS[RQueryLangLexer.TRUE] = IS_TRUE;
+        BY_TOKEN_AFTER_IS[RQueryLangLexer.FALSE] = IS_FALSE;
+        BY_TOKEN_AFTER_IS[RQueryLangLexer.NULL] = IS_NULL;
+        BY_TOKEN_AFTER_IS[RQueryLangLexer.NOT] = IS_NOT_NULL;
+    }
+
     private final String[] symbols;
 
     Operation(String... symbols) {
         this.symbols = symbols;
     }
 
+    String symbol() {
+        return symbols[0];
+    }
+
     public static Operation fromToken(String token) {
-        return Stream.of(values())
-                .filter(value -> Stream.of(value.symbols).anyMatch(symbol -> symbol.equalsIgnoreCase(token)))
-                .findFirst()
-                .orElseThrow(() -> new IllegalArgumentException("Invalid token for operation: " + token));
+        for (Operation operation : values()) {
+            for (String symbol : operation.symbols) {
+                if (symbol.equalsIgnoreCase(token)) {
+                    return operation;
+                }
+            }
+        }
+        throw new IllegalArgumentException("Invalid token for operation: " + token);
+    }
+
+    /**
+     * Find the operation of the token types of the lexer, without looking at their text.
+     *
+     * @param first  type of the first token of the operator
+     * @param second type of the second token, when the first is {@code not} or {@code is}
+     * @return the operation
+     * @throws IllegalArgumentException if the tokens are not an operator
+     */
+    static Operation fromTokenTypes(int first, int second) {
+        Operation[] table = first == RQueryLangLexer.NOT ? BY_TOKEN_AFTER_NOT : first == RQueryLangLexer.IS ? BY_TOKEN_AFTER_IS : BY_TOKEN;
+        int type = table == BY_TOKEN ? first : second;
+        Operation operation = type >= 0 && type < TOKEN_TYPES ? table[type] : null;
+        if (operation == null) {
+            throw new IllegalArgumentException("Invalid token types for operation: " + first + ", " + second);
+        }
+        return operation;
     }
 }
@@ -0,0 +1,97 @@
+package br.com.caiquejh.rquery;
+
+import org.apache.commons.lang3.ClassUtils;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Path;
+import javax.persistence.criteria.Predicate;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Replay a compiled query like {@link CriteriaQueryNodeVisitor}, with every literal replaced by a
+ * {@link ParameterExpression}, so the statement does not depend on the values of the literals.
+ *
+ * <p>The lists, or their chunks, are padded to the next power of two, repeating their last value,
+ * so lists of different sizes share a few statements.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class ParameterizedCriteriaQueryNodeVisitor extends CriteriaQueryNodeVisitor {
+
+    private final CriteriaBuilder builder;
+    private final Map<ParameterExpression<?>, Object> bindings = new LinkedHashMap<>();
+
+    ParameterizedCriteriaQueryNodeVisitor(CriteriaBuilder builder, JoinContext joins, RQueryConfig config) {
+        super(builder, joins, config);
+        this.builder = builder;
+    }
+
+    /**
+     * @return the value of each parameter created, in the order they were created
+     */
+    Map<ParameterExpression<?>, Object> getBindings() {
+        return bindings;
+    }
+
+    @Override
+    @SuppressWarnings({"rawtypes", "unchecked"})
+    public Predicate visitExpression(ExpressionNode node) {
+        Class<?> type = ClassUtils.primitiveToWrapper(node.getAttribute().getType());
+        List<Object> values = node.getValues();
+        switch (node.getOperation()) {
+            case EQUAL:
+                return builder.equal(path(node.getAttribute()), parameter(type, node.getValue()));
+            case NOT_EQUAL:
+                return builder.notEqual(path(node.getAttribute()), parameter(type, node.getValue()));
+            case GREATER_THAN:
+                return builder.greaterThan((Path) path(node.getAttribute()), (Expression) parameter(type, node.getValue()));
+            case GREATER_EQUAL_THAN:
+                return builder.greaterThanOrEqualTo((Path) path(node.getAttribute()), (Expression) parameter(type, node.getValue()));
+            case LESS_THAN:
+                return builder.lessThan((Path) path(node.getAttribute()), (Expression) parameter(type, node.getValue()));
+            case LESS_EQUAL_THAN:
+                return builder.lessThanOrEqualTo((Path) path(node.getAttribute()), (Expression) parameter(type, node.getValue()));
+            case BETWEEN:
+                return builder.between((Path) path(node.getAttribute()), (Expression) parameter(type, values.get(0)),
+                        (Expression) parameter(type, values.get(1)));
+            default:
+                return super.visitExpression(node);
+        }
+    }
+
+    @Override
+    Expression<String> string(String value) {
+        return parameter(String.class, value);
+    }
+
+    @Override
+    Predicate inChunk(Path<?> attribute, List<Object> values) {
+        return attribute.in(parameters(ClassUtils.primitiveToWrapper(attribute.getJavaType()), values));
+    }
+
+    private <V> ParameterExpression<V> parameter(Class<V> type, Object value) {
+        ParameterExpression<V> parameter = builder.parameter(type);
+        bindings.put(parameter, value);
+        return parameter;
+    }
+
+    private Expression<?>[] parameters(Class<?> type, List<Object> values) {
+        Expression<?>[] parameters = new Expression<?>[paddedSize(values.size())];
+        for (int i = 0; i < parameters.length; i++) {
+            parameters[i] = parameter(type, values.get(Math.min(i, values.size() - 1)));
+        }
+        return parameters;
+    }
+
+    /**
+     * @param size the size of a list
+     * @return the smallest power of two not less than the size
+     */
+    static int paddedSize(int size) {
+        return size <= 1 ? size : Integer.highestOneBit(size - 1) << 1;
+    }
+}
@@ -0,0 +1,58 @@
+package br.com.caiquejh.rquery;
+
+import javax.persistence.Parameter;
+import javax.persistence.Query;
+import javax.persistence.criteria.ParameterExpression;
+import javax.persistence.criteria.Predicate;
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * A {@link Predicate} whose literals are parameters, with the value bound to each of them.
+ *
+ * <p>The statement of the query only depends on the query structure, so it hits the query plan
+ * cache of the provider and the statement cache of the database whatever the values of the
+ * literals. The values must be bound to the query created from the criteria query, with
+ * {@link #bind(Query)}.</p>
+ *
+ * @author Caique Oliveira
+ */
+public final class ParameterizedPredicate {
+
+    private final Predicate predicate;
+    private final Map<ParameterExpression<?>, Object> bindings;
+
+    ParameterizedPredicate(Predicate predicate, Map<ParameterExpression<?>, Object> bindings) {
+        this.predicate = predicate;
+        this.bindings = Collections.unmodifiableMap(bindings);
+    }
+
+    /**
+     * @return the predicate to filter the data
+     */
+    public Predicate getPredicate() {
+        return predicate;
+    }
+
+    /**
+     * @return the value of each parameter of the predicate
+     */
+    public Map<ParameterExpression<?>, Object> getBindings() {
+        return bindings;
+    }
+
+    /**
+     * Bind the value of each parameter of the predicate to the query.
+     *
+     * @param query the query created from the criteria query the predicate belongs to
+     * @param <Q>   type of the query
+     * @return the query
+     */
+    @SuppressWarnings("unchecked")
+    public <Q extends Query> Q bind(Q query) {
+        for (Map.Entry<ParameterExpression<?>, Object> binding : bindings.entrySet()) {
+            query.setParameter((Parameter<Object>) binding.getKey(), binding.getValue());
+        }
+        return query;
+    }
+}
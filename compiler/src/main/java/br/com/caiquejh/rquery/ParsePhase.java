@@ -0,0 +1,35 @@
+package br.com.caiquejh.rquery;
+
+/**
+ * The phases of a parse timed by a {@link RQueryMetrics}.
+ *
+ * @author Caique Oliveira
+ */
+public enum ParsePhase {
+
+    /**
+     * Split the query into tokens. The hand-written front end scans while parsing, so its
+     * tokens are counted and timed by a scan of their own, before the parse.
+     */
+    LEX,
+    /**
+     * Parse the tokens into the compiled query, without the lexing and the conversions.
+     */
+    PARSE,
+    /**
+     * Convert the literals to the types of the attributes, and normalise the needles.
+     */
+    CONVERT,
+    /**
+     * Rewrite the compiled query, see {@link Rewrite}.
+     */
+    REWRITE,
+    /**
+     * Admit the compiled query against its {@link QueryPolicy}.
+     */
+    ADMIT,
+    /**
+     * Build the criteria predicate of the compiled query.
+     */
+    BUILD
+}
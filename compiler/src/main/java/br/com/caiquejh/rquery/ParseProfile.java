@@ -0,0 +1,168 @@
+package br.com.caiquejh.rquery;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Set;
+
+/**
+ * The timings of one parse while it runs, for the {@link RQueryMetrics} of its engine.
+ *
+ * <p>While the engine has no metrics, the parses use {@link #DISABLED}, whose methods do
+ * nothing, so the clock is never read.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class ParseProfile {
+
+    static final RQueryMetrics NONE = sample -> {
+    };
+    static final ParseProfile DISABLED = new ParseProfile(NONE);
+
+    private final RQueryMetrics metrics;
+    private final boolean enabled;
+    private final long[] nanos = new long[ParsePhase.values().length];
+    private long startNanos;
+    private long startBytes;
+    private long parseStart;
+    private long parseNested;
+    private int tokenCount = -1;
+    private boolean compiled;
+    private boolean built;
+
+    private ParseProfile(RQueryMetrics metrics) {
+        this.metrics = metrics;
+        this.enabled = metrics != NONE;
+    }
+
+    /**
+     * @param metrics the metrics told the sample of the parse
+     * @return a profile started now, or {@link #DISABLED} when the metrics record nothing
+     */
+    static ParseProfile start(RQueryMetrics metrics) {
+        if (metrics == NONE) {
+            return DISABLED;
+        }
+        ParseProfile profile = new ParseProfile(metrics);
+        profile.startBytes = Allocations.current();
+        profile.startNanos = System.nanoTime();
+        return profile;
+    }
+
+    boolean isEnabled() {
+        return enabled;
+    }
+
+    /**
+     * @return the start of a phase, to be given to {@link #stop(ParsePhase, long)}
+     */
+    long now() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    void stop(ParsePhase phase, long start) {
+        if (enabled) {
+            nanos[phase.ordinal()] += System.nanoTime() - start;
+        }
+    }
+
+    /**
+     * Start timing the front end, whose lexing and conversions are timed apart.
+     */
+    void startParse() {
+        if (enabled) {
+            compiled = true;
+            parseNested = nanos[ParsePhase.LEX.ordinal()] + nanos[ParsePhase.CONVERT.ordinal()];
+            parseStart = System.nanoTime();
+        }
+    }
+
+    void stopParse() {
+        if (enabled) {
+            long nested = nanos[ParsePhase.LEX.ordinal()] + nanos[ParsePhase.CONVERT.ordinal()] - parseNested;
+            nanos[ParsePhase.PARSE.ordinal()] += System.nanoTime() - parseStart - nested;
+        }
+    }
+
+    void setTokenCount(int tokenCount) {
+        this.tokenCount = tokenCount;
+    }
+
+    void built() {
+        built = true;
+    }
+
+    /**
+     * Record the sample of this parse in the metrics.
+     *
+     * @param query    the rquery
+     * @param compiled the compiled query
+     */
+    void finish(String query, CompiledQuery<?> compiled) {
+        if (!enabled) {
+            return;
+        }
+        long totalNanos = System.nanoTime() - startNanos;
+        long bytes = startBytes < 0 ? -1 : Allocations.current() - startBytes;
+        Shape shape = new Shape();
+        shape.collect(compiled.getNode());
+        metrics.record(new ParseSample(compiled.getEntityType(), query.length(), tokenCount, shape.terms,
+                shape.joins.size(), shape.inLists, nanos, this.compiled, built, totalNanos, bytes));
+    }
+
+    private static final class Shape {
+
+        private final Set<String> joins = new HashSet<>();
+        private int terms;
+        private int[] inLists = new int[0];
+
+        void collect(QueryNode node) {
+            if (node instanceof LogicalNode) {
+                for (QueryNode operand : ((LogicalNode) node).getOperands()) {
+                    collect(operand);
+                }
+                return;
+            }
+            ExpressionNode expression = (ExpressionNode) node;
+            terms++;
+            AttributePath attribute = expression.getAttribute();
+            for (int i = 0; i < attribute.getJoinCount(); i++) {
+                joins.add(attribute.getJoinPath(i));
+            }
+            if (expression.getOperation() == Operation.IN || expression.getOperation() == Operation.NOT_IN) {
+                inLists = Arrays.copyOf(inLists, inLists.length + 1);
+                inLists[inLists.length - 1] = expression.getValues().size();
+            }
+        }
+    }
+
+    /**
+     * The bytes allocated by the current thread, when the JVM measures them.
+     */
+    private static final class Allocations {
+
+        private static final com.sun.management.ThreadMXBean THREADS = threads();
+
+        private static com.sun.management.ThreadMXBean threads() {
+            try {
+                java.lang.management.ThreadMXBean threads = ManagementFactory.getThreadMXBean();
+                if (threads instanceof com.sun.management.ThreadMXBean) {
+                    com.sun.management.ThreadMXBean allocations = (com.sun.management.ThreadMXBean) threads;
+                    if (allocations.isThreadAllocatedMemorySupported() && allocations.isThreadAllocatedMemoryEnabled()) {
+                        return allocations;
+                    }
+                }
+            } catch (LinkageError | SecurityException | UnsupportedOperationException e) {
+                // the allocations are not measured
+            }
+            return null;
+        }
+
+        /**
+         * @return the bytes allocated by the current thread so far, or -1
+         */
+        static long current() {
+            return THREADS == null ? -1 : THREADS.getThreadAllocatedBytes(Thread.currentThread().getId());
+        }
+    }
+}
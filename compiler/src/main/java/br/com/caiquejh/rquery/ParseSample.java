@@ -0,0 +1,138 @@
+package br.com.caiquejh.rquery;
+
+import java.util.Arrays;
+
+/**
+ * The timings and the shape of one parse, given to a {@link RQueryMetrics}.
+ *
+ * <p>When the compiled query was found in the cache, only the {@link ParsePhase#BUILD build}
+ * is timed and the tokens are not counted.</p>
+ *
+ * @author Caique Oliveira
+ */
+public final class ParseSample {
+
+    private final Class<?> entityType;
+    private final int queryLength;
+    private final int tokenCount;
+    private final int termCount;
+    private final int joinCount;
+    private final int[] inListSizes;
+    private final long[] phaseNanos;
+    private final boolean compiled;
+    private final boolean built;
+    private final long totalNanos;
+    private final long allocatedBytes;
+
+    ParseSample(Class<?> entityType, int queryLength, int tokenCount, int termCount, int joinCount, int[] inListSizes,
+                long[] phaseNanos, boolean compiled, boolean built, long totalNanos, long allocatedBytes) {
+        this.entityType = entityType;
+        this.queryLength = queryLength;
+        this.tokenCount = tokenCount;
+        this.termCount = termCount;
+        this.joinCount = joinCount;
+        this.inListSizes = inListSizes;
+        this.phaseNanos = phaseNanos;
+        this.compiled = compiled;
+        this.built = built;
+        this.totalNanos = totalNanos;
+        this.allocatedBytes = allocatedBytes;
+    }
+
+    /**
+     * @return the entity type of the query
+     */
+    public Class<?> getEntityType() {
+        return entityType;
+    }
+
+    /**
+     * @return the number of characters of the query
+     */
+    public int getQueryLength() {
+        return queryLength;
+    }
+
+    /**
+     * @return the number of tokens of the query, or -1 when it was not compiled by this parse
+     */
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    /**
+     * @return the number of comparisons of the compiled query
+     */
+    public int getTermCount() {
+        return termCount;
+    }
+
+    /**
+     * @return the number of distinct joins of the attributes of the compiled query
+     */
+    public int getJoinCount() {
+        return joinCount;
+    }
+
+    /**
+     * @return the number of values of each {@code in} and {@code not in} list, after the
+     * repeated values of the large lists are removed
+     */
+    public int[] getInListSizes() {
+        return inListSizes.clone();
+    }
+
+    /**
+     * @param phase the phase
+     * @return whether the phase ran in this parse
+     */
+    public boolean hasPhase(ParsePhase phase) {
+        return phase == ParsePhase.BUILD ? built : compiled;
+    }
+
+    /**
+     * @param phase the phase
+     * @return the nanoseconds spent in the phase, 0 when it did not run
+     */
+    public long getNanos(ParsePhase phase) {
+        return phaseNanos[phase.ordinal()];
+    }
+
+    /**
+     * @return whether the query was compiled by this parse, instead of found in the cache
+     */
+    public boolean isCompiled() {
+        return compiled;
+    }
+
+    /**
+     * @return the nanoseconds spent in the whole parse
+     */
+    public long getTotalNanos() {
+        return totalNanos;
+    }
+
+    /**
+     * @return the bytes allocated by the thread during the parse, or -1 when the JVM does not
+     * measure them
+     */
+    public long getAllocatedBytes() {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "ParseSample{" +
+                "entityType=" + entityType.getSimpleName() +
+                ", queryLength=" + queryLength +
+                ", tokenCount=" + tokenCount +
+                ", termCount=" + termCount +
+                ", joinCount=" + joinCount +
+                ", inListSizes=" + Arrays.toString(inListSizes) +
+                ", phaseNanos=" + Arrays.toString(phaseNanos) +
+                ", compiled=" + compiled +
+                ", totalNanos=" + totalNanos +
+                ", allocatedBytes=" + allocatedBytes +
+                '}';
+    }
+}
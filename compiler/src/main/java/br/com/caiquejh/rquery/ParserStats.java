@@ -0,0 +1,47 @@
+package br.com.caiquejh.rquery;
+
+/**
+ * Snapshot of the counters of the rquery parser.
+ *
+ * @author Caique Oliveira
+ */
+public final class ParserStats {
+
+    private final long parseCount;
+    private final long fallbackCount;
+
+    ParserStats(long parseCount, long fallbackCount) {
+        this.parseCount = parseCount;
+        this.fallbackCount = fallbackCount;
+    }
+
+    /**
+     * @return how many queries were parsed
+     */
+    public long getParseCount() {
+        return parseCount;
+    }
+
+    /**
+     * @return how many queries failed the fast SLL prediction and were parsed again in full LL,
+     * including the ones with syntax errors
+     */
+    public long getFallbackCount() {
+        return fallbackCount;
+    }
+
+    /**
+     * @return the ratio of parsed queries that fell back to full LL, or 0 when nothing was parsed
+     */
+    public double getFallbackRate() {
+        return parseCount == 0 ? 0.0 : (double) fallbackCount / parseCount;
+    }
+
+    @Override
+    public String toString() {
+        return "ParserStats{" +
+                "parseCount=" + parseCount +
+                ", fallbackCount=" + fallbackCount +
+                '}';
+    }
+}
@@ -0,0 +1,163 @@
+package br.com.caiquejh.rquery;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+import java.util.function.Predicate;
+
+/**
+ * Define one hidden class per entity type and compiled query, written by the
+ * {@link PredicateClassWriter}, so the predicate of a hot query is one monomorphic class the
+ * JIT inlines as a whole, instead of a tree of lambdas.
+ *
+ * <p>The classes are hidden classes, defined with {@code Lookup.defineHiddenClass}, and
+ * unloaded once their predicate is no longer used. Each {@link RQueryEngine} keeps the last ones
+ * in a bounded cache of its own. Without ASM on the class path, on runtimes before Java 15, when
+ * disabled by the {@link RQueryConfig}, or for a query whose attributes cannot be read by public
+ * getters, the predicate is interpreted. So is a class the JVM refuses to define or link, other
+ * than a {@link VerifyError} or a {@link ClassFormatError}, which are bugs of the writer and
+ * thrown. The {@link #stats() counters} count these fallbacks.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class PredicateClassGenerator {
+
+    private static final Method DEFINE_HIDDEN_CLASS = defineHiddenClass();
+    private static final Object NO_OPTIONS = DEFINE_HIDDEN_CLASS == null ? null
+            : Array.newInstance(DEFINE_HIDDEN_CLASS.getParameterTypes()[2].getComponentType(), 0);
+    private static final boolean AVAILABLE = DEFINE_HIDDEN_CLASS != null && isAsmPresent();
+
+    private final LruCache<Key, Predicate<Object>> cache;
+    private final LongAdder fallbacks = new LongAdder();
+
+    /**
+     * @param maximumClasses the maximum number of generated classes kept
+     */
+    PredicateClassGenerator(long maximumClasses) {
+        this.cache = new LruCache<>(maximumClasses, predicate -> 1);
+    }
+
+    /**
+     * @return whether predicates can be generated, which needs ASM and Java 15 or later
+     */
+    static boolean isAvailable() {
+        return AVAILABLE;
+    }
+
+    /**
+     * @param maximumClasses the maximum number of generated classes kept
+     */
+    void setMaximumClasses(long maximumClasses) {
+        cache.setMaximumWeight(maximumClasses);
+    }
+
+    /**
+     * @return the counters of the generated classes cache, with how many predicates were interpreted
+     */
+    CacheStats stats() {
+        return cache.stats().withFallbackCount(fallbacks.sum());
+    }
+
+    /**
+     * @param entityType     the entity type of the query
+     * @param node           the root of the compiled query
+     * @param stringMatching the strategies the query compares strings with
+     * @param interpreter    the predicate used when no class can be generated
+     * @return the generated predicate, or the interpreted one
+     */
+    Predicate<Object> get(Class<?> entityType, QueryNode node, StringMatching stringMatching,
+                          Function<QueryNode, Predicate<Object>> interpreter) {
+        return cache.get(new Key(entityType, node), key -> {
+            try {
+                return generate(entityType, node, stringMatching);
+            } catch (VerifyError | ClassFormatError e) {
+                throw e;
+            } catch (PredicateClassWriter.UnsupportedQueryException | LinkageError | IllegalAccessException e) {
+                fallbacks.increment();
+                return interpreter.apply(node);
+            }
+        });
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Predicate<Object> generate(Class<?> entityType, QueryNode node, StringMatching stringMatching)
+            throws IllegalAccessException {
+        PredicateClassWriter writer = new PredicateClassWriter(entityType, stringMatching);
+        byte[] bytes = writer.write(node);
+        MethodHandles.Lookup lookup;
+        try {
+            lookup = (MethodHandles.Lookup) DEFINE_HIDDEN_CLASS.invoke(MethodHandles.lookup(), bytes, true, NO_OPTIONS);
+        } catch (InvocationTargetException e) {
+            throw rethrow(e.getCause());
+        }
+        try {
+            MethodHandle constructor = lookup.findConstructor(lookup.lookupClass(),
+                    MethodType.methodType(void.class, Object[].class));
+            return (Predicate<Object>) constructor.invoke(writer.getConstants());
+        } catch (IllegalAccessException | RuntimeException | Error e) {
+            throw e;
+        } catch (Throwable e) {
+            throw new IllegalStateException("Cannot construct the predicate of " + entityType, e);
+        }
+    }
+
+    private static RuntimeException rethrow(Throwable cause) throws IllegalAccessException {
+        if (cause instanceof Error) {
+            throw (Error) cause;
+        }
+        if (cause instanceof IllegalAccessException) {
+            throw (IllegalAccessException) cause;
+        }
+        if (cause instanceof RuntimeException) {
+            throw (RuntimeException) cause;
+        }
+        return new IllegalStateException("Cannot define the predicate class", cause);
+    }
+
+    private static Method defineHiddenClass() {
+        try {
+            Class<?> options = Class.forName("java.lang.invoke.MethodHandles$Lookup$ClassOption");
+            return MethodHandles.Lookup.class.getMethod("defineHiddenClass", byte[].class, boolean.class,
+                    Array.newInstance(options, 0).getClass());
+        } catch (ClassNotFoundException | NoSuchMethodException e) {
+            return null;
+        }
+    }
+
+    private static boolean isAsmPresent() {
+        try {
+            Class.forName("org.objectweb.asm.ClassWriter", false, PredicateClassGenerator.class.getClassLoader());
+            return true;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+    private static final class Key {
+        final Class<?> entityType;
+        final QueryNode node;
+
+        Key(Class<?> entityType, QueryNode node) {
+            this.entityType = entityType;
+            this.node = node;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key that = (Key) o;
+            return entityType == that.entityType && node.equals(that.node);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * entityType.hashCode() + node.hashCode();
+        }
+    }
+}
@@ -0,0 +1,503 @@
+package br.com.caiquejh.rquery;
+
+import org.objectweb.asm.ClassWriter;
+import org.objectweb.asm.Label;
+import org.objectweb.asm.MethodVisitor;
+import org.objectweb.asm.Type;
+
+import java.lang.reflect.Method;
+import java.math.BigDecimal;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+
+import static org.objectweb.asm.Opcodes.*;
+
+/**
+ * Write the class file of a {@link java.util.function.Predicate} dedicated to one compiled
+ * query of one entity type.
+ *
+ * <p>Each expression becomes a private method reading the attribute with its getters, one
+ * after the other, and comparing it with the literal: {@code int}, {@code long},
+ * {@code float} and {@code double} attributes, and their wrappers, are compared as
+ * primitives, enums by reference and the needles of the string operations are kept upper
+ * cased; the attributes with another {@link StringMatchStrategy} are interpreted. The logical operators become jumps between the calls of these methods.</p>
+ *
+ * <p>The literals are fields of the class, set by its constructor from an array, in the
+ * order of {@link #getConstants()}.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class PredicateClassWriter {
+
+    static final String CLASS_NAME = Type.getInternalName(PredicateClassWriter.class)
+            .replace("PredicateClassWriter", "GeneratedPredicate");
+
+    private static final String HELPERS = Type.getInternalName(InMemoryQueryNodeVisitor.class);
+    private static final String OBJECT = "java/lang/Object";
+    private static final String SORTED_LONG_LIST = Type.getDescriptor(SortedLongList.class);
+    private static final int VALUE = 2;
+
+    private final Class<?> entityType;
+    private final StringMatching stringMatching;
+    private final ClassWriter writer;
+    private final List<Object> constants = new ArrayList<>();
+    private final List<String> constantDescriptors = new ArrayList<>();
+
+    private int expressionCount;
+
+    /**
+     * Thrown when the query needs what a generated class cannot do, so it is interpreted instead.
+     */
+    static final class UnsupportedQueryException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        UnsupportedQueryException(String message) {
+            super(message, null, false, false);
+        }
+    }
+
+    PredicateClassWriter(Class<?> entityType, StringMatching stringMatching) {
+        this.entityType = entityType;
+        this.stringMatching = stringMatching;
+        this.writer = new ClassWriter(ClassWriter.COMPUTE_FRAMES | ClassWriter.COMPUTE_MAXS) {
+            @Override
+            protected String getCommonSuperClass(String type1, String type2) {
+                return OBJECT;
+            }
+        };
+    }
+
+    /**
+     * @param node the root of the compiled query
+     * @return the class file
+     * @throws UnsupportedQueryException if the query must be interpreted
+     */
+    byte[] write(QueryNode node) {
+        if (!AttributeAccessor.isLinkable(entityType)) {
+            throw new UnsupportedQueryException(entityType + " cannot be linked");
+        }
+        writer.visit(V1_8, ACC_FINAL | ACC_SUPER | ACC_SYNTHETIC, CLASS_NAME, null, OBJECT,
+                new String[]{"java/util/function/Predicate"});
+
+        MethodVisitor test = writer.visitMethod(ACC_PUBLIC, "test", "(Ljava/lang/Object;)Z", null, null);
+        test.visitCode();
+        test.visitVarInsn(ALOAD, 1);
+        test.visitTypeInsn(CHECKCAST, Type.getInternalName(entityType));
+        test.visitVarInsn(ASTORE, 2);
+        Label no = new Label();
+        branch(test, node, no, false);
+        test.visitInsn(ICONST_1);
+        test.visitInsn(IRETURN);
+        test.visitLabel(no);
+        test.visitInsn(ICONST_0);
+        test.visitInsn(IRETURN);
+        test.visitMaxs(0, 0);
+        test.visitEnd();
+
+        writeConstructor();
+        writer.visitEnd();
+        return writer.toByteArray();
+    }
+
+    /**
+     * @return the literals the constructor of the class takes
+     */
+    Object[] getConstants() {
+        return constants.toArray();
+    }
+
+    /**
+     * Jump to the target if the node evaluates to the given value, or fall through.
+     */
+    private void branch(MethodVisitor mv, QueryNode node, Label target, boolean jumpIf) {
+        if (node instanceof LogicalNode) {
+            LogicalNode logical = (LogicalNode) node;
+            List<QueryNode> operands = logical.getOperands();
+            boolean and = logical.getOperation() == Operation.AND;
+            if (and != jumpIf) {
+                for (QueryNode operand : operands) {
+                    branch(mv, operand, target, jumpIf);
+                }
+            } else {
+                Label skip = new Label();
+                for (int i = 0; i < operands.size() - 1; i++) {
+                    branch(mv, operands.get(i), skip, !jumpIf);
+                }
+                branch(mv, operands.get(operands.size() - 1), target, jumpIf);
+                mv.visitLabel(skip);
+            }
+            return;
+        }
+        String method = expression((ExpressionNode) node);
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitVarInsn(ALOAD, 2);
+        mv.visitMethodInsn(INVOKESPECIAL, CLASS_NAME, method, "(" + Type.getDescriptor(entityType) + ")Z", false);
+        mv.visitJumpInsn(jumpIf ? IFNE : IFEQ, target);
+    }
+
+    private String expression(ExpressionNode node) {
+        String name = "expression" + expressionCount++;
+        MethodVisitor mv = writer.visitMethod(ACC_PRIVATE, name, "(" + Type.getDescriptor(entityType) + ")Z", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 1);
+        Class<?> type = path(mv, node.getAttribute());
+        Label no = new Label();
+        Kind kind = Kind.of(type);
+        Operation operation = node.getOperation();
+        if (type.isPrimitive()) {
+            primitive(mv, kind, node, no);
+        } else if (operation == Operation.IS_NULL || operation == Operation.IS_NOT_NULL) {
+            mv.visitJumpInsn(operation == Operation.IS_NULL ? IFNONNULL : IFNULL, no);
+        } else {
+            Label present = new Label();
+            mv.visitInsn(DUP);
+            mv.visitJumpInsn(IFNONNULL, present);
+            mv.visitInsn(POP);
+            mv.visitJumpInsn(GOTO, no);
+            mv.visitLabel(present);
+            if (kind != null) {
+                unbox(mv, type, kind);
+                primitive(mv, kind, node, no);
+            } else {
+                reference(mv, type, node, no);
+            }
+        }
+        mv.visitInsn(ICONST_1);
+        mv.visitInsn(IRETURN);
+        mv.visitLabel(no);
+        mv.visitInsn(ICONST_0);
+        mv.visitInsn(IRETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+        return name;
+    }
+
+    /**
+     * Call the getters of the path, returning false at the first null before the leaf.
+     *
+     * @return the type of the leaf, left on the stack
+     */
+    private Class<?> path(MethodVisitor mv, AttributePath attribute) {
+        Class<?> owner = entityType;
+        for (int i = 0; i <= attribute.getJoinCount(); i++) {
+            String name = i < attribute.getJoinCount() ? attribute.getJoinName(i) : attribute.getName();
+            Method getter = AttributeAccessor.getter(owner, name);
+            if (getter == null || !AttributeAccessor.isLinkable(owner)) {
+                throw new UnsupportedQueryException("No public getter of " + name + " in " + owner);
+            }
+            mv.visitMethodInsn(owner.isInterface() ? INVOKEINTERFACE : INVOKEVIRTUAL, Type.getInternalName(owner),
+                    getter.getName(), Type.getMethodDescriptor(getter), owner.isInterface());
+            owner = getter.getReturnType();
+            if (i == attribute.getJoinCount()) {
+                return owner;
+            }
+            if (owner.isPrimitive() || owner.isArray() || Iterable.class.isAssignableFrom(owner)
+                    || Map.class.isAssignableFrom(owner) || !AttributeAccessor.isLinkable(owner)) {
+                throw new UnsupportedQueryException(attribute.getPath() + " goes through " + owner);
+            }
+            Label present = new Label();
+            mv.visitInsn(DUP);
+            mv.visitJumpInsn(IFNONNULL, present);
+            mv.visitInsn(POP);
+            mv.visitInsn(ICONST_0);
+            mv.visitInsn(IRETURN);
+            mv.visitLabel(present);
+        }
+        throw new IllegalStateException();
+    }
+
+    private static void unbox(MethodVisitor mv, Class<?> type, Kind kind) {
+        mv.visitMethodInsn(INVOKEVIRTUAL, Type.getInternalName(type), kind.name().toLowerCase() + "Value",
+                "()" + kind.descriptor, false);
+    }
+
+    private void primitive(MethodVisitor mv, Kind kind, ExpressionNode node, Label no) {
+        Operation operation = node.getOperation();
+        if (operation == Operation.IS_NULL || operation == Operation.IS_NOT_NULL) {
+            mv.visitInsn(kind.size == 2 ? POP2 : POP);
+            if (operation == Operation.IS_NULL) {
+                mv.visitJumpInsn(GOTO, no);
+            }
+            return;
+        }
+        mv.visitVarInsn(kind.store, VALUE);
+        List<Object> values = node.getValues();
+        switch (operation) {
+            case IS_TRUE:
+            case IS_FALSE:
+                if (kind != Kind.BOOLEAN) {
+                    throw new UnsupportedQueryException(operation + " of " + kind);
+                }
+                mv.visitVarInsn(ILOAD, VALUE);
+                mv.visitJumpInsn(operation == Operation.IS_TRUE ? IFEQ : IFNE, no);
+                return;
+            case EQUAL:
+            case NOT_EQUAL:
+            case GREATER_THAN:
+            case GREATER_EQUAL_THAN:
+            case LESS_THAN:
+            case LESS_EQUAL_THAN:
+                compare(mv, kind, operation, values.get(0), no);
+                return;
+            case BETWEEN:
+                compare(mv, kind, Operation.GREATER_EQUAL_THAN, values.get(0), no);
+                compare(mv, kind, Operation.LESS_EQUAL_THAN, values.get(1), no);
+                return;
+            case IN:
+            case NOT_IN:
+                if (!InMemoryQueryNodeVisitor.isLinearIn(values)) {
+                    inSorted(mv, kind, values, operation == Operation.IN, no);
+                    return;
+                }
+                Label found = new Label();
+                for (Object value : values) {
+                    compare(mv, kind, Operation.NOT_EQUAL, value, operation == Operation.IN ? found : no);
+                }
+                if (operation == Operation.IN) {
+                    mv.visitJumpInsn(GOTO, no);
+                    mv.visitLabel(found);
+                }
+                return;
+            default:
+                throw new UnsupportedQueryException(operation + " of " + kind);
+        }
+    }
+
+    /**
+     * Search the integral value in the sorted values, instead of comparing it with each one.
+     */
+    private void inSorted(MethodVisitor mv, Kind kind, List<Object> values, boolean in, Label no) {
+        if ((kind != Kind.INT && kind != Kind.SHORT && kind != Kind.LONG)
+                || !(values instanceof SortedLongList || SortedLongList.supports(values))) {
+            throw new UnsupportedQueryException("in of " + kind + " with " + values.size() + " values");
+        }
+        constant(mv, values instanceof SortedLongList ? values : SortedLongList.of(values), SORTED_LONG_LIST);
+        mv.visitVarInsn(kind.load, VALUE);
+        if (kind != Kind.LONG) {
+            mv.visitInsn(I2L);
+        }
+        mv.visitMethodInsn(INVOKEVIRTUAL, Type.getType(SORTED_LONG_LIST).getInternalName(), "containsLong", "(J)Z", false);
+        mv.visitJumpInsn(in ? IFEQ : IFNE, no);
+    }
+
+    /**
+     * Jump to the target unless the value compares to the literal as the operation says.
+     */
+    private static void compare(MethodVisitor mv, Kind kind, Operation operation, Object literal, Label target) {
+        if (kind == Kind.BOOLEAN || !(literal instanceof Number)) {
+            throw new UnsupportedQueryException(operation + " of " + kind + " with " + literal);
+        }
+        mv.visitVarInsn(kind.load, VALUE);
+        Number number = (Number) literal;
+        switch (kind) {
+            case INT:
+            case SHORT:
+                mv.visitLdcInsn(number.intValue());
+                mv.visitJumpInsn(opposite(operation, IF_ICMPEQ, IF_ICMPNE, IF_ICMPLT, IF_ICMPGE, IF_ICMPGT, IF_ICMPLE), target);
+                return;
+            case LONG:
+                mv.visitLdcInsn(number.longValue());
+                mv.visitInsn(LCMP);
+                break;
+            case FLOAT:
+                mv.visitLdcInsn(number.floatValue());
+                mv.visitInsn(operation == Operation.LESS_THAN || operation == Operation.LESS_EQUAL_THAN ? FCMPG : FCMPL);
+                break;
+            default:
+                mv.visitLdcInsn(number.doubleValue());
+                mv.visitInsn(operation == Operation.LESS_THAN || operation == Operation.LESS_EQUAL_THAN ? DCMPG : DCMPL);
+                break;
+        }
+        mv.visitJumpInsn(opposite(operation, IFEQ, IFNE, IFLT, IFGE, IFGT, IFLE), target);
+    }
+
+    /**
+     * @return the jump taken when the comparison is false
+     */
+    private static int opposite(Operation operation, int eq, int ne, int lt, int ge, int gt, int le) {
+        switch (operation) {
+            case EQUAL:
+                return ne;
+            case NOT_EQUAL:
+                return eq;
+            case GREATER_THAN:
+                return le;
+            case GREATER_EQUAL_THAN:
+                return lt;
+            case LESS_THAN:
+                return ge;
+            case LESS_EQUAL_THAN:
+                return gt;
+            default:
+                throw new IllegalStateException("Unexpected operation: " + operation);
+        }
+    }
+
+    private void reference(MethodVisitor mv, Class<?> type, ExpressionNode node, Label no) {
+        Operation operation = node.getOperation();
+        mv.visitVarInsn(ASTORE, VALUE);
+        List<Object> values = node.getValues();
+        switch (operation) {
+            case EQUAL:
+            case NOT_EQUAL:
+                equal(mv, values.get(0), operation == Operation.EQUAL ? IFEQ : IFNE, operation == Operation.EQUAL ? IF_ACMPNE : IF_ACMPEQ, no);
+                return;
+            case GREATER_THAN:
+            case GREATER_EQUAL_THAN:
+            case LESS_THAN:
+            case LESS_EQUAL_THAN:
+                compareTo(mv, values.get(0), operation, no);
+                return;
+            case BETWEEN:
+                compareTo(mv, values.get(0), Operation.GREATER_EQUAL_THAN, no);
+                compareTo(mv, values.get(1), Operation.LESS_EQUAL_THAN, no);
+                return;
+            case CONTAINS:
+            case NOT_CONTAINS:
+            case STARTS:
+            case NOT_STARTS:
+            case MATCHES:
+            case NOT_MATCHES:
+                if (stringMatching.of(node.getAttribute()) != StringMatching.UPPER_CASE) {
+                    throw new UnsupportedQueryException(operation + " by " + stringMatching.of(node.getAttribute()));
+                }
+                mv.visitVarInsn(ALOAD, VALUE);
+                if (type != String.class) {
+                    mv.visitMethodInsn(INVOKEVIRTUAL, OBJECT, "toString", "()Ljava/lang/String;", false);
+                }
+                constant(mv, values.get(0), "Ljava/lang/String;");
+                boolean contains = operation != Operation.STARTS && operation != Operation.NOT_STARTS;
+                mv.visitMethodInsn(INVOKESTATIC, HELPERS, contains ? "contains" : "starts",
+                        "(Ljava/lang/String;Ljava/lang/String;)Z", false);
+                mv.visitJumpInsn(operation == Operation.CONTAINS || operation == Operation.STARTS
+                        || operation == Operation.MATCHES ? IFEQ : IFNE, no);
+                return;
+            case IN:
+            case NOT_IN:
+                in(mv, values, operation == Operation.IN, no);
+                return;
+            case IS_TRUE:
+            case IS_FALSE:
+            default:
+                throw new UnsupportedQueryException(operation + " of " + type);
+        }
+    }
+
+    private void equal(MethodVisitor mv, Object literal, int ifNotEqual, int ifNotSame, Label no) {
+        mv.visitVarInsn(ALOAD, VALUE);
+        if (literal instanceof Enum) {
+            constant(mv, literal, "Ljava/lang/Object;");
+            mv.visitJumpInsn(ifNotSame, no);
+            return;
+        }
+        constant(mv, literal, "Ljava/lang/Object;");
+        if (literal instanceof BigDecimal) {
+            mv.visitMethodInsn(INVOKESTATIC, HELPERS, "equal", "(Ljava/lang/Object;Ljava/lang/Object;)Z", false);
+        } else {
+            mv.visitMethodInsn(INVOKEVIRTUAL, OBJECT, "equals", "(Ljava/lang/Object;)Z", false);
+        }
+        mv.visitJumpInsn(ifNotEqual, no);
+    }
+
+    private void compareTo(MethodVisitor mv, Object literal, Operation operation, Label no) {
+        mv.visitVarInsn(ALOAD, VALUE);
+        constant(mv, literal, "Ljava/lang/Object;");
+        mv.visitMethodInsn(INVOKEINTERFACE, "java/lang/Comparable", "compareTo", "(Ljava/lang/Object;)I", true);
+        mv.visitJumpInsn(opposite(operation, IFEQ, IFNE, IFLT, IFGE, IFGT, IFLE), no);
+    }
+
+    private void in(MethodVisitor mv, List<Object> values, boolean in, Label no) {
+        if (values.get(0) instanceof Enum && InMemoryQueryNodeVisitor.isLinearIn(values)) {
+            Label found = new Label();
+            for (Object value : values) {
+                mv.visitVarInsn(ALOAD, VALUE);
+                constant(mv, value, "Ljava/lang/Object;");
+                mv.visitJumpInsn(IF_ACMPEQ, in ? found : no);
+            }
+            if (in) {
+                mv.visitJumpInsn(GOTO, no);
+                mv.visitLabel(found);
+            }
+            return;
+        }
+        if (InMemoryQueryNodeVisitor.isLinearIn(values)) {
+            mv.visitVarInsn(ALOAD, VALUE);
+            constant(mv, values.toArray(), "[Ljava/lang/Object;");
+            mv.visitMethodInsn(INVOKESTATIC, HELPERS, "in", "(Ljava/lang/Object;[Ljava/lang/Object;)Z", false);
+        } else {
+            constant(mv, values instanceof SortedLongList ? values : new HashSet<>(values), "Ljava/util/Collection;");
+            mv.visitVarInsn(ALOAD, VALUE);
+            mv.visitMethodInsn(INVOKEINTERFACE, "java/util/Collection", "contains", "(Ljava/lang/Object;)Z", true);
+        }
+        mv.visitJumpInsn(in ? IFEQ : IFNE, no);
+    }
+
+    /**
+     * Load a literal from the field keeping it, declared with the descriptor.
+     */
+    private void constant(MethodVisitor mv, Object value, String descriptor) {
+        String field = "constant" + constants.size();
+        constants.add(value);
+        writer.visitField(ACC_PRIVATE | ACC_FINAL, field, descriptor, null, null).visitEnd();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitFieldInsn(GETFIELD, CLASS_NAME, field, descriptor);
+        constantDescriptors.add(descriptor);
+    }
+
+    private void writeConstructor() {
+        MethodVisitor mv = writer.visitMethod(0, "<init>", "([Ljava/lang/Object;)V", null, null);
+        mv.visitCode();
+        mv.visitVarInsn(ALOAD, 0);
+        mv.visitMethodInsn(INVOKESPECIAL, OBJECT, "<init>", "()V", false);
+        for (int i = 0; i < constantDescriptors.size(); i++) {
+            String descriptor = constantDescriptors.get(i);
+            mv.visitVarInsn(ALOAD, 0);
+            mv.visitVarInsn(ALOAD, 1);
+            mv.visitLdcInsn(i);
+            mv.visitInsn(AALOAD);
+            if (!descriptor.equals("Ljava/lang/Object;")) {
+                mv.visitTypeInsn(CHECKCAST, Type.getType(descriptor).getInternalName());
+            }
+            mv.visitFieldInsn(PUTFIELD, CLASS_NAME, "constant" + i, descriptor);
+        }
+        mv.visitInsn(RETURN);
+        mv.visitMaxs(0, 0);
+        mv.visitEnd();
+    }
+
+    /**
+     * The attribute types compared as primitives.
+     */
+    private enum Kind {
+        INT("I", ISTORE, ILOAD, 1),
+        SHORT("S", ISTORE, ILOAD, 1),
+        LONG("J", LSTORE, LLOAD, 2),
+        FLOAT("F", FSTORE, FLOAD, 1),
+        DOUBLE("D", DSTORE, DLOAD, 2),
+        BOOLEAN("Z", ISTORE, ILOAD, 1);
+
+        final String descriptor;
+        final int store;
+        final int load;
+        final int size;
+
+        Kind(String descriptor, int store, int load, int size) {
+            this.descriptor = descriptor;
+            this.store = store;
+            this.load = load;
+            this.size = size;
+        }
+
+        static Kind of(Class<?> type) {
+            if (type == int.class || type == Integer.class) return INT;
+            if (type == short.class || type == Short.class) return SHORT;
+            if (type == long.class || type == Long.class) return LONG;
+            if (type == float.class || type == Float.class) return FLOAT;
+            if (type == double.class || type == Double.class) return DOUBLE;
+            if (type == boolean.class || type == Boolean.class) return BOOLEAN;
+            return null;
+        }
+    }
+}
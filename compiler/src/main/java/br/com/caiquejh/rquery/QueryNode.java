@@ -0,0 +1,11 @@
+package br.com.caiquejh.rquery;
+
+/**
+ * Node of the compiled, immutable representation of a rquery.
+ *
+ * @author Caique Oliveira
+ */
+abstract class QueryNode {
+
+    abstract <R> R accept(QueryNodeVisitor<R> visitor);
+}
@@ -0,0 +1,104 @@
+package br.com.caiquejh.rquery;
+
+import java.util.List;
+import java.util.Map;
+import java.util.function.UnaryOperator;
+
+/**
+ * Build the compiled query nodes of an entity type, shared by every front end so they
+ * resolve attributes, convert literals and combine expressions the same way.
+ *
+ * @author Caique Oliveira
+ */
+final class QueryNodeFactory {
+
+    private final AttributeTable attributes;
+    private final UnaryOperator<String> mapField;
+    private final Map<Class<?>, ValueConverter.TypeConverter> converters;
+    private final StringMatching stringMatching;
+    private final InLists inLists;
+    private final ParseProfile profile;
+
+    QueryNodeFactory(Class<?> entityType, UnaryOperator<String> mapField) {
+        this(AttributeTable.of(entityType), mapField, RQueryConfig.defaults(), ParseProfile.DISABLED);
+    }
+
+    /**
+     * @param attributes the attributes of the entity type
+     * @param mapField   the field mapper
+     * @param config     the configuration of the engine, whose converters are used instead of the defaults
+     * @param profile    the profile of the parse
+     */
+    QueryNodeFactory(AttributeTable attributes, UnaryOperator<String> mapField, RQueryConfig config,
+                     ParseProfile profile) {
+        this.attributes = attributes;
+        this.mapField = mapField;
+        this.converters = config.getConverters();
+        this.stringMatching = config.getStringMatching();
+        this.inLists = config.getInLists();
+        this.profile = profile;
+    }
+
+    /**
+     * @param text the attribute as written in the query
+     * @return the attribute, mapped and resolved against the entity
+     */
+    AttributePath attribute(String text) {
+        return attributes.resolve(mapField.apply(text));
+    }
+
+    /**
+     * @param attribute the attribute compared with the literal
+     * @param text      the literal, without quotes
+     * @return the literal converted to the type of the attribute
+     */
+    Object literal(AttributePath attribute, String text) {
+        long start = profile.now();
+        ValueConverter.TypeConverter converter = converters.isEmpty() ? null : converters.get(attribute.getLeaf().getType());
+        Object literal = converter == null ? attribute.getLeaf().convert(text) : converter.convert(text);
+        profile.stop(ParsePhase.CONVERT, start);
+        return literal;
+    }
+
+    /**
+     * @param attribute the attribute compared with the needle
+     * @param text      the needle of a string operation, without quotes
+     * @return the needle normalised by the {@link StringMatchStrategy} of the attribute
+     */
+    String needle(AttributePath attribute, String text) {
+        long start = profile.now();
+        String needle = stringMatching.of(attribute).normalize(text);
+        profile.stop(ParsePhase.CONVERT, start);
+        return needle;
+    }
+
+    /**
+     * @param attribute the attribute compared
+     * @param operation the operation
+     * @param values    the converted literals, with the large lists compacted
+     * @return the expression
+     */
+    ExpressionNode expression(AttributePath attribute, Operation operation, List<Object> values) {
+        boolean isList = operation == Operation.IN || operation == Operation.NOT_IN;
+        return new ExpressionNode(attribute, operation, isList ? inLists.compact(values) : values);
+    }
+
+    LogicalNode logical(Operation operation, QueryNode left, QueryNode right) {
+        return new LogicalNode(operation, left, right);
+    }
+
+    /**
+     * Combine the operands from left to right, so {@code a and b or c} is {@code (a and b) or c}.
+     *
+     * @param operands  the operands, one more than the operators
+     * @param operators the logical operators between them
+     * @return the combined node
+     */
+    QueryNode fold(List<QueryNode> operands, List<Operation> operators) {
+        QueryNode result = operands.get(0);
+        for (int i = 0; i < operators.size(); i++) {
+            result = logical(operators.get(i), result, operands.get(i + 1));
+        }
+        return result;
+    }
+}
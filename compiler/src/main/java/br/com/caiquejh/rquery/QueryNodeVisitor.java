@@ -0,0 +1,14 @@
+package br.com.caiquejh.rquery;
+
+/**
+ * Visitor over the compiled query nodes.
+ *
+ * @param <R> type of the result
+ * @author Caique Oliveira
+ */
+interface QueryNodeVisitor<R> {
+
+    R visitExpression(ExpressionNode node);
+
+    R visitLogical(LogicalNode node);
+}
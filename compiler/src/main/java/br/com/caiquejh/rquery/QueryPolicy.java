@@ -0,0 +1,336 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The limits a query must respect to be compiled, so a filter sent by a client cannot become
+ * a pathological query.
+ *
+ * <p>Each expression of the query costs {@link #withExpressionCost(long) one}, plus the cost of
+ * each {@link #withJoinCost(long) join} of its path, of each {@link #withListValueCost(long) value}
+ * of its list, of a {@link #withLeadingWildcardCost(long) leading wildcard} for {@code contains},
+ * and for {@code matches} without a {@link FullTextDialect}, and of an {@link #withUnindexedCost(long) unindexed attribute}. An attribute is indexed when
+ * it is the identifier, a unique column or the first column of an index of its entity
+ * {@link javax.persistence.Table}, or when it is declared with {@link #withIndexed(String...)}.</p>
+ *
+ * <p>The cost is computed once the query is parsed and normalised, before any predicate is
+ * built, and a query over any limit is rejected with a {@link RQueryException} telling which
+ * expression broke it. A policy is registered for every entity with
+ * {@link RQuery#setDefaultPolicy(QueryPolicy)} or for one with
+ * {@link RQuery#registerPolicy(Class, QueryPolicy)}. A policy is immutable: each {@code with}
+ * method returns a copy, so a registered policy cannot change under the compiled queries.</p>
+ *
+ * <pre>{@code
+ * RQuery.registerPolicy(Person.class, QueryPolicy.of(200).withMaximumJoinDepth(2).withMaximumListSize(1000));
+ * }</pre>
+ *
+ * @author Caique Oliveira
+ */
+public final class QueryPolicy {
+
+    private final long maximumCost;
+    private final int maximumLength;
+    private final int maximumJoinDepth;
+    private final int maximumListSize;
+    private final boolean indexedOnly;
+    private final long expressionCost;
+    private final long joinCost;
+    private final long listValueCost;
+    private final long leadingWildcardCost;
+    private final long unindexedCost;
+    private final Set<String> indexed;
+    private final Set<String> allowed;
+
+    private QueryPolicy(long maximumCost, int maximumLength, int maximumJoinDepth, int maximumListSize,
+                        boolean indexedOnly, long expressionCost, long joinCost, long listValueCost,
+                        long leadingWildcardCost, long unindexedCost, Set<String> indexed, Set<String> allowed) {
+        this.maximumCost = maximumCost;
+        this.maximumLength = maximumLength;
+        this.maximumJoinDepth = maximumJoinDepth;
+        this.maximumListSize = maximumListSize;
+        this.indexedOnly = indexedOnly;
+        this.expressionCost = expressionCost;
+        this.joinCost = joinCost;
+        this.listValueCost = listValueCost;
+        this.leadingWildcardCost = leadingWildcardCost;
+        this.unindexedCost = unindexedCost;
+        this.indexed = indexed;
+        this.allowed = allowed;
+    }
+
+    private QueryPolicy(long maximumCost) {
+        this(maximumCost, Integer.MAX_VALUE, Integer.MAX_VALUE, Integer.MAX_VALUE, false, 1, 2, 1, 100, 10,
+                Collections.emptySet(), null);
+    }
+
+    /**
+     * @param maximumCost the maximum cost of a query
+     * @return a policy with the default costs and the maximum cost
+     * @throws IllegalArgumentException if the maximum cost is negative
+     */
+    public static QueryPolicy of(long maximumCost) {
+        if (maximumCost < 0) {
+            throw new IllegalArgumentException("Maximum cost cannot be negative");
+        }
+        return new QueryPolicy(maximumCost);
+    }
+
+    /**
+     * @return a policy without limits, the default one
+     */
+    public static QueryPolicy unlimited() {
+        return new QueryPolicy(Long.MAX_VALUE);
+    }
+
+    /**
+     * Reject the queries longer than the length before they are parsed.
+     *
+     * @param maximumLength the maximum number of characters of a query
+     * @return a copy with the maximum length
+     */
+    public QueryPolicy withMaximumLength(int maximumLength) {
+        return new QueryPolicy(maximumCost, maximumLength, maximumJoinDepth, maximumListSize, indexedOnly,
+                expressionCost, joinCost, listValueCost, leadingWildcardCost, unindexedCost, indexed, allowed);
+    }
+
+    /**
+     * Reject the attribute paths with more joins than the depth.
+     *
+     * @param maximumJoinDepth the maximum number of joins of a path
+     * @return a copy with the maximum join depth
+     */
+    public QueryPolicy withMaximumJoinDepth(int maximumJoinDepth) {
+        return new QueryPolicy(maximumCost, maximumLength, maximumJoinDepth, maximumListSize, indexedOnly,
+                expressionCost, joinCost, listValueCost, leadingWildcardCost, unindexedCost, indexed, allowed);
+    }
+
+    /**
+     * Reject the {@code in} and {@code not in} lists with more values than the size.
+     *
+     * @param maximumListSize the maximum number of values of a list
+     * @return a copy with the maximum list size
+     */
+    public QueryPolicy withMaximumListSize(int maximumListSize) {
+        return new QueryPolicy(maximumCost, maximumLength, maximumJoinDepth, maximumListSize, indexedOnly,
+                expressionCost, joinCost, listValueCost, leadingWildcardCost, unindexedCost, indexed, allowed);
+    }
+
+    /**
+     * Reject the expressions over attributes that are not indexed.
+     *
+     * @return a copy rejecting them
+     */
+    public QueryPolicy withIndexedOnly() {
+        return new QueryPolicy(maximumCost, maximumLength, maximumJoinDepth, maximumListSize, true, expressionCost,
+                joinCost, listValueCost, leadingWildcardCost, unindexedCost, indexed, allowed);
+    }
+
+    /**
+     * Declare attribute paths as indexed, for the indexes the mapping does not declare.
+     *
+     * @param paths the attribute paths, after the field mapper is applied
+     * @return a copy with the paths declared indexed, besides the ones already declared
+     */
+    public QueryPolicy withIndexed(String... paths) {
+        Set<String> changed = new HashSet<>(indexed);
+        changed.addAll(Arrays.asList(paths));
+        return new QueryPolicy(maximumCost, maximumLength, maximumJoinDepth, maximumListSize, indexedOnly,
+                expressionCost, joinCost, listValueCost, leadingWildcardCost, unindexedCost,
+                Collections.unmodifiableSet(changed), allowed);
+    }
+
+    /**
+     * Reject the expressions over any attribute path but these.
+     *
+     * @param paths the attribute paths, after the field mapper is applied
+     * @return a copy allowing only the paths
+     */
+    public QueryPolicy withAllowed(String... paths) {
+        return new QueryPolicy(maximumCost, maximumLength, maximumJoinDepth, maximumListSize, indexedOnly,
+                expressionCost, joinCost, listValueCost, leadingWildcardCost, unindexedCost, indexed,
+                Collections.unmodifiableSet(new HashSet<>(Arrays.asList(paths))));
+    }
+
+    /**
+     * @param expressionCost the cost of each expression, 1 by default
+     * @return a copy with the cost
+     */
+    public QueryPolicy withExpressionCost(long expressionCost) {
+        return new QueryPolicy(maximumCost, maximumLength, maximumJoinDepth, maximumListSize, indexedOnly,
+                expressionCost, joinCost, listValueCost, leadingWildcardCost, unindexedCost, indexed, allowed);
+    }
+
+    /**
+     * @param joinCost the cost of each join of a path, 2 by default
+     * @return a copy with the cost
+     */
+    public QueryPolicy withJoinCost(long joinCost) {
+        return new QueryPolicy(maximumCost, maximumLength, maximumJoinDepth, maximumListSize, indexedOnly,
+                expressionCost, joinCost, listValueCost, leadingWildcardCost, unindexedCost, indexed, allowed);
+    }
+
+    /**
+     * @param listValueCost the cost of each value of a list, 1 by default
+     * @return a copy with the cost
+     */
+    public QueryPolicy withListValueCost(long listValueCost) {
+        return new QueryPolicy(maximumCost, maximumLength, maximumJoinDepth, maximumListSize, indexedOnly,
+                expressionCost, joinCost, listValueCost, leadingWildcardCost, unindexedCost, indexed, allowed);
+    }
+
+    /**
+     * @param leadingWildcardCost the cost of a {@code contains}, or of a {@code matches} without a full-text
+     *                            dialect, which cannot use an index, 100 by default
+     * @return a copy with the cost
+     */
+    public QueryPolicy withLeadingWildcardCost(long leadingWildcardCost) {
+        return new QueryPolicy(maximumCost, maximumLength, maximumJoinDepth, maximumListSize, indexedOnly,
+                expressionCost, joinCost, listValueCost, leadingWildcardCost, unindexedCost, indexed, allowed);
+    }
+
+    /**
+     * @param unindexedCost the cost of an expression over an attribute that is not indexed, 10 by default
+     * @return a copy with the cost
+     */
+    public QueryPolicy withUnindexedCost(long unindexedCost) {
+        return new QueryPolicy(maximumCost, maximumLength, maximumJoinDepth, maximumListSize, indexedOnly,
+                expressionCost, joinCost, listValueCost, leadingWildcardCost, unindexedCost, indexed, allowed);
+    }
+
+    /**
+     * @param compiledQuery the compiled query
+     * @return the cost of the query in this policy
+     */
+    public long costOf(CompiledQuery<?> compiledQuery) {
+        requireNonNull(compiledQuery, "Compiled query cannot be null");
+        return cost(compiledQuery.getEntityType(), compiledQuery.getNode(),
+                compiledQuery.getConfig().isFullTextEnabled());
+    }
+
+    /**
+     * @return whether any query is admitted
+     */
+    boolean isUnlimited() {
+        return maximumCost == Long.MAX_VALUE && maximumLength == Integer.MAX_VALUE
+                && maximumJoinDepth == Integer.MAX_VALUE && maximumListSize == Integer.MAX_VALUE
+                && !indexedOnly && allowed == null;
+    }
+
+    /**
+     * @param entityType class of the entity
+     * @param query      the rquery, before it is parsed
+     * @throws RQueryException if the query is too long
+     */
+    void admitLength(Class<?> entityType, String query) {
+        if (query.length() > maximumLength) {
+            throw new RQueryException("Query of " + entityType.getSimpleName() + " has " + query.length()
+                    + " characters, more than the " + maximumLength + " allowed");
+        }
+    }
+
+    /**
+     * @param entityType class of the entity
+     * @param node       the compiled query
+     * @param fullText   whether {@code matches} is searched by a full-text index
+     * @throws RQueryException if the query breaks any limit
+     */
+    void admit(Class<?> entityType, QueryNode node, boolean fullText) {
+        long cost = 0;
+        long highest = -1;
+        ExpressionNode costliest = null;
+        for (ExpressionNode expression : expressions(node)) {
+            long expressionCost = admit(entityType, expression, fullText);
+            cost += expressionCost;
+            if (expressionCost > highest) {
+                highest = expressionCost;
+                costliest = expression;
+            }
+        }
+        if (cost > maximumCost) {
+            throw new RQueryException("Query of " + entityType.getSimpleName() + " costs " + cost + ", more than the "
+                    + maximumCost + " allowed; its costliest expression is '" + costliest + "' costing " + highest);
+        }
+    }
+
+    private long admit(Class<?> entityType, ExpressionNode expression, boolean fullText) {
+        AttributePath attribute = expression.getAttribute();
+        if (allowed != null && !allowed.contains(attribute.getPath())) {
+            throw new RQueryException("Attribute '" + attribute.getPath() + "' of " + entityType.getSimpleName()
+                    + " is not allowed in queries");
+        }
+        boolean isIndexed = isIndexed(entityType, attribute);
+        if (indexedOnly && !isIndexed) {
+            throw new RQueryException("Attribute '" + attribute.getPath() + "' of " + entityType.getSimpleName()
+                    + " is not indexed, and only indexed attributes are allowed in queries");
+        }
+        if (attribute.getJoinCount() > maximumJoinDepth) {
+            throw new RQueryException("Attribute '" + attribute.getPath() + "' of " + entityType.getSimpleName() + " needs "
+                    + attribute.getJoinCount() + " joins, more than the " + maximumJoinDepth + " allowed");
+        }
+        if (isList(expression) && expression.getValues().size() > maximumListSize) {
+            throw new RQueryException("List of '" + attribute.getPath() + "' of " + entityType.getSimpleName() + " has "
+                    + expression.getValues().size() + " values, more than the " + maximumListSize + " allowed");
+        }
+        return cost(expression, isIndexed, fullText);
+    }
+
+    private long cost(Class<?> entityType, QueryNode node, boolean fullText) {
+        long cost = 0;
+        for (ExpressionNode expression : expressions(node)) {
+            cost += cost(expression, isIndexed(entityType, expression.getAttribute()), fullText);
+        }
+        return cost;
+    }
+
+    private long cost(ExpressionNode expression, boolean isIndexed, boolean fullText) {
+        long cost = expressionCost + joinCost * expression.getAttribute().getJoinCount();
+        if (isList(expression)) {
+            cost += listValueCost * expression.getValues().size();
+        }
+        if (isLeadingWildcard(expression.getOperation(), fullText)) {
+            cost += leadingWildcardCost;
+        }
+        if (!isIndexed) {
+            cost += unindexedCost;
+        }
+        return cost;
+    }
+
+    private static boolean isLeadingWildcard(Operation operation, boolean fullText) {
+        return operation == Operation.CONTAINS || operation == Operation.NOT_CONTAINS
+                || !fullText && (operation == Operation.MATCHES || operation == Operation.NOT_MATCHES);
+    }
+
+    private boolean isIndexed(Class<?> entityType, AttributePath attribute) {
+        return indexed.contains(attribute.getPath()) || IndexedAttributes.isIndexed(entityType, attribute);
+    }
+
+    private static boolean isList(ExpressionNode expression) {
+        return expression.getOperation() == Operation.IN || expression.getOperation() == Operation.NOT_IN;
+    }
+
+    private static List<ExpressionNode> expressions(QueryNode node) {
+        List<ExpressionNode> expressions = new ArrayList<>();
+        collect(node, expressions);
+        return expressions;
+    }
+
+    private static void collect(QueryNode node, List<ExpressionNode> expressions) {
+        if (node instanceof ExpressionNode) {
+            expressions.add((ExpressionNode) node);
+        } else {
+            for (QueryNode operand : ((LogicalNode) node).getOperands()) {
+                collect(operand, expressions);
+            }
+        }
+    }
+}
@@ -0,0 +1,209 @@
+package br.com.caiquejh.rquery;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Normalise a compiled query with the enabled {@link Rewrite}s, bottom-up, so equivalent
+ * filters become equal nodes and replay to the same SQL.
+ *
+ * <p>Every rewrite keeps the result of the query, in the database and in memory.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class QueryRewriter {
+
+    private static final Comparator<QueryNode> CANONICAL = Comparator.comparing(QueryNode::toString);
+
+    private final Set<Rewrite> rewrites;
+
+    QueryRewriter(Set<Rewrite> rewrites) {
+        this.rewrites = rewrites.isEmpty() ? EnumSet.noneOf(Rewrite.class) : EnumSet.copyOf(rewrites);
+    }
+
+    /**
+     * @return the enabled rewrites
+     */
+    Set<Rewrite> getRewrites() {
+        return Collections.unmodifiableSet(rewrites);
+    }
+
+    /**
+     * @param rewrite the rewrite
+     * @param enabled whether it is enabled
+     * @return a rewriter with the rewrite enabled or not, and the others as in this one
+     */
+    QueryRewriter with(Rewrite rewrite, boolean enabled) {
+        Set<Rewrite> changed = EnumSet.noneOf(Rewrite.class);
+        changed.addAll(rewrites);
+        if (enabled) {
+            changed.add(rewrite);
+        } else {
+            changed.remove(rewrite);
+        }
+        return new QueryRewriter(changed);
+    }
+
+    /**
+     * @param node    the compiled query
+     * @param inLists the options of the lists merged from equalities
+     * @return the normalised query, the same node when no rewrite is enabled
+     */
+    QueryNode rewrite(QueryNode node, InLists inLists) {
+        if (rewrites.isEmpty()) {
+            return node;
+        }
+        if (node instanceof ExpressionNode) {
+            return rewriteValues((ExpressionNode) node);
+        }
+        LogicalNode logical = (LogicalNode) node;
+        Operation operation = logical.getOperation();
+        List<QueryNode> operands = new ArrayList<>();
+        for (QueryNode operand : logical.getOperands()) {
+            QueryNode rewritten = rewrite(operand, inLists);
+            if (rewrites.contains(Rewrite.FLATTEN) && rewritten instanceof LogicalNode
+                    && ((LogicalNode) rewritten).getOperation() == operation) {
+                operands.addAll(((LogicalNode) rewritten).getOperands());
+            } else {
+                operands.add(rewritten);
+            }
+        }
+        if (rewrites.contains(Rewrite.DEDUPLICATE)) {
+            operands = new ArrayList<>(new LinkedHashSet<>(operands));
+        }
+        if (operation == Operation.OR && rewrites.contains(Rewrite.IN_LIST)) {
+            operands = mergeLists(operands, inLists);
+        }
+        if (operation == Operation.AND && rewrites.contains(Rewrite.BETWEEN)) {
+            operands = mergeRanges(operands);
+        }
+        if (rewrites.contains(Rewrite.CANONICAL_ORDER)) {
+            operands.sort(CANONICAL);
+        }
+        return operands.size() == 1 ? operands.get(0) : new LogicalNode(operation, operands);
+    }
+
+    private ExpressionNode rewriteValues(ExpressionNode node) {
+        Operation operation = node.getOperation();
+        if ((operation != Operation.IN && operation != Operation.NOT_IN) || node.getValues().size() < 2
+                || node.getValues() instanceof SortedLongList) {
+            return node;
+        }
+        List<Object> values = values(node.getValues());
+        return values.equals(node.getValues()) ? node : new ExpressionNode(node.getAttribute(), operation, values);
+    }
+
+    private List<Object> values(List<Object> values) {
+        List<Object> result = rewrites.contains(Rewrite.DEDUPLICATE)
+                ? new ArrayList<>(new LinkedHashSet<>(values)) : new ArrayList<>(values);
+        if (rewrites.contains(Rewrite.CANONICAL_ORDER)) {
+            sort(result);
+        }
+        return result;
+    }
+
+    /**
+     * Replace the equalities and lists of each attribute by one list, where the first of them was.
+     */
+    private static List<QueryNode> mergeLists(List<QueryNode> operands, InLists inLists) {
+        Map<AttributePath, List<ExpressionNode>> groups = new LinkedHashMap<>();
+        for (QueryNode operand : operands) {
+            if (operand instanceof ExpressionNode) {
+                ExpressionNode expression = (ExpressionNode) operand;
+                if (expression.getOperation() == Operation.EQUAL || expression.getOperation() == Operation.IN) {
+                    groups.computeIfAbsent(expression.getAttribute(), attribute -> new ArrayList<>()).add(expression);
+                }
+            }
+        }
+        List<QueryNode> result = new ArrayList<>(operands.size());
+        Set<AttributePath> merged = new HashSet<>();
+        for (QueryNode operand : operands) {
+            AttributePath attribute = operand instanceof ExpressionNode ? ((ExpressionNode) operand).getAttribute() : null;
+            List<ExpressionNode> group = groups.get(attribute);
+            if (group == null || group.size() < 2 || !group.contains(operand)) {
+                result.add(operand);
+            } else if (merged.add(attribute)) {
+                Set<Object> values = new LinkedHashSet<>();
+                for (ExpressionNode expression : group) {
+                    values.addAll(expression.getValues());
+                }
+                List<Object> sorted = new ArrayList<>(values);
+                sort(sorted);
+                result.add(sorted.size() == 1 ? new ExpressionNode(attribute, Operation.EQUAL, sorted)
+                        : new ExpressionNode(attribute, Operation.IN, inLists.compact(sorted)));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Replace the first lower and upper bound of each attribute by a range, where the first of them was.
+     */
+    private static List<QueryNode> mergeRanges(List<QueryNode> operands) {
+        Map<AttributePath, ExpressionNode[]> bounds = new HashMap<>();
+        for (QueryNode operand : operands) {
+            int index = bound(operand);
+            if (index >= 0) {
+                ExpressionNode expression = (ExpressionNode) operand;
+                ExpressionNode[] pair = bounds.computeIfAbsent(expression.getAttribute(), attribute -> new ExpressionNode[2]);
+                if (pair[index] == null) {
+                    pair[index] = expression;
+                }
+            }
+        }
+        List<QueryNode> result = new ArrayList<>(operands.size());
+        Set<AttributePath> merged = new HashSet<>();
+        for (QueryNode operand : operands) {
+            AttributePath attribute = operand instanceof ExpressionNode ? ((ExpressionNode) operand).getAttribute() : null;
+            ExpressionNode[] pair = bounds.get(attribute);
+            if (pair == null || pair[0] == null || pair[1] == null || (pair[0] != operand && pair[1] != operand)) {
+                result.add(operand);
+            } else if (merged.add(attribute)) {
+                result.add(new ExpressionNode(attribute, Operation.BETWEEN, Arrays.asList(pair[0].getValue(), pair[1].getValue())));
+            }
+        }
+        return result;
+    }
+
+    /**
+     * @return 0 for a lower bound, 1 for an upper bound, -1 for any other operand
+     */
+    private static int bound(QueryNode operand) {
+        if (!(operand instanceof ExpressionNode) || ((ExpressionNode) operand).getAttribute().isMultivalued()) {
+            return -1;
+        }
+        ExpressionNode expression = (ExpressionNode) operand;
+        switch (expression.getOperation()) {
+            case GREATER_EQUAL_THAN:
+                return expression.getValue() instanceof Comparable ? 0 : -1;
+            case LESS_EQUAL_THAN:
+                return expression.getValue() instanceof Comparable ? 1 : -1;
+            default:
+                return -1;
+        }
+    }
+
+    /**
+     * Sort the values in their natural order, when they are all comparable with each other.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static void sort(List<Object> values) {
+        Class<?> type = values.isEmpty() ? null : values.get(0).getClass();
+        for (Object value : values) {
+            if (!(value instanceof Comparable) || value.getClass() != type) {
+                return;
+            }
+        }
+        values.sort((left, right) -> ((Comparable) left).compareTo(right));
+    }
+}
@@ -1,13 +1,13 @@
 package br.com.caiquejh.rquery;
 
 import br.com.caiquejh.rquery.exception.RQueryException;
-import org.antlr.v4.runtime.*;
 
 import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.JoinType;
 import javax.persistence.criteria.Predicate;
 import javax.persistence.criteria.Root;
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Function;
 import java.util.function.UnaryOperator;
 
@@ -16,22 +16,33 @@ import static java.util.Objects.requireNonNull;
 /**
  * RQuery lang entry point
  *
+ * <p>The static methods compile and configure the {@link #defaultEngine() default engine}. Each
+ * change of its configuration replaces the engine with one of the changed configuration, so
+ * the compilations running keep the configuration they started with.</p>
+ *
  * @param <T> Type of entity
  * @author Caique Oliveira
  */
 public class RQuery<T> {
 
-    private static final Map<Class<?>, UnaryOperator<String>> FIELD_MAPPERS = new HashMap<>();
+    private static final AtomicReference<RQueryEngine> DEFAULT_ENGINE =
+            new AtomicReference<>(RQueryEngine.of(RQueryConfig.defaults()));
 
+    private final RQueryEngine engine;
     private final CriteriaBuilder cb;
     private final Root<T> root;
 
     private UnaryOperator<String> fieldMapper;
+    private FrontEnd frontEnd;
+    private JoinContext joins;
 
-    private RQuery(Root<T> root, CriteriaBuilder cb) {
+    RQuery(RQueryEngine engine, Root<T> root, CriteriaBuilder cb) {
+        this.engine = engine;
         this.root = root;
         this.cb = cb;
-        this.fieldMapper = FIELD_MAPPERS.getOrDefault(root.getJavaType(), UnaryOperator.identity());
+        this.joins = JoinContext.of(root);
+        this.fieldMapper = engine.getConfig().getFieldMapper(root.getJavaType());
+        this.frontEnd = engine.getConfig().getDefaultFrontEnd();
     }
 
     /**
@@ -41,19 +52,46 @@ public class RQuery<T> {
      * @return a Predicate to filter the data
      * @throws RQueryException if a syntax or semantic error occurs
      */
+    @SuppressWarnings("unchecked")
     public Predicate parse(String query) throws RQueryException {
-        RQueryLangLexer lexer = new RQueryLangLexer(CharStreams.fromString(query));
-        RQueryLangParser parser = new RQueryLangParser(new CommonTokenStream(lexer));
-        CriteriaRQueryLangListener<T> listener = new CriteriaRQueryLangListener<>(cb, root, fieldMapper);
-        parser.addParseListener(listener);
-        parser.addErrorListener(new BaseErrorListener() {
-            @Override
-            public void syntaxError(Recognizer<?, ?> recognizer, Object offendingSymbol, int line, int charPositionInLine, String msg, RecognitionException e) {
-                throw new RQueryException("Failed to parse at line " + line + " and at column " + charPositionInLine + " due to " + msg);
-            }
-        });
-        parser.query();
-        return listener.toPredicate();
+        ParseProfile profile = engine.startProfile();
+        CompiledQuery<T> compiled = engine.compile((Class<T>) root.getJavaType(), AttributeTable.of(root.getModel()),
+                query, fieldMapper, frontEnd, profile);
+        long building = profile.now();
+        Predicate predicate = compiled.toPredicate(joins, cb);
+        profile.stop(ParsePhase.BUILD, building);
+        profile.built();
+        profile.finish(query, compiled);
+        engine.record(compiled);
+        return predicate;
+    }
+
+    /**
+     * Parse the query string to a {@link Predicate} whose literals are parameters, so the statement
+     * is the same whatever the values of the literals, and lists of up to the same power of two
+     * share a statement.
+     *
+     * <pre>{@code
+     * ParameterizedPredicate predicate = RQuery.from(root, cb).parseParameterized(filter);
+     * List<Person> persons = predicate.bind(em.createQuery(query.where(predicate.getPredicate()))).getResultList();
+     * }</pre>
+     *
+     * @param query the rquery
+     * @return the predicate and the values of its parameters, to be bound to the query
+     * @throws RQueryException if a syntax or semantic error occurs
+     */
+    @SuppressWarnings("unchecked")
+    public ParameterizedPredicate parseParameterized(String query) throws RQueryException {
+        ParseProfile profile = engine.startProfile();
+        CompiledQuery<T> compiled = engine.compile((Class<T>) root.getJavaType(), AttributeTable.of(root.getModel()),
+                query, fieldMapper, frontEnd, profile);
+        long building = profile.now();
+        ParameterizedPredicate predicate = compiled.toParameterizedPredicate(joins, cb);
+        profile.stop(ParsePhase.BUILD, building);
+        profile.built();
+        profile.finish(query, compiled);
+        engine.record(compiled);
+        return predicate;
     }
 
     /**
@@ -67,6 +105,46 @@ public class RQuery<T> {
         return this;
     }
 
+    /**
+     * Choose the parser of the queries, instead of the default one.
+     *
+     * @param frontEnd the parser
+     * @return the instance this
+     */
+    public RQuery<T> withFrontEnd(FrontEnd frontEnd) {
+        this.frontEnd = requireNonNull(frontEnd, "Front end cannot be null");
+        return this;
+    }
+
+    /**
+     * Share the joins with other filters of the same root, so each path is joined once.
+     *
+     * @param joins the join context of the root
+     * @return the instance this
+     * @throws IllegalArgumentException if the join context is of another root
+     */
+    public RQuery<T> withJoinContext(JoinContext joins) {
+        requireNonNull(joins, "Join context cannot be null");
+        if (joins.getRoot() != root) {
+            throw new IllegalArgumentException("Join context is of another root");
+        }
+        this.joins = joins;
+        return this;
+    }
+
+    /**
+     * Choose the join type of an attribute path in the join context of this instance.
+     *
+     * @param path     the path of the join, after the field mapper is applied
+     * @param joinType the join type
+     * @return the instance this
+     * @see JoinContext#withJoinType(String, JoinType)
+     */
+    public RQuery<T> withJoinType(String path, JoinType joinType) {
+        joins.withJoinType(path, joinType);
+        return this;
+    }
+
     /**
      * Create from root and criteria builder.
      *
@@ -76,8 +154,298 @@ public class RQuery<T> {
      * @return instance of RQuery for root
      */
     public static <T> RQuery<T> from(Root<T> root, CriteriaBuilder cb) {
-        return new RQuery<>(requireNonNull(root, "Root cannot be null"),
-                requireNonNull(cb, "Criteria builder cannot be null"));
+        return defaultEngine().from(root, cb);
+    }
+
+    /**
+     * @return the engine of the static methods, configured by them
+     */
+    public static RQueryEngine defaultEngine() {
+        return DEFAULT_ENGINE.get();
+    }
+
+    /**
+     * Compile the query string to a predicate evaluated in memory, over objects of the entity type.
+     *
+     * @param entityType class of the entity
+     * @param query      the rquery
+     * @param <T>        type of entity
+     * @return the predicate of the objects matching the query
+     * @throws RQueryException if a syntax or semantic error occurs
+     * @see CompiledQuery#asPredicate()
+     */
+    public static <T> java.util.function.Predicate<T> predicate(Class<T> entityType, String query) throws RQueryException {
+        return defaultEngine().predicate(entityType, query);
+    }
+
+    /**
+     * Compile the query string for the entity type, using the field mapper registered for it.
+     *
+     * <p>The compiled queries are kept in a bounded cache, so compiling the same query
+     * again only costs a lookup.</p>
+     *
+     * @param entityType class of the entity
+     * @param query      the rquery
+     * @param <T>        type of entity
+     * @return the compiled query, ready to be replayed onto any root of the entity
+     * @throws RQueryException if a syntax or semantic error occurs
+     */
+    public static <T> CompiledQuery<T> compile(Class<T> entityType, String query) throws RQueryException {
+        return defaultEngine().compile(entityType, query);
+    }
+
+    /**
+     * Compile the query string for the entity type.
+     *
+     * @param entityType  class of the entity
+     * @param query       the rquery
+     * @param fieldMapper the field mapper, part of the cache key by identity
+     * @param frontEnd    the parser of the query
+     * @param <T>         type of entity
+     * @return the compiled query, ready to be replayed onto any root of the entity
+     * @throws RQueryException if a syntax or semantic error occurs
+     */
+    public static <T> CompiledQuery<T> compile(Class<T> entityType, String query, UnaryOperator<String> fieldMapper,
+                                               FrontEnd frontEnd) throws RQueryException {
+        return defaultEngine().compile(entityType, query, fieldMapper, frontEnd);
+    }
+
+    /**
+     * Set the listener told the timings and the shape of each parse, {@link RQueryMetrics#none()}
+     * unless changed, which times nothing.
+     *
+     * @param metrics the metrics
+     */
+    public static void setMetrics(RQueryMetrics metrics) {
+        requireNonNull(metrics, "Metrics cannot be null");
+        configure(config -> config.withMetrics(metrics), true);
+    }
+
+    /**
+     * Choose whether the parses count how often each attribute is compared, and with which
+     * operators, disabled by default. The counts are kept while the recording is disabled.
+     *
+     * @param enabled whether the usage of the attributes is recorded
+     * @see #attributeUsage()
+     */
+    public static void setAttributeUsageRecording(boolean enabled) {
+        configure(config -> config.withAttributeUsageRecording(enabled), true);
+    }
+
+    /**
+     * @return how often each attribute was compared by the default engine since the recording
+     * was enabled
+     */
+    public static AttributeUsageReport attributeUsage() {
+        return defaultEngine().attributeUsage();
+    }
+
+    /**
+     * @return the counters of the compiled query cache
+     */
+    public static CacheStats cacheStats() {
+        return defaultEngine().cacheStats();
+    }
+
+    /**
+     * @return the counters of the generated predicate classes of the default engine, including how
+     * often a predicate had to be interpreted
+     */
+    public static CacheStats predicateClassStats() {
+        return defaultEngine().predicateClassStats();
+    }
+
+    /**
+     * @return the counters of the parser, including how often the fast prediction had to fall back
+     */
+    public static ParserStats parserStats() {
+        return AntlrQueryParser.stats();
+    }
+
+    /**
+     * Choose the parser used by default, {@link FrontEnd#ANTLR} unless changed.
+     *
+     * @param frontEnd the parser
+     */
+    public static void setDefaultFrontEnd(FrontEnd frontEnd) {
+        requireNonNull(frontEnd, "Front end cannot be null");
+        configure(config -> config.withDefaultFrontEnd(frontEnd), true);
+    }
+
+    /**
+     * Choose the policy the queries of the entities without a policy of their own must respect,
+     * {@link QueryPolicy#unlimited()} unless changed. The compiled queries are discarded, so
+     * they are admitted again.
+     *
+     * @param policy the policy
+     */
+    public static void setDefaultPolicy(QueryPolicy policy) {
+        requireNonNull(policy, "Policy cannot be null");
+        configure(config -> config.withDefaultPolicy(policy), false);
+    }
+
+    /**
+     * Register the policy the queries of the entity must respect, instead of the default one.
+     * The compiled queries are discarded, so they are admitted again.
+     *
+     * @param classOfT class of the entity
+     * @param policy   the policy
+     * @param <T>      type of entity
+     */
+    public static <T> void registerPolicy(Class<T> classOfT, QueryPolicy policy) {
+        requireNonNull(classOfT, "Class cannot be null");
+        requireNonNull(policy, "Policy cannot be null");
+        configure(config -> config.withPolicy(classOfT, policy), false);
+    }
+
+    /**
+     * Set the size above which the {@code in} and {@code not in} lists are large, 1000 by default.
+     * A large list is sorted and its repeated values removed on compilation, into a primitive
+     * array when its values are integral, and written as the {@link InListStrategy} says. The
+     * compiled queries are discarded, so the change applies to the next compilations.
+     *
+     * @param threshold the maximum size of a list that is not large
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    public static void setLargeInListThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold cannot be negative");
+        }
+        configure(config -> config.withLargeInListThreshold(threshold), false);
+    }
+
+    /**
+     * Choose how the large {@code in} and {@code not in} lists are written in the criteria queries,
+     * {@link InListStrategy#SINGLE} unless changed. Databases that limit the size of a list, or
+     * the parameters of a statement, need {@link InListStrategy#CHUNKED}. The compiled queries
+     * are discarded, so they are replayed with the strategy.
+     *
+     * @param strategy the strategy
+     */
+    public static void setInListStrategy(InListStrategy strategy) {
+        requireNonNull(strategy, "Strategy cannot be null");
+        configure(config -> config.withInListStrategy(strategy), false);
+    }
+
+    /**
+     * Set the maximum number of values of each {@code in} of a large list written in chunks,
+     * 1000 by default, the limit of some databases. The compiled queries are discarded, so they
+     * are replayed with the size.
+     *
+     * @param chunkSize the maximum number of values of a chunk
+     * @throws IllegalArgumentException if the chunk size is not positive
+     */
+    public static void setInListChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        configure(config -> config.withInListChunkSize(chunkSize), false);
+    }
+
+    /**
+     * Choose how the string operations compare the attributes without a strategy of their own,
+     * {@link StringMatchStrategy#upperCase()} unless changed. The compiled queries are
+     * discarded, so their needles are normalised again.
+     *
+     * @param strategy the strategy
+     */
+    public static void setDefaultStringMatch(StringMatchStrategy strategy) {
+        requireNonNull(strategy, "Strategy cannot be null");
+        configure(config -> config.withDefaultStringMatch(strategy), false);
+    }
+
+    /**
+     * Register how the string operations compare an attribute, declared or inherited by the
+     * class, instead of the default strategy. The compiled queries are discarded, so their
+     * needles are normalised again.
+     *
+     * @param classOfT  class of the entity, or of the embeddable, with the attribute
+     * @param attribute the name of the attribute
+     * @param strategy  the strategy
+     * @param <T>       type of entity
+     */
+    public static <T> void registerStringMatch(Class<T> classOfT, String attribute, StringMatchStrategy strategy) {
+        requireNonNull(classOfT, "Class cannot be null");
+        requireNonNull(attribute, "Attribute cannot be null");
+        requireNonNull(strategy, "Strategy cannot be null");
+        configure(config -> config.withStringMatch(classOfT, attribute, strategy), false);
+    }
+
+    /**
+     * Choose how the {@code matches} operator searches the full-text index of the database,
+     * {@link FullTextDialect#none()} unless changed, which compares it like {@code contains}.
+     * The compiled queries are discarded, so they are admitted again.
+     *
+     * @param dialect the dialect
+     */
+    public static void setFullTextDialect(FullTextDialect dialect) {
+        requireNonNull(dialect, "Dialect cannot be null");
+        configure(config -> config.withFullTextDialect(dialect), false);
+    }
+
+    /**
+     * Enable or disable one of the rewrites applied to every query once parsed, all of them
+     * enabled by default. The compiled queries are discarded, so the change applies to the
+     * next compilations.
+     *
+     * @param rewrite the rewrite
+     * @param enabled whether it is applied
+     */
+    public static void setRewriteEnabled(Rewrite rewrite, boolean enabled) {
+        requireNonNull(rewrite, "Rewrite cannot be null");
+        configure(config -> config.withRewrite(rewrite, enabled), false);
+    }
+
+    /**
+     * @return the rewrites applied to every query once parsed
+     */
+    public static Set<Rewrite> getRewrites() {
+        return defaultEngine().getConfig().getRewrites();
+    }
+
+    /**
+     * Choose whether {@link CompiledQuery#asPredicate()} generates a class for each query,
+     * enabled by default when ASM is on the class path and the runtime is Java 15 or later.
+     * Disabled, the predicates are interpreted. The compiled queries are discarded, so the
+     * change applies to the predicates asked for next.
+     *
+     * @param enabled whether the predicate classes are generated
+     */
+    public static void setPredicateClassGeneration(boolean enabled) {
+        configure(config -> config.withPredicateClassGeneration(enabled), false);
+    }
+
+    /**
+     * Set the maximum number of generated predicate classes kept, 256 by default. A class
+     * is unloaded once it is evicted and its predicate is no longer used.
+     *
+     * @param maximumClasses the maximum number of classes
+     */
+    public static void setMaximumPredicateClasses(long maximumClasses) {
+        if (maximumClasses < 0) {
+            throw new IllegalArgumentException("Maximum classes cannot be negative");
+        }
+        configure(config -> config.withMaximumPredicateClasses(maximumClasses), true);
+    }
+
+    /**
+     * Set the maximum weight of the compiled query cache, where each query weighs its
+     * length in characters. Zero disables the cache.
+     *
+     * @param maximumWeight the maximum weight
+     */
+    public static void setCacheMaximumWeight(long maximumWeight) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("Maximum weight cannot be negative");
+        }
+        configure(config -> config.withCacheMaximumWeight(maximumWeight), true);
+    }
+
+    /**
+     * Discard all compiled queries.
+     */
+    public static void clearCache() {
+        defaultEngine().clearCache();
     }
 
     /**
@@ -88,7 +456,9 @@ public class RQuery<T> {
      * @param <T>       type of value
      */
     public static <T> void registerConverter(Class<T> classOfT, Function<String, T> converter) {
-        ValueConverter.register(classOfT, converter);
+        requireNonNull(classOfT, "Class cannot be null");
+        requireNonNull(converter, "Converter cannot be null");
+        configure(config -> config.withConverter(classOfT, converter), false);
     }
 
     /**
@@ -99,6 +469,23 @@ public class RQuery<T> {
      * @param <T>         type of entity
      */
     public static <T> void registerMapper(Class<T> classOfT, UnaryOperator<String> fieldMapper) {
-        FIELD_MAPPERS.put(classOfT, fieldMapper);
+        requireNonNull(classOfT, "Class cannot be null");
+        requireNonNull(fieldMapper, "Field mapper cannot be null");
+        configure(config -> config.withFieldMapper(classOfT, fieldMapper), false);
+    }
+
+    /**
+     * Replace the default engine with one of the changed configuration.
+     *
+     * @param change    the change of the configuration
+     * @param keepCache whether the compiled queries are still valid once changed
+     */
+    private static void configure(UnaryOperator<RQueryConfig> change, boolean keepCache) {
+        RQueryEngine current;
+        RQueryEngine changed;
+        do {
+            current = DEFAULT_ENGINE.get();
+            changed = current.reconfigure(change.apply(current.getConfig()), keepCache);
+        } while (!DEFAULT_ENGINE.compareAndSet(current, changed));
     }
 }
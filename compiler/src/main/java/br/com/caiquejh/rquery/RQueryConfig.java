@@ -0,0 +1,427 @@
+package br.com.caiquejh.rquery;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The configuration of an {@link RQueryEngine}: the field mappers, the value converters, the
+ * policies, the parser, the rewrites, the size of the cache, the metrics, and the options the
+ * compiled queries are replayed with.
+ *
+ * <p>A configuration is immutable: each {@code with} method returns a copy with the change, so
+ * a configuration can be shared by threads and engines, and read without locks.</p>
+ *
+ * <pre>{@code
+ * RQueryEngine engine = RQueryEngine.of(RQueryConfig.defaults()
+ *         .withFieldMapper(Person.class, field -> field.replace("surname", "lastName"))
+ *         .withPolicy(Person.class, QueryPolicy.of(200)));
+ * }</pre>
+ *
+ * @author Caique Oliveira
+ */
+public final class RQueryConfig {
+
+    /**
+     * The default maximum weight of the compiled query cache.
+     */
+    public static final long DEFAULT_CACHE_MAXIMUM_WEIGHT = 1 << 20;
+
+    /**
+     * The default maximum number of generated predicate classes kept by an engine.
+     */
+    public static final long DEFAULT_MAXIMUM_PREDICATE_CLASSES = 256;
+
+    private static final RQueryConfig DEFAULTS = new RQueryConfig(Collections.emptyMap(), Collections.emptyMap(),
+            Collections.emptyMap(), QueryPolicy.unlimited(), FrontEnd.ANTLR,
+            new QueryRewriter(EnumSet.allOf(Rewrite.class)), DEFAULT_CACHE_MAXIMUM_WEIGHT, RQueryMetrics.none(),
+            InLists.DEFAULTS, StringMatching.DEFAULTS, FullText.NONE, true, DEFAULT_MAXIMUM_PREDICATE_CLASSES, false);
+
+    private final Map<Class<?>, UnaryOperator<String>> fieldMappers;
+    private final Map<Class<?>, ValueConverter.TypeConverter> converters;
+    private final Map<Class<?>, QueryPolicy> policies;
+    private final QueryPolicy defaultPolicy;
+    private final FrontEnd defaultFrontEnd;
+    private final QueryRewriter rewriter;
+    private final long cacheMaximumWeight;
+    private final RQueryMetrics metrics;
+    private final InLists inLists;
+    private final StringMatching stringMatching;
+    private final FullTextDialect fullTextDialect;
+    private final boolean predicateClassGeneration;
+    private final long maximumPredicateClasses;
+    private final boolean attributeUsageRecording;
+
+    private RQueryConfig(Map<Class<?>, UnaryOperator<String>> fieldMappers,
+                         Map<Class<?>, ValueConverter.TypeConverter> converters, Map<Class<?>, QueryPolicy> policies,
+                         QueryPolicy defaultPolicy, FrontEnd defaultFrontEnd, QueryRewriter rewriter,
+                         long cacheMaximumWeight, RQueryMetrics metrics, InLists inLists,
+                         StringMatching stringMatching, FullTextDialect fullTextDialect,
+                         boolean predicateClassGeneration, long maximumPredicateClasses,
+                         boolean attributeUsageRecording) {
+        this.fieldMappers = fieldMappers;
+        this.converters = converters;
+        this.policies = policies;
+        this.defaultPolicy = defaultPolicy;
+        this.defaultFrontEnd = defaultFrontEnd;
+        this.rewriter = rewriter;
+        this.cacheMaximumWeight = cacheMaximumWeight;
+        this.metrics = metrics;
+        this.inLists = inLists;
+        this.stringMatching = stringMatching;
+        this.fullTextDialect = fullTextDialect;
+        this.predicateClassGeneration = predicateClassGeneration;
+        this.maximumPredicateClasses = maximumPredicateClasses;
+        this.attributeUsageRecording = attributeUsageRecording;
+    }
+
+    /**
+     * @return the configuration without mappers, converters nor policies of its own, every
+     * rewrite enabled, no metrics, the lists of up to 1000 values written as one {@code in},
+     * the strings compared in upper case, no full-text index, the predicate classes generated
+     * and the attribute usages not recorded
+     */
+    public static RQueryConfig defaults() {
+        return DEFAULTS;
+    }
+
+    /**
+     * Map the attributes of the queries of the entity.
+     *
+     * @param classOfT    class of the entity
+     * @param fieldMapper a function mapper
+     * @param <T>         type of entity
+     * @return a copy with the mapper
+     */
+    public <T> RQueryConfig withFieldMapper(Class<T> classOfT, UnaryOperator<String> fieldMapper) {
+        Map<Class<?>, UnaryOperator<String>> changed = put(fieldMappers,
+                requireNonNull(classOfT, "Class cannot be null"), requireNonNull(fieldMapper, "Field mapper cannot be null"));
+        return new RQueryConfig(changed, converters, policies, defaultPolicy, defaultFrontEnd, rewriter,
+                cacheMaximumWeight, metrics, inLists, stringMatching, fullTextDialect, predicateClassGeneration,
+                maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * Convert the literals of a data type, instead of the built-in and registered converters.
+     *
+     * @param classOfT  class of the type
+     * @param converter a function converter
+     * @param <T>       type of value
+     * @return a copy with the converter
+     */
+    public <T> RQueryConfig withConverter(Class<T> classOfT, Function<String, T> converter) {
+        Map<Class<?>, ValueConverter.TypeConverter> changed = put(converters,
+                requireNonNull(classOfT, "Class cannot be null"),
+                ValueConverter.converterOf(classOfT, requireNonNull(converter, "Converter cannot be null")));
+        return new RQueryConfig(fieldMappers, changed, policies, defaultPolicy, defaultFrontEnd, rewriter,
+                cacheMaximumWeight, metrics, inLists, stringMatching, fullTextDialect, predicateClassGeneration,
+                maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * The policy the queries of the entity must respect, instead of the default one.
+     *
+     * @param classOfT class of the entity
+     * @param policy   the policy
+     * @param <T>      type of entity
+     * @return a copy with the policy
+     */
+    public <T> RQueryConfig withPolicy(Class<T> classOfT, QueryPolicy policy) {
+        Map<Class<?>, QueryPolicy> changed = put(policies,
+                requireNonNull(classOfT, "Class cannot be null"), requireNonNull(policy, "Policy cannot be null"));
+        return new RQueryConfig(fieldMappers, converters, changed, defaultPolicy, defaultFrontEnd, rewriter,
+                cacheMaximumWeight, metrics, inLists, stringMatching, fullTextDialect, predicateClassGeneration,
+                maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * @param policy the policy of the entities without a policy of their own,
+     *               {@link QueryPolicy#unlimited()} by default
+     * @return a copy with the policy
+     */
+    public RQueryConfig withDefaultPolicy(QueryPolicy policy) {
+        return new RQueryConfig(fieldMappers, converters, policies, requireNonNull(policy, "Policy cannot be null"),
+                defaultFrontEnd, rewriter, cacheMaximumWeight, metrics, inLists, stringMatching, fullTextDialect,
+                predicateClassGeneration, maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * @param frontEnd the parser used by default, {@link FrontEnd#ANTLR} by default
+     * @return a copy with the parser
+     */
+    public RQueryConfig withDefaultFrontEnd(FrontEnd frontEnd) {
+        return new RQueryConfig(fieldMappers, converters, policies, defaultPolicy,
+                requireNonNull(frontEnd, "Front end cannot be null"), rewriter, cacheMaximumWeight, metrics, inLists,
+                stringMatching, fullTextDialect, predicateClassGeneration, maximumPredicateClasses,
+                attributeUsageRecording);
+    }
+
+    /**
+     * @param rewrite the rewrite
+     * @param enabled whether it is applied to the queries once parsed, all of them by default
+     * @return a copy with the rewrite enabled or not
+     */
+    public RQueryConfig withRewrite(Rewrite rewrite, boolean enabled) {
+        QueryRewriter changed = rewriter.with(requireNonNull(rewrite, "Rewrite cannot be null"), enabled);
+        return new RQueryConfig(fieldMappers, converters, policies, defaultPolicy, defaultFrontEnd, changed,
+                cacheMaximumWeight, metrics, inLists, stringMatching, fullTextDialect, predicateClassGeneration,
+                maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * @param maximumWeight the maximum weight of the compiled query cache, where each query
+     *                      weighs its length in characters, zero to disable it
+     * @return a copy with the weight
+     * @throws IllegalArgumentException if the weight is negative
+     */
+    public RQueryConfig withCacheMaximumWeight(long maximumWeight) {
+        if (maximumWeight < 0) {
+            throw new IllegalArgumentException("Maximum weight cannot be negative");
+        }
+        return new RQueryConfig(fieldMappers, converters, policies, defaultPolicy, defaultFrontEnd, rewriter,
+                maximumWeight, metrics, inLists, stringMatching, fullTextDialect, predicateClassGeneration,
+                maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * @param metrics the listener told the timings and the shape of each parse,
+     *                {@link RQueryMetrics#none()} by default
+     * @return a copy with the metrics
+     */
+    public RQueryConfig withMetrics(RQueryMetrics metrics) {
+        return new RQueryConfig(fieldMappers, converters, policies, defaultPolicy, defaultFrontEnd, rewriter,
+                cacheMaximumWeight, requireNonNull(metrics, "Metrics cannot be null"), inLists, stringMatching,
+                fullTextDialect, predicateClassGeneration, maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * A large list is sorted and its repeated values removed on compilation, into a primitive
+     * array when its values are integral, and written as the {@link InListStrategy} says.
+     *
+     * @param threshold the maximum size of an {@code in} or {@code not in} list that is not large,
+     *                  1000 by default
+     * @return a copy with the threshold
+     * @throws IllegalArgumentException if the threshold is negative
+     */
+    public RQueryConfig withLargeInListThreshold(int threshold) {
+        if (threshold < 0) {
+            throw new IllegalArgumentException("Threshold cannot be negative");
+        }
+        return new RQueryConfig(fieldMappers, converters, policies, defaultPolicy, defaultFrontEnd, rewriter,
+                cacheMaximumWeight, metrics, inLists.withThreshold(threshold), stringMatching, fullTextDialect,
+                predicateClassGeneration, maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * Databases that limit the size of a list, or the parameters of a statement, need
+     * {@link InListStrategy#CHUNKED}.
+     *
+     * @param strategy how the large lists are written, {@link InListStrategy#SINGLE} by default
+     * @return a copy with the strategy
+     */
+    public RQueryConfig withInListStrategy(InListStrategy strategy) {
+        InLists changed = inLists.withStrategy(requireNonNull(strategy, "Strategy cannot be null"));
+        return new RQueryConfig(fieldMappers, converters, policies, defaultPolicy, defaultFrontEnd, rewriter,
+                cacheMaximumWeight, metrics, changed, stringMatching, fullTextDialect, predicateClassGeneration,
+                maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * @param chunkSize the maximum number of values of each {@code in} of a large list written in
+     *                  chunks, 1000 by default, the limit of some databases
+     * @return a copy with the chunk size
+     * @throws IllegalArgumentException if the chunk size is not positive
+     */
+    public RQueryConfig withInListChunkSize(int chunkSize) {
+        if (chunkSize <= 0) {
+            throw new IllegalArgumentException("Chunk size must be positive");
+        }
+        return new RQueryConfig(fieldMappers, converters, policies, defaultPolicy, defaultFrontEnd, rewriter,
+                cacheMaximumWeight, metrics, inLists.withChunkSize(chunkSize), stringMatching, fullTextDialect,
+                predicateClassGeneration, maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * @param strategy how the string operations compare the attributes without a strategy of
+     *                 their own, {@link StringMatchStrategy#upperCase()} by default
+     * @return a copy with the strategy
+     */
+    public RQueryConfig withDefaultStringMatch(StringMatchStrategy strategy) {
+        StringMatching changed = stringMatching.withDefault(requireNonNull(strategy, "Strategy cannot be null"));
+        return new RQueryConfig(fieldMappers, converters, policies, defaultPolicy, defaultFrontEnd, rewriter,
+                cacheMaximumWeight, metrics, inLists, changed, fullTextDialect, predicateClassGeneration,
+                maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * Compare an attribute, declared or inherited by the class, as the strategy says instead of
+     * the default strategy.
+     *
+     * @param classOfT  class of the entity, or of the embeddable, with the attribute
+     * @param attribute the name of the attribute
+     * @param strategy  the strategy
+     * @param <T>       type of entity
+     * @return a copy with the strategy of the attribute
+     */
+    public <T> RQueryConfig withStringMatch(Class<T> classOfT, String attribute, StringMatchStrategy strategy) {
+        StringMatching changed = stringMatching.with(requireNonNull(classOfT, "Class cannot be null"),
+                requireNonNull(attribute, "Attribute cannot be null"),
+                requireNonNull(strategy, "Strategy cannot be null"));
+        return new RQueryConfig(fieldMappers, converters, policies, defaultPolicy, defaultFrontEnd, rewriter,
+                cacheMaximumWeight, metrics, inLists, changed, fullTextDialect, predicateClassGeneration,
+                maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * @param dialect how {@code matches} searches the full-text index of the database,
+     *                {@link FullTextDialect#none()} by default, which compares it like {@code contains}
+     * @return a copy with the dialect
+     */
+    public RQueryConfig withFullTextDialect(FullTextDialect dialect) {
+        FullTextDialect changed = requireNonNull(dialect, "Dialect cannot be null");
+        return new RQueryConfig(fieldMappers, converters, policies, defaultPolicy, defaultFrontEnd, rewriter,
+                cacheMaximumWeight, metrics, inLists, stringMatching, changed, predicateClassGeneration,
+                maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * @param enabled whether {@link CompiledQuery#asPredicate()} generates a class for each query,
+     *                when ASM is on the class path and the runtime is Java 15 or later, enabled by
+     *                default; disabled, the predicates are interpreted
+     * @return a copy with the generation enabled or not
+     */
+    public RQueryConfig withPredicateClassGeneration(boolean enabled) {
+        return new RQueryConfig(fieldMappers, converters, policies, defaultPolicy, defaultFrontEnd, rewriter,
+                cacheMaximumWeight, metrics, inLists, stringMatching, fullTextDialect, enabled,
+                maximumPredicateClasses, attributeUsageRecording);
+    }
+
+    /**
+     * @param maximumClasses the maximum number of generated predicate classes kept by the engine,
+     *                       {@value #DEFAULT_MAXIMUM_PREDICATE_CLASSES} by default; a class is
+     *                       unloaded once it is evicted and its predicate is no longer used
+     * @return a copy with the maximum
+     * @throws IllegalArgumentException if the maximum is negative
+     */
+    public RQueryConfig withMaximumPredicateClasses(long maximumClasses) {
+        if (maximumClasses < 0) {
+            throw new IllegalArgumentException("Maximum classes cannot be negative");
+        }
+        return new RQueryConfig(fieldMappers, converters, policies, defaultPolicy, defaultFrontEnd, rewriter,
+                cacheMaximumWeight, metrics, inLists, stringMatching, fullTextDialect, predicateClassGeneration,
+                maximumClasses, attributeUsageRecording);
+    }
+
+    /**
+     * @param enabled whether the comparisons of the queries are counted by attribute, for
+     *                {@link RQueryEngine#attributeUsage()}, disabled by default
+     * @return a copy with the recording enabled or not
+     */
+    public RQueryConfig withAttributeUsageRecording(boolean enabled) {
+        return new RQueryConfig(fieldMappers, converters, policies, defaultPolicy, defaultFrontEnd, rewriter,
+                cacheMaximumWeight, metrics, inLists, stringMatching, fullTextDialect, predicateClassGeneration,
+                maximumPredicateClasses, enabled);
+    }
+
+    /**
+     * @param entityType class of the entity
+     * @return the field mapper of the entity, the identity when it has none
+     */
+    public UnaryOperator<String> getFieldMapper(Class<?> entityType) {
+        return fieldMappers.getOrDefault(entityType, UnaryOperator.identity());
+    }
+
+    /**
+     * @param entityType class of the entity
+     * @return the policy of the entity, the default one when it has none
+     */
+    public QueryPolicy getPolicy(Class<?> entityType) {
+        return policies.getOrDefault(entityType, defaultPolicy);
+    }
+
+    public FrontEnd getDefaultFrontEnd() {
+        return defaultFrontEnd;
+    }
+
+    /**
+     * @return the rewrites applied to the queries once parsed
+     */
+    public Set<Rewrite> getRewrites() {
+        return rewriter.getRewrites();
+    }
+
+    public long getCacheMaximumWeight() {
+        return cacheMaximumWeight;
+    }
+
+    public RQueryMetrics getMetrics() {
+        return metrics;
+    }
+
+    public int getLargeInListThreshold() {
+        return inLists.getThreshold();
+    }
+
+    public InListStrategy getInListStrategy() {
+        return inLists.getStrategy();
+    }
+
+    public int getInListChunkSize() {
+        return inLists.getChunkSize();
+    }
+
+    public StringMatchStrategy getDefaultStringMatch() {
+        return stringMatching.getDefault();
+    }
+
+    public FullTextDialect getFullTextDialect() {
+        return fullTextDialect;
+    }
+
+    public boolean isPredicateClassGeneration() {
+        return predicateClassGeneration;
+    }
+
+    public long getMaximumPredicateClasses() {
+        return maximumPredicateClasses;
+    }
+
+    public boolean isAttributeUsageRecording() {
+        return attributeUsageRecording;
+    }
+
+    Map<Class<?>, ValueConverter.TypeConverter> getConverters() {
+        return converters;
+    }
+
+    QueryRewriter getRewriter() {
+        return rewriter;
+    }
+
+    InLists getInLists() {
+        return inLists;
+    }
+
+    StringMatching getStringMatching() {
+        return stringMatching;
+    }
+
+    /**
+     * @return whether {@code matches} is a full-text search, instead of a {@code contains}
+     */
+    boolean isFullTextEnabled() {
+        return FullText.isEnabled(fullTextDialect);
+    }
+
+    private static <V> Map<Class<?>, V> put(Map<Class<?>, V> map, Class<?> key, V value) {
+        Map<Class<?>, V> copy = new HashMap<>(map);
+        copy.put(key, value);
+        return Collections.unmodifiableMap(copy);
+    }
+}
@@ -0,0 +1,283 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Root;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Compiler of rqueries with a {@link RQueryConfig} of its own and a cache of the queries it
+ * compiled, so engines configured differently can be used at the same time.
+ *
+ * <p>The configuration is read without locks and the engines share no state, so they do not
+ * contend with each other. The static methods of {@link RQuery} use the
+ * {@link RQuery#defaultEngine() default engine}. The options of the replay, like the
+ * {@link InListStrategy}, the {@link StringMatchStrategy}s and the {@link FullTextDialect},
+ * are part of the configuration too, carried by each compiled query, so engines replaying
+ * differently do not discard each other's queries.</p>
+ *
+ * <pre>{@code
+ * RQueryEngine tenants = RQueryEngine.of(RQueryConfig.defaults().withDefaultPolicy(QueryPolicy.of(100)));
+ * Predicate predicate = tenants.from(root, cb).parse(filter);
+ * }</pre>
+ *
+ * @author Caique Oliveira
+ */
+public final class RQueryEngine {
+
+    private final RQueryConfig config;
+    private final LruCache<CacheKey, CompiledQuery<?>> cache;
+    private final PredicateClassGenerator generator;
+    private final AttributeUsages usages;
+    private final Function<CacheKey, CompiledQuery<?>> loader = this::doCompile;
+
+    private RQueryEngine(RQueryConfig config, LruCache<CacheKey, CompiledQuery<?>> cache,
+                         PredicateClassGenerator generator, AttributeUsages usages) {
+        this.config = config;
+        this.cache = cache;
+        this.generator = generator;
+        this.usages = usages;
+    }
+
+    /**
+     * @param config the configuration
+     * @return an engine with the configuration and an empty cache
+     */
+    public static RQueryEngine of(RQueryConfig config) {
+        requireNonNull(config, "Config cannot be null");
+        return of(config, new AttributeUsages());
+    }
+
+    private static RQueryEngine of(RQueryConfig config, AttributeUsages usages) {
+        return new RQueryEngine(config,
+                new LruCache<>(config.getCacheMaximumWeight(), compiled -> compiled.getQuery().length()),
+                new PredicateClassGenerator(config.getMaximumPredicateClasses()), usages);
+    }
+
+    /**
+     * @param config   the configuration of the engine returned
+     * @param keepCache whether the compiled queries of this engine are still valid with the configuration
+     * @return an engine with the configuration and the attribute usage of this one, sharing its
+     * cache when kept
+     */
+    RQueryEngine reconfigure(RQueryConfig config, boolean keepCache) {
+        if (!keepCache) {
+            return of(config, usages);
+        }
+        cache.setMaximumWeight(config.getCacheMaximumWeight());
+        generator.setMaximumClasses(config.getMaximumPredicateClasses());
+        return new RQueryEngine(config, cache, generator, usages);
+    }
+
+    public RQueryConfig getConfig() {
+        return config;
+    }
+
+    /**
+     * Create from root and criteria builder, with this engine.
+     *
+     * @param root the root type
+     * @param cb   the criteria builder
+     * @param <T>  type of entity
+     * @return instance of RQuery for root
+     */
+    public <T> RQuery<T> from(Root<T> root, CriteriaBuilder cb) {
+        return new RQuery<>(this, requireNonNull(root, "Root cannot be null"),
+                requireNonNull(cb, "Criteria builder cannot be null"));
+    }
+
+    /**
+     * Compile the query string to a predicate evaluated in memory, over objects of the entity type.
+     *
+     * @param entityType class of the entity
+     * @param query      the rquery
+     * @param <T>        type of entity
+     * @return the predicate of the objects matching the query
+     * @throws RQueryException if a syntax or semantic error occurs
+     * @see CompiledQuery#asPredicate()
+     */
+    public <T> java.util.function.Predicate<T> predicate(Class<T> entityType, String query) throws RQueryException {
+        return compile(entityType, query).asPredicate();
+    }
+
+    /**
+     * Compile the query string for the entity type, with its field mapper and the default parser.
+     *
+     * @param entityType class of the entity
+     * @param query      the rquery
+     * @param <T>        type of entity
+     * @return the compiled query, ready to be replayed onto any root of the entity
+     * @throws RQueryException if a syntax or semantic error occurs
+     */
+    public <T> CompiledQuery<T> compile(Class<T> entityType, String query) throws RQueryException {
+        return compile(entityType, query, config.getFieldMapper(entityType), config.getDefaultFrontEnd());
+    }
+
+    /**
+     * Compile the query string for the entity type.
+     *
+     * @param entityType  class of the entity
+     * @param query       the rquery
+     * @param fieldMapper the field mapper, part of the cache key by identity
+     * @param frontEnd    the parser of the query
+     * @param <T>         type of entity
+     * @return the compiled query, ready to be replayed onto any root of the entity
+     * @throws RQueryException if a syntax or semantic error occurs
+     */
+    public <T> CompiledQuery<T> compile(Class<T> entityType, String query, UnaryOperator<String> fieldMapper,
+                                        FrontEnd frontEnd) throws RQueryException {
+        ParseProfile profile = startProfile();
+        CompiledQuery<T> compiled = compile(entityType, AttributeTable.of(requireNonNull(entityType,
+                "Entity type cannot be null")), query, fieldMapper, frontEnd, profile);
+        profile.finish(query, compiled);
+        record(compiled);
+        return compiled;
+    }
+
+    /**
+     * @return the counters of the compiled query cache of this engine
+     */
+    public CacheStats cacheStats() {
+        return cache.stats();
+    }
+
+    /**
+     * @return the counters of the generated predicate classes of this engine, with how many
+     * predicates had to be interpreted because no class could be generated
+     */
+    public CacheStats predicateClassStats() {
+        return generator.stats();
+    }
+
+    /**
+     * @return how often each attribute was compared in the queries of this engine, since the
+     * recording was enabled
+     * @see RQueryConfig#withAttributeUsageRecording(boolean)
+     */
+    public AttributeUsageReport attributeUsage() {
+        return usages.report();
+    }
+
+    /**
+     * Discard the queries compiled by this engine.
+     */
+    public void clearCache() {
+        cache.clear();
+    }
+
+    /**
+     * Count the comparisons of the compiled query, when the recording is enabled.
+     *
+     * @param compiled the compiled query
+     */
+    void record(CompiledQuery<?> compiled) {
+        if (config.isAttributeUsageRecording()) {
+            usages.record(compiled);
+        }
+    }
+
+    /**
+     * @return the generator of the predicate classes of this engine
+     */
+    PredicateClassGenerator getGenerator() {
+        return generator;
+    }
+
+    ParseProfile startProfile() {
+        return ParseProfile.start(config.getMetrics());
+    }
+
+    /**
+     * @param entityType  class of the entity
+     * @param attributes  the table the paths are resolved with, part of the cache key by identity, so a
+     *                    query resolved from the fields is not replayed where the metamodel is known
+     * @param query       the rquery
+     * @param fieldMapper the field mapper, part of the cache key by identity
+     * @param frontEnd    the parser of the query
+     * @param profile     the profile of the parse
+     * @param <T>         type of entity
+     * @return the compiled query
+     */
+    @SuppressWarnings("unchecked")
+    <T> CompiledQuery<T> compile(Class<T> entityType, AttributeTable attributes, String query,
+                                 UnaryOperator<String> fieldMapper, FrontEnd frontEnd, ParseProfile profile) {
+        CacheKey key = new CacheKey(requireNonNull(entityType, "Entity type cannot be null"), attributes,
+                requireNonNull(query, "Query cannot be null"),
+                requireNonNull(fieldMapper, "Field mapper cannot be null"),
+                requireNonNull(frontEnd, "Front end cannot be null"));
+        if (!profile.isEnabled()) {
+            return (CompiledQuery<T>) cache.get(key, loader);
+        }
+        return (CompiledQuery<T>) cache.get(key, k -> doCompile(k, profile));
+    }
+
+    private CompiledQuery<?> doCompile(CacheKey key) {
+        return doCompile(key, ParseProfile.DISABLED);
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private CompiledQuery<?> doCompile(CacheKey key, ParseProfile profile) {
+        QueryPolicy policy = config.getPolicy(key.entityType);
+        long admission = profile.now();
+        policy.admitLength(key.entityType, key.query);
+        profile.stop(ParsePhase.ADMIT, admission);
+        QueryNodeFactory factory = new QueryNodeFactory(key.attributes, key.fieldMapper, config, profile);
+        QueryNode node;
+        if (key.frontEnd == FrontEnd.HAND_WRITTEN) {
+            profile.startParse();
+            node = RecursiveDescentQueryParser.parse(key.query, factory, profile);
+        } else {
+            CriteriaRQueryLangListener listener = new CriteriaRQueryLangListener(factory);
+            profile.startParse();
+            AntlrQueryParser.parse(key.query, listener, profile);
+            node = listener.toQueryNode();
+        }
+        profile.stopParse();
+        long rewriting = profile.now();
+        node = config.getRewriter().rewrite(node, config.getInLists());
+        profile.stop(ParsePhase.REWRITE, rewriting);
+        if (!policy.isUnlimited()) {
+            admission = profile.now();
+            policy.admit(key.entityType, node, config.isFullTextEnabled());
+            profile.stop(ParsePhase.ADMIT, admission);
+        }
+        return new CompiledQuery(key.entityType, key.query, node, config, generator);
+    }
+
+    private static final class CacheKey {
+        final Class<?> entityType;
+        final AttributeTable attributes;
+        final String query;
+        final UnaryOperator<String> fieldMapper;
+        final FrontEnd frontEnd;
+
+        CacheKey(Class<?> entityType, AttributeTable attributes, String query, UnaryOperator<String> fieldMapper,
+                 FrontEnd frontEnd) {
+            this.entityType = entityType;
+            this.attributes = attributes;
+            this.query = query;
+            this.fieldMapper = fieldMapper;
+            this.frontEnd = frontEnd;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            CacheKey that = (CacheKey) o;
+            return entityType == that.entityType && attributes == that.attributes && fieldMapper == that.fieldMapper
+                    && frontEnd == that.frontEnd && query.equals(that.query);
+        }
+
+        @Override
+        public int hashCode() {
+            return Objects.hash(entityType, System.identityHashCode(attributes), query,
+                    System.identityHashCode(fieldMapper), frontEnd);
+        }
+    }
+}
@@ -0,0 +1,289 @@
+package br.com.caiquejh.rquery;
+
+import org.antlr.v4.runtime.Token;
+
+import static br.com.caiquejh.rquery.RQueryLangLexer.*;
+
+/**
+ * Hand-written scanner for the tokens of {@code RQueryLang.g4}.
+ *
+ * <p>It keeps only the type and the offsets of the current token, so scanning does not
+ * allocate; the text of a token is only created when asked for. Token types are the
+ * ones of the generated {@link RQueryLangLexer}, and like it, when no token matches, the
+ * characters read by the failed attempt are skipped together with the one after them.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class RQueryLangScanner {
+
+    private final String input;
+    private final int length;
+    private final ParseProfile profile;
+    private final boolean profiled;
+
+    private int type;
+    private int start;
+    private int end;
+    private int failure;
+    private int count;
+
+    RQueryLangScanner(String input) {
+        this(input, ParseProfile.DISABLED);
+    }
+
+    /**
+     * @param input   the rquery
+     * @param profile the profile the scanning of each token is timed in, when enabled
+     */
+    RQueryLangScanner(String input, ParseProfile profile) {
+        this.input = input;
+        this.length = input.length();
+        this.profile = profile;
+        this.profiled = profile.isEnabled();
+        next();
+    }
+
+    /**
+     * @return the type of the current token, {@link Token#EOF} at the end of the input
+     */
+    int type() {
+        return type;
+    }
+
+    /**
+     * @return the offset of the first character of the current token
+     */
+    int start() {
+        return start;
+    }
+
+    /**
+     * @return the offset after the last character of the current token
+     */
+    int end() {
+        return end;
+    }
+
+    String input() {
+        return input;
+    }
+
+    /**
+     * @return the number of tokens moved to so far, without the end of the input
+     */
+    int count() {
+        return count;
+    }
+
+    /**
+     * @return the text of the current token
+     */
+    String text() {
+        return type == Token.EOF ? "<EOF>" : input.substring(start, end);
+    }
+
+    /**
+     * @return the content of the current string token, without the quotes
+     */
+    String stringContent() {
+        return input.substring(start + 1, end - 1);
+    }
+
+    /**
+     * @return the type of the token after the current one, without moving to it
+     */
+    int peek() {
+        int type = this.type;
+        int start = this.start;
+        int end = this.end;
+        advance();
+        int next = this.type;
+        this.type = type;
+        this.start = start;
+        this.end = end;
+        return next;
+    }
+
+    /**
+     * Move to the next token.
+     */
+    void next() {
+        if (!profiled) {
+            advance();
+        } else {
+            long scanning = profile.now();
+            advance();
+            profile.stop(ParsePhase.LEX, scanning);
+        }
+        if (type != Token.EOF) {
+            count++;
+        }
+    }
+
+    private void advance() {
+        int position = end;
+        while (position < length) {
+            char c = input.charAt(position);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\r') {
+                position++;
+                continue;
+            }
+            start = position;
+            if (scan(c, position)) {
+                return;
+            }
+            position = Math.min(failure + 1, length);
+        }
+        type = Token.EOF;
+        start = end = length;
+    }
+
+    int line(int offset) {
+        int line = 1;
+        for (int i = 0; i < offset; i++) {
+            if (input.charAt(i) == '\n') {
+                line++;
+            }
+        }
+        return line;
+    }
+
+    int column(int offset) {
+        return offset - input.lastIndexOf('\n', offset - 1) - 1;
+    }
+
+    private boolean scan(char c, int position) {
+        switch (c) {
+            case '(':
+                return token(OPEN_PAR, position + 1);
+            case ')':
+                return token(CLOSE_PAR, position + 1);
+            case '.':
+                return token(DOT, position + 1);
+            case ',':
+                return token(COMMA, position + 1);
+            case '=':
+                return token(EQ, position + 1);
+            case '|':
+                return at(position + 1, '|') ? token(PIPE2, position + 2) : fail(position + 1);
+            case '&':
+                return at(position + 1, '&') ? token(AMP2, position + 2) : fail(position + 1);
+            case '!':
+                return at(position + 1, '=') ? token(NOT_EQ1, position + 2) : fail(position + 1);
+            case '<':
+                if (at(position + 1, '=')) return token(LT_EQ, position + 2);
+                if (at(position + 1, '>')) return token(NOT_EQ2, position + 2);
+                return token(LT, position + 1);
+            case '>':
+                if (at(position + 1, '=')) return token(GT_EQ, position + 2);
+                return token(GT, position + 1);
+            case '\'':
+            case '"':
+                int close = input.indexOf(c, position + 1);
+                return close >= 0 ? token(STRING, close + 1) : fail(length);
+            default:
+                if (isIdStart(c)) {
+                    int stop = position + 1;
+                    while (stop < length && isIdPart(input.charAt(stop))) {
+                        stop++;
+                    }
+                    return token(keyword(position, stop - position), stop);
+                }
+                return scanNumber(c, position);
+        }
+    }
+
+    private boolean scanNumber(char c, int position) {
+        int stop = position;
+        if (c == '-' || c == '+') {
+            stop++;
+        }
+        int digits = digits(stop);
+        if (digits == stop) {
+            return fail(stop);
+        }
+        stop = digits;
+        if (at(stop, '.')) {
+            stop = digits(stop + 1);
+        }
+        if (at(stop, 'e') || at(stop, 'E')) {
+            int exponent = stop + 1;
+            if (at(exponent, '-') || at(exponent, '+')) {
+                exponent++;
+            }
+            int exponentDigits = digits(exponent);
+            if (exponentDigits > exponent) {
+                stop = exponentDigits;
+            }
+        }
+        return token(NUMBER, stop);
+    }
+
+    private int digits(int position) {
+        while (position < length && isDigit(input.charAt(position))) {
+            position++;
+        }
+        return position;
+    }
+
+    private int keyword(int position, int length) {
+        switch (length) {
+            case 2:
+                if (matches(position, "in")) return IN;
+                if (matches(position, "is")) return IS;
+                if (matches(position, "or")) return OR;
+                return ID;
+            case 3:
+                if (matches(position, "and")) return AND;
+                if (matches(position, "not")) return NOT;
+                return ID;
+            case 4:
+                if (matches(position, "null")) return NULL;
+                if (matches(position, "true")) return TRUE;
+                return ID;
+            case 5:
+                return matches(position, "false") ? FALSE : ID;
+            case 6:
+                return matches(position, "starts") ? STARTS : ID;
+            case 7:
+                if (matches(position, "between")) return BETWEEN;
+                if (matches(position, "matches")) return MATCHES;
+                return ID;
+            case 8:
+                return matches(position, "contains") ? CONTAINS : ID;
+            default:
+                return ID;
+        }
+    }
+
+    private boolean matches(int position, String keyword) {
+        return input.regionMatches(true, position, keyword, 0, keyword.length());
+    }
+
+    private boolean token(int type, int end) {
+        this.type = type;
+        this.end = end;
+        return true;
+    }
+
+    private boolean fail(int failure) {
+        this.failure = failure;
+        return false;
+    }
+
+    private boolean at(int position, char c) {
+        return position < length && input.charAt(position) == c;
+    }
+
+    private static boolean isIdStart(char c) {
+        return (c >= 'a' && c <= 'z') || (c >= 'A' && c <= 'Z') || c == '_';
+    }
+
+    private static boolean isIdPart(char c) {
+        return isIdStart(c) || isDigit(c);
+    }
+
+    private static boolean isDigit(char c) {
+        return c >= '0' && c <= '9';
+    }
+}
@@ -0,0 +1,29 @@
+package br.com.caiquejh.rquery;
+
+/**
+ * Listener of the parses of rqueries, set with {@link RQuery#setMetrics(RQueryMetrics)}, told the
+ * time of each {@link ParsePhase} and the shape of the query.
+ *
+ * <p>{@link RQuery#parse(String)}, {@link RQuery#parseParameterized(String)} and
+ * {@link RQuery#compile(Class, String)} record a sample on each call, on the calling thread, so
+ * an implementation must be fast and thread safe. The default, {@link #none()}, records
+ * nothing, and nothing is timed nor counted while it is set.</p>
+ *
+ * @author Caique Oliveira
+ * @see HistogramMetrics
+ */
+@FunctionalInterface
+public interface RQueryMetrics {
+
+    /**
+     * @param sample the timings and the shape of one parse
+     */
+    void record(ParseSample sample);
+
+    /**
+     * @return the metrics that record nothing
+     */
+    static RQueryMetrics none() {
+        return ParseProfile.NONE;
+    }
+}
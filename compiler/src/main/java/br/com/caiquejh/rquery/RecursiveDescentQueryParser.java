@@ -0,0 +1,321 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+import org.antlr.v4.runtime.Token;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import static br.com.caiquejh.rquery.RQueryLangLexer.*;
+
+/**
+ * Hand-written recursive-descent parser for the language of {@code RQueryLang.g4}.
+ *
+ * <p>Each method follows the rule of the same name of the grammar and builds the nodes
+ * through the same {@link QueryNodeFactory} of the ANTLR front end, in the same order,
+ * so both accept the same queries and compile them to the same nodes. Like the grammar,
+ * the query ends where the last term ends, whatever follows it.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class RecursiveDescentQueryParser {
+
+    private final RQueryLangScanner scanner;
+    private final QueryNodeFactory factory;
+
+    private RecursiveDescentQueryParser(String query, QueryNodeFactory factory, ParseProfile profile) {
+        this.scanner = new RQueryLangScanner(query, profile);
+        this.factory = factory;
+    }
+
+    /**
+     * @param query   the rquery
+     * @param factory the factory of the nodes of the entity
+     * @return the compiled query node
+     * @throws RQueryException if a syntax or semantic error occurs
+     */
+    static QueryNode parse(String query, QueryNodeFactory factory) {
+        return parse(query, factory, ParseProfile.DISABLED);
+    }
+
+    /**
+     * Parse the query, timing the scanning of its tokens and counting them when the profile is enabled.
+     *
+     * @param query   the rquery
+     * @param factory the factory of the nodes of the entity
+     * @param profile the profile of the parse
+     * @return the compiled query node
+     * @throws RQueryException if a syntax or semantic error occurs
+     */
+    static QueryNode parse(String query, QueryNodeFactory factory, ParseProfile profile) {
+        RecursiveDescentQueryParser parser = new RecursiveDescentQueryParser(query, factory, profile);
+        QueryNode node = parser.query();
+        profile.setTokenCount(parser.scanner.count());
+        return node;
+    }
+
+    private QueryNode query() {
+        List<QueryNode> terms = new ArrayList<>(4);
+        List<Operation> operators = new ArrayList<>(4);
+        terms.add(term());
+        while (isLogical(scanner.type())) {
+            operators.add(logical());
+            terms.add(term());
+        }
+        return factory.fold(terms, operators);
+    }
+
+    private QueryNode term() {
+        if (scanner.type() != OPEN_PAR) {
+            return expression();
+        }
+        scanner.next();
+        List<QueryNode> expressions = new ArrayList<>(4);
+        List<Operation> operators = new ArrayList<>(4);
+        expressions.add(expression());
+        while (isLogical(scanner.type())) {
+            operators.add(logical());
+            expressions.add(expression());
+        }
+        expect(CLOSE_PAR);
+        return factory.fold(expressions, operators);
+    }
+
+    private QueryNode expression() {
+        String text = attribute();
+        predict();
+        AttributePath attribute = factory.attribute(text);
+        Operation operation = operation();
+        List<Object> values;
+        switch (operation) {
+            case IN:
+            case NOT_IN:
+                expect(OPEN_PAR);
+                values = new ArrayList<>();
+                values.add(value(attribute));
+                while (scanner.type() == COMMA) {
+                    scanner.next();
+                    values.add(value(attribute));
+                }
+                expect(CLOSE_PAR);
+                break;
+            case CONTAINS:
+            case NOT_CONTAINS:
+            case STARTS:
+            case NOT_STARTS:
+            case MATCHES:
+            case NOT_MATCHES:
+                check(STRING);
+                values = Collections.singletonList(factory.needle(attribute, scanner.stringContent()));
+                scanner.next();
+                break;
+            case IS_TRUE:
+            case IS_FALSE:
+            case IS_NULL:
+            case IS_NOT_NULL:
+                values = Collections.emptyList();
+                break;
+            case BETWEEN:
+                values = new ArrayList<>(2);
+                values.add(value(attribute));
+                expect(AND);
+                values.add(value(attribute));
+                break;
+            default:
+                values = Collections.singletonList(value(attribute));
+        }
+        return factory.expression(attribute, operation, values);
+    }
+
+    /**
+     * Consume the tokens of the attribute, creating its text only once.
+     */
+    private String attribute() {
+        check(ID);
+        int start = scanner.start();
+        int end = scanner.end();
+        boolean contiguous = true;
+        scanner.next();
+        while (scanner.type() == DOT) {
+            contiguous &= scanner.start() == end;
+            scanner.next();
+            check(ID);
+            contiguous &= scanner.start() == end + 1;
+            end = scanner.end();
+            scanner.next();
+        }
+        String text = scanner.input().substring(start, end);
+        return contiguous ? text : text.replaceAll("\\s", "");
+    }
+
+    /**
+     * Check the operator decides an alternative of the expression before the attribute is
+     * resolved, like the prediction of the generated parser.
+     */
+    private void predict() {
+        switch (scanner.type()) {
+            case EQ:
+            case NOT_EQ1:
+            case NOT_EQ2:
+            case GT:
+            case GT_EQ:
+            case LT:
+            case LT_EQ:
+            case IN:
+            case CONTAINS:
+            case STARTS:
+            case MATCHES:
+            case BETWEEN:
+            case IS:
+                return;
+            case NOT:
+                int next = scanner.peek();
+                if (next == IN || next == CONTAINS || next == STARTS || next == MATCHES) {
+                    return;
+                }
+                scanner.next();
+                throw syntaxError();
+            default:
+                throw syntaxError();
+        }
+    }
+
+    /**
+     * Consume the operator.
+     */
+    private Operation operation() {
+        int type = scanner.type();
+        Operation operation;
+        switch (type) {
+            case EQ:
+                operation = Operation.EQUAL;
+                break;
+            case NOT_EQ1:
+            case NOT_EQ2:
+                operation = Operation.NOT_EQUAL;
+                break;
+            case GT:
+                operation = Operation.GREATER_THAN;
+                break;
+            case GT_EQ:
+                operation = Operation.GREATER_EQUAL_THAN;
+                break;
+            case LT:
+                operation = Operation.LESS_THAN;
+                break;
+            case LT_EQ:
+                operation = Operation.LESS_EQUAL_THAN;
+                break;
+            case IN:
+                operation = Operation.IN;
+                break;
+            case CONTAINS:
+                operation = Operation.CONTAINS;
+                break;
+            case STARTS:
+                operation = Operation.STARTS;
+                break;
+            case MATCHES:
+                operation = Operation.MATCHES;
+                break;
+            case BETWEEN:
+                operation = Operation.BETWEEN;
+                break;
+            case NOT:
+                return not();
+            case IS:
+                return is();
+            default:
+                throw syntaxError();
+        }
+        scanner.next();
+        return operation;
+    }
+
+    private Operation not() {
+        scanner.next();
+        Operation operation;
+        switch (scanner.type()) {
+            case IN:
+                operation = Operation.NOT_IN;
+                break;
+            case CONTAINS:
+                operation = Operation.NOT_CONTAINS;
+                break;
+            case MATCHES:
+                operation = Operation.NOT_MATCHES;
+                break;
+            default:
+                operation = Operation.NOT_STARTS;
+        }
+        scanner.next();
+        return operation;
+    }
+
+    private Operation is() {
+        scanner.next();
+        Operation operation;
+        switch (scanner.type()) {
+            case TRUE:
+                operation = Operation.IS_TRUE;
+                break;
+            case FALSE:
+                operation = Operation.IS_FALSE;
+                break;
+            case NULL:
+                operation = Operation.IS_NULL;
+                break;
+            case NOT:
+                scanner.next();
+                check(NULL);
+                operation = Operation.IS_NOT_NULL;
+                break;
+            default:
+                throw syntaxError();
+        }
+        scanner.next();
+        return operation;
+    }
+
+    private Object value(AttributePath attribute) {
+        Object value;
+        if (scanner.type() == STRING) {
+            value = factory.literal(attribute, scanner.stringContent());
+        } else if (scanner.type() == NUMBER) {
+            value = factory.literal(attribute, scanner.text());
+        } else {
+            throw syntaxError();
+        }
+        scanner.next();
+        return value;
+    }
+
+    private Operation logical() {
+        Operation operation = scanner.type() == AND || scanner.type() == AMP2 ? Operation.AND : Operation.OR;
+        scanner.next();
+        return operation;
+    }
+
+    private static boolean isLogical(int type) {
+        return type == AND || type == OR || type == AMP2 || type == PIPE2;
+    }
+
+    private void expect(int type) {
+        check(type);
+        scanner.next();
+    }
+
+    private void check(int type) {
+        if (scanner.type() != type) {
+            throw syntaxError();
+        }
+    }
+
+    private RQueryException syntaxError() {
+        int offset = scanner.start();
+        String text = scanner.type() == Token.EOF ? "<EOF>" : scanner.text();
+        return new RQueryException("Failed to parse at line " + scanner.line(offset) + " and at column "
+                + scanner.column(offset) + " due to mismatched input '" + text + "'");
+    }
+}
@@ -0,0 +1,42 @@
+package br.com.caiquejh.rquery;
+
+/**
+ * The rewrites applied to a query once it is parsed, so equivalent filters compile to the
+ * same query and generate the same SQL. Every rewrite is enabled by default, and each can
+ * be turned off with {@link RQuery#setRewriteEnabled(Rewrite, boolean)}.
+ *
+ * @author Caique Oliveira
+ */
+public enum Rewrite {
+
+    /**
+     * Merge nested chains of the same logical operator, so {@code (a and b) and c} is
+     * {@code a and b and c}.
+     */
+    FLATTEN,
+
+    /**
+     * Remove the operands repeated in a chain and the values repeated in a list, so
+     * {@code a = 1 and a = 1} is {@code a = 1}.
+     */
+    DEDUPLICATE,
+
+    /**
+     * Merge the equalities and lists of the same attribute in a disjunction into one sorted list,
+     * so {@code a = 2 or a = 1} is {@code a in (1, 2)}.
+     */
+    IN_LIST,
+
+    /**
+     * Merge a lower and an upper bound of the same attribute in a conjunction into a range,
+     * so {@code a >= 1 and a <= 9} is {@code a between 1 and 9}. Attributes reached through a
+     * collection are kept as written, as each bound may hold for another element in memory.
+     */
+    BETWEEN,
+
+    /**
+     * Sort the operands of a chain and the values of a list, so {@code b = 1 or a = 1} is
+     * {@code a = 1 or b = 1}.
+     */
+    CANONICAL_ORDER
+}
@@ -0,0 +1,93 @@
+package br.com.caiquejh.rquery;
+
+import java.util.AbstractList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.RandomAccess;
+
+/**
+ * An immutable list of integral values of one type, sorted and without repetitions, kept in a
+ * primitive array.
+ *
+ * <p>Large {@code in} lists are kept in it: it takes a fraction of the memory of the boxed
+ * values, and looking a value up is a binary search.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class SortedLongList extends AbstractList<Object> implements RandomAccess {
+
+    private final Class<?> type;
+    private final long[] values;
+
+    private SortedLongList(Class<?> type, long[] values) {
+        this.type = type;
+        this.values = values;
+    }
+
+    /**
+     * @param values the values
+     * @return whether the values are all bytes, shorts, integers or longs of the same type
+     */
+    static boolean supports(List<Object> values) {
+        if (values.isEmpty() || !isIntegral(values.get(0))) {
+            return false;
+        }
+        Class<?> type = values.get(0).getClass();
+        for (Object value : values) {
+            if (value == null || value.getClass() != type) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @param values the values, supported by this list
+     * @return the values sorted and without repetitions
+     */
+    static SortedLongList of(List<Object> values) {
+        long[] sorted = new long[values.size()];
+        for (int i = 0; i < sorted.length; i++) {
+            sorted[i] = ((Number) values.get(i)).longValue();
+        }
+        Arrays.sort(sorted);
+        int size = 0;
+        for (int i = 0; i < sorted.length; i++) {
+            if (size == 0 || sorted[i] != sorted[size - 1]) {
+                sorted[size++] = sorted[i];
+            }
+        }
+        return new SortedLongList(values.get(0).getClass(), size == sorted.length ? sorted : Arrays.copyOf(sorted, size));
+    }
+
+    /**
+     * @param value the value looked up
+     * @return whether the list has the value
+     */
+    boolean containsLong(long value) {
+        return Arrays.binarySearch(values, value) >= 0;
+    }
+
+    @Override
+    public boolean contains(Object o) {
+        return isIntegral(o) && containsLong(((Number) o).longValue());
+    }
+
+    @Override
+    public Object get(int index) {
+        long value = values[index];
+        if (type == Integer.class) return (int) value;
+        if (type == Long.class) return value;
+        if (type == Short.class) return (short) value;
+        return (byte) value;
+    }
+
+    @Override
+    public int size() {
+        return values.length;
+    }
+
+    private static boolean isIntegral(Object value) {
+        return value instanceof Integer || value instanceof Long || value instanceof Short || value instanceof Byte;
+    }
+}
@@ -0,0 +1,135 @@
+package br.com.caiquejh.rquery;
+
+import java.math.BigDecimal;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * The SQL a compiled query is written in by {@link CompiledQuery#toSql(SqlDialect, ColumnMapping)}.
+ *
+ * <p>Every dialect writes the comparisons with {@code ?} placeholders, the string operations with
+ * {@code like} and the escape of {@link StringMatchStrategy}, and the booleans as bound values.
+ * They differ in the {@code in} lists and in the {@code matches} operator, which is written with
+ * the full-text search of the database once a {@link FullTextDialect} is set, and like
+ * {@code contains} otherwise.</p>
+ *
+ * @author Caique Oliveira
+ */
+public enum SqlDialect {
+
+    /**
+     * Standard SQL. The lists are written {@code column in (?, ?, ?, ?)}, padded to the next
+     * power of two by repeating their last value and split as the {@link InListStrategy} says,
+     * and {@code matches} is always compared like {@code contains}.
+     */
+    ANSI {
+        @Override
+        boolean bindsArrayOf(Class<?> type) {
+            return false;
+        }
+
+        @Override
+        void bindArray(PreparedStatement statement, int index, Class<?> type, Object[] values) {
+            throw new IllegalStateException("ANSI lists are not bound as arrays");
+        }
+
+        @Override
+        String fullText(String column, String idColumn, Class<?> idType, String table) {
+            return null;
+        }
+    },
+
+    /**
+     * H2. The lists are a single array, {@code column = any(?)}, whatever their size, and
+     * {@code matches} looks the identifier of the row up in the keys found by
+     * {@code FT_SEARCH_DATA}, searched once for the statement.
+     */
+    H2 {
+        @Override
+        boolean bindsArrayOf(Class<?> type) {
+            return true;
+        }
+
+        @Override
+        void bindArray(PreparedStatement statement, int index, Class<?> type, Object[] values) throws SQLException {
+            statement.setObject(index, values);
+        }
+
+        @Override
+        String fullText(String column, String idColumn, Class<?> idType, String table) {
+            String keyType = H2_KEY_TYPES.get(idType);
+            String key = keyType == null ? "KEYS[1]" : "cast(KEYS[1] as " + keyType + ")";
+            return idColumn + " in (select " + key + " from FT_SEARCH_DATA(?, 0, 0) where \"TABLE\" = '" + table + "')";
+        }
+    },
+
+    /**
+     * PostgreSQL. The lists of numbers, strings, dates, timestamps and UUIDs are a single array,
+     * {@code column = any(?)}, and the others are written like {@link #ANSI}. {@code matches}
+     * calls the function of {@link FullTextDialect#postgreSql()}.
+     */
+    POSTGRESQL {
+        @Override
+        boolean bindsArrayOf(Class<?> type) {
+            return POSTGRESQL_ARRAY_TYPES.containsKey(type);
+        }
+
+        @Override
+        void bindArray(PreparedStatement statement, int index, Class<?> type, Object[] values) throws SQLException {
+            statement.setArray(index, statement.getConnection().createArrayOf(POSTGRESQL_ARRAY_TYPES.get(type), values));
+        }
+
+        @Override
+        String fullText(String column, String idColumn, Class<?> idType, String table) {
+            return "rquery_matches(" + column + ", ?)";
+        }
+    };
+
+    private static final Map<Class<?>, String> POSTGRESQL_ARRAY_TYPES = new HashMap<>();
+    private static final Map<Class<?>, String> H2_KEY_TYPES = new HashMap<>();
+
+    static {
+        H2_KEY_TYPES.put(Short.class, "smallint");
+        H2_KEY_TYPES.put(short.class, "smallint");
+        H2_KEY_TYPES.put(Integer.class, "int");
+        H2_KEY_TYPES.put(int.class, "int");
+        H2_KEY_TYPES.put(Long.class, "bigint");
+        H2_KEY_TYPES.put(long.class, "bigint");
+        H2_KEY_TYPES.put(String.class, "varchar");
+        H2_KEY_TYPES.put(UUID.class, "uuid");
+
+        POSTGRESQL_ARRAY_TYPES.put(String.class, "varchar");
+        POSTGRESQL_ARRAY_TYPES.put(Short.class, "int2");
+        POSTGRESQL_ARRAY_TYPES.put(Integer.class, "int4");
+        POSTGRESQL_ARRAY_TYPES.put(Long.class, "int8");
+        POSTGRESQL_ARRAY_TYPES.put(Float.class, "float4");
+        POSTGRESQL_ARRAY_TYPES.put(Double.class, "float8");
+        POSTGRESQL_ARRAY_TYPES.put(BigDecimal.class, "numeric");
+        POSTGRESQL_ARRAY_TYPES.put(UUID.class, "uuid");
+        POSTGRESQL_ARRAY_TYPES.put(Date.class, "date");
+        POSTGRESQL_ARRAY_TYPES.put(Timestamp.class, "timestamp");
+    }
+
+    /**
+     * @param type the type of the values of a list, as bound
+     * @return whether the lists of the type are bound as one array
+     */
+    abstract boolean bindsArrayOf(Class<?> type);
+
+    abstract void bindArray(PreparedStatement statement, int index, Class<?> type, Object[] values) throws SQLException;
+
+    /**
+     * @param column   the column searched
+     * @param idColumn the identifier column of the row
+     * @param idType   the class of the identifier of the row
+     * @param table    the table of the row
+     * @return the full-text search of the text bound to its placeholder, or null to compare it
+     * like {@code contains}
+     */
+    abstract String fullText(String column, String idColumn, Class<?> idType, String table);
+}
@@ -0,0 +1,246 @@
+package br.com.caiquejh.rquery;
+
+import javax.persistence.EnumType;
+import javax.persistence.TemporalType;
+import java.sql.Time;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.LocalTime;
+import java.time.OffsetDateTime;
+import java.time.ZonedDateTime;
+import java.util.ArrayList;
+import java.util.Date;
+import java.util.List;
+
+/**
+ * Write a compiled query as the condition of a SQL {@code where} in a {@link SqlDialect}, with the
+ * columns of a {@link ColumnMapping}, instead of replaying it onto a criteria query.
+ *
+ * @author Caique Oliveira
+ */
+final class SqlQueryNodeVisitor implements QueryNodeVisitor<Void> {
+
+    private static final String ESCAPE = " escape '" + StringMatching.ESCAPE + "'";
+
+    private final SqlDialect dialect;
+    private final ColumnMapping columns;
+    private final RQueryConfig config;
+    private final StringBuilder sql = new StringBuilder(64);
+    private final List<Object> values = new ArrayList<>();
+    private final List<Class<?>> arrayTypes = new ArrayList<>();
+
+    private SqlQueryNodeVisitor(SqlDialect dialect, ColumnMapping columns, RQueryConfig config) {
+        this.dialect = dialect;
+        this.columns = columns;
+        this.config = config;
+    }
+
+    /**
+     * @param node    the compiled query
+     * @param dialect the dialect
+     * @param columns the columns of the entity of the query
+     * @param config  the configuration the query was compiled with
+     * @return the condition and its values
+     */
+    static SqlWhere write(QueryNode node, SqlDialect dialect, ColumnMapping columns, RQueryConfig config) {
+        SqlQueryNodeVisitor visitor = new SqlQueryNodeVisitor(dialect, columns, config);
+        node.accept(visitor);
+        return new SqlWhere(visitor.sql.toString(), dialect, columns, visitor.values.toArray(),
+                visitor.arrayTypes.toArray(new Class<?>[0]));
+    }
+
+    @Override
+    public Void visitLogical(LogicalNode node) {
+        String operator = node.getOperation() == Operation.AND ? " and " : " or ";
+        List<QueryNode> operands = node.getOperands();
+        for (int i = 0; i < operands.size(); i++) {
+            if (i > 0) {
+                sql.append(operator);
+            }
+            QueryNode operand = operands.get(i);
+            if (operand instanceof LogicalNode) {
+                sql.append('(');
+                operand.accept(this);
+                sql.append(')');
+            } else {
+                operand.accept(this);
+            }
+        }
+        return null;
+    }
+
+    @Override
+    public Void visitExpression(ExpressionNode node) {
+        AttributePath attribute = node.getAttribute();
+        String column = columns.getColumn(attribute.getPath());
+        switch (node.getOperation()) {
+            case EQUAL:
+            case NOT_EQUAL:
+            case GREATER_THAN:
+            case GREATER_EQUAL_THAN:
+            case LESS_THAN:
+            case LESS_EQUAL_THAN:
+                String symbol = node.getOperation() == Operation.NOT_EQUAL ? "<>" : node.getOperation().symbol();
+                sql.append(column).append(' ').append(symbol).append(" ?");
+                bind(attribute, node.getValue());
+                break;
+            case IS_TRUE:
+            case IS_FALSE:
+                sql.append(column).append(" = ?");
+                bind(attribute, node.getOperation() == Operation.IS_TRUE);
+                break;
+            case IS_NULL:
+                sql.append(column).append(" is null");
+                break;
+            case IS_NOT_NULL:
+                sql.append(column).append(" is not null");
+                break;
+            case CONTAINS:
+            case STARTS:
+            case NOT_CONTAINS:
+            case NOT_STARTS:
+                match(node, column);
+                break;
+            case MATCHES:
+            case NOT_MATCHES:
+                String search = config.isFullTextEnabled() && dialect != SqlDialect.ANSI
+                        ? dialect.fullText(column, columns.getIdColumn(), columns.getIdType(),
+                                H2FullText.tableOf(columns.getEntityType()))
+                        : null;
+                if (search == null) {
+                    match(node, column);
+                } else {
+                    sql.append(node.getOperation() == Operation.MATCHES ? search : "not " + search);
+                    bind(attribute, node.getValue());
+                }
+                break;
+            case IN:
+                in(attribute, column, node.getValues());
+                break;
+            case NOT_IN:
+                sql.append("not (");
+                in(attribute, column, node.getValues());
+                sql.append(')');
+                break;
+            case BETWEEN:
+                sql.append(column).append(" between ? and ?");
+                bind(attribute, node.getValues().get(0));
+                bind(attribute, node.getValues().get(1));
+                break;
+            default:
+                throw new IllegalStateException("Unexpected operation: " + node.getOperation());
+        }
+        return null;
+    }
+
+    /**
+     * Write the {@code like} of the string operation, as the {@link StringMatchStrategy} of the attribute says.
+     */
+    private void match(ExpressionNode node, String column) {
+        AttributePath attribute = node.getAttribute();
+        String owner = attribute.getPath().substring(0, attribute.getPath().length() - attribute.getName().length());
+        String operand = StringMatching.sqlOperand(config.getStringMatching().of(attribute), column,
+                sibling -> columns.getColumn(owner + sibling));
+        Operation operation = node.getOperation();
+        boolean like = operation == Operation.CONTAINS || operation == Operation.STARTS || operation == Operation.MATCHES;
+        sql.append(operand).append(like ? " like ?" : " not like ?").append(ESCAPE);
+        values.add(StringMatching.pattern(operation, (String) node.getValue()));
+        arrayTypes.add(null);
+    }
+
+    /**
+     * Write the list as one array when the dialect binds its type, otherwise as padded lists,
+     * in chunks when the list is large.
+     */
+    private void in(AttributePath attribute, String column, List<Object> list) {
+        Object[] converted = new Object[list.size()];
+        for (int i = 0; i < converted.length; i++) {
+            converted[i] = jdbcValue(attribute, list.get(i));
+        }
+        Class<?> type = commonType(converted);
+        if (type != null && dialect.bindsArrayOf(type)) {
+            sql.append(column).append(" = any(?)");
+            values.add(converted);
+            arrayTypes.add(type);
+            return;
+        }
+        List<List<Object>> chunks = config.getInLists().chunks(list);
+        if (chunks.size() > 1) {
+            sql.append('(');
+        }
+        int offset = 0;
+        for (int chunk = 0; chunk < chunks.size(); chunk++) {
+            if (chunk > 0) {
+                sql.append(" or ");
+            }
+            int size = chunks.get(chunk).size();
+            int padded = ParameterizedCriteriaQueryNodeVisitor.paddedSize(size);
+            sql.append(column).append(" in (");
+            for (int i = 0; i < padded; i++) {
+                sql.append(i == 0 ? "?" : ", ?");
+                values.add(converted[offset + Math.min(i, size - 1)]);
+                arrayTypes.add(null);
+            }
+            sql.append(')');
+            offset += size;
+        }
+        if (chunks.size() > 1) {
+            sql.append(')');
+        }
+    }
+
+    private void bind(AttributePath attribute, Object value) {
+        values.add(jdbcValue(attribute, value));
+        arrayTypes.add(null);
+    }
+
+    /**
+     * @return the value as bound to the column of the attribute
+     */
+    private Object jdbcValue(AttributePath attribute, Object value) {
+        if (value instanceof Enum) {
+            Enum<?> constant = (Enum<?>) value;
+            return columns.getEnumType(attribute.getPath()) == EnumType.STRING ? constant.name() : constant.ordinal();
+        }
+        if (value instanceof Instant) {
+            return Timestamp.from((Instant) value);
+        }
+        if (value instanceof ZonedDateTime) {
+            return Timestamp.from(((ZonedDateTime) value).toInstant());
+        }
+        if (value instanceof OffsetDateTime) {
+            return Timestamp.from(((OffsetDateTime) value).toInstant());
+        }
+        if (value instanceof LocalDateTime) {
+            return Timestamp.valueOf((LocalDateTime) value);
+        }
+        if (value instanceof LocalDate) {
+            return java.sql.Date.valueOf((LocalDate) value);
+        }
+        if (value instanceof LocalTime) {
+            return Time.valueOf((LocalTime) value);
+        }
+        if (value instanceof Date && !(value instanceof java.sql.Date || value instanceof Time || value instanceof Timestamp)) {
+            long time = ((Date) value).getTime();
+            TemporalType temporalType = columns.getTemporalType(attribute.getPath());
+            return temporalType == TemporalType.DATE ? new java.sql.Date(time)
+                    : temporalType == TemporalType.TIME ? new Time(time) : new Timestamp(time);
+        }
+        return value;
+    }
+
+    /**
+     * @return the class of every value, or null when they are not all of the same class
+     */
+    private static Class<?> commonType(Object[] values) {
+        Class<?> type = values.length == 0 || values[0] == null ? null : values[0].getClass();
+        for (Object value : values) {
+            if (value == null || value.getClass() != type) {
+                return null;
+            }
+        }
+        return type;
+    }
+}
@@ -0,0 +1,117 @@
+package br.com.caiquejh.rquery;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * A compiled query written as the condition of a SQL {@code where}, with a {@code ?} placeholder
+ * for each value, and the values to bind to them.
+ *
+ * <p>The SQL only depends on the shape of the query, not on the values of its literals: the
+ * lists are bound as one array, or padded to the next power of two, so the filters of the same
+ * shape share the statement in the caches of the driver and of the database. The values are
+ * converted to the types the columns are bound with, like {@link java.sql.Timestamp} for an
+ * {@link java.time.Instant} and the name or the ordinal of an enumeration, as mapped.</p>
+ *
+ * <pre>{@code
+ * SqlWhere where = RQuery.compile(Person.class, filter).toSql(SqlDialect.H2, ColumnMapping.of(Person.class));
+ * List<Person> persons = jdbcTemplate.query("select * from persons where " + where.getSql(),
+ *         statement -> where.bind(statement, 1), personRowMapper);
+ * }</pre>
+ *
+ * @author Caique Oliveira
+ */
+public final class SqlWhere {
+
+    private final String sql;
+    private final SqlDialect dialect;
+    private final ColumnMapping columns;
+    private final Object[] values;
+    private final Class<?>[] arrayTypes;
+
+    SqlWhere(String sql, SqlDialect dialect, ColumnMapping columns, Object[] values, Class<?>[] arrayTypes) {
+        this.sql = sql;
+        this.dialect = dialect;
+        this.columns = columns;
+        this.values = values;
+        this.arrayTypes = arrayTypes;
+    }
+
+    /**
+     * @return the condition, without the {@code where} keyword
+     */
+    public String getSql() {
+        return sql;
+    }
+
+    /**
+     * The condition with numbered placeholders, for the drivers that do not take {@code ?}, like
+     * the {@code $1} of R2DBC PostgreSQL and H2. The columns given with
+     * {@link ColumnMapping#withColumn(String, String)} must not contain a {@code ?} of their own.
+     *
+     * @param prefix     the prefix of the number of each placeholder, like {@code $}
+     * @param firstIndex the number of the first placeholder of the condition in the statement
+     * @return the condition, without the {@code where} keyword
+     */
+    public String getSql(String prefix, int firstIndex) {
+        StringBuilder numbered = new StringBuilder(sql.length() + values.length * 2);
+        int index = firstIndex;
+        boolean quoted = false;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '\'') {
+                quoted = !quoted;
+            }
+            if (c == '?' && !quoted) {
+                numbered.append(prefix).append(index++);
+            } else {
+                numbered.append(c);
+            }
+        }
+        return numbered.toString();
+    }
+
+    /**
+     * @return the value of each placeholder, in order, the lists bound as arrays as {@code Object[]}
+     */
+    public List<Object> getValues() {
+        return Collections.unmodifiableList(Arrays.asList(values));
+    }
+
+    /**
+     * Bind the values to the placeholders of the statement, the lists bound as arrays as the
+     * dialect says.
+     *
+     * @param statement  the statement with the condition
+     * @param firstIndex the index of the first placeholder of the condition in the statement
+     * @return the index of the placeholder after the condition
+     * @throws SQLException if a value cannot be bound
+     */
+    public int bind(PreparedStatement statement, int firstIndex) throws SQLException {
+        int index = firstIndex;
+        for (int i = 0; i < values.length; i++, index++) {
+            if (arrayTypes[i] != null) {
+                dialect.bindArray(statement, index, arrayTypes[i], (Object[]) values[i]);
+            } else {
+                statement.setObject(index, values[i]);
+            }
+        }
+        return index;
+    }
+
+    SqlDialect getDialect() {
+        return dialect;
+    }
+
+    ColumnMapping getColumns() {
+        return columns;
+    }
+
+    @Override
+    public String toString() {
+        return sql;
+    }
+}
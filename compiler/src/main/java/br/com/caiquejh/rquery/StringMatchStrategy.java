@@ -0,0 +1,89 @@
+package br.com.caiquejh.rquery;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import java.util.function.UnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * How the string operations, {@code contains} and {@code starts} and their negations, compare an
+ * attribute, chosen by attribute with {@link RQuery#registerStringMatch(Class, String, StringMatchStrategy)}.
+ *
+ * <p>The needle is normalised on compilation and compared by {@code like} with the
+ * {@link #operand operand} of the attribute, its {@code %} and {@code _} escaped, so
+ * {@code starts} has no leading wildcard. The compiled queries evaluated in memory compare the
+ * normalised value of the attribute.</p>
+ *
+ * <p>The default, {@link #upperCase()}, ignores case but wraps the column in {@code upper}, so an
+ * ordinary index of the column is not used. For an index to be used, compare the column as it is,
+ * a column that keeps the normalised value, or the expression of a functional index.</p>
+ *
+ * @author Caique Oliveira
+ */
+public interface StringMatchStrategy {
+
+    /**
+     * @param value the needle, or the value of the attribute in memory
+     * @return the value in the form it is compared in
+     */
+    String normalize(String value);
+
+    /**
+     * @param builder   the criteria builder
+     * @param attribute the path of the attribute
+     * @return the expression the pattern is compared with
+     */
+    Expression<String> operand(CriteriaBuilder builder, Path<?> attribute);
+
+    /**
+     * The default strategy, which ignores case: {@code upper(column) like 'NEEDLE%'}.
+     *
+     * @return the strategy
+     */
+    static StringMatchStrategy upperCase() {
+        return StringMatching.UPPER_CASE;
+    }
+
+    /**
+     * Compare the column as it is, respecting case: {@code column like 'Needle%'}. A
+     * {@code starts} is a range scan of an ordinary index of the column.
+     *
+     * @return the strategy
+     */
+    static StringMatchStrategy caseSensitive() {
+        return StringMatching.CASE_SENSITIVE;
+    }
+
+    /**
+     * Compare another attribute of the same entity, which keeps the value of the attribute
+     * normalised, like a {@code last_name_upper} column filled by the application or by the
+     * database: {@code last_name_upper like 'NEEDLE%'}.
+     *
+     * @param attribute  the name of the attribute with the normalised value
+     * @param normalizer the normalisation of the needle, the same as the one of the attribute
+     * @return the strategy
+     */
+    static StringMatchStrategy shadowAttribute(String attribute, UnaryOperator<String> normalizer) {
+        requireNonNull(attribute, "Attribute cannot be null");
+        return new StringMatching.Strategy("shadow attribute " + attribute, normalizer,
+                (builder, path) -> path.getParentPath().get(attribute),
+                (column, sibling) -> sibling.apply(attribute));
+    }
+
+    /**
+     * Compare the expression of a functional index, like the one of
+     * {@code create index on authors (lower(last_name))}: {@code lower(last_name) like 'needle%'}.
+     *
+     * @param function   the name of the database function of the index
+     * @param normalizer the function applied to the needle, the same as the database function
+     * @return the strategy
+     */
+    static StringMatchStrategy functionIndex(String function, UnaryOperator<String> normalizer) {
+        requireNonNull(function, "Function cannot be null");
+        return new StringMatching.Strategy("function " + function, normalizer,
+                (builder, path) -> builder.function(function, String.class, path),
+                (column, sibling) -> function + "(" + column + ")");
+    }
+}
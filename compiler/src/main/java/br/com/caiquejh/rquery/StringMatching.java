@@ -0,0 +1,164 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.Expression;
+import javax.persistence.criteria.Path;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiFunction;
+import java.util.function.UnaryOperator;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * The {@link StringMatchStrategy} of each attribute, and the {@code like} patterns of the
+ * string operations.
+ *
+ * <p>The strategies are immutable, kept by the {@link RQueryConfig} of an engine and given to
+ * the compiled queries it compiles, so engines can compare the same attribute differently.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class StringMatching {
+
+    /**
+     * The escape character of the patterns.
+     */
+    static final char ESCAPE = '\\';
+
+    static final StringMatchStrategy UPPER_CASE = new Strategy("upper case", String::toUpperCase,
+            (builder, path) -> builder.upper(string(path)), (column, sibling) -> "upper(" + column + ")");
+    static final StringMatchStrategy CASE_SENSITIVE = new Strategy("case sensitive", UnaryOperator.identity(),
+            (builder, path) -> path, (column, sibling) -> column);
+
+    static final StringMatching DEFAULTS = new StringMatching(UPPER_CASE, Collections.emptyMap());
+
+    private final StringMatchStrategy defaultStrategy;
+    private final Map<Class<?>, Map<String, StringMatchStrategy>> strategies;
+
+    private StringMatching(StringMatchStrategy defaultStrategy,
+                           Map<Class<?>, Map<String, StringMatchStrategy>> strategies) {
+        this.defaultStrategy = defaultStrategy;
+        this.strategies = strategies;
+    }
+
+    /**
+     * @param strategy the strategy of the attributes without one of their own
+     * @return a copy with the default strategy
+     */
+    StringMatching withDefault(StringMatchStrategy strategy) {
+        return new StringMatching(strategy, strategies);
+    }
+
+    /**
+     * @param ownerType the type that declares the attribute, or one of its sub types
+     * @param attribute the name of the attribute
+     * @param strategy  the strategy of the attribute
+     * @return a copy with the strategy of the attribute
+     */
+    StringMatching with(Class<?> ownerType, String attribute, StringMatchStrategy strategy) {
+        Map<String, StringMatchStrategy> attributes = new HashMap<>(
+                strategies.getOrDefault(ownerType, Collections.emptyMap()));
+        attributes.put(attribute, strategy);
+        Map<Class<?>, Map<String, StringMatchStrategy>> changed = new HashMap<>(strategies);
+        changed.put(ownerType, Collections.unmodifiableMap(attributes));
+        return new StringMatching(defaultStrategy, Collections.unmodifiableMap(changed));
+    }
+
+    StringMatchStrategy getDefault() {
+        return defaultStrategy;
+    }
+
+    /**
+     * @param attribute the attribute compared
+     * @return the strategy registered for the attribute by the type that declares it, or by one of
+     * its super types, otherwise the default one
+     */
+    StringMatchStrategy of(AttributePath attribute) {
+        if (!this.strategies.isEmpty()) {
+            for (Class<?> type = attribute.getOwnerType(); type != null; type = type.getSuperclass()) {
+                Map<String, StringMatchStrategy> strategies = this.strategies.get(type);
+                StringMatchStrategy strategy = strategies == null ? null : strategies.get(attribute.getName());
+                if (strategy != null) {
+                    return strategy;
+                }
+            }
+        }
+        return defaultStrategy;
+    }
+
+    /**
+     * @param operation a string operation, {@code matches} compared as {@code contains}
+     * @param needle    the normalised needle
+     * @return the {@code like} pattern of the operation, with the wildcards of the needle escaped
+     */
+    static String pattern(Operation operation, String needle) {
+        StringBuilder pattern = new StringBuilder(needle.length() + 4);
+        if (operation != Operation.STARTS && operation != Operation.NOT_STARTS) {
+            pattern.append('%');
+        }
+        for (int i = 0; i < needle.length(); i++) {
+            char c = needle.charAt(i);
+            if (c == '%' || c == '_' || c == ESCAPE) {
+                pattern.append(ESCAPE);
+            }
+            pattern.append(c);
+        }
+        return pattern.append('%').toString();
+    }
+
+    /**
+     * @param strategy the strategy of the attribute
+     * @param column   the column of the attribute
+     * @param sibling  the column of another attribute of the same owner, by its name
+     * @return the SQL expression the pattern is compared with
+     * @throws RQueryException if the strategy is not one of {@link StringMatchStrategy}
+     */
+    static String sqlOperand(StringMatchStrategy strategy, String column, UnaryOperator<String> sibling) {
+        if (!(strategy instanceof Strategy)) {
+            throw new RQueryException("The string match strategy " + strategy + " cannot be written in SQL");
+        }
+        return ((Strategy) strategy).sqlOperand.apply(column, sibling);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static Expression<String> string(Path<?> path) {
+        return (Expression<String>) path;
+    }
+
+    static final class Strategy implements StringMatchStrategy {
+
+        private final String description;
+        private final UnaryOperator<String> normalizer;
+        private final BiFunction<CriteriaBuilder, Path<?>, Expression<?>> operand;
+        private final BiFunction<String, UnaryOperator<String>, String> sqlOperand;
+
+        Strategy(String description, UnaryOperator<String> normalizer,
+                 BiFunction<CriteriaBuilder, Path<?>, Expression<?>> operand,
+                 BiFunction<String, UnaryOperator<String>, String> sqlOperand) {
+            this.description = description;
+            this.normalizer = requireNonNull(normalizer, "Normalizer cannot be null");
+            this.operand = operand;
+            this.sqlOperand = sqlOperand;
+        }
+
+        @Override
+        public String normalize(String value) {
+            return normalizer.apply(value);
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public Expression<String> operand(CriteriaBuilder builder, Path<?> attribute) {
+            return (Expression<String>) operand.apply(builder, attribute);
+        }
+
+        @Override
+        public String toString() {
+            return description;
+        }
+    }
+}
@@ -1,9 +1,7 @@
 package br.com.caiquejh.rquery;
 
 import br.com.caiquejh.rquery.exception.RQueryException;
-import org.apache.commons.lang3.ClassUtils;
 
-import java.lang.reflect.Field;
 import java.math.BigDecimal;
 import java.math.BigInteger;
 import java.text.DateFormat;
@@ -12,15 +10,14 @@ import java.text.SimpleDateFormat;
 import java.time.*;
 import java.time.format.DateTimeFormatter;
 import java.util.*;
-import java.util.concurrent.ConcurrentHashMap;
 import java.util.function.Function;
 
-import static java.util.Objects.requireNonNull;
-
 class ValueConverter {
 
-    private static final Map<Class<?>, Function<String, ?>> CONVERTERS = new ConcurrentHashMap<>();
-    private static final Map<ClassField, Class<?>> CLASS_FIELD_TYPE = new ConcurrentHashMap<>();
+    /**
+     * The converters of the types without one in the {@link RQueryConfig}.
+     */
+    private static final Map<Class<?>, Function<String, ?>> DEFAULTS;
 
     private static final ThreadLocal<DateFormat> DATE_FORMAT =
             ThreadLocal.withInitial(() -> {
@@ -33,17 +30,18 @@ class ValueConverter {
             DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm:ss");
 
     static {
-        register(String.class, Function.identity());
-        register(UUID.class, UUID::fromString);
-
-        register(LocalDate.class, LocalDate::parse);
-        register(LocalTime.class, LocalTime::parse);
-        register(LocalDateTime.class, source -> LocalDateTime.parse(source, DATE_TIME_FORMATTER));
-        register(ZonedDateTime.class, source -> LocalDateTime.parse(source, DATE_TIME_FORMATTER).atZone(ZoneId.systemDefault()));
-        register(OffsetDateTime.class, source -> LocalDateTime.parse(source, DATE_TIME_FORMATTER).atOffset(OffsetDateTime.now().getOffset()));
-        register(Instant.class, source -> LocalDateTime.parse(source, DATE_TIME_FORMATTER).atZone(ZoneId.systemDefault()).toInstant());
-
-        register(Date.class, source -> {
+        Map<Class<?>, Function<String, ?>> defaults = new HashMap<>();
+        defaults.put(String.class, Function.identity());
+        defaults.put(UUID.class, UUID::fromString);
+
+        defaults.put(LocalDate.class, LocalDate::parse);
+        defaults.put(LocalTime.class, LocalTime::parse);
+        defaults.put(LocalDateTime.class, source -> LocalDateTime.parse(source, DATE_TIME_FORMATTER));
+        defaults.put(ZonedDateTime.class, source -> LocalDateTime.parse(source, DATE_TIME_FORMATTER).atZone(ZoneId.systemDefault()));
+        defaults.put(OffsetDateTime.class, source -> LocalDateTime.parse(source, DATE_TIME_FORMATTER).atOffset(OffsetDateTime.now().getOffset()));
+        defaults.put(Instant.class, source -> LocalDateTime.parse(source, DATE_TIME_FORMATTER).atZone(ZoneId.systemDefault()).toInstant());
+
+        defaults.put(Date.class, source -> {
             try {
                 return DATE_FORMAT.get().parse(source);
             } catch (ParseException e) {
@@ -51,87 +49,72 @@ class ValueConverter {
             }
         });
 
-        register(int.class, Integer::parseInt);
-        register(Integer.class, Integer::valueOf);
-        register(short.class, Short::parseShort);
-        register(Short.class, Short::valueOf);
-        register(long.class, Long::parseLong);
-        register(Long.class, Long::valueOf);
-
-        register(float.class, Float::parseFloat);
-        register(Float.class, Float::valueOf);
-        register(double.class, Double::parseDouble);
-        register(Double.class, Double::valueOf);
-
-        register(BigInteger.class, BigInteger::new);
-        register(BigDecimal.class, BigDecimal::new);
-    }
-    
-    public static <T> void register(Class<T> classOfT, Function<String, T> converter) {
-        CONVERTERS.put(classOfT, converter);
+        defaults.put(int.class, Integer::parseInt);
+        defaults.put(Integer.class, Integer::valueOf);
+        defaults.put(short.class, Short::parseShort);
+        defaults.put(Short.class, Short::valueOf);
+        defaults.put(long.class, Long::parseLong);
+        defaults.put(Long.class, Long::valueOf);
+
+        defaults.put(float.class, Float::parseFloat);
+        defaults.put(Float.class, Float::valueOf);
+        defaults.put(double.class, Double::parseDouble);
+        defaults.put(Double.class, Double::valueOf);
+
+        defaults.put(BigInteger.class, BigInteger::new);
+        defaults.put(BigDecimal.class, BigDecimal::new);
+        DEFAULTS = Collections.unmodifiableMap(defaults);
     }
 
     public static Object convert(Class<?> fromType, String fieldName, String value) {
-        ClassField classField = new ClassField(fromType, fieldName);
-        if (CLASS_FIELD_TYPE.containsKey(classField)) {
-            return convert(CLASS_FIELD_TYPE.get(classField), value);
-        }
-        putAllTypeFromClass(fromType);
-        Class<?> typeOfField = requireNonNull(CLASS_FIELD_TYPE.get(classField));
-        return convert(typeOfField, value);
+        return AttributeTable.of(fromType).resolve(fieldName).getLeaf().convert(value);
     }
 
+    /**
+     * @param type the type of the values
+     * @return the default converter of the values of the type
+     */
     @SuppressWarnings({"unchecked", "rawtypes"})
-    private static Object convert(Class<?> fieldType, String value) {
-        try {
-            if (fieldType.isEnum()) {
-                return Enum.valueOf((Class) fieldType, value);
-            }
-            return CONVERTERS.get(fieldType).apply(value);
-        } catch (RQueryException rqe) {
-            throw rqe;
-        } catch (Exception ex) {
-            String message = "Cannot convert to " + fieldType.getSimpleName() + " - ";
-            throw new RQueryException(message + ex.getMessage(), ex);
-        }
+    static TypeConverter converterOf(Class<?> type) {
+        Function<String, ?> converter = type.isEnum()
+                ? value -> Enum.valueOf((Class) type, value)
+                : DEFAULTS.get(type);
+        return new TypeConverter(type, converter);
     }
 
-    private static void putAllTypeFromClass(Class<?> fromClass) {
-        for (Class<?> clazz : ClassUtils.hierarchy(fromClass)) {
-            for (Field field : clazz.getDeclaredFields()) {
-                CLASS_FIELD_TYPE.put(new ClassField(fromClass, field.getName()), field.getType());
-            }
-        }
+    /**
+     * @param type      the type of the values
+     * @param converter the converter of the values, instead of the default one
+     * @return the converter of the values of the type, with the errors of the default ones
+     */
+    static TypeConverter converterOf(Class<?> type, Function<String, ?> converter) {
+        return new TypeConverter(type, converter);
     }
 
-    private static class ClassField {
-        final Class<?> type;
-        final String fieldName;
+    /**
+     * Converter of the values of one type.
+     */
+    static final class TypeConverter {
+        private final Class<?> type;
+        private final Function<String, ?> converter;
 
-        public ClassField(Class<?> type, String fieldName) {
+        private TypeConverter(Class<?> type, Function<String, ?> converter) {
             this.type = type;
-            this.fieldName = fieldName;
+            this.converter = converter;
         }
 
-        @Override
-        public boolean equals(Object o) {
-            if (this == o) return true;
-            if (o == null || getClass() != o.getClass()) return false;
-            ClassField that = (ClassField) o;
-            return Objects.equals(type, that.type) && Objects.equals(fieldName, that.fieldName);
-        }
-
-        @Override
-        public int hashCode() {
-            return Objects.hash(type, fieldName);
-        }
-
-        @Override
-        public String toString() {
-            return "ClassField{" +
-                    "type=" + type +
-                    ", fieldName='" + fieldName + '\'' +
-                    '}';
+        Object convert(String value) {
+            if (converter == null) {
+                throw new RQueryException("Cannot convert to " + type.getSimpleName() + " - no converter registered");
+            }
+            try {
+                return converter.apply(value);
+            } catch (RQueryException rqe) {
+                throw rqe;
+            } catch (Exception ex) {
+                String message = "Cannot convert to " + type.getSimpleName() + " - ";
+                throw new RQueryException(message + ex.getMessage(), ex);
+            }
         }
     }
 
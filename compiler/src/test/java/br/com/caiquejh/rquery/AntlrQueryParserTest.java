@@ -0,0 +1,49 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+import org.antlr.v4.runtime.CharStreams;
+import org.antlr.v4.runtime.CommonTokenStream;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AntlrQueryParserTest {
+
+    @Test
+    void shouldParseLikeAFreshParser() {
+        String[] queries = {
+                "firstName = 'Charles'",
+                "(firstName = 'Charles' && age >= 30) or (firstName contains '.' && email is not null)",
+                "address.street not in ('Street A', 'Street B') and age between 50 and 100",
+                "age > 30"
+        };
+        for (String query : queries) {
+            RQueryLangParser fresh = new RQueryLangParser(new CommonTokenStream(new RQueryLangLexer(CharStreams.fromString(query))));
+            String expected = fresh.query().toStringTree(fresh);
+
+            assertEquals(expected, AntlrQueryParser.parse(query, null).toStringTree(fresh));
+        }
+    }
+
+    @Test
+    void shouldNotFallBackForValidQueries() {
+        ParserStats before = AntlrQueryParser.stats();
+
+        AntlrQueryParser.parse("firstName = 'Charles' && (age < 30 || email is null) and address.isApartment is true", null);
+
+        ParserStats after = AntlrQueryParser.stats();
+        assertEquals(before.getParseCount() + 1, after.getParseCount());
+        assertEquals(before.getFallbackCount(), after.getFallbackCount());
+    }
+
+    @Test
+    void shouldReportSyntaxErrorsAfterFallingBack() {
+        ParserStats before = AntlrQueryParser.stats();
+
+        RQueryException exception = assertThrows(RQueryException.class, () -> AntlrQueryParser.parse("age > and", null));
+
+        assertTrue(exception.getMessage().startsWith("Failed to parse at line 1 and at column 6"), exception.getMessage());
+        assertEquals(before.getFallbackCount() + 1, AntlrQueryParser.stats().getFallbackCount());
+        assertDoesNotThrow(() -> AntlrQueryParser.parse("age > 1", null));
+    }
+}
@@ -0,0 +1,110 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+import br.com.caiquejh.rquery.model.Address;
+import br.com.caiquejh.rquery.model.Author;
+import br.com.caiquejh.rquery.model.Post;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.Metamodel;
+import java.lang.reflect.Proxy;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeTableTest {
+
+    private final Metamodel metamodel = HibernateUtil.getSessionFactory().getMetamodel();
+
+    @Test
+    void shouldResolveEmbeddedAndAssociationPathsFromMetamodel() {
+        AttributeTable table = AttributeTable.of(metamodel.entity(Post.class));
+
+        AttributePath street = table.resolve("author.address.street");
+        assertEquals(Address.class, street.getOwnerType());
+        assertEquals(String.class, street.getType());
+
+        AttributePath createdAt = table.resolve("comments.author.createdAt");
+        assertEquals(Author.class, createdAt.getOwnerType());
+        assertEquals(Instant.class, createdAt.getType());
+        assertSame(createdAt, table.resolve("comments.author.createdAt"));
+
+        RQueryException exception = assertThrows(RQueryException.class, () -> table.resolve("content.length"));
+        assertEquals("Unknown attribute 'length' of String in 'content.length'", exception.getMessage());
+    }
+
+    @Test
+    void shouldReplaceTableOfClassWithMetamodel() {
+        EntityType<Author> author = metamodel.entity(Author.class);
+        AttributeTable table = AttributeTable.of(author);
+
+        assertSame(table, AttributeTable.of(Author.class));
+        assertSame(table, AttributeTable.of(author));
+    }
+
+    @Test
+    void shouldKeepTheTableForAnotherMetamodelWithTheSameAttributes() {
+        EntityType<Post> post = metamodel.entity(Post.class);
+        AttributeTable table = AttributeTable.of(post);
+        AttributePath content = table.resolve("content");
+
+        @SuppressWarnings("unchecked")
+        EntityType<Post> copy = (EntityType<Post>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{EntityType.class}, (proxy, method, arguments) -> method.invoke(post, arguments));
+
+        assertSame(table, AttributeTable.of(copy));
+        assertSame(content, AttributeTable.of(copy).resolve("content"));
+    }
+
+    @Test
+    void shouldReuseTheTableWhileAlternatingMetamodelsWithTheSameAttributes() {
+        EntityType<Author> author = metamodel.entity(Author.class);
+        AtomicInteger reads = new AtomicInteger();
+        @SuppressWarnings("unchecked")
+        EntityType<Author> copy = (EntityType<Author>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{EntityType.class}, (proxy, method, arguments) -> {
+                    if (method.getName().equals("getAttributes")) {
+                        reads.incrementAndGet();
+                    }
+                    return method.invoke(author, arguments);
+                });
+        AttributeTable table = AttributeTable.of(author);
+
+        for (int i = 0; i < 4; i++) {
+            assertSame(table, AttributeTable.of(copy));
+            assertSame(table, AttributeTable.of(author));
+        }
+
+        assertEquals(1, reads.get());
+        assertEquals(String.class, table.resolve("address.street").getType());
+    }
+
+    @Test
+    void shouldNotNavigateIntoBasicTypesWithoutMetamodel() {
+        AttributeTable table = AttributeTable.of(Parcel.class);
+
+        assertEquals(String.class, table.resolve("box.label").getType());
+        RQueryException exception = assertThrows(RQueryException.class, () -> table.resolve("box.label.hash"));
+        assertEquals("Unknown attribute 'hash' of String in 'box.label.hash'", exception.getMessage());
+        assertThrows(RQueryException.class, () -> table.resolve("weight.value"));
+    }
+
+    @Test
+    void shouldConvertWithTheDefaultConverter() {
+        AttributeDescriptor age = AttributeTable.of(metamodel.entity(Author.class)).get("age");
+        assertEquals(30, age.convert("30"));
+        RQueryException exception = assertThrows(RQueryException.class, () -> age.convert(" 30 "));
+        assertTrue(exception.getMessage().startsWith("Cannot convert to Integer"), exception.getMessage());
+    }
+
+    static class Parcel {
+        Box box;
+        Integer weight;
+    }
+
+    static class Box {
+        String label;
+    }
+}
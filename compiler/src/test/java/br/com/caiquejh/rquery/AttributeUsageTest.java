@@ -0,0 +1,83 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.model.Author;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class AttributeUsageTest {
+
+    @AfterEach
+    void tearDown() {
+        RQuery.setAttributeUsageRecording(false);
+    }
+
+    @Test
+    void shouldCountTheComparisonsOfEachAttributeAndTellTheUnindexedOnes() {
+        RQuery.compile(Author.class, "id = 1");
+        RQuery.setAttributeUsageRecording(true);
+        for (int i = 0; i < 3; i++) {
+            RQuery.compile(Author.class, "lastName = 'Darwin' and email contains 'mail'");
+        }
+        RQuery.compile(Author.class, "age > 30 or address.street = 'Street A'");
+        RQuery.compile(Author.class, "id = 1");
+        RQuery.setAttributeUsageRecording(false);
+        RQuery.compile(Author.class, "id = 1");
+
+        AttributeUsageReport report = RQuery.attributeUsage();
+        Map<String, AttributeUsage> usages = report.getAttributes().stream()
+                .filter(usage -> usage.getEntityType() == Author.class)
+                .collect(Collectors.toMap(AttributeUsage::getPath, Function.identity()));
+
+        assertEquals(Collections.singletonMap("=", 3L), usages.get("lastName").getOperations());
+        assertTrue(usages.get("lastName").isIndexed());
+        assertEquals(Collections.singletonMap("contains", 3L), usages.get("email").getOperations());
+        assertFalse(usages.get("email").isIndexed());
+        assertEquals(1, usages.get("age").getOrCount());
+        assertEquals(1, usages.get("address.street").getOrCount());
+        assertEquals(0, usages.get("email").getOrCount());
+        assertEquals(1, usages.get("id").getCount());
+        assertTrue(usages.get("id").isIndexed());
+        assertEquals(3.0 / 9, usages.get("email").getShare(), 0.0001);
+
+        assertEquals(asList("email"), paths(report.getUnindexed(0.3)));
+        assertEquals(asList("email", "address.street", "age"), paths(report.getUnindexed(0.1)));
+    }
+
+    @Test
+    void shouldCountTheQueriesOfEachEngineApart() {
+        RQueryEngine engine = RQueryEngine.of(RQueryConfig.defaults().withAttributeUsageRecording(true));
+        RQuery.setAttributeUsageRecording(true);
+
+        engine.compile(Author.class, "firstName = 'Jane' and age > 30");
+        engine.compile(Author.class, "firstName = 'Jane' and age > 30");
+        RQuery.compile(Author.class, "age > 30");
+
+        assertEquals(2, count(engine.attributeUsage(), "firstName"));
+        assertEquals(2, count(engine.attributeUsage(), "age"));
+        assertEquals(0, count(RQuery.attributeUsage(), "firstName"));
+        assertEquals(0, count(RQueryEngine.of(RQueryConfig.defaults()).attributeUsage(), "age"));
+    }
+
+    private static long count(AttributeUsageReport report, String path) {
+        return report.getAttributes().stream()
+                .filter(usage -> usage.getEntityType() == Author.class && usage.getPath().equals(path))
+                .mapToLong(AttributeUsage::getCount)
+                .sum();
+    }
+
+    private static List<String> paths(List<AttributeUsage> usages) {
+        return usages.stream()
+                .filter(usage -> usage.getEntityType() == Author.class)
+                .map(AttributeUsage::getPath)
+                .collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,66 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.model.Address;
+import br.com.caiquejh.rquery.model.Author;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CollectionFilterTest {
+
+    private static final String QUERY = "age >= 30 and (address.street = 'Street 3' or firstName starts 'author 1')";
+
+    private static ForkJoinPool pool;
+    private static List<Author> authors;
+    private static List<Author> expected;
+
+    @BeforeAll
+    static void setUp() {
+        pool = new ForkJoinPool(3);
+        authors = IntStream.range(0, 100_000)
+                .mapToObj(i -> new Author("Author " + i, "Last", null, i % 90, new Address("Street " + i % 7, "1", null)))
+                .collect(Collectors.toList());
+        Predicate<Author> predicate = RQuery.predicate(Author.class, QUERY);
+        expected = authors.stream().filter(predicate).collect(Collectors.toList());
+    }
+
+    @AfterAll
+    static void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    void shouldKeepTheOrderOfTheInput() {
+        List<Author> matches = CollectionFilter.of(Author.class, QUERY).withPool(pool).withChunkSize(1000).filter(authors);
+
+        assertFalse(expected.isEmpty());
+        assertEquals(expected, matches);
+    }
+
+    @Test
+    void shouldCollectEveryMatchWithoutOrder() {
+        List<Author> matches = CollectionFilter.of(Author.class, QUERY).withPool(pool).withUnordered()
+                .withChunkSize(1000).filter(new ArrayList<>(authors).spliterator());
+
+        assertEquals(expected.size(), matches.size());
+        assertEquals(new HashSet<>(expected), new HashSet<>(matches));
+    }
+
+    @Test
+    void shouldCountWithoutCollecting() {
+        CollectionFilter<Author> filter = CollectionFilter.of(Author.class, QUERY).withPool(pool);
+
+        assertEquals(expected.size(), filter.count(authors));
+        assertEquals(expected.size(), filter.count(authors.stream().spliterator()));
+    }
+}
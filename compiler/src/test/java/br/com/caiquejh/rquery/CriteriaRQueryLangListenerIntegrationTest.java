@@ -15,8 +15,17 @@ import javax.persistence.criteria.CriteriaBuilder;
 import javax.persistence.criteria.CriteriaDelete;
 import javax.persistence.criteria.CriteriaQuery;
 import javax.persistence.criteria.Root;
+import javax.sql.DataSource;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.function.Consumer;
+import java.util.function.Function;
 import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 import static java.util.Arrays.asList;
 import static org.junit.jupiter.api.Assertions.*;
@@ -167,6 +176,166 @@ class CriteriaRQueryLangListenerIntegrationTest {
                 assertDoesNotThrow(authorQuery::getSingleResult));
     }
 
+    @Test
+    void shouldReplayCompiledQuery() {
+        Author darwin = new Author("Charles", "Darwin", null, 70, new Address("Street A", "700", true));
+        Author tolkien = new Author("J. R. R.", "Tolkien", "tolkien@youmail.com", 30, new Address("Street B", "300", false));
+        doInTransactional(session -> {
+            session.save(darwin);
+            session.save(tolkien);
+        });
+
+        String input = "address.street = 'Street B' and age < 50";
+        CompiledQuery<Author> compiled = RQuery.compile(Author.class, input);
+        assertSame(compiled, RQuery.compile(Author.class, input));
+
+        for (int i = 0; i < 2; i++) {
+            try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+                CriteriaBuilder builder = session.getCriteriaBuilder();
+                CriteriaQuery<Author> query = builder.createQuery(Author.class);
+                Root<Author> root = query.from(Author.class);
+                assertEquals(tolkien, session.createQuery(query.where(compiled.toPredicate(root, builder))).getSingleResult());
+            }
+        }
+    }
+
+    @Test
+    void shouldListTheTypesReferencedByTheCompiledQuery() {
+        CompiledQuery<Post> compiled = RQuery.compile(Post.class,
+                "content contains 'rquery' or (comments.author.email = 'a@mail.com' and category.name = 'Java')");
+
+        assertEquals(new HashSet<>(asList(Post.class, Comment.class, Author.class, Category.class)),
+                compiled.getReferencedTypes());
+        assertEquals(Collections.singleton(Author.class), RQuery.compile(Author.class, "age > 1").getReferencedTypes());
+    }
+
+    @Test
+    void shouldBindLiteralsAsParameters() {
+        Author darwin = new Author("Charles", "Darwin", null, 70, new Address("Street A", "700", true));
+        Author tolkien = new Author("J. R. R.", "Tolkien", "tolkien@youmail.com", 30, new Address("Street B", "300", false));
+        doInTransactional(session -> {
+            session.save(darwin);
+            session.save(tolkien);
+        });
+
+        for (String input : asList("firstName = 'Charles'", "firstName != 'Charles'", "age > 30", "age <= 70",
+                "firstName contains '.'", "firstName not starts 'ch'", "age between 50 and 100",
+                "address.street in ('Street A', 'Street B', 'Street C')", "address.street not in ('Street A')",
+                "address.isApartment is true and email is null")) {
+            assertIterableEquals(queryLiteral(input, Query::getResultList), queryParameterized(input, Query::getResultList), input);
+        }
+
+        assertEquals(statementOf("age in (1, 2, 3)"), statementOf("age in (4, 5, 6, 7)"));
+        assertNotEquals(statementOf("age in (1, 2, 3)"), statementOf("age in (1, 2, 3, 4, 5)"));
+        assertEquals(statementOf("firstName contains 'a' and age > 1"),
+                statementOf("firstName contains 'b' and age > 2"));
+        assertEquals(8, ParameterizedCriteriaQueryNodeVisitor.paddedSize(5));
+    }
+
+    @Test
+    void shouldSplitLargeListsInChunks() {
+        Author darwin = new Author("Charles", "Darwin", null, 70, new Address("Street A", "700", true));
+        Author tolkien = new Author("J. R. R.", "Tolkien", "tolkien@youmail.com", 30, new Address("Street B", "300", false));
+        doInTransactional(session -> {
+            session.save(darwin);
+            session.save(tolkien);
+        });
+        String ages = IntStream.rangeClosed(1, 2500).mapToObj(String::valueOf).collect(Collectors.joining(", "));
+        RQuery.setInListStrategy(InListStrategy.CHUNKED);
+        try {
+            assertIterableEquals(asList(darwin, tolkien), queryLiteral("age in (" + ages + ")", Query::getResultList));
+            assertIterableEquals(asList(darwin, tolkien), queryParameterized("age in (" + ages + ")", Query::getResultList));
+            assertTrue(queryParameterized("age not in (" + ages + ")", Query::getResultList).isEmpty());
+            assertEquals(3, statementOf("age in (" + ages + ")").split(" in ").length - 1);
+        } finally {
+            RQuery.setInListStrategy(InListStrategy.SINGLE);
+        }
+    }
+
+    @Test
+    void shouldMatchStringsByTheStrategyOfTheAttribute() {
+        Author darwin = new Author("Charles", "Darwin", null, 70, new Address("Street A", "700", true));
+        Author evans = new Author("Mary_Ann", "Evans", null, 61, new Address("Street B", "300", false));
+        doInTransactional(session -> {
+            session.save(darwin);
+            session.save(evans);
+        });
+
+        /* wildcards are escaped */
+        assertIterableEquals(asList(evans), queryLiteral("firstName contains '_'", Query::getResultList));
+        assertIterableEquals(asList(evans), queryParameterized("firstName contains '_'", Query::getResultList));
+        assertTrue(queryLiteral("firstName starts '%'", Query::getResultList).isEmpty());
+
+        try {
+            RQuery.registerStringMatch(Person.class, "firstName", StringMatchStrategy.caseSensitive());
+            assertTrue(queryLiteral("firstName starts 'ch'", Query::getResultList).isEmpty());
+            assertIterableEquals(asList(darwin), queryParameterized("firstName starts 'Ch'", Query::getResultList));
+            assertFalse(statementOf("firstName starts 'Ch'").contains("upper("));
+            assertFalse(RQuery.predicate(Author.class, "firstName starts 'ch'").test(darwin));
+
+            RQuery.registerStringMatch(Author.class, "firstName", StringMatchStrategy.functionIndex("lower", String::toLowerCase));
+            assertIterableEquals(asList(darwin), queryLiteral("firstName starts 'CH'", Query::getResultList));
+            assertTrue(statementOf("firstName starts 'CH'").contains("lower("));
+            assertTrue(RQuery.predicate(Author.class, "firstName starts 'CH'").test(darwin));
+
+            /* the last name stands for a column with the first name normalised */
+            RQuery.registerStringMatch(Author.class, "firstName", StringMatchStrategy.shadowAttribute("lastName", UnaryOperator.identity()));
+            assertIterableEquals(asList(evans), queryLiteral("firstName starts 'Ev'", Query::getResultList));
+        } finally {
+            RQuery.registerStringMatch(Person.class, "firstName", StringMatchStrategy.upperCase());
+            RQuery.registerStringMatch(Author.class, "firstName", StringMatchStrategy.upperCase());
+        }
+    }
+
+    @Test
+    void shouldSearchTheFullTextIndex() {
+        Author author = new Author("Author", "One", "a_one@mail.com", 20, new Address("Street A", "109", true));
+        Category category = new Category("Animals");
+        Post fox = new Post("The quick brown fox", category, author);
+        Post dogs = new Post("Lazy dogs sleep all day", category, author);
+        Post quickDogs = new Post("Quick dogs", category, author, asList(new Comment("A quick reply", author)));
+        doInTransactional(session -> {
+            session.save(author);
+            session.save(category);
+            session.save(fox);
+            session.save(dogs);
+            session.save(quickDogs);
+            session.doWork(connection -> {
+                H2FullText.createIndex(connection, "PUBLIC", "POSTS", "CONTENT");
+                H2FullText.createIndex(connection, "PUBLIC", "COMMENTS", "CONTENT");
+            });
+        });
+
+        /* without a dialect, like contains */
+        assertIterableEquals(asList(quickDogs), queryPosts("content matches 'quick dog'"));
+
+        DataSource dataSource = HibernateUtil.getDataSource();
+        AtomicInteger searches = new AtomicInteger();
+        RQuery.setFullTextDialect(FullTextDialect.h2((DataSource) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{DataSource.class}, (proxy, method, arguments) -> {
+                    if (method.getName().equals("getConnection")) {
+                        searches.incrementAndGet();
+                    }
+                    return method.invoke(dataSource, arguments);
+                })));
+        try {
+            assertIterableEquals(asList(quickDogs), queryPosts("content matches 'dogs quick'"));
+            assertEquals(1, searches.get());
+            assertIterableEquals(asList(fox, quickDogs), queryPosts("content matches 'quick'"));
+            assertEquals(2, searches.get());
+            assertIterableEquals(asList(dogs), queryPosts("content not matches 'quick'"));
+            assertIterableEquals(asList(quickDogs), queryPosts("comments.content matches 'reply'"));
+            assertThrows(RQueryException.class, () -> queryLiteral("address.street matches 'street'", Query::getResultList));
+        } finally {
+            RQuery.setFullTextDialect(FullTextDialect.none());
+        }
+    }
+
+    @Test
+    void shouldFailOnUnknownAttribute() {
+        assertThrows(RQueryException.class, () -> RQuery.compile(Post.class, "author.nickname = 'One'"));
+    }
+
     private <T> void deleteAll(Session session, CriteriaBuilder builder, Class<T> type) {
         CriteriaDelete<T> criteriaDelete = builder.createCriteriaDelete(type);
         criteriaDelete.from(type);
@@ -188,6 +357,41 @@ class CriteriaRQueryLangListenerIntegrationTest {
         }
     }
 
+    private <R> R queryParameterized(String input, Function<Query<Author>, R> result) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaQuery<Author> query = builder.createQuery(Author.class);
+            Root<Author> root = query.from(Author.class);
+            ParameterizedPredicate predicate = RQuery.from(root, builder).parseParameterized(input);
+            query.where(predicate.getPredicate()).orderBy(builder.asc(root.get("id")));
+            return result.apply(predicate.bind(session.createQuery(query)));
+        }
+    }
+
+    private List<Post> queryPosts(String input) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaQuery<Post> query = builder.createQuery(Post.class);
+            Root<Post> root = query.from(Post.class);
+            query.where(RQuery.from(root, builder).parse(input)).orderBy(builder.asc(root.get("id")));
+            return session.createQuery(query).getResultList();
+        }
+    }
+
+    private String statementOf(String input) {
+        return queryParameterized(input, Query::getQueryString);
+    }
+
+    private <R> R queryLiteral(String input, Function<Query<Author>, R> result) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaQuery<Author> query = builder.createQuery(Author.class);
+            Root<Author> root = query.from(Author.class);
+            query.where(RQuery.from(root, builder).parse(input)).orderBy(builder.asc(root.get("id")));
+            return result.apply(session.createQuery(query));
+        }
+    }
+
     private <T> void executeQuery(String input, Class<T> typeOfT, Consumer<Query<T>> assertions) {
         RQueryLangLexer lexer = new RQueryLangLexer(CharStreams.fromString(input));
         RQueryLangParser parser = new RQueryLangParser(new CommonTokenStream(lexer));
@@ -202,11 +406,13 @@ class CriteriaRQueryLangListenerIntegrationTest {
             CriteriaQuery<T> query = builder.createQuery(typeOfT);
             Root<T> root = query.from(typeOfT);
 
-            CriteriaRQueryLangListener<T> listener = new CriteriaRQueryLangListener<>(builder, root, UnaryOperator.identity());
+            CriteriaRQueryLangListener listener = new CriteriaRQueryLangListener(new QueryNodeFactory(
+                    AttributeTable.of(root.getModel()), UnaryOperator.identity(), RQueryConfig.defaults(), ParseProfile.DISABLED));
             parser.addParseListener(listener);
             parser.query();
 
-            assertions.accept(session.createQuery(query.where(listener.toPredicate())));
+            CompiledQuery<T> compiled = new CompiledQuery<>(typeOfT, input, listener.toQueryNode());
+            assertions.accept(session.createQuery(query.where(compiled.toPredicate(root, builder))));
         }
     }
 }
\ No newline at end of file
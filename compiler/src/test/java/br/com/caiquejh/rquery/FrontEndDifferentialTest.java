@@ -0,0 +1,197 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+import br.com.caiquejh.rquery.model.Author;
+import br.com.caiquejh.rquery.model.Post;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.function.UnaryOperator;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Compile the same queries with both front ends, which must agree on every one of them.
+ */
+class FrontEndDifferentialTest {
+
+    private static final List<String> QUERIES = asList(
+            "firstName = 'Charles'",
+            "firstName != \"Charles\"",
+            "age <> 30",
+            "age > 30", "age >= 30", "age < 70", "age <= 70",
+            "age>=30&&age<=70",
+            "address.isApartment is true", "address.isApartment IS FALSE",
+            "email is null", "email Is Not Null",
+            "firstName contains '.'", "firstName starts 'ch'",
+            "firstName not contains '.'", "firstName NOT STARTS 'ch'",
+            "firstName matches 'ch'", "firstName NOT MATCHES '.'", "firstName not matches 1",
+            "age between 50 and 100", "age BETWEEN 50 AND 100",
+            "address.street in ('Street A', 'Street B')",
+            "address.street not in ('Street A')",
+            "firstName = 'Charles' && age >= 30",
+            "(firstName = 'Charles' && age >= 30) || (firstName contains '.' && email is not null)",
+            "(firstName = 'Charles' && age >= 30) or (firstName contains '.' && email is not null)",
+            "firstName = 'Charles' && (age < 30 || email is null)",
+            "firstName = 'Charles' and (age < 30 or email is null) or age = 1 and gender = 'MALE'",
+            "address . street = 'A'",
+            "age = -1", "age = +12", "age = 1e2", "age = 1.", "age = 1.5e-3", "age = 1e",
+            "gender = 'MALE'", "gender in ('MALE', 'FEMALE')",
+            "createdAt >= '2022-05-21 15:00:00'", "updatedAt < '2022-05-21 15:00:00'",
+            "firstName = 'a' garbage", "firstName = 'a' (", "firstName = 'a' # and",
+            "firstName = 'it''s'", "firstName = 'line\nbreak'",
+            "\n\tfirstName\n=\n'x'\n and\n age > 1",
+            "",
+            "firstName",
+            "firstName =",
+            "firstName = and",
+            "firstName = 'a' and",
+            "firstName = 'a' &",
+            "firstName ! 'a'",
+            "firstName is",
+            "firstName is not",
+            "firstName is not true",
+            "firstName not 'a'",
+            "firstName not in 'a'",
+            "firstName contains 1",
+            "age between 1 && 2",
+            "age between 1",
+            "(age = 1",
+            "((age = 1))",
+            "(age = 1) and (age = 2 or (age = 3))",
+            "age in ()",
+            "age in (1,)",
+            "age = 'abc'",
+            "nickname = 'x'",
+            "nickname ~ 'x'",
+            "nickname is foo",
+            "address.city = 'x'",
+            "address.street. = 'x'",
+            "'x' = firstName",
+            "firstName = 'unterminated",
+            "firstName = \"mixed'",
+            "and = 1",
+            "ANDY = 1",
+            "firstName = 'a' || ",
+            "firstName = 'a' | lastName = 'b'"
+    );
+
+    private static final String[] ATTRIBUTES = {"firstName", "lastName", "email", "age", "address.street",
+            "address.isApartment", "gender", "createdAt", "id"};
+    private static final String[] LOGICAL = {" and ", " or ", " && ", " || ", " AND ", " Or "};
+
+    @Test
+    void shouldCompileCorpusTheSameWay() {
+        for (String query : QUERIES) {
+            assertSameResult(Author.class, query);
+        }
+        assertSameResult(Post.class, "author.lastName = 'One' || comments.content = 'Comment 1'");
+        assertSameResult(Post.class, "comments.author.email = 'a_two@mail.com' and category.name starts 'Pro'");
+    }
+
+    @Test
+    void shouldCompileGeneratedQueriesTheSameWay() {
+        Random random = new Random(20220521);
+        for (int i = 0; i < 2000; i++) {
+            String query = generateQuery(random);
+            assertSameResult(Author.class, query);
+            assertSameResult(Author.class, mutate(random, query));
+        }
+    }
+
+    private static void assertSameResult(Class<?> entityType, String query) {
+        Object antlr = compile(entityType, query, FrontEnd.ANTLR);
+        Object handWritten = compile(entityType, query, FrontEnd.HAND_WRITTEN);
+        if (antlr instanceof RQueryException) {
+            assertTrue(handWritten instanceof RQueryException,
+                    () -> "Only ANTLR rejected [" + query + "]: " + ((Exception) antlr).getMessage() + " / " + handWritten);
+        } else {
+            assertEquals(antlr, handWritten, () -> "Front ends disagree on [" + query + "]");
+        }
+    }
+
+    private static Object compile(Class<?> entityType, String query, FrontEnd frontEnd) {
+        try {
+            return RQuery.compile(entityType, query, UnaryOperator.identity(), frontEnd).getNode();
+        } catch (RQueryException e) {
+            return e;
+        } catch (RuntimeException e) {
+            throw new AssertionError(frontEnd + " failed on [" + query + "]", e);
+        }
+    }
+
+    private static String generateQuery(Random random) {
+        StringBuilder query = new StringBuilder();
+        int terms = 1 + random.nextInt(4);
+        for (int t = 0; t < terms; t++) {
+            if (t > 0) query.append(LOGICAL[random.nextInt(LOGICAL.length)]);
+            int expressions = random.nextInt(3) == 0 ? 2 + random.nextInt(3) : 1;
+            if (expressions > 1) query.append('(');
+            for (int e = 0; e < expressions; e++) {
+                if (e > 0) query.append(LOGICAL[random.nextInt(LOGICAL.length)]);
+                query.append(generateExpression(random));
+            }
+            if (expressions > 1) query.append(')');
+        }
+        return query.toString();
+    }
+
+    private static String generateExpression(Random random) {
+        String attribute = ATTRIBUTES[random.nextInt(ATTRIBUTES.length)];
+        String literal = literal(random, attribute);
+        switch (random.nextInt(9)) {
+            case 0:
+                return attribute + " = " + literal;
+            case 1:
+                return attribute + (random.nextBoolean() ? " != " : "<>") + literal;
+            case 2:
+                return attribute + new String[]{" > ", " >= ", "<", "<="}[random.nextInt(4)] + literal;
+            case 3:
+                return attribute + new String[]{" is true", " is false", " is null", " is not null"}[random.nextInt(4)];
+            case 4:
+                return attribute + new String[]{" contains ", " starts ", " matches ", " not contains ", " not starts ", " not matches "}[random.nextInt(6)] + "'ab'";
+            case 5:
+                return attribute + " between " + literal + " and " + literal(random, attribute);
+            default:
+                List<String> values = new ArrayList<>();
+                for (int i = random.nextInt(4); i >= 0; i--) {
+                    values.add(literal(random, attribute));
+                }
+                return attribute + (random.nextBoolean() ? " in (" : " not in(") + String.join(",", values) + ")";
+        }
+    }
+
+    private static String literal(Random random, String attribute) {
+        switch (attribute) {
+            case "age":
+            case "id":
+                return String.valueOf(random.nextInt(100) - 20);
+            case "gender":
+                return random.nextBoolean() ? "'MALE'" : "\"FEMALE\"";
+            case "createdAt":
+                return "'2022-05-2" + random.nextInt(10) + " 15:00:00'";
+            default:
+                return random.nextBoolean() ? "'v" + random.nextInt(10) + "'" : "\"x y\"";
+        }
+    }
+
+    private static String mutate(Random random, String query) {
+        String alphabet = " ()'\".,=<>!&|-+e1aINOT";
+        StringBuilder mutated = new StringBuilder(query);
+        int position = random.nextInt(mutated.length());
+        switch (random.nextInt(3)) {
+            case 0:
+                mutated.deleteCharAt(position);
+                break;
+            case 1:
+                mutated.insert(position, alphabet.charAt(random.nextInt(alphabet.length())));
+                break;
+            default:
+                mutated.setCharAt(position, alphabet.charAt(random.nextInt(alphabet.length())));
+        }
+        return mutated.toString();
+    }
+}
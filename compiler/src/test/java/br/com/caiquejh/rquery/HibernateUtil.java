@@ -5,6 +5,9 @@ import org.hibernate.boot.Metadata;
 import org.hibernate.boot.MetadataSources;
 import org.hibernate.boot.registry.StandardServiceRegistry;
 import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.h2.jdbcx.JdbcDataSource;
+
+import javax.sql.DataSource;
 
 public final class HibernateUtil {
 
@@ -36,6 +39,16 @@ public final class HibernateUtil {
         return sessionFactory;
     }
 
+    /**
+     * @return a data source of the database of the session factory
+     */
+    public static DataSource getDataSource() {
+        JdbcDataSource dataSource = new JdbcDataSource();
+        dataSource.setURL("jdbc:h2:mem:test");
+        dataSource.setUser("sa");
+        return dataSource;
+    }
+
     public static void shutdown() {
         if (registry != null) {
             StandardServiceRegistryBuilder.destroy(registry);
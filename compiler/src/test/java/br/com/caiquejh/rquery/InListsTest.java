@@ -0,0 +1,82 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.model.Author;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class InListsTest {
+
+    @AfterEach
+    void tearDown() {
+        RQuery.setLargeInListThreshold(InLists.DEFAULT_THRESHOLD);
+        RQuery.setInListStrategy(InListStrategy.SINGLE);
+        RQuery.setInListChunkSize(InLists.DEFAULT_CHUNK_SIZE);
+    }
+
+    @Test
+    void shouldSortTheValuesWithoutRepetitions() {
+        SortedLongList list = SortedLongList.of(asList(5, 1, 3, 1, 5));
+
+        assertEquals(asList(1, 3, 5), list);
+        assertTrue(list.contains(3));
+        assertFalse(list.contains(4));
+        assertFalse(list.contains("3"));
+        assertEquals(Long.class, SortedLongList.of(asList(2L, 1L)).get(0).getClass());
+        assertFalse(SortedLongList.supports(asList(1, 2L)));
+    }
+
+    @Test
+    void shouldCompactTheLargeLists() {
+        RQuery.setLargeInListThreshold(4);
+
+        ExpressionNode large = (ExpressionNode) RQuery.compile(Author.class, "age in (9, 1, 7, 1, 3, 5)").getNode();
+        ExpressionNode small = (ExpressionNode) RQuery.compile(Author.class, "age not in (9, 1, 7)").getNode();
+        ExpressionNode strings = (ExpressionNode) RQuery.compile(Author.class, "firstName in ('e', 'a', 'd', 'a', 'c')").getNode();
+
+        assertTrue(large.getValues() instanceof SortedLongList);
+        assertEquals(asList(1, 3, 5, 7, 9), large.getValues());
+        assertFalse(small.getValues() instanceof SortedLongList);
+        assertEquals(asList("a", "c", "d", "e"), strings.getValues());
+    }
+
+    @Test
+    void shouldSplitTheLargeListsInChunks() {
+        InLists single = InLists.DEFAULTS.withThreshold(4).withChunkSize(2);
+        List<Object> values = asList(1, 2, 3, 4, 5);
+
+        assertEquals(1, single.chunks(values).size());
+
+        InLists chunked = single.withStrategy(InListStrategy.CHUNKED);
+
+        assertEquals(asList(asList(1, 2), asList(3, 4), asList(5)), chunked.chunks(values));
+        assertEquals(1, chunked.chunks(asList(1, 2, 3, 4)).size());
+        assertEquals(InListStrategy.SINGLE, single.getStrategy());
+    }
+
+    @Test
+    void shouldEvaluateTheLargeListsInMemory() {
+        String query = "age in (" + IntStream.range(0, 5000).map(i -> i * 3).mapToObj(String::valueOf)
+                .collect(Collectors.joining(", ")) + ")";
+        List<Author> authors = IntStream.range(0, 100)
+                .mapToObj(i -> new Author("Author", String.valueOf(i), null, i, null))
+                .collect(Collectors.toList());
+
+        for (boolean generated : asList(true, false)) {
+            RQuery.setPredicateClassGeneration(generated);
+            Predicate<Author> predicate = RQuery.predicate(Author.class, query);
+            assertEquals(generated, predicate.getClass().getName().contains("GeneratedPredicate"));
+            for (Author author : authors) {
+                assertEquals(author.getAge() % 3 == 0, predicate.test(author), author.getLastName());
+            }
+        }
+        RQuery.setPredicateClassGeneration(true);
+    }
+}
@@ -0,0 +1,142 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.model.*;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Evaluate the same queries in the database and in memory, which must agree on every one of them.
+ */
+class InMemoryQueryNodeVisitorTest {
+
+    private static final List<String> AUTHOR_QUERIES = asList(
+            "firstName = 'Charles'", "firstName != 'Charles'",
+            "age > 30", "age >= 30", "age < 70", "age <= 70", "age between 30 and 69",
+            "address.isApartment is true", "address.isApartment is false",
+            "email is null", "email is not null",
+            "firstName contains 'r.'", "firstName starts 'ch'",
+            "firstName not contains 'r.'", "lastName not starts 'DAR'",
+            "address.street in ('Street A', 'Street C')", "address.street not in ('Street A')",
+            "age in (1, 2, 3, 4, 5, 6, 7, 8, 9, 30)",
+            "gender = 'MALE'", "gender in ('FEMALE', 'OTHER')",
+            "firstName = 'Charles' and (age < 30 or email is null)",
+            "age < 40 or email is null or address.street = 'Street C'",
+            "age > 20 and age < 80 and email is not null"
+    );
+
+    private static final List<String> POST_QUERIES = asList(
+            "author.lastName = 'One' || comments.content = 'Comment 1'",
+            "comments.content contains 'comment 2'",
+            "comments.author.email = 'a_two@mail.com'",
+            "comments.author.age > 25 and category.name starts 'prog'",
+            "comments.content = 'Comment 2' and comments.author.lastName = 'One'",
+            "content = 'Without comments' or comments.content = 'Comment 1'"
+    );
+
+    @BeforeEach
+    @AfterEach
+    void cleanUp() {
+        doInTransactional(session -> {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            deleteAll(session, builder, Comment.class);
+            deleteAll(session, builder, Post.class);
+            deleteAll(session, builder, Author.class);
+            deleteAll(session, builder, Category.class);
+        });
+    }
+
+    @Test
+    void shouldMatchTheDatabase() {
+        Author darwin = new Author("Charles", "Darwin", null, 70, new Address("Street A", "700", true), Gender.MALE);
+        Author tolkien = new Author("J. R. R.", "Tolkien", "tolkien@youmail.com", 30, new Address("Street B", "300", false), Gender.MALE);
+        Author austen = new Author("Jane", "Austen", "jane@youmail.com", 41, new Address("Street C", "41", null), Gender.FEMALE);
+        Author one = new Author("Author", "One", "a_one@mail.com", 20, new Address("Street A", "109", true));
+        Author two = new Author("Author", "Two", "a_two@mail.com", 26, null);
+        Category category = new Category("Programming");
+        doInTransactional(session -> {
+            asList(darwin, tolkien, austen, one, two).forEach(session::save);
+            session.save(category);
+            session.save(new Post("My blog post", category, one, asList(
+                    new Comment("Comment 1", two),
+                    new Comment("Comment 2", one))));
+            session.save(new Post("Without comments", null, two, asList()));
+        });
+
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            assertAgree(session, Author.class, AUTHOR_QUERIES);
+            assertAgree(session, Post.class, POST_QUERIES);
+        }
+    }
+
+    @Test
+    void shouldMatchTheConditionsOfACollectionOnTheSameElement() {
+        Author one = new Author("Author", "One", "a_one@mail.com", 20, null);
+        Author two = new Author("Author", "Two", "a_two@mail.com", 26, null);
+        Post post = new Post("My blog post", null, one, asList(new Comment("Comment 1", two), new Comment("Comment 2", one)));
+
+        assertFalse(RQuery.predicate(Post.class, "comments.content = 'Comment 1' and comments.author.lastName = 'One'").test(post));
+        assertTrue(RQuery.predicate(Post.class, "comments.content = 'Comment 1' or comments.author.lastName = 'One'").test(post));
+        assertFalse(RQuery.predicate(Post.class, "content = 'Without comments' or comments.content = 'Comment 1'")
+                .test(new Post("Without comments", null, two, asList())));
+    }
+
+    @Test
+    void shouldReuseThePredicateOfTheCompiledQuery() {
+        CompiledQuery<Author> compiled = RQuery.compile(Author.class, "address.street = 'Street A'");
+
+        assertSame(compiled.asPredicate(), compiled.asPredicate());
+        assertFalse(compiled.asPredicate().test(new Author("No", "Address", null, 1, null)));
+    }
+
+    private static <T> void assertAgree(Session session, Class<T> type, List<String> queries) {
+        List<T> all = session.createQuery("from " + type.getSimpleName(), type).getResultList();
+        for (String query : queries) {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaQuery<T> criteria = builder.createQuery(type);
+            Root<T> root = criteria.from(type);
+            Set<T> expected = new HashSet<>(session.createQuery(criteria.where(RQuery.from(root, builder).parse(query))).getResultList());
+
+            Predicate<T> predicate = RQuery.predicate(type, query);
+            Set<T> actual = all.stream().filter(predicate).collect(Collectors.toSet());
+
+            assertFalse(expected.isEmpty() && actual.isEmpty(), query);
+            assertEquals(expected, actual, query);
+        }
+    }
+
+    private <T> void deleteAll(Session session, CriteriaBuilder builder, Class<T> type) {
+        CriteriaDelete<T> criteriaDelete = builder.createCriteriaDelete(type);
+        criteriaDelete.from(type);
+        session.createQuery(criteriaDelete).executeUpdate();
+    }
+
+    private void doInTransactional(java.util.function.Consumer<Session> block) {
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            block.accept(session);
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+}
@@ -0,0 +1,79 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.model.Post;
+import org.hibernate.Session;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.criteria.*;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class JoinContextTest {
+
+    private Session session;
+    private CriteriaBuilder builder;
+    private CriteriaQuery<Post> query;
+    private Root<Post> root;
+
+    @BeforeEach
+    void setUp() {
+        session = HibernateUtil.getSessionFactory().openSession();
+        builder = session.getCriteriaBuilder();
+        query = builder.createQuery(Post.class);
+        root = query.from(Post.class);
+    }
+
+    @AfterEach
+    void tearDown() {
+        session.close();
+    }
+
+    @Test
+    void shouldJoinEachPathOnceAcrossFilters() {
+        Predicate user = RQuery.from(root, builder).parse("author.age > 18 and comments.author.email is not null");
+        Predicate tenant = RQuery.from(root, builder).parse("author.email is not null");
+        JoinContext joins = JoinContext.of(root);
+        Predicate view = RQuery.from(root, builder).withJoinContext(joins).parse("comments.content contains 'a'");
+        RQuery.from(root, builder).withJoinContext(joins).parse("comments.author.age < 90");
+
+        assertEquals(2, root.getJoins().size());
+        Join<?, ?> comments = root.getJoins().stream()
+                .filter(join -> join.getAttribute().getName().equals("comments"))
+                .findFirst().orElseThrow(AssertionError::new);
+        assertEquals(1, comments.getJoins().size());
+        assertDoesNotThrow(() -> session.createQuery(query.where(user, tenant, view)).getResultList());
+    }
+
+    @Test
+    void shouldReuseFetchOfTheRoot() {
+        root.fetch("author", JoinType.LEFT);
+
+        RQuery.from(root, builder).parse("author.age > 18");
+
+        assertTrue(root.getJoins().isEmpty());
+    }
+
+    @Test
+    void shouldJoinWithConfiguredType() {
+        root.fetch("author", JoinType.LEFT);
+
+        RQuery.from(root, builder)
+                .withJoinType("author", JoinType.INNER)
+                .withJoinType("comments", JoinType.LEFT)
+                .parse("author.age > 18 or comments.content is null");
+
+        assertEquals(2, root.getJoins().size());
+        for (Join<?, ?> join : root.getJoins()) {
+            JoinType expected = join.getAttribute().getName().equals("author") ? JoinType.INNER : JoinType.LEFT;
+            assertEquals(expected, join.getJoinType());
+        }
+    }
+
+    @Test
+    void shouldRejectContextOfAnotherRoot() {
+        JoinContext joins = JoinContext.of(query.from(Post.class));
+        assertThrows(IllegalArgumentException.class, () -> RQuery.from(root, builder).withJoinContext(joins));
+    }
+}
@@ -0,0 +1,64 @@
+package br.com.caiquejh.rquery;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class LruCacheTest {
+
+    @Test
+    void shouldCountHitsAndMisses() {
+        AtomicInteger loads = new AtomicInteger();
+        LruCache<String, String> cache = new LruCache<>(100, String::length);
+
+        assertEquals("A", cache.get("a", key -> load(loads, key)));
+        assertEquals("A", cache.get("a", key -> load(loads, key)));
+        assertEquals("B", cache.get("b", key -> load(loads, key)));
+
+        CacheStats stats = cache.stats();
+        assertEquals(2, loads.get());
+        assertEquals(1, stats.getHitCount());
+        assertEquals(2, stats.getMissCount());
+        assertEquals(2, stats.getSize());
+        assertEquals(2, stats.getWeight());
+    }
+
+    @Test
+    void shouldEvictLeastRecentlyUsedByWeight() {
+        AtomicInteger loads = new AtomicInteger();
+        LruCache<String, String> cache = new LruCache<>(6, String::length);
+
+        cache.get("aaa", key -> load(loads, key));
+        cache.get("bbb", key -> load(loads, key));
+        cache.get("aaa", key -> load(loads, key));
+        cache.get("cc", key -> load(loads, key));
+
+        CacheStats stats = cache.stats();
+        assertEquals(1, stats.getEvictionCount());
+        assertEquals(2, stats.getSize());
+        assertEquals(5, stats.getWeight());
+
+        cache.get("aaa", key -> load(loads, key));
+        cache.get("bbb", key -> load(loads, key));
+        assertEquals(4, loads.get());
+    }
+
+    @Test
+    void shouldNotKeepEntriesWhenDisabled() {
+        AtomicInteger loads = new AtomicInteger();
+        LruCache<String, String> cache = new LruCache<>(0, String::length);
+
+        cache.get("a", key -> load(loads, key));
+        cache.get("a", key -> load(loads, key));
+
+        assertEquals(2, loads.get());
+        assertEquals(0, cache.stats().getSize());
+    }
+
+    private static String load(AtomicInteger loads, String key) {
+        loads.incrementAndGet();
+        return key.toUpperCase();
+    }
+}
@@ -0,0 +1,179 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.model.Gender;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.function.Predicate;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Evaluate the same queries with generated and interpreted predicates, which must agree on every one of them.
+ */
+class PredicateClassGeneratorTest {
+
+    private static final List<String> QUERIES = asList(
+            "count = 3", "count != 3", "count > 3", "count >= 3", "count < 3", "count <= 3",
+            "count between 2 and 5", "count in (1, 3, 5)", "count not in (1, 3, 5)",
+            "total > 400", "total between 100 and 200", "total in (10, 20, 30, 40, 50, 60, 70, 80, 90, 100)",
+            "score >= 2.5", "score < 1.5", "ratio > 0.5", "ratio is null", "ratio is not null",
+            "id = 7", "id <= 3", "id is null", "count is not null",
+            "flag is true", "flag is false", "active is true", "active is false",
+            "name = 'Item 5'", "name != 'Item 5'", "name contains 'EM 1'", "name starts 'item 2'",
+            "name not contains '1'", "name not starts 'item'", "name in ('Item 1', 'Item 9')",
+            "name > 'Item 5'", "name is null",
+            "gender = 'FEMALE'", "gender != 'FEMALE'", "gender in ('MALE', 'OTHER')", "gender not in ('MALE')",
+            "gender contains 'mal'",
+            "price = 10.00", "price between 5 and 15.5", "price in (10, 12)",
+            "date >= '2022-01-05'", "date between '2022-01-02' and '2022-01-04'",
+            "child.name = 'Child 2'", "child.count > 5", "child.child.name is null", "child.child.name is not null",
+            "count > 3 and (flag is true or name starts 'Item 1') or gender = 'OTHER' and id is not null",
+            "count < 2 or count > 8 or name = 'Item 5'",
+            "count > 1 and count < 9 and flag is false"
+    );
+
+    @AfterEach
+    void tearDown() {
+        RQuery.setPredicateClassGeneration(true);
+        RQuery.setMaximumPredicateClasses(256);
+    }
+
+    @Test
+    void shouldAgreeWithTheInterpreter() {
+        assertTrue(PredicateClassGenerator.isAvailable());
+        List<Item> items = IntStream.range(0, 12).mapToObj(Item::new).collect(Collectors.toList());
+        long fallbacks = RQuery.predicateClassStats().getFallbackCount();
+        for (String query : QUERIES) {
+            CompiledQuery<Item> compiled = RQuery.compile(Item.class, query);
+            Predicate<Item> generated = compiled.asPredicate();
+            Predicate<Object> interpreted = InMemoryQueryNodeVisitor.of(Item.class, compiled.getNode(),
+                    StringMatching.DEFAULTS);
+
+            assertTrue(generated.getClass().getName().contains("GeneratedPredicate"), query);
+            for (Item item : items) {
+                assertEquals(interpreted.test(item), generated.test(item), query + " of " + item.getName());
+            }
+        }
+        assertEquals(fallbacks, RQuery.predicateClassStats().getFallbackCount());
+    }
+
+    @Test
+    void shouldInterpretWhenAPathCannotBeGenerated() {
+        RQueryEngine engine = RQueryEngine.of(RQueryConfig.defaults());
+
+        Predicate<Item> predicate = engine.predicate(Item.class, "hidden = 1");
+
+        assertFalse(predicate.getClass().getName().contains("GeneratedPredicate"));
+        assertTrue(predicate.test(new Item(1)));
+        assertEquals(1, engine.predicateClassStats().getFallbackCount());
+        assertEquals(1, engine.predicateClassStats().getSize());
+    }
+
+    @Test
+    void shouldInterpretWhenDisabled() {
+        RQuery.setPredicateClassGeneration(false);
+
+        Predicate<Item> predicate = RQuery.compile(Item.class, "count = 3").asPredicate();
+
+        assertFalse(predicate.getClass().getName().contains("GeneratedPredicate"));
+        assertTrue(predicate.test(new Item(3)));
+    }
+
+    @Test
+    void shouldKeepABoundedNumberOfClasses() {
+        RQuery.setMaximumPredicateClasses(2);
+
+        for (int i = 0; i < 5; i++) {
+            assertTrue(RQuery.compile(Item.class, "count = " + i).asPredicate().test(new Item(i)));
+        }
+
+        assertTrue(RQuery.defaultEngine().getGenerator().stats().getSize() <= 2);
+    }
+
+    public static class Item {
+        private final int count;
+        private final long total;
+        private final double score;
+        private final Double ratio;
+        private final Long id;
+        private final boolean flag;
+        private final Boolean active;
+        private final String name;
+        private final Gender gender;
+        private final BigDecimal price;
+        private final LocalDate date;
+        private final Item child;
+        private final int hidden;
+
+        Item(int i) {
+            this.count = i;
+            this.total = i * 100L;
+            this.score = i / 2.0;
+            this.ratio = i % 3 == 0 ? null : i / 10.0;
+            this.id = i % 4 == 0 ? null : (long) i;
+            this.flag = i % 2 == 0;
+            this.active = i % 3 == 0 ? null : i % 3 == 1;
+            this.name = i == 11 ? null : "Item " + i;
+            this.gender = i % 5 == 0 ? null : Gender.values()[i % Gender.values().length];
+            this.price = i == 10 ? new BigDecimal("10.00") : BigDecimal.valueOf(i * 3);
+            this.date = LocalDate.of(2022, 1, 1).plusDays(i);
+            this.child = i % 2 == 0 ? null : new Item(i - 1);
+            this.hidden = i;
+        }
+
+        public int getCount() {
+            return count;
+        }
+
+        public long getTotal() {
+            return total;
+        }
+
+        public double getScore() {
+            return score;
+        }
+
+        public Double getRatio() {
+            return ratio;
+        }
+
+        public Long getId() {
+            return id;
+        }
+
+        public boolean isFlag() {
+            return flag;
+        }
+
+        public Boolean getActive() {
+            return active;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Gender getGender() {
+            return gender;
+        }
+
+        public BigDecimal getPrice() {
+            return price;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public Item getChild() {
+            return child;
+        }
+    }
+}
@@ -0,0 +1,108 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.Column;
+import javax.persistence.Id;
+import javax.persistence.Index;
+import javax.persistence.JoinColumn;
+import javax.persistence.Table;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryPolicyTest {
+
+    @AfterEach
+    void tearDown() {
+        RQuery.registerPolicy(Customer.class, QueryPolicy.unlimited());
+    }
+
+    @Test
+    void shouldFindTheIndexedAttributes() {
+        assertTrue(IndexedAttributes.isIndexed(Customer.class, "id"));
+        assertTrue(IndexedAttributes.isIndexed(Customer.class, "email"));
+        assertTrue(IndexedAttributes.isIndexed(Customer.class, "lastName"));
+        assertFalse(IndexedAttributes.isIndexed(Customer.class, "firstName"));
+        assertTrue(IndexedAttributes.isIndexed(Customer.class, "referrer"));
+        assertTrue(IndexedAttributes.isIndexed(Customer.class, AttributePath.resolve(Customer.class, "residence.city")));
+        assertFalse(IndexedAttributes.isIndexed(Customer.class, AttributePath.resolve(Customer.class, "residence.street")));
+    }
+
+    @Test
+    void shouldCostTheExpressions() {
+        QueryPolicy policy = QueryPolicy.unlimited();
+
+        assertEquals(1, policy.costOf(RQuery.compile(Customer.class, "id = 1")));
+        assertEquals(11, policy.costOf(RQuery.compile(Customer.class, "firstName = 'Jon'")));
+        assertEquals(111, policy.costOf(RQuery.compile(Customer.class, "firstName contains 'Jon'")));
+        assertEquals(8, policy.costOf(RQuery.compile(Customer.class, "referrer.referrer.id in (1, 2, 3)")));
+        assertEquals(12, policy.costOf(RQuery.compile(Customer.class, "lastName = 'Snow' and firstName = 'Jon'")));
+        assertEquals(1, policy.withIndexed("firstName").costOf(RQuery.compile(Customer.class, "firstName = 'Jon'")));
+        assertEquals(11, policy.costOf(RQuery.compile(Customer.class, "firstName = 'Jon'")));
+        assertNotSame(policy, policy.withJoinCost(2));
+    }
+
+    @Test
+    void shouldRejectTheQueriesOverTheLimits() {
+        RQuery.registerPolicy(Customer.class, QueryPolicy.of(50).withMaximumJoinDepth(1).withMaximumListSize(3)
+                .withMaximumLength(100));
+
+        assertDoesNotThrow(() -> RQuery.compile(Customer.class, "lastName = 'Snow' and referrer.id in (1, 2, 3)"));
+        assertRejected("costs 111, more than the 50 allowed; its costliest expression is 'firstName contains 'JON''",
+                "firstName contains 'jon'");
+        assertRejected("needs 2 joins, more than the 1 allowed", "referrer.referrer.id = 1");
+        assertRejected("has 4 values, more than the 3 allowed", "id in (1, 2, 3, 4)");
+        assertRejected("more than the 100 allowed", "id = 1 or " + String.join(" or ", Collections.nCopies(20, "id = 2")));
+    }
+
+    @Test
+    void shouldRejectTheAttributesOutOfThePolicy() {
+        RQuery.registerPolicy(Customer.class, QueryPolicy.unlimited().withIndexedOnly());
+
+        assertDoesNotThrow(() -> RQuery.compile(Customer.class, "email = 'jon@north' or id = 1"));
+        assertRejected("is not indexed", "firstName = 'Jon'");
+
+        RQuery.registerPolicy(Customer.class, QueryPolicy.unlimited().withAllowed("id", "referrer.id"));
+
+        assertDoesNotThrow(() -> RQuery.compile(Customer.class, "referrer.id = 1"));
+        assertRejected("Attribute 'email' of Customer is not allowed", "email = 'jon@north'");
+    }
+
+    @Test
+    void shouldAdmitTheCompiledQueriesAgain() {
+        String query = "firstName contains 'Jon'";
+        RQuery.compile(Customer.class, query);
+
+        RQuery.registerPolicy(Customer.class, QueryPolicy.of(100));
+
+        assertThrows(RQueryException.class, () -> RQuery.compile(Customer.class, query));
+    }
+
+    private static void assertRejected(String message, String query) {
+        RQueryException exception = assertThrows(RQueryException.class, () -> RQuery.compile(Customer.class, query));
+        assertTrue(exception.getMessage().contains(message), exception.getMessage());
+    }
+
+    @Table(indexes = {@Index(columnList = "last_name, first_name"), @Index(columnList = "referrer_id"),
+            @Index(columnList = "city")})
+    public static class Customer {
+        @Id
+        private Long id;
+        @Column(unique = true)
+        private String email;
+        @Column(name = "last_name")
+        private String lastName;
+        private String firstName;
+        @JoinColumn
+        private Customer referrer;
+        private Residence residence;
+    }
+
+    public static class Residence {
+        private String city;
+        private String street;
+    }
+}
@@ -0,0 +1,122 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.model.Address;
+import br.com.caiquejh.rquery.model.Author;
+import br.com.caiquejh.rquery.model.Gender;
+import br.com.caiquejh.rquery.model.Post;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Set;
+import java.util.function.Predicate;
+import java.util.function.UnaryOperator;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryRewriterTest {
+
+    private static final List<List<String>> EQUIVALENT = asList(
+            asList("age = 3 or age = 1 or age = 2", "age in (2, 3) or age = 1", "age = 1 or (age = 2 or age = 3)",
+                    "age in (3, 2, 1, 1)"),
+            asList("age >= 30 and age <= 70 and firstName = 'A'", "firstName = 'A' and age <= 70 and age >= 30",
+                    "(age between 30 and 70) and firstName = 'A' and firstName = 'A'"),
+            asList("(email is null or firstName = 'A') and age > 1", "age > 1 and (firstName = 'A' or email is null)",
+                    "age > 1 and age > 1 and (email is null || firstName = 'A')"),
+            asList("gender = 'MALE' or email is null or gender = 'FEMALE'", "email is null or gender in ('FEMALE', 'MALE')")
+    );
+
+    private static final List<Author> AUTHORS = asList(
+            new Author("Charles", "Darwin", null, 70, new Address("Street A", "700", true), Gender.MALE),
+            new Author("A", "Tolkien", "tolkien@youmail.com", 30, new Address("Street B", "300", false), Gender.MALE),
+            new Author("Jane", "Austen", "jane@youmail.com", 2, null, Gender.FEMALE),
+            new Author("A", "One", null, 1, null)
+    );
+
+    @AfterEach
+    void tearDown() {
+        for (Rewrite rewrite : Rewrite.values()) {
+            RQuery.setRewriteEnabled(rewrite, true);
+        }
+    }
+
+    @Test
+    void shouldCompileEquivalentQueriesToTheSameNode() {
+        for (List<String> queries : EQUIVALENT) {
+            QueryNode expected = RQuery.compile(Author.class, queries.get(0)).getNode();
+            for (String query : queries) {
+                assertEquals(expected, RQuery.compile(Author.class, query).getNode(), query);
+            }
+        }
+        assertEquals("age in (1, 2, 3)", RQuery.compile(Author.class, "age = 3 or age = 1 or age = 2").toString());
+        assertEquals("(age between 30 and 70 and firstName = 'A')",
+                RQuery.compile(Author.class, "firstName = 'A' and age <= 70 and age >= 30").toString());
+    }
+
+    @Test
+    void shouldKeepTheResultOfTheQueries() {
+        QueryRewriter none = new QueryRewriter(EnumSet.noneOf(Rewrite.class));
+        QueryRewriter all = new QueryRewriter(EnumSet.allOf(Rewrite.class));
+        for (List<String> queries : EQUIVALENT) {
+            for (String query : queries) {
+                Predicate<Object> expected = evaluate(parse(Author.class, query, none));
+                Predicate<Object> actual = evaluate(parse(Author.class, query, all));
+                for (Author author : AUTHORS) {
+                    assertEquals(expected.test(author), actual.test(author), query + " of " + author.getLastName());
+                }
+            }
+        }
+    }
+
+    @Test
+    void shouldApplyOnlyTheEnabledRewrites() {
+        String query = "age <= 9 and (age >= 1 and age >= 1) and (firstName = 'B' or firstName = 'A')";
+
+        assertEquals("((age <= 9 and (age >= 1 and age >= 1)) and (firstName = 'B' or firstName = 'A'))",
+                parse(Author.class, query, EnumSet.noneOf(Rewrite.class)).toString());
+        assertEquals("(age <= 9 and age >= 1 and age >= 1 and (firstName = 'B' or firstName = 'A'))",
+                parse(Author.class, query, EnumSet.of(Rewrite.FLATTEN)).toString());
+        assertEquals("((age <= 9 and age >= 1) and (firstName = 'B' or firstName = 'A'))",
+                parse(Author.class, query, EnumSet.of(Rewrite.DEDUPLICATE)).toString());
+        assertEquals("((age <= 9 and (age >= 1 and age >= 1)) and firstName in ('A', 'B'))",
+                parse(Author.class, query, EnumSet.of(Rewrite.IN_LIST)).toString());
+        assertEquals("(age between 1 and 9 and age >= 1 and (firstName = 'B' or firstName = 'A'))",
+                parse(Author.class, query, EnumSet.of(Rewrite.FLATTEN, Rewrite.BETWEEN)).toString());
+        assertEquals("(((age >= 1 and age >= 1) and age <= 9) and (firstName = 'A' or firstName = 'B'))",
+                parse(Author.class, query, EnumSet.of(Rewrite.CANONICAL_ORDER)).toString());
+    }
+
+    @Test
+    void shouldKeepTheBoundsOfACollection() {
+        String query = "comments.author.age >= 1 and comments.author.age <= 9";
+
+        assertEquals("(comments.author.age <= 9 and comments.author.age >= 1)",
+                parse(Post.class, query, EnumSet.allOf(Rewrite.class)).toString());
+    }
+
+    @Test
+    void shouldRecompileWhenARewriteIsDisabled() {
+        String query = "age = 1 or age = 2";
+        assertEquals("age in (1, 2)", RQuery.compile(Author.class, query).toString());
+
+        RQuery.setRewriteEnabled(Rewrite.IN_LIST, false);
+
+        assertFalse(RQuery.getRewrites().contains(Rewrite.IN_LIST));
+        assertEquals("(age = 1 or age = 2)", RQuery.compile(Author.class, query).toString());
+    }
+
+    private static QueryNode parse(Class<?> entityType, String query, Set<Rewrite> rewrites) {
+        return parse(entityType, query, new QueryRewriter(rewrites));
+    }
+
+    private static QueryNode parse(Class<?> entityType, String query, QueryRewriter rewriter) {
+        return rewriter.rewrite(RecursiveDescentQueryParser.parse(query, new QueryNodeFactory(entityType, UnaryOperator.identity())),
+                InLists.DEFAULTS);
+    }
+
+    private static Predicate<Object> evaluate(QueryNode node) {
+        return InMemoryQueryNodeVisitor.of(Author.class, node, StringMatching.DEFAULTS);
+    }
+}
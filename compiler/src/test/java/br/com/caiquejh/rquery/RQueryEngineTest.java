@@ -0,0 +1,131 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+import br.com.caiquejh.rquery.model.Author;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import java.lang.reflect.Proxy;
+import java.util.Collections;
+import java.util.Set;
+import java.util.function.UnaryOperator;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RQueryEngineTest {
+
+    @AfterEach
+    void tearDown() {
+        RQuery.registerMapper(Author.class, UnaryOperator.identity());
+        RQuery.setDefaultStringMatch(StringMatchStrategy.upperCase());
+    }
+
+    @Test
+    void shouldCompileWithTheConfigurationOfEachEngine() {
+        RQueryEngine first = RQueryEngine.of(RQueryConfig.defaults()
+                .withFieldMapper(Author.class, field -> field.replace("name", "firstName")));
+        RQueryEngine last = RQueryEngine.of(RQueryConfig.defaults()
+                .withFieldMapper(Author.class, field -> field.replace("name", "lastName"))
+                .withPolicy(Author.class, QueryPolicy.unlimited().withAllowed("lastName")));
+
+        ExpressionNode byFirst = (ExpressionNode) first.compile(Author.class, "name = 'Jon'").getNode();
+        ExpressionNode byLast = (ExpressionNode) last.compile(Author.class, "name = 'Jon'").getNode();
+
+        assertEquals("firstName", byFirst.getAttribute().getPath());
+        assertEquals("lastName", byLast.getAttribute().getPath());
+        assertEquals(Collections.singletonList(7), ((ExpressionNode) first.compile(Author.class, "age = 7").getNode()).getValues());
+        assertThrows(RQueryException.class, () -> last.compile(Author.class, "age = 7"));
+        assertEquals(2, first.cacheStats().getSize());
+        assertEquals(1, last.cacheStats().getSize());
+    }
+
+    @Test
+    void shouldConvertWithTheConvertersOfTheEngine() {
+        RQueryEngine engine = RQueryEngine.of(RQueryConfig.defaults()
+                .withConverter(Integer.class, value -> Integer.parseInt(value) * 10));
+
+        assertEquals(Collections.singletonList(70), ((ExpressionNode) engine.compile(Author.class, "age = 7").getNode()).getValues());
+        assertEquals(Collections.singletonList(7), ((ExpressionNode) RQuery.compile(Author.class, "age = 7").getNode()).getValues());
+    }
+
+    @Test
+    void shouldConfigureTheDefaultEngineWithTheStaticMethods() {
+        RQueryEngine before = RQuery.defaultEngine();
+        UnaryOperator<String> mapper = field -> field.replace("surname", "lastName");
+
+        RQuery.registerMapper(Author.class, mapper);
+
+        assertNotSame(before, RQuery.defaultEngine());
+        assertSame(mapper, RQuery.defaultEngine().getConfig().getFieldMapper(Author.class));
+        assertNotSame(mapper, before.getConfig().getFieldMapper(Author.class));
+        assertSame(UnaryOperator.identity(), RQueryConfig.defaults().getFieldMapper(Author.class));
+        assertEquals("lastName", ((ExpressionNode) RQuery.compile(Author.class, "surname = 'Snow'").getNode())
+                .getAttribute().getPath());
+    }
+
+    @Test
+    void shouldKeepTheCacheWhenTheChangeDoesNotAffectTheCompiledQueries() {
+        RQuery.compile(Author.class, "firstName = 'Jon'");
+        long size = RQuery.cacheStats().getSize();
+
+        RQuery.setDefaultFrontEnd(FrontEnd.ANTLR);
+        assertEquals(size, RQuery.cacheStats().getSize());
+
+        RQuery.setRewriteEnabled(Rewrite.FLATTEN, true);
+        assertEquals(0, RQuery.cacheStats().getSize());
+    }
+
+    @Test
+    void shouldReplayWithTheOptionsOfEachEngine() {
+        ColumnMapping columns = ColumnMapping.of(Author.class);
+        RQueryEngine sensitive = RQueryEngine.of(RQueryConfig.defaults()
+                .withDefaultStringMatch(StringMatchStrategy.caseSensitive())
+                .withLargeInListThreshold(2)
+                .withInListChunkSize(2)
+                .withInListStrategy(InListStrategy.CHUNKED));
+        String query = "age in (1, 2, 3) and lastName contains 'kien'";
+        CompiledQuery<Author> compiled = sensitive.compile(Author.class, query);
+
+        assertEquals("(age in (?, ?) or age in (?)) and last_name like ? escape '\\'",
+                compiled.toSql(SqlDialect.ANSI, columns).getSql());
+        assertEquals("age in (?, ?, ?, ?) and upper(last_name) like ? escape '\\'",
+                RQuery.compile(Author.class, query).toSql(SqlDialect.ANSI, columns).getSql());
+        assertFalse(compiled.asPredicate().test(new Author("J. R. R.", "TOLKIEN", null, 2, null)));
+        assertTrue(RQuery.predicate(Author.class, query).test(new Author("J. R. R.", "TOLKIEN", null, 2, null)));
+
+        RQuery.setDefaultStringMatch(StringMatchStrategy.caseSensitive());
+
+        assertEquals(1, sensitive.cacheStats().getSize());
+        assertSame(compiled, sensitive.compile(Author.class, query));
+    }
+
+    @Test
+    void shouldCompileAgainForAnotherAttributeTable() {
+        EntityType<Author> author = HibernateUtil.getSessionFactory().getMetamodel().entity(Author.class);
+        Set<Attribute<? super Author, ?>> attributes = author.getAttributes().stream()
+                .filter(attribute -> !attribute.getName().equals("email")).collect(Collectors.toSet());
+        @SuppressWarnings("unchecked")
+        EntityType<Author> narrowed = (EntityType<Author>) Proxy.newProxyInstance(getClass().getClassLoader(),
+                new Class<?>[]{EntityType.class}, (proxy, method, arguments) -> method.getName().equals("getAttributes")
+                        ? attributes : method.invoke(author, arguments));
+        RQueryEngine engine = RQueryEngine.of(RQueryConfig.defaults());
+        try {
+            AttributeTable table = AttributeTable.of(author);
+            CompiledQuery<Author> compiled = engine.compile(Author.class, "age = 7");
+            AttributeTable other = AttributeTable.of(narrowed);
+
+            CompiledQuery<Author> recompiled = engine.compile(Author.class, other, "age = 7", UnaryOperator.identity(),
+                    FrontEnd.ANTLR, ParseProfile.DISABLED);
+
+            assertNotSame(table, other);
+            assertNotSame(compiled, recompiled);
+            assertSame(recompiled, engine.compile(Author.class, "age = 7"));
+            assertThrows(RQueryException.class, () -> engine.compile(Author.class, "email = 'a'"));
+        } finally {
+            AttributeTable.of(author);
+        }
+    }
+}
@@ -0,0 +1,87 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.model.Post;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.UnaryOperator;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RQueryMetricsTest {
+
+    private static final String QUERY = "comments.author.email = 'a@mail.com' and id in (1, 2, 3) or author.age > 30";
+
+    @AfterEach
+    void tearDown() {
+        RQuery.setMetrics(RQueryMetrics.none());
+    }
+
+    @Test
+    void shouldRecordThePhasesAndTheShapeOfEachParse() {
+        for (FrontEnd frontEnd : FrontEnd.values()) {
+            List<ParseSample> samples = new ArrayList<>();
+            RQuery.setMetrics(samples::add);
+            UnaryOperator<String> fieldMapper = field -> field;
+
+            RQuery.compile(Post.class, QUERY, fieldMapper, frontEnd);
+            RQuery.compile(Post.class, QUERY, fieldMapper, frontEnd);
+
+            assertEquals(2, samples.size());
+            ParseSample compiled = samples.get(0);
+            assertTrue(compiled.isCompiled(), frontEnd.name());
+            assertEquals(Post.class, compiled.getEntityType());
+            assertEquals(QUERY.length(), compiled.getQueryLength());
+            assertEquals(23, compiled.getTokenCount(), frontEnd.name());
+            assertEquals(3, compiled.getTermCount());
+            assertEquals(3, compiled.getJoinCount());
+            assertArrayEquals(new int[]{3}, compiled.getInListSizes());
+            assertTrue(compiled.hasPhase(ParsePhase.PARSE));
+            assertFalse(compiled.hasPhase(ParsePhase.BUILD));
+            assertTrue(compiled.getNanos(ParsePhase.LEX) > 0);
+            assertTrue(compiled.getNanos(ParsePhase.PARSE) > 0);
+            assertTrue(compiled.getNanos(ParsePhase.CONVERT) > 0);
+            assertTrue(compiled.getTotalNanos() >= compiled.getNanos(ParsePhase.LEX) + compiled.getNanos(ParsePhase.PARSE)
+                    + compiled.getNanos(ParsePhase.CONVERT) + compiled.getNanos(ParsePhase.REWRITE));
+
+            ParseSample cached = samples.get(1);
+            assertFalse(cached.isCompiled());
+            assertEquals(-1, cached.getTokenCount());
+            assertEquals(3, cached.getTermCount());
+            assertEquals(0, cached.getNanos(ParsePhase.PARSE));
+        }
+    }
+
+    @Test
+    void shouldKeepHistogramsOfThePhases() {
+        HistogramMetrics metrics = new HistogramMetrics();
+        RQuery.setMetrics(metrics);
+
+        RQuery.compile(Post.class, QUERY, field -> field, FrontEnd.ANTLR);
+
+        assertEquals(1, metrics.getParseCount());
+        assertEquals(1, metrics.getCompilationCount());
+        assertEquals(1, metrics.getPhase(ParsePhase.PARSE).getCount());
+        assertEquals(0, metrics.getPhase(ParsePhase.BUILD).getCount());
+        assertEquals(metrics.getTotal().getMax(), metrics.getTotal().getPercentile(100));
+    }
+
+    @Test
+    void shouldComputePercentilesWithinTheBucketError() {
+        Histogram histogram = new Histogram();
+        for (int i = 1; i <= 1000; i++) {
+            histogram.record(i * 1000L);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(1_000_000, histogram.getMax());
+        assertEquals(500_500, histogram.getMean(), 0.001);
+        assertEquals(500_000, histogram.getPercentile(50), 500_000 * 0.125);
+        assertEquals(990_000, histogram.getPercentile(99), 990_000 * 0.125);
+        assertEquals(1_000, histogram.getPercentile(0), 1_000 * 0.125);
+        assertEquals(0, new Histogram().getPercentile(50));
+        assertThrows(IllegalArgumentException.class, () -> histogram.getPercentile(101));
+    }
+}
@@ -0,0 +1,229 @@
+package br.com.caiquejh.rquery;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+import br.com.caiquejh.rquery.model.*;
+import org.hibernate.Session;
+import org.hibernate.Transaction;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaDelete;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static java.util.Arrays.asList;
+import static org.junit.jupiter.api.Assertions.*;
+
+class SqlWhereIntegrationTest {
+
+    private static final ColumnMapping AUTHORS = ColumnMapping.of(Author.class);
+    private static final ColumnMapping POSTS = ColumnMapping.of(Post.class).withAlias("p")
+            .withColumn("author.lastName", "a.last_name");
+
+    @BeforeEach
+    void setUp() {
+        cleanUp();
+        Author darwin = new Author("Charles", "Darwin", null, 70, new Address("Street A", "700", true), Gender.MALE);
+        Author tolkien = new Author("J. R. R.", "Tolkien", "tolkien@youmail.com", 30, new Address("Street B", "300", false), Gender.MALE);
+        Author austen = new Author("Jane", "Austen", "jane@100%.com", 41, new Address("Street_C", "41", null), Gender.FEMALE);
+        Category science = new Category("Science");
+        Category fiction = new Category("Fiction");
+        doInTransactional(session -> {
+            session.save(darwin);
+            session.save(tolkien);
+            session.save(austen);
+            session.save(science);
+            session.save(fiction);
+            session.save(new Post("Origin of Species", science, darwin));
+            session.save(new Post("The Hobbit", fiction, tolkien));
+            session.save(new Post("Emma", fiction, austen));
+            session.save(new Post("Untitled", null, null));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        cleanUp();
+        RQuery.setInListStrategy(InListStrategy.SINGLE);
+        RQuery.setLargeInListThreshold(InLists.DEFAULT_THRESHOLD);
+        RQuery.setInListChunkSize(InLists.DEFAULT_CHUNK_SIZE);
+    }
+
+    @Test
+    void shouldSelectTheSameAuthorsAsTheCriteriaQuery() {
+        List<String> filters = asList(
+                "firstName = 'Charles'",
+                "firstName != 'Charles'",
+                "age > 30 and age <= 70",
+                "age >= 41 or email is null",
+                "address.isApartment is true",
+                "address.isApartment is false",
+                "email is not null",
+                "lastName contains 'kien'",
+                "firstName starts 'j.'",
+                "lastName not contains 'DAR'",
+                "email contains '100%'",
+                "address.street contains '_'",
+                "age in (30, 70, 5)",
+                "age not in (30)",
+                "age between 35 and 80",
+                "gender = 'FEMALE'",
+                "gender in ('MALE', 'OTHER')",
+                "(age < 35 or age > 60) and (firstName starts 'C' or email is not null)",
+                "createdAt > '2000-01-01 00:00:00'");
+
+        for (SqlDialect dialect : asList(SqlDialect.ANSI, SqlDialect.H2)) {
+            for (String filter : filters) {
+                assertEquals(criteriaIds(Author.class, filter, Author::getId),
+                        sqlIds("select id from authors where ", Author.class, filter, dialect, AUTHORS),
+                        dialect + ": " + filter);
+            }
+        }
+    }
+
+    @Test
+    void shouldSelectTheSameEntitiesThroughTheMappedJoins() {
+        String from = "select p.id from posts p left join authors a on a.id = p.author_id where ";
+        for (SqlDialect dialect : asList(SqlDialect.ANSI, SqlDialect.H2)) {
+            for (String filter : asList("category.name = 'Fiction'", "category.name in ('Science', 'Art')",
+                    "author.lastName = 'Tolkien' or content starts 'Em'", "author.id is not null")) {
+                assertEquals(criteriaIds(Post.class, filter, Post::getId), sqlIds(from, Post.class, filter, dialect, POSTS),
+                        dialect + ": " + filter);
+            }
+        }
+    }
+
+    @Test
+    void shouldWriteTheListsAsTheDialectSays() {
+        CompiledQuery<Author> compiled = RQuery.compile(Author.class, "age in (1, 2, 3) and lastName contains 'a'");
+
+        SqlWhere ansi = compiled.toSql(SqlDialect.ANSI, AUTHORS);
+        assertEquals("age in (?, ?, ?, ?) and upper(last_name) like ? escape '\\'", ansi.getSql());
+        assertEquals(asList(1, 2, 3, 3, "%A%"), ansi.getValues());
+
+        SqlWhere postgreSql = compiled.toSql(SqlDialect.POSTGRESQL, AUTHORS.withAlias("a").withNaming(ColumnMapping.snakeCase()));
+        assertEquals("a.age = any(?) and upper(a.last_name) like ? escape '\\'", postgreSql.getSql());
+        assertArrayEquals(new Object[]{1, 2, 3}, (Object[]) postgreSql.getValues().get(0));
+        assertEquals("a.age = any($2) and upper(a.last_name) like $3 escape '\\'", postgreSql.getSql("$", 2));
+
+        assertSame(postgreSql, compiled.toSql(SqlDialect.POSTGRESQL, postgreSql.getColumns()));
+        assertEquals(ansi.getSql(), RQuery.compile(Author.class, "age in (7, 8, 9) and lastName contains 'b'")
+                .toSql(SqlDialect.ANSI, AUTHORS).getSql());
+    }
+
+    @Test
+    void shouldSplitTheLargeListsInChunks() {
+        RQuery.setLargeInListThreshold(4);
+        RQuery.setInListChunkSize(3);
+        RQuery.setInListStrategy(InListStrategy.CHUNKED);
+        String filter = "age not in (" + IntStream.range(0, 10).mapToObj(String::valueOf).collect(Collectors.joining(", ")) + ", 41)";
+
+        assertEquals("not ((age in (?, ?, ?, ?) or age in (?, ?, ?, ?) or age in (?, ?, ?, ?) or age in (?, ?)))",
+                RQuery.compile(Author.class, filter).toSql(SqlDialect.ANSI, AUTHORS).getSql());
+        assertEquals(criteriaIds(Author.class, filter, Author::getId),
+                sqlIds("select id from authors where ", Author.class, filter, SqlDialect.ANSI, AUTHORS));
+    }
+
+    @Test
+    void shouldSearchTheFullTextIndexOncePerStatement() {
+        doInTransactional(session -> session.doWork(connection ->
+                H2FullText.createIndex(connection, "PUBLIC", "POSTS", "CONTENT")));
+        RQuery.setFullTextDialect(FullTextDialect.h2(HibernateUtil.getDataSource()));
+        try {
+            SqlWhere where = RQuery.compile(Post.class, "content matches 'hobbit'").toSql(SqlDialect.H2, POSTS);
+            assertEquals("p.id in (select cast(KEYS[1] as int) from FT_SEARCH_DATA(?, 0, 0) where \"TABLE\" = 'POSTS')",
+                    where.getSql());
+
+            String from = "select p.id from posts p where ";
+            for (String filter : asList("content matches 'hobbit'", "content not matches 'hobbit'",
+                    "content matches 'species origin' or content matches 'emma'")) {
+                assertEquals(criteriaIds(Post.class, filter, Post::getId), sqlIds(from, Post.class, filter, SqlDialect.H2, POSTS),
+                        filter);
+            }
+        } finally {
+            RQuery.setFullTextDialect(FullTextDialect.none());
+        }
+    }
+
+    @Test
+    void shouldFailOnAttributesWithoutColumn() {
+        CompiledQuery<Post> compiled = RQuery.compile(Post.class, "author.firstName = 'Jane'");
+
+        RQueryException exception = assertThrows(RQueryException.class, () -> compiled.toSql(SqlDialect.H2, POSTS));
+        assertTrue(exception.getMessage().contains("author.firstName"));
+        assertThrows(IllegalArgumentException.class, () -> compiled.toSql(SqlDialect.H2, AUTHORS));
+        assertEquals(new HashSet<>(asList("id", "content", "category.name", "author.id")), POSTS.getPaths());
+    }
+
+    private <T> List<Integer> criteriaIds(Class<T> entityType, String filter, Function<T, Integer> id) {
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaQuery<T> query = builder.createQuery(entityType);
+            Root<T> root = query.from(entityType);
+            List<T> entities = session.createQuery(query.where(RQuery.from(root, builder).parse(filter))).getResultList();
+            return entities.stream().map(id).sorted().collect(Collectors.toList());
+        }
+    }
+
+    private <T> List<Integer> sqlIds(String select, Class<T> entityType, String filter, SqlDialect dialect,
+                                     ColumnMapping columns) {
+        SqlWhere where = RQuery.compile(entityType, filter).toSql(dialect, columns);
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            return session.doReturningWork(connection -> {
+                List<Integer> ids = new ArrayList<>();
+                try (PreparedStatement statement = connection.prepareStatement(select + where.getSql())) {
+                    where.bind(statement, 1);
+                    try (ResultSet result = statement.executeQuery()) {
+                        while (result.next()) {
+                            ids.add(result.getInt(1));
+                        }
+                    }
+                }
+                Collections.sort(ids);
+                return ids;
+            });
+        }
+    }
+
+    private void cleanUp() {
+        doInTransactional(session -> {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            deleteAll(session, builder, Comment.class);
+            deleteAll(session, builder, Post.class);
+            deleteAll(session, builder, Author.class);
+            deleteAll(session, builder, Category.class);
+        });
+    }
+
+    private <T> void deleteAll(Session session, CriteriaBuilder builder, Class<T> type) {
+        CriteriaDelete<T> criteriaDelete = builder.createCriteriaDelete(type);
+        criteriaDelete.from(type);
+        session.createQuery(criteriaDelete).executeUpdate();
+    }
+
+    private void doInTransactional(Consumer<Session> block) {
+        Transaction transaction = null;
+        try (Session session = HibernateUtil.getSessionFactory().openSession()) {
+            transaction = session.beginTransaction();
+            block.accept(session);
+            transaction.commit();
+        } catch (Exception e) {
+            if (transaction != null) {
+                transaction.rollback();
+            }
+            throw e;
+        }
+    }
+}
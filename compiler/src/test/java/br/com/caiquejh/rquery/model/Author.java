@@ -6,7 +6,7 @@ import java.util.Date;
 import java.util.Objects;
 
 @Entity
-@Table(name = "authors")
+@Table(name = "authors", indexes = @Index(name = "authors_last_name", columnList = "last_name, first_name"))
 public class Author extends Person {
 
     @Id
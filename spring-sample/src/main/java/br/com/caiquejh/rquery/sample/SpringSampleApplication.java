@@ -1,12 +1,37 @@
 package br.com.caiquejh.rquery.sample;
 
+import br.com.caiquejh.rquery.HistogramMetrics;
+import br.com.caiquejh.rquery.RQuery;
+import br.com.caiquejh.rquery.spring.QueryResultCache;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.boot.autoconfigure.r2dbc.R2dbcAutoConfiguration;
+import org.springframework.context.annotation.Bean;
 
-@SpringBootApplication
+import javax.persistence.EntityManagerFactory;
+import java.time.Duration;
+
+// the R2DBC pool of ReactivePersonService is kept out of the context, which would drop the JDBC data source
+@SpringBootApplication(exclude = R2dbcAutoConfiguration.class)
 public class SpringSampleApplication {
 
     public static void main(String[] args) {
         SpringApplication.run(SpringSampleApplication.class, args);
     }
+
+    @Bean
+    public QueryResultCache queryResultCache(EntityManagerFactory entityManagerFactory,
+                                             @Value("${sample.cache.maximum-size:1000}") int maximumSize,
+                                             @Value("${sample.cache.time-to-live:5m}") Duration timeToLive) {
+        return new QueryResultCache(entityManagerFactory, maximumSize, timeToLive);
+    }
+
+    @Bean
+    public HistogramMetrics rqueryMetrics() {
+        HistogramMetrics metrics = new HistogramMetrics();
+        RQuery.setMetrics(metrics);
+        RQuery.setAttributeUsageRecording(true);
+        return metrics;
+    }
 }
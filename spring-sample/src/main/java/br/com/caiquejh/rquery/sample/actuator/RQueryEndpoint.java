@@ -0,0 +1,71 @@
+package br.com.caiquejh.rquery.sample.actuator;
+
+import br.com.caiquejh.rquery.AttributeUsageReport;
+import br.com.caiquejh.rquery.Histogram;
+import br.com.caiquejh.rquery.HistogramMetrics;
+import br.com.caiquejh.rquery.ParsePhase;
+import br.com.caiquejh.rquery.RQuery;
+import br.com.caiquejh.rquery.spring.QueryResultCache;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.boot.actuate.endpoint.annotation.Selector;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+
+@RequiredArgsConstructor
+@Component
+@Endpoint(id = "rquery")
+public class RQueryEndpoint {
+
+    private final HistogramMetrics metrics;
+    private final QueryResultCache resultCache;
+
+    @Value("${sample.rquery.unindexed-share:0.1}")
+    private double unindexedShare;
+
+    @ReadOperation
+    public Map<String, Object> metrics() {
+        Map<String, Object> phases = new LinkedHashMap<>();
+        for (ParsePhase phase : ParsePhase.values()) {
+            phases.put(phase.name().toLowerCase(Locale.ROOT), summary(metrics.getPhase(phase)));
+        }
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("parses", metrics.getParseCount());
+        body.put("compilations", metrics.getCompilationCount());
+        body.put("totalNanos", summary(metrics.getTotal()));
+        body.put("phaseNanos", phases);
+        body.put("allocatedBytes", summary(metrics.getAllocatedBytes()));
+        body.put("compiledQueryCache", RQuery.cacheStats());
+        body.put("resultCache", resultCache.stats());
+        return body;
+    }
+
+    @ReadOperation
+    public Map<String, Object> report(@Selector String report) {
+        if (!"attributes".equals(report)) {
+            return null;
+        }
+        AttributeUsageReport usage = RQuery.attributeUsage();
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("unindexed", usage.getUnindexed(unindexedShare));
+        body.put("attributes", usage.getAttributes());
+        return body;
+    }
+
+    private static Map<String, Object> summary(Histogram histogram) {
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("count", histogram.getCount());
+        summary.put("mean", histogram.getMean());
+        summary.put("p50", histogram.getPercentile(50));
+        summary.put("p90", histogram.getPercentile(90));
+        summary.put("p99", histogram.getPercentile(99));
+        summary.put("p999", histogram.getPercentile(99.9));
+        summary.put("max", histogram.getMax());
+        return summary;
+    }
+}
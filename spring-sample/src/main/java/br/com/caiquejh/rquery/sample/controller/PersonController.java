@@ -1,14 +1,22 @@
 package br.com.caiquejh.rquery.sample.controller;
 
 import br.com.caiquejh.rquery.sample.model.Person;
+import br.com.caiquejh.rquery.sample.service.ExportFormat;
+import br.com.caiquejh.rquery.sample.service.PersonExporter;
 import br.com.caiquejh.rquery.sample.service.PersonService;
+import br.com.caiquejh.rquery.spring.KeysetRequest;
+import br.com.caiquejh.rquery.spring.KeysetSlice;
+import br.com.caiquejh.rquery.spring.RQuerySpecification;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 @RequiredArgsConstructor
 @RestController
@@ -16,11 +24,25 @@ import org.springframework.web.bind.annotation.RestController;
 public class PersonController {
 
     private final PersonService service;
+    private final PersonExporter exporter;
 
     @GetMapping
-    public Page<Person> getAllPageable(
-            @RequestParam(value = "filter", required = false) String filter,
-            Pageable pageable) {
+    public Page<Person> getAllPageable(RQuerySpecification<Person> filter, Pageable pageable) {
         return service.listAllPageable(filter, pageable);
     }
+
+    @GetMapping("/keyset")
+    public KeysetSlice<Person> getAllKeyset(RQuerySpecification<Person> filter, Sort sort,
+                                            @RequestParam(value = "size", defaultValue = "20") int size,
+                                            @RequestParam(value = "after", required = false) String after) {
+        return service.listAllKeyset(filter, KeysetRequest.of(size, sort, after));
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> export(RQuerySpecification<Person> filter,
+                                                        @RequestParam(value = "format", defaultValue = "NDJSON") ExportFormat format) {
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .body(output -> exporter.export(filter, format, output));
+    }
 }
@@ -0,0 +1,28 @@
+package br.com.caiquejh.rquery.sample.controller;
+
+import br.com.caiquejh.rquery.sample.model.Person;
+import br.com.caiquejh.rquery.sample.service.ReactivePersonService;
+import br.com.caiquejh.rquery.spring.RQuerySpecification;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.MediaType;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+import reactor.core.publisher.Flux;
+
+/**
+ * Streams the persons matching a filter as newline delimited JSON, written as the rows arrive
+ * and requested one at a time, so a slow client holds neither a thread nor the whole result.
+ */
+@RequiredArgsConstructor
+@RestController
+@RequestMapping("/reactive/persons")
+public class ReactivePersonController {
+
+    private final ReactivePersonService service;
+
+    @GetMapping(produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public Flux<Person> getAll(RQuerySpecification<Person> filter) {
+        return service.findAll(filter);
+    }
+}
@@ -13,7 +13,7 @@ import javax.validation.constraints.NotNull;
 @NoArgsConstructor
 @EqualsAndHashCode(of = "id", callSuper = false)
 @Entity
-@Table(name = "persons")
+@Table(name = "persons", indexes = @Index(name = "persons_last_name", columnList = "last_name"))
 public class Person {
 
     @Id
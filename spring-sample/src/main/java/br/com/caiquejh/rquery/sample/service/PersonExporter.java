@@ -0,0 +1,112 @@
+package br.com.caiquejh.rquery.sample.service;
+
+import br.com.caiquejh.rquery.sample.model.Address;
+import br.com.caiquejh.rquery.sample.model.Person;
+import br.com.caiquejh.rquery.spring.RQuerySpecification;
+import br.com.caiquejh.rquery.spring.StreamExecutor;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import javax.persistence.EntityManager;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+import java.util.stream.Stream;
+
+/**
+ * Write the persons matching a filter as they are read from the database, so exporting the
+ * whole table takes the same memory as exporting a page of it.
+ */
+@Service
+public class PersonExporter {
+
+    private static final String CSV_HEADER = "id,firstName,lastName,email,age,gender,city,street,number,postalCode";
+
+    private final EntityManager entityManager;
+    private final ObjectWriter jsonWriter;
+    private final ObjectMapper objectMapper;
+    private final int fetchSize;
+
+    public PersonExporter(EntityManager entityManager, ObjectMapper objectMapper,
+                          @Value("${sample.export.fetch-size:1000}") int fetchSize) {
+        this.entityManager = entityManager;
+        this.objectMapper = objectMapper;
+        this.jsonWriter = objectMapper.writerFor(Person.class)
+                .withRootValueSeparator("")
+                .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * @return the number of persons written
+     */
+    @Transactional(readOnly = true)
+    public long export(RQuerySpecification<Person> filter, ExportFormat format, OutputStream output) throws IOException {
+        StreamExecutor executor = new StreamExecutor(entityManager).withFetchSize(fetchSize).withClearInterval(fetchSize);
+        try (Stream<Person> persons = executor.stream(Person.class, filter, Sort.by("id"))) {
+            return format == ExportFormat.CSV ? writeCsv(persons.iterator(), output) : writeNdjson(persons.iterator(), output);
+        }
+    }
+
+    private long writeNdjson(Iterator<Person> persons, OutputStream output) throws IOException {
+        long count = 0;
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(output)
+                .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET)) {
+            while (persons.hasNext()) {
+                jsonWriter.writeValue(generator, persons.next());
+                generator.writeRaw('\n');
+                count++;
+            }
+        }
+        return count;
+    }
+
+    private long writeCsv(Iterator<Person> persons, OutputStream output) throws IOException {
+        long count = 0;
+        Writer writer = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8));
+        writer.write(CSV_HEADER);
+        writer.write('\n');
+        while (persons.hasNext()) {
+            Person person = persons.next();
+            Address address = person.getAddress() == null ? new Address() : person.getAddress();
+            writeCsvLine(writer, person.getId(), person.getFirstName(), person.getLastName(), person.getEmail(),
+                    person.getAge(), person.getGender(), address.getCity(), address.getStreet(), address.getNumber(),
+                    address.getPostalCode());
+            count++;
+        }
+        writer.flush();
+        return count;
+    }
+
+    private static void writeCsvLine(Writer writer, Object... values) throws IOException {
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                writer.write(',');
+            }
+            if (values[i] != null) {
+                writeCsvValue(writer, values[i].toString());
+            }
+        }
+        writer.write('\n');
+    }
+
+    private static void writeCsvValue(Writer writer, String value) throws IOException {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            writer.write(value);
+            return;
+        }
+        writer.write('"');
+        writer.write(value.replace("\"", "\"\""));
+        writer.write('"');
+    }
+}
@@ -1,27 +1,31 @@
 package br.com.caiquejh.rquery.sample.service;
 
-import br.com.caiquejh.rquery.RQuery;
 import br.com.caiquejh.rquery.sample.model.Person;
+import br.com.caiquejh.rquery.spring.KeysetExecutor;
+import br.com.caiquejh.rquery.spring.KeysetRequest;
+import br.com.caiquejh.rquery.spring.KeysetSlice;
+import br.com.caiquejh.rquery.spring.QueryResultCache;
+import br.com.caiquejh.rquery.spring.RQuerySpecification;
 import lombok.RequiredArgsConstructor;
-import org.apache.commons.lang3.StringUtils;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
-import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 
+import javax.persistence.EntityManager;
+
 @RequiredArgsConstructor
 @Service
 public class PersonService {
 
     private final PersonRepository repository;
+    private final EntityManager entityManager;
+    private final QueryResultCache cache;
 
-    public Page<Person> listAllPageable(String filter, Pageable pageable) {
-        if (StringUtils.isBlank(filter)) {
-            return repository.findAll(pageable);
-        }
+    public Page<Person> listAllPageable(RQuerySpecification<Person> filter, Pageable pageable) {
+        return cache.get(Person.class, filter, pageable, () -> repository.findAll(filter, pageable));
+    }
 
-        Specification<Person> filterSpecification = (root, query, criteriaBuilder) ->
-                RQuery.from(root, criteriaBuilder).parse(filter);
-        return repository.findAll(filterSpecification, pageable);
+    public KeysetSlice<Person> listAllKeyset(RQuerySpecification<Person> filter, KeysetRequest request) {
+        return new KeysetExecutor(entityManager).findAll(Person.class, filter, request);
     }
 }
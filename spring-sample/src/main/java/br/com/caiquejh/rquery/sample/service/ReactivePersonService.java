@@ -0,0 +1,87 @@
+package br.com.caiquejh.rquery.sample.service;
+
+import br.com.caiquejh.rquery.ColumnMapping;
+import br.com.caiquejh.rquery.SqlDialect;
+import br.com.caiquejh.rquery.SqlWhere;
+import br.com.caiquejh.rquery.sample.model.Person;
+import br.com.caiquejh.rquery.spring.RQuerySpecification;
+import io.r2dbc.pool.ConnectionPool;
+import io.r2dbc.pool.ConnectionPoolConfiguration;
+import io.r2dbc.spi.ConnectionFactories;
+import io.r2dbc.spi.ConnectionFactoryOptions;
+import io.r2dbc.spi.Row;
+import org.springframework.beans.BeanWrapper;
+import org.springframework.beans.PropertyAccessorFactory;
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.r2dbc.core.DatabaseClient;
+import org.springframework.stereotype.Service;
+import reactor.core.publisher.Flux;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Read the persons matching a filter through R2DBC, compiling the filter to a SQL condition
+ * instead of a JPA predicate, and the rows only as fast as the subscriber requests them. The
+ * columns are the ones JPA maps, read by {@link ColumnMapping}.
+ *
+ * <p>The embedded H2 of the sample answers on the thread that subscribes, so the query still
+ * holds a thread while it runs; with a driver talking to a database over the network, like
+ * r2dbc-postgresql, no thread waits for the answer.</p>
+ *
+ * <p>The pool is not a bean of its own: a {@code ConnectionFactory} bean would turn off the
+ * JDBC data source of the JPA endpoints.</p>
+ */
+@Service
+public class ReactivePersonService implements DisposableBean {
+
+    private static final ColumnMapping COLUMNS = ColumnMapping.of(Person.class).withNaming(ColumnMapping.snakeCase());
+    private static final String SELECT = COLUMNS.getPaths().stream().map(COLUMNS::getColumn)
+            .collect(Collectors.joining(", ", "select ", " from persons"));
+
+    private final ConnectionPool pool;
+    private final DatabaseClient client;
+
+    public ReactivePersonService(@Value("${sample.r2dbc.url}") String url,
+                                 @Value("${spring.datasource.username}") String username,
+                                 @Value("${spring.datasource.password}") String password,
+                                 @Value("${sample.r2dbc.max-size:10}") int maxSize) {
+        ConnectionFactoryOptions options = ConnectionFactoryOptions.parse(url).mutate()
+                .option(ConnectionFactoryOptions.USER, username)
+                .option(ConnectionFactoryOptions.PASSWORD, password)
+                .build();
+        this.pool = new ConnectionPool(ConnectionPoolConfiguration.builder(ConnectionFactories.get(options))
+                .maxSize(maxSize)
+                .build());
+        this.client = DatabaseClient.create(pool);
+    }
+
+    public Flux<Person> findAll(RQuerySpecification<Person> filter) {
+        if (filter.getCompiledQuery() == null) {
+            return client.sql(SELECT + " order by id").map(ReactivePersonService::toPerson).all();
+        }
+        SqlWhere where = filter.getCompiledQuery().toSql(SqlDialect.H2, COLUMNS);
+        DatabaseClient.GenericExecuteSpec spec = client.sql(SELECT + " where " + where.getSql("$", 1) + " order by id");
+        List<Object> values = where.getValues();
+        for (int i = 0; i < values.size(); i++) {
+            spec = spec.bind(i, values.get(i));
+        }
+        return spec.map(ReactivePersonService::toPerson).all();
+    }
+
+    @Override
+    public void destroy() {
+        pool.dispose();
+    }
+
+    private static Person toPerson(Row row) {
+        Person person = new Person();
+        BeanWrapper wrapper = PropertyAccessorFactory.forBeanPropertyAccess(person);
+        wrapper.setAutoGrowNestedPaths(true);
+        for (String path : COLUMNS.getPaths()) {
+            wrapper.setPropertyValue(path, row.get(COLUMNS.getColumn(path)));
+        }
+        return person;
+    }
+}
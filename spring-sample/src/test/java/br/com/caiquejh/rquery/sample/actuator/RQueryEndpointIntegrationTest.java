@@ -0,0 +1,53 @@
+package br.com.caiquejh.rquery.sample.actuator;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+
+import static org.hamcrest.Matchers.greaterThan;
+import static org.hamcrest.Matchers.greaterThanOrEqualTo;
+import static org.hamcrest.Matchers.hasItem;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class RQueryEndpointIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Test
+    void shouldExposeThePercentilesOfTheParses() throws Exception {
+        mockMvc.perform(get("/persons").param("filter", "firstName = 'Endpoint' and age in (1, 2)"))
+                .andExpect(status().isOk());
+
+        mockMvc.perform(get("/actuator/rquery"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.parses").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.compilations").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.phaseNanos.parse.count").value(greaterThanOrEqualTo(1)))
+                .andExpect(jsonPath("$.phaseNanos.parse.p99").value(greaterThan(0)))
+                .andExpect(jsonPath("$.totalNanos.max").value(greaterThan(0)))
+                .andExpect(jsonPath("$.resultCache.missCount").value(greaterThanOrEqualTo(1)));
+    }
+
+    @Test
+    void shouldReportTheAttributesFilteredWithoutAnIndex() throws Exception {
+        for (String filter : new String[]{"email contains 'gmail'", "lastName = 'Attribute'"}) {
+            mockMvc.perform(get("/persons").param("filter", filter))
+                    .andExpect(status().isOk());
+        }
+
+        mockMvc.perform(get("/actuator/rquery/attributes"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.unindexed[?(@.path == 'email')].operations.contains").value(hasItem(greaterThanOrEqualTo(1))))
+                .andExpect(jsonPath("$.unindexed[?(@.path == 'lastName')]").isEmpty())
+                .andExpect(jsonPath("$.attributes[?(@.path == 'lastName')].indexed").value(hasItem(true)));
+        mockMvc.perform(get("/actuator/rquery/other"))
+                .andExpect(status().isNotFound());
+    }
+}
@@ -1,11 +1,18 @@
 package br.com.caiquejh.rquery.sample.controller;
 
+import br.com.caiquejh.rquery.sample.model.Gender;
+import br.com.caiquejh.rquery.sample.model.Person;
+import br.com.caiquejh.rquery.sample.service.PersonRepository;
+import br.com.caiquejh.rquery.spring.QueryResultCache;
+import com.jayway.jsonpath.JsonPath;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.test.web.servlet.MockMvc;
 
+import static org.hamcrest.Matchers.nullValue;
+import static org.junit.jupiter.api.Assertions.assertEquals;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.jsonPath;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
@@ -17,6 +24,12 @@ class PersonControllerIntegrationTest {
     @Autowired
     private MockMvc mockMvc;
 
+    @Autowired
+    private PersonRepository repository;
+
+    @Autowired
+    private QueryResultCache cache;
+
     @Test
     void shouldListPersonsWithFilter() throws Exception {
         mockMvc.perform(get("/persons")
@@ -32,4 +45,55 @@ class PersonControllerIntegrationTest {
                 .andExpect(jsonPath("$.content[1].gender").value("NON_BINARY"))
                 .andExpect(jsonPath("$.content[2].gender").value("AGENDER"));
     }
-}
\ No newline at end of file
+
+    @Test
+    void shouldListPersonsWithoutFilter() throws Exception {
+        mockMvc.perform(get("/persons"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.totalElements").value("100"));
+    }
+
+    @Test
+    void shouldListPersonsAfterTheLastKey() throws Exception {
+        String first = mockMvc.perform(get("/persons/keyset")
+                        .param("filter", "gender in ('NON_BINARY', 'AGENDER')")
+                        .param("sort", "age,desc")
+                        .param("size", "2"))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(2))
+                .andReturn().getResponse().getContentAsString();
+
+        mockMvc.perform(get("/persons/keyset")
+                        .param("filter", "gender in ('NON_BINARY', 'AGENDER')")
+                        .param("sort", "age,desc")
+                        .param("size", "2")
+                        .param("after", JsonPath.<String>read(first, "$.next")))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content.length()").value(1))
+                .andExpect(jsonPath("$.next").value(nullValue()));
+    }
+
+    @Test
+    void shouldCacheThePagesUntilAPersonChanges() throws Exception {
+        long hits = cache.stats().getHitCount();
+        for (int i = 0; i < 2; i++) {
+            mockMvc.perform(get("/persons").param("filter", "lastName = 'Cached'"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value("0"));
+        }
+        assertEquals(hits + 1, cache.stats().getHitCount());
+
+        Person person = new Person();
+        person.setFirstName("Ada");
+        person.setLastName("Cached");
+        person.setGender(Gender.FEMALE);
+        person = repository.save(person);
+        try {
+            mockMvc.perform(get("/persons").param("filter", "lastName = 'Cached'"))
+                    .andExpect(status().isOk())
+                    .andExpect(jsonPath("$.totalElements").value("1"));
+        } finally {
+            repository.delete(person);
+        }
+    }
+}
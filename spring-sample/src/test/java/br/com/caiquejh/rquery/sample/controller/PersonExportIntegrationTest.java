@@ -0,0 +1,91 @@
+package br.com.caiquejh.rquery.sample.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.TestInstance;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.web.client.TestRestTemplate;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.io.BufferedReader;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * Exports a million persons, run by its own execution of surefire with a heap too small to
+ * hold them, from a database kept on disk.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "spring.datasource.url=jdbc:h2:file:./target/h2/export;LAZY_QUERY_EXECUTION=1",
+        "spring.jpa.hibernate.ddl-auto=create-drop"
+})
+@TestInstance(TestInstance.Lifecycle.PER_CLASS)
+class PersonExportIntegrationTest {
+
+    private static final int PERSONS = 1_000_000;
+
+    @Autowired
+    private TestRestTemplate restTemplate;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeAll
+    void generatePersons() {
+        jdbcTemplate.update("insert into persons (first_name, last_name, email, gender, age, city, street, number, postal_code) "
+                + "select 'Person ' || x, 'Export', 'person' || x || '@export.com', 'FEMALE', mod(x, 90), 'City', "
+                + "'Street, ' || mod(x, 100), x, null from system_range(1, ?)", PERSONS);
+    }
+
+    @Test
+    void shouldExportMillionPersonsAsNdjson() {
+        long[] count = {0};
+        List<JsonNode> first = new ArrayList<>();
+        HttpStatus status = restTemplate.execute("/persons/export?filter={filter}", HttpMethod.GET, null, response -> {
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    if (count[0]++ == 0) {
+                        first.add(objectMapper.readTree(line));
+                    }
+                }
+            }
+            return response.getStatusCode();
+        }, "lastName = 'Export'");
+
+        assertEquals(HttpStatus.OK, status);
+        assertEquals(PERSONS, count[0]);
+        assertEquals("Person 1", first.get(0).get("firstName").asText());
+    }
+
+    @Test
+    void shouldExportFilteredPersonsAsCsv() {
+        List<String> lines = restTemplate.execute("/persons/export?filter={filter}&format=CSV", HttpMethod.GET, null, response -> {
+            List<String> read = new ArrayList<>();
+            try (BufferedReader reader = new BufferedReader(new InputStreamReader(response.getBody(), StandardCharsets.UTF_8))) {
+                for (String line = reader.readLine(); line != null; line = reader.readLine()) {
+                    read.add(line);
+                }
+            }
+            return read;
+        }, "lastName = 'Export' and age = 1 and email starts 'person1'");
+
+        assertEquals("id,firstName,lastName,email,age,gender,city,street,number,postalCode", lines.get(0));
+        assertTrue(lines.get(1).endsWith(",Person 1,Export,person1@export.com,1,FEMALE,City,\"Street, 1\",1,"), lines.get(1));
+        Long persons = jdbcTemplate.queryForObject(
+                "select count(*) from persons where age = 1 and email like 'person1%'", Long.class);
+        assertEquals(persons + 1, lines.size());
+    }
+}
@@ -0,0 +1,94 @@
+package br.com.caiquejh.rquery.sample.controller;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.web.server.LocalServerPort;
+import org.springframework.web.reactive.function.client.WebClient;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.function.IntFunction;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * Compares the throughput and the latency of the blocking and of the reactive endpoints under
+ * the same concurrent load, with fewer servlet threads and connections than concurrent
+ * requests. Run by the {@code load-test} profile, it reports the numbers instead of asserting
+ * which endpoint wins, since they depend on the machine.
+ */
+@SpringBootTest(webEnvironment = SpringBootTest.WebEnvironment.RANDOM_PORT, properties = {
+        "server.tomcat.threads.max=8",
+        "spring.datasource.hikari.maximum-pool-size=8",
+        "sample.r2dbc.max-size=8",
+        "sample.cache.maximum-size=1",
+        "logging.level.root=WARN"
+})
+class PersonLoadTest {
+
+    private static final int CONCURRENCY = 64;
+    private static final int WARM_UP = 1_000;
+    private static final int REQUESTS = 5_000;
+
+    @LocalServerPort
+    private int port;
+
+    @Test
+    void shouldCompareTheBlockingAndTheReactiveEndpoints() {
+        WebClient client = WebClient.create("http://localhost:" + port);
+        IntFunction<Mono<String>> blocking = i -> client.get()
+                .uri("/persons?size=1000&sort=id&filter={filter}", filter(i))
+                .retrieve().bodyToMono(String.class);
+        IntFunction<Mono<String>> reactive = i -> client.get()
+                .uri("/reactive/persons?filter={filter}", filter(i))
+                .retrieve().bodyToMono(String.class);
+
+        for (int i = 0; i < 10; i++) {
+            assertEquals(blocking.apply(i).map(page -> page.split("\"id\":").length - 1).block(),
+                    reactive.apply(i).map(ndjson -> ndjson.split("\n").length).block(), filter(i));
+        }
+
+        run(blocking, WARM_UP);
+        run(reactive, WARM_UP);
+        report("blocking /persons", run(blocking, REQUESTS));
+        report("reactive /reactive/persons", run(reactive, REQUESTS));
+    }
+
+    /**
+     * @return a filter of the request, changing with it so the cache of the pages is missed
+     */
+    private static String filter(int request) {
+        return "age >= " + (18 + request % 40) + " and gender in ('FEMALE', 'AGENDER', 'BIGENDER')";
+    }
+
+    /**
+     * @return the elapsed time of the run, followed by the latency of each request, in nanoseconds
+     */
+    private static long[] run(IntFunction<Mono<String>> request, int requests) {
+        long start = System.nanoTime();
+        List<Long> latencies = Flux.range(0, requests)
+                .flatMap(i -> Mono.defer(() -> {
+                    long sent = System.nanoTime();
+                    return request.apply(i).map(body -> System.nanoTime() - sent);
+                }), CONCURRENCY)
+                .collectList()
+                .block();
+        long[] times = new long[requests + 1];
+        times[0] = System.nanoTime() - start;
+        for (int i = 0; i < requests; i++) {
+            times[i + 1] = latencies.get(i);
+        }
+        return times;
+    }
+
+    private static void report(String endpoint, long[] times) {
+        long[] latencies = Arrays.copyOfRange(times, 1, times.length);
+        Arrays.sort(latencies);
+        double seconds = times[0] / 1e9;
+        System.out.printf("%-28s %8.1f requests/s  p50 %7.2f ms  p99 %7.2f ms%n", endpoint,
+                latencies.length / seconds, latencies[latencies.length / 2] / 1e6,
+                latencies[(int) Math.ceil(latencies.length * 0.99) - 1] / 1e6);
+    }
+}
@@ -0,0 +1,68 @@
+package br.com.caiquejh.rquery.sample.controller;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.web.servlet.AutoConfigureMockMvc;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.request;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+@SpringBootTest
+@AutoConfigureMockMvc
+class ReactivePersonControllerIntegrationTest {
+
+    @Autowired
+    private MockMvc mockMvc;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Test
+    void shouldStreamThePersonsOfTheBlockingEndpoint() throws Exception {
+        String[] filters = {
+                "address.city = 'Tabor'",
+                "gender in ('NON_BINARY', 'AGENDER')",
+                "age between 20 and 30 and lastName contains 'e'",
+                "(email contains '.jp' or address.postalCode is null) and gender = 'FEMALE'",
+                "id > 26 and age >= 18"
+        };
+        for (String filter : filters) {
+            List<Long> blocking = new ArrayList<>();
+            String page = mockMvc.perform(get("/persons").param("filter", filter).param("size", "1000").param("sort", "id"))
+                    .andExpect(status().isOk())
+                    .andReturn().getResponse().getContentAsString();
+            for (JsonNode person : objectMapper.readTree(page).get("content")) {
+                blocking.add(person.get("id").asLong());
+            }
+
+            assertEquals(blocking, reactiveIds(filter), filter);
+        }
+    }
+
+    private List<Long> reactiveIds(String filter) throws Exception {
+        MvcResult result = mockMvc.perform(get("/reactive/persons").param("filter", filter))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+        String ndjson = mockMvc.perform(asyncDispatch(result))
+                .andExpect(status().isOk())
+                .andReturn().getResponse().getContentAsString();
+        List<Long> ids = new ArrayList<>();
+        for (String line : ndjson.split("\n")) {
+            if (!line.isEmpty()) {
+                ids.add(objectMapper.readTree(line).get("id").asLong());
+            }
+        }
+        return ids;
+    }
+}
@@ -0,0 +1,185 @@
+package br.com.caiquejh.rquery.spring;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.EntityManager;
+import javax.persistence.Tuple;
+import javax.persistence.criteria.*;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.EntityType;
+import javax.persistence.metamodel.SingularAttribute;
+import java.util.ArrayList;
+import java.util.List;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Run keyset paginated queries: instead of skipping the entities of the previous pages, each
+ * page starts after the sort key values of the last entity of the previous one, so reading a
+ * page costs the same however deep it is, given an index on the sort keys.
+ *
+ * <p>The range of the continuation token is combined with the predicate of the
+ * specification, usually a {@link RQuerySpecification}, and no count query is run.</p>
+ *
+ * <p>The entities whose optional sort keys are null come after the others, whatever the
+ * direction of the key and the null ordering of the database, so no entity is skipped by
+ * the range. The key is then ordered by whether it is null first, which an index on the key
+ * alone does not serve.</p>
+ *
+ * @author Caique Oliveira
+ */
+public class KeysetExecutor {
+
+    private final EntityManager entityManager;
+
+    public KeysetExecutor(EntityManager entityManager) {
+        this.entityManager = requireNonNull(entityManager, "Entity manager cannot be null");
+    }
+
+    /**
+     * Find a page of the entities matching the specification.
+     *
+     * @param entityType    class of the entity
+     * @param specification the filter, may be null
+     * @param request       the size, sort and continuation token of the page
+     * @param <T>           type of entity
+     * @return the entities of the page and the token of the next one
+     * @throws IllegalArgumentException if the continuation token is not valid for the sort
+     */
+    public <T> KeysetSlice<T> findAll(Class<T> entityType, Specification<T> specification, KeysetRequest request) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = builder.createTupleQuery();
+        Root<T> root = query.from(entityType);
+
+        List<Sort.Order> orders = orders(root.getModel(), request.getSort());
+        Path<?>[] keys = new Path<?>[orders.size()];
+        boolean[] optional = new boolean[keys.length];
+        Class<?>[] types = new Class<?>[keys.length];
+        List<Selection<?>> selections = new ArrayList<>(keys.length + 1);
+        List<Order> orderBy = new ArrayList<>(keys.length);
+        selections.add(root);
+        for (int i = 0; i < keys.length; i++) {
+            keys[i] = path(root, orders.get(i).getProperty());
+            optional[i] = isOptional(keys[i]);
+            types[i] = keys[i].getJavaType();
+            selections.add(keys[i]);
+            if (optional[i]) {
+                orderBy.add(builder.asc(builder.selectCase().when(builder.isNull(keys[i]), 1).otherwise(0)));
+            }
+            orderBy.add(orders.get(i).isAscending() ? builder.asc(keys[i]) : builder.desc(keys[i]));
+        }
+        String sort = signature(orders);
+
+        List<Predicate> predicates = new ArrayList<>(2);
+        Predicate filter = specification == null ? null : specification.toPredicate(root, query, builder);
+        if (filter != null) {
+            predicates.add(filter);
+        }
+        if (request.getAfter() != null) {
+            predicates.add(after(builder, orders, keys, optional, KeysetToken.decode(request.getAfter(), sort, types)));
+        }
+        query.multiselect(selections).where(predicates.toArray(new Predicate[0])).orderBy(orderBy);
+
+        List<Tuple> rows = entityManager.createQuery(query).setMaxResults(request.getSize() + 1).getResultList();
+        boolean hasNext = rows.size() > request.getSize();
+        List<T> content = new ArrayList<>(Math.min(rows.size(), request.getSize()));
+        for (int i = 0; i < rows.size() && i < request.getSize(); i++) {
+            content.add(rows.get(i).get(0, entityType));
+        }
+        String next = null;
+        if (hasNext) {
+            Tuple last = rows.get(request.getSize() - 1);
+            Object[] values = new Object[keys.length];
+            for (int i = 0; i < values.length; i++) {
+                values[i] = last.get(i + 1);
+            }
+            next = KeysetToken.encode(sort, values);
+        }
+        return new KeysetSlice<>(content, next);
+    }
+
+    /**
+     * The orders of the sort, ending on the identifier of the entity when the sort does not
+     * include it.
+     */
+    private static List<Sort.Order> orders(EntityType<?> entityType, Sort sort) {
+        List<Sort.Order> orders = new ArrayList<>();
+        sort.forEach(orders::add);
+        if (entityType.hasSingleIdAttribute()) {
+            String id = entityType.getId(entityType.getIdType().getJavaType()).getName();
+            if (sort.getOrderFor(id) == null) {
+                orders.add(Sort.Order.asc(id));
+            }
+        } else if (orders.isEmpty()) {
+            throw new IllegalArgumentException("Keyset pagination of " + entityType.getName()
+                    + " needs a sort ending on a unique key");
+        }
+        return orders;
+    }
+
+    private static Path<?> path(Root<?> root, String property) {
+        Path<?> path = root;
+        for (String name : property.split("\\.")) {
+            path = path.get(name);
+        }
+        return path;
+    }
+
+    /**
+     * @return whether the key can be null, when a basic or embedded attribute of its path is
+     * optional; the associations of the path are inner joins, which leave out their nulls
+     */
+    private static boolean isOptional(Path<?> key) {
+        for (Path<?> path = key; path != null; path = path.getParentPath()) {
+            if (path.getModel() instanceof SingularAttribute) {
+                SingularAttribute<?, ?> attribute = (SingularAttribute<?, ?>) path.getModel();
+                Attribute.PersistentAttributeType type = attribute.getPersistentAttributeType();
+                if ((type == Attribute.PersistentAttributeType.BASIC || type == Attribute.PersistentAttributeType.EMBEDDED)
+                        && attribute.isOptional()) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    private static String signature(List<Sort.Order> orders) {
+        StringBuilder signature = new StringBuilder();
+        for (Sort.Order order : orders) {
+            if (signature.length() > 0) {
+                signature.append(',');
+            }
+            signature.append(order.getProperty()).append(' ').append(order.getDirection());
+        }
+        return signature.toString();
+    }
+
+    /**
+     * For the keys {@code a, b} it is {@code a > :a or (a = :a and b > :b)}, with {@code <}
+     * for the descending keys. An optional key is beyond its value when it is null too, and
+     * nothing is beyond its null value but the next keys of the null ones.
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Predicate after(CriteriaBuilder builder, List<Sort.Order> orders, Path<?>[] keys, boolean[] optional,
+                                   Object[] values) {
+        Predicate after = null;
+        for (int i = keys.length - 1; i >= 0; i--) {
+            Expression key = keys[i];
+            Comparable value = (Comparable) values[i];
+            if (value == null) {
+                if (!optional[i]) {
+                    throw new IllegalArgumentException("Continuation token has no value of " + orders.get(i).getProperty());
+                }
+                after = after == null ? builder.disjunction() : builder.and(builder.isNull(key), after);
+                continue;
+            }
+            Predicate beyond = orders.get(i).isAscending() ? builder.greaterThan(key, value) : builder.lessThan(key, value);
+            if (optional[i]) {
+                beyond = builder.or(beyond, builder.isNull(key));
+            }
+            after = after == null ? beyond : builder.or(beyond, builder.and(builder.equal(key, value), after));
+        }
+        return after;
+    }
+}
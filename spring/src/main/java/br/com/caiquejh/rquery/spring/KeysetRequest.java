@@ -0,0 +1,65 @@
+package br.com.caiquejh.rquery.spring;
+
+import org.springframework.data.domain.Sort;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A request of a page that starts after the continuation token of the previous one.
+ *
+ * <p>The sort must end on a unique key. When it does not include the identifier of the
+ * entity, the {@link KeysetExecutor} adds it as the last key, ascending. The values of the
+ * sort keys must not be null.</p>
+ *
+ * @author Caique Oliveira
+ */
+public final class KeysetRequest {
+
+    private final int size;
+    private final Sort sort;
+    private final String after;
+
+    private KeysetRequest(int size, Sort sort, String after) {
+        this.size = size;
+        this.sort = sort;
+        this.after = after;
+    }
+
+    /**
+     * @param size  the maximum number of entities of the page
+     * @param sort  the sort of the entities
+     * @param after the continuation token of the previous page, null for the first page
+     * @return the request
+     * @throws IllegalArgumentException if the size is less than one
+     */
+    public static KeysetRequest of(int size, Sort sort, String after) {
+        if (size < 1) {
+            throw new IllegalArgumentException("Size must be at least one");
+        }
+        return new KeysetRequest(size, requireNonNull(sort, "Sort cannot be null"), after);
+    }
+
+    /**
+     * @param size the maximum number of entities of the page
+     * @param sort the sort of the entities
+     * @return the request of the first page
+     */
+    public static KeysetRequest first(int size, Sort sort) {
+        return of(size, sort, null);
+    }
+
+    public int getSize() {
+        return size;
+    }
+
+    public Sort getSort() {
+        return sort;
+    }
+
+    /**
+     * @return the continuation token of the previous page, or null for the first page
+     */
+    public String getAfter() {
+        return after;
+    }
+}
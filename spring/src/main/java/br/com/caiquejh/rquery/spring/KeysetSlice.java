@@ -0,0 +1,35 @@
+package br.com.caiquejh.rquery.spring;
+
+import java.util.List;
+
+/**
+ * The entities of a page of a keyset pagination, with the token to continue after them.
+ *
+ * @param <T> Type of entity
+ * @author Caique Oliveira
+ */
+public final class KeysetSlice<T> {
+
+    private final List<T> content;
+    private final String next;
+
+    KeysetSlice(List<T> content, String next) {
+        this.content = content;
+        this.next = next;
+    }
+
+    public List<T> getContent() {
+        return content;
+    }
+
+    /**
+     * @return the continuation token of the next page, or null if this is the last page
+     */
+    public String getNext() {
+        return next;
+    }
+
+    public boolean hasNext() {
+        return next != null;
+    }
+}
@@ -0,0 +1,165 @@
+package br.com.caiquejh.rquery.spring;
+
+import java.math.BigDecimal;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.sql.Timestamp;
+import java.time.*;
+import java.util.Base64;
+import java.util.Date;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.function.Function;
+
+/**
+ * Encode the sort key values of the last entity of a page into an opaque continuation token,
+ * and decode them back to the types of the keys.
+ *
+ * <p>The token holds the sort it was created for, so it cannot be used with another sort.
+ * It is only base64 encoded: a client can change it, but only to skip entities the filter
+ * already lets it see.</p>
+ *
+ * @author Caique Oliveira
+ */
+final class KeysetToken {
+
+    private static final Map<Class<?>, Function<String, ?>> PARSERS = new HashMap<>();
+
+    static {
+        PARSERS.put(String.class, Function.identity());
+        PARSERS.put(UUID.class, UUID::fromString);
+        PARSERS.put(Boolean.class, Boolean::valueOf);
+        PARSERS.put(boolean.class, Boolean::valueOf);
+        PARSERS.put(Short.class, Short::valueOf);
+        PARSERS.put(short.class, Short::valueOf);
+        PARSERS.put(Integer.class, Integer::valueOf);
+        PARSERS.put(int.class, Integer::valueOf);
+        PARSERS.put(Long.class, Long::valueOf);
+        PARSERS.put(long.class, Long::valueOf);
+        PARSERS.put(Float.class, Float::valueOf);
+        PARSERS.put(float.class, Float::valueOf);
+        PARSERS.put(Double.class, Double::valueOf);
+        PARSERS.put(double.class, Double::valueOf);
+        PARSERS.put(BigInteger.class, BigInteger::new);
+        PARSERS.put(BigDecimal.class, BigDecimal::new);
+        PARSERS.put(LocalDate.class, LocalDate::parse);
+        PARSERS.put(LocalTime.class, LocalTime::parse);
+        PARSERS.put(LocalDateTime.class, LocalDateTime::parse);
+        PARSERS.put(OffsetDateTime.class, OffsetDateTime::parse);
+        PARSERS.put(ZonedDateTime.class, ZonedDateTime::parse);
+        PARSERS.put(Instant.class, Instant::parse);
+        PARSERS.put(Date.class, source -> isInstant(source) ? parseTimestamp(source) : new Date(Long.parseLong(source)));
+        PARSERS.put(Timestamp.class, KeysetToken::parseTimestamp);
+    }
+
+    private KeysetToken() {
+    }
+
+    /**
+     * @param sort   the sort the values are keys of
+     * @param values the values of the sort keys
+     * @return the continuation token, where a null value has the length -1
+     */
+    static String encode(String sort, Object[] values) {
+        StringBuilder text = new StringBuilder(sort);
+        for (Object value : values) {
+            String formatted = format(value);
+            text.append('\n').append(formatted == null ? -1 : formatted.length()).append(':');
+            if (formatted != null) {
+                text.append(formatted);
+            }
+        }
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(text.toString().getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * @param token the continuation token
+     * @param sort  the sort of the request
+     * @param types the types of the sort keys
+     * @return the values of the sort keys
+     * @throws IllegalArgumentException if the token is not valid for the sort
+     */
+    static Object[] decode(String token, String sort, Class<?>[] types) {
+        String text;
+        try {
+            text = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw invalid(e);
+        }
+        if (!text.startsWith(sort + '\n')) {
+            throw new IllegalArgumentException("Continuation token is not of the sort " + sort);
+        }
+        Object[] values = new Object[types.length];
+        int position = sort.length();
+        try {
+            for (int i = 0; i < types.length; i++) {
+                if (text.charAt(position) != '\n') {
+                    throw new IllegalArgumentException("Missing value " + i);
+                }
+                int colon = text.indexOf(':', position);
+                int start = colon + 1;
+                int length = Integer.parseInt(text.substring(position + 1, colon));
+                if (length < -1) {
+                    throw new IllegalArgumentException("Negative length of value " + i);
+                }
+                int end = start + Math.max(length, 0);
+                values[i] = length == -1 ? null : parse(types[i], text.substring(start, end));
+                position = end;
+            }
+            if (position != text.length()) {
+                throw new IllegalArgumentException("Unexpected text after the values");
+            }
+        } catch (IllegalStateException e) {
+            throw e;
+        } catch (RuntimeException e) {
+            throw invalid(e);
+        }
+        return values;
+    }
+
+    private static String format(Object value) {
+        if (value == null) {
+            return null;
+        }
+        if (value instanceof Enum) {
+            return ((Enum<?>) value).name();
+        }
+        if (value instanceof Timestamp) {
+            // the nanoseconds of the timestamp, which the milliseconds of a date lose
+            return ((Timestamp) value).toInstant().toString();
+        }
+        if (value instanceof Date) {
+            return String.valueOf(((Date) value).getTime());
+        }
+        return value.toString();
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static Object parse(Class<?> type, String value) {
+        if (type.isEnum()) {
+            return Enum.valueOf((Class) type, value);
+        }
+        Function<String, ?> parser = PARSERS.get(Timestamp.class.isAssignableFrom(type) ? Timestamp.class
+                : Date.class.isAssignableFrom(type) ? Date.class : type);
+        if (parser == null) {
+            throw new IllegalStateException("Keyset pagination does not support sort keys of " + type.getSimpleName());
+        }
+        return parser.apply(value);
+    }
+
+    /**
+     * @return whether the date was encoded as the instant of a timestamp, not as milliseconds
+     */
+    private static boolean isInstant(String source) {
+        return source.indexOf('T') >= 0;
+    }
+
+    private static Timestamp parseTimestamp(String source) {
+        return isInstant(source) ? Timestamp.from(Instant.parse(source)) : new Timestamp(Long.parseLong(source));
+    }
+
+    private static IllegalArgumentException invalid(Exception cause) {
+        return new IllegalArgumentException("Invalid continuation token", cause);
+    }
+}
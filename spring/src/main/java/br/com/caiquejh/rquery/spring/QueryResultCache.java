@@ -0,0 +1,269 @@
+package br.com.caiquejh.rquery.spring;
+
+import org.hibernate.engine.spi.SessionFactoryImplementor;
+import org.hibernate.event.service.spi.EventListenerRegistry;
+import org.hibernate.event.spi.EventType;
+
+import javax.persistence.EntityManagerFactory;
+import javax.persistence.metamodel.Attribute;
+import javax.persistence.metamodel.ManagedType;
+import javax.persistence.metamodel.Metamodel;
+import javax.persistence.metamodel.PluralAttribute;
+import javax.persistence.metamodel.SingularAttribute;
+import javax.persistence.metamodel.Type;
+import java.time.Duration;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+import java.util.function.Supplier;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Bounded cache of the results of rquery filters, like pages, keyed by the entity type, the
+ * canonical form of the filter and the page, and kept until an entity the filter reads changes.
+ *
+ * <p>The cache listens to the Hibernate events of the entity manager factory: when a
+ * transaction that inserted, updated or deleted an entity commits, or changed a collection of
+ * one, every result whose filter reads its type is discarded. A filter reads its entity type,
+ * the types of the joins of its attributes and the types of its fetches. The changes that are
+ * not made by the entity manager, like bulk updates or other applications, are not seen, and
+ * are only dropped with the time to live.</p>
+ *
+ * <p>A hit costs a lookup in a map. The results are shared by every caller and must not be
+ * modified. A result loaded while an entity changed is returned but not cached, since it may
+ * have been read before the change.</p>
+ *
+ * @author Caique Oliveira
+ */
+public class QueryResultCache {
+
+    private final Metamodel metamodel;
+    private final int maximumSize;
+    private final long timeToLive;
+    private final LongSupplier ticker;
+
+    private final LinkedHashMap<Key, Entry> entries = new LinkedHashMap<>(16, 0.75f, true);
+    private final Map<Class<?>, Set<Key>> keysByType = new HashMap<>();
+    private long changes;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    /**
+     * Create a cache and listen to the changes of the entities of the factory.
+     *
+     * @param entityManagerFactory the factory of the entity managers, of Hibernate
+     * @param maximumSize          the maximum number of results kept
+     * @param timeToLive           how long a result is kept at most
+     * @throws IllegalArgumentException if the size or the time to live is not positive
+     */
+    public QueryResultCache(EntityManagerFactory entityManagerFactory, int maximumSize, Duration timeToLive) {
+        this(entityManagerFactory, maximumSize, timeToLive, System::nanoTime);
+    }
+
+    QueryResultCache(EntityManagerFactory entityManagerFactory, int maximumSize, Duration timeToLive, LongSupplier ticker) {
+        requireNonNull(entityManagerFactory, "Entity manager factory cannot be null");
+        if (maximumSize <= 0) {
+            throw new IllegalArgumentException("Maximum size must be positive");
+        }
+        if (requireNonNull(timeToLive, "Time to live cannot be null").isNegative() || timeToLive.isZero()) {
+            throw new IllegalArgumentException("Time to live must be positive");
+        }
+        this.metamodel = entityManagerFactory.getMetamodel();
+        this.maximumSize = maximumSize;
+        this.timeToLive = timeToLive.toNanos();
+        this.ticker = ticker;
+
+        QueryResultCacheInvalidator invalidator = new QueryResultCacheInvalidator(this);
+        EventListenerRegistry listeners = entityManagerFactory.unwrap(SessionFactoryImplementor.class)
+                .getServiceRegistry().getService(EventListenerRegistry.class);
+        listeners.appendListeners(EventType.POST_COMMIT_INSERT, invalidator);
+        listeners.appendListeners(EventType.POST_COMMIT_UPDATE, invalidator);
+        listeners.appendListeners(EventType.POST_COMMIT_DELETE, invalidator);
+        listeners.appendListeners(EventType.POST_COLLECTION_RECREATE, invalidator);
+        listeners.appendListeners(EventType.POST_COLLECTION_UPDATE, invalidator);
+        listeners.appendListeners(EventType.POST_COLLECTION_REMOVE, invalidator);
+    }
+
+    /**
+     * Get the cached result of the filter, or load and cache it.
+     *
+     * @param entityType class of the entity
+     * @param filter     the filter, null to match every entity
+     * @param page       what else selects the result, like the {@code Pageable}, which must
+     *                   implement {@code equals} and {@code hashCode}, or null
+     * @param loader     the query of the result, called on a miss
+     * @param <T>        type of entity
+     * @param <R>        type of result
+     * @return the result
+     */
+    @SuppressWarnings("unchecked")
+    public <T, R> R get(Class<T> entityType, RQuerySpecification<T> filter, Object page, Supplier<R> loader) {
+        requireNonNull(entityType, "Entity type cannot be null");
+        Key key = new Key(entityType, filter == null ? "" : filter.toCanonicalString(), page);
+        long now = ticker.getAsLong();
+        long changesBefore;
+        synchronized (this) {
+            Entry entry = entries.get(key);
+            if (entry != null && now - entry.expiresAt < 0) {
+                hits.increment();
+                return (R) entry.value;
+            }
+            if (entry != null) {
+                remove(key, entry);
+                evictions.increment();
+            }
+            changesBefore = changes;
+        }
+        misses.increment();
+        R value = loader.get();
+        Set<Class<?>> types = readTypes(entityType, filter);
+        synchronized (this) {
+            if (changes == changesBefore) {
+                Entry previous = entries.get(key);
+                if (previous != null) {
+                    remove(key, previous);
+                }
+                entries.put(key, new Entry(value, types, now + timeToLive));
+                for (Class<?> type : types) {
+                    keysByType.computeIfAbsent(type, t -> new HashSet<>()).add(key);
+                }
+                evict();
+            }
+        }
+        return value;
+    }
+
+    /**
+     * Discard the results whose filters read the type, or one of its super types.
+     *
+     * @param changedType the class of the entity that changed
+     */
+    public synchronized void invalidate(Class<?> changedType) {
+        changes++;
+        for (Class<?> type = changedType; type != null; type = type.getSuperclass()) {
+            Set<Key> keys = keysByType.get(type);
+            if (keys == null) {
+                continue;
+            }
+            for (Key key : keys.toArray(new Key[0])) {
+                remove(key, entries.get(key));
+                invalidations.increment();
+            }
+        }
+    }
+
+    /**
+     * Discard every result.
+     */
+    public synchronized void clear() {
+        changes++;
+        entries.clear();
+        keysByType.clear();
+    }
+
+    /**
+     * @return a snapshot of the counters of this cache
+     */
+    public synchronized QueryResultCacheStats stats() {
+        return new QueryResultCacheStats(hits.sum(), misses.sum(), evictions.sum(), invalidations.sum(),
+                entries.size(), maximumSize);
+    }
+
+    private void remove(Key key, Entry entry) {
+        entries.remove(key);
+        for (Class<?> type : entry.types) {
+            Set<Key> keys = keysByType.get(type);
+            if (keys != null && keys.remove(key) && keys.isEmpty()) {
+                keysByType.remove(type);
+            }
+        }
+    }
+
+    private void evict() {
+        while (entries.size() > maximumSize) {
+            Map.Entry<Key, Entry> eldest = entries.entrySet().iterator().next();
+            remove(eldest.getKey(), eldest.getValue());
+            evictions.increment();
+        }
+    }
+
+    private Set<Class<?>> readTypes(Class<?> entityType, RQuerySpecification<?> filter) {
+        if (filter == null) {
+            return Collections.singleton(entityType);
+        }
+        Set<Class<?>> types = new HashSet<>();
+        types.add(entityType);
+        if (filter.getCompiledQuery() != null) {
+            types.addAll(filter.getCompiledQuery().getReferencedTypes());
+        }
+        for (String fetch : filter.getFetches()) {
+            ManagedType<?> managedType = metamodel.managedType(entityType);
+            for (String name : fetch.split("\\.")) {
+                Type<?> type = elementType(managedType.getAttribute(name));
+                types.add(type.getJavaType());
+                if (!(type instanceof ManagedType)) {
+                    break;
+                }
+                managedType = (ManagedType<?>) type;
+            }
+        }
+        return types;
+    }
+
+    private static Type<?> elementType(Attribute<?, ?> attribute) {
+        return attribute instanceof PluralAttribute
+                ? ((PluralAttribute<?, ?, ?>) attribute).getElementType()
+                : ((SingularAttribute<?, ?>) attribute).getType();
+    }
+
+    private static final class Key {
+
+        private final Class<?> entityType;
+        private final String filter;
+        private final Object page;
+        private final int hash;
+
+        Key(Class<?> entityType, String filter, Object page) {
+            this.entityType = entityType;
+            this.filter = filter;
+            this.page = page;
+            this.hash = Objects.hash(entityType, filter, page);
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+            Key key = (Key) o;
+            return entityType.equals(key.entityType) && filter.equals(key.filter) && Objects.equals(page, key.page);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class Entry {
+
+        private final Object value;
+        private final Set<Class<?>> types;
+        private final long expiresAt;
+
+        Entry(Object value, Set<Class<?>> types, long expiresAt) {
+            this.value = value;
+            this.types = types;
+            this.expiresAt = expiresAt;
+        }
+    }
+}
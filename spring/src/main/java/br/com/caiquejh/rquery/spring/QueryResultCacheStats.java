@@ -0,0 +1,88 @@
+package br.com.caiquejh.rquery.spring;
+
+/**
+ * Snapshot of the counters of a {@link QueryResultCache}.
+ *
+ * @author Caique Oliveira
+ */
+public final class QueryResultCacheStats {
+
+    private final long hitCount;
+    private final long missCount;
+    private final long evictionCount;
+    private final long invalidationCount;
+    private final long size;
+    private final long maximumSize;
+
+    QueryResultCacheStats(long hitCount, long missCount, long evictionCount, long invalidationCount,
+                          long size, long maximumSize) {
+        this.hitCount = hitCount;
+        this.missCount = missCount;
+        this.evictionCount = evictionCount;
+        this.invalidationCount = invalidationCount;
+        this.size = size;
+        this.maximumSize = maximumSize;
+    }
+
+    /**
+     * @return how many lookups found a cached result
+     */
+    public long getHitCount() {
+        return hitCount;
+    }
+
+    /**
+     * @return how many lookups had to run the query
+     */
+    public long getMissCount() {
+        return missCount;
+    }
+
+    /**
+     * @return how many results were removed for the maximum size or the time to live
+     */
+    public long getEvictionCount() {
+        return evictionCount;
+    }
+
+    /**
+     * @return how many results were removed because an entity they read changed
+     */
+    public long getInvalidationCount() {
+        return invalidationCount;
+    }
+
+    /**
+     * @return the number of cached results
+     */
+    public long getSize() {
+        return size;
+    }
+
+    /**
+     * @return the maximum number of cached results
+     */
+    public long getMaximumSize() {
+        return maximumSize;
+    }
+
+    /**
+     * @return the ratio of lookups that found a cached result, or 1 when there was no lookup
+     */
+    public double getHitRate() {
+        long requests = hitCount + missCount;
+        return requests == 0 ? 1.0 : (double) hitCount / requests;
+    }
+
+    @Override
+    public String toString() {
+        return "QueryResultCacheStats{" +
+                "hitCount=" + hitCount +
+                ", missCount=" + missCount +
+                ", evictionCount=" + evictionCount +
+                ", invalidationCount=" + invalidationCount +
+                ", size=" + size +
+                ", maximumSize=" + maximumSize +
+                '}';
+    }
+}
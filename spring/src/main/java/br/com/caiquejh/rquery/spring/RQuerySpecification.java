@@ -0,0 +1,205 @@
+package br.com.caiquejh.rquery.spring;
+
+import br.com.caiquejh.rquery.CompiledQuery;
+import br.com.caiquejh.rquery.JoinContext;
+import br.com.caiquejh.rquery.RQuery;
+import br.com.caiquejh.rquery.RQueryEngine;
+import br.com.caiquejh.rquery.exception.RQueryException;
+import org.springframework.data.jpa.domain.Specification;
+
+import javax.persistence.criteria.*;
+import java.io.InvalidObjectException;
+import java.io.ObjectInputStream;
+import java.io.Serializable;
+import java.util.Arrays;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * A {@link Specification} of a rquery filter, compiled once when created.
+ *
+ * <p>Spring Data applies the same specification to the content and to the count query of a
+ * page, and both only replay the compiled filter. The fetches of the specification are only
+ * made on the content query, since they do not change the count, and the filter joins the
+ * fetched paths with the same join type on both queries, reusing the fetch on the content
+ * query.</p>
+ *
+ * <p>A specification is serialized as its filter and fetches, and compiled again by the default
+ * engine when read.</p>
+ *
+ * @param <T> Type of entity
+ * @author Caique Oliveira
+ */
+public final class RQuerySpecification<T> implements Specification<T> {
+
+    private final CompiledQuery<T> compiledQuery;
+    private final String[] fetches;
+    private final JoinType[] fetchTypes;
+
+    private RQuerySpecification(CompiledQuery<T> compiledQuery, String[] fetches, JoinType[] fetchTypes) {
+        this.compiledQuery = compiledQuery;
+        this.fetches = fetches;
+        this.fetchTypes = fetchTypes;
+    }
+
+    /**
+     * Compile the filter for the entity type.
+     *
+     * @param entityType class of the entity
+     * @param filter     the rquery, null or blank to match every entity
+     * @param <T>        type of entity
+     * @return the specification of the filter
+     * @throws RQueryException if a syntax or semantic error occurs
+     */
+    public static <T> RQuerySpecification<T> of(Class<T> entityType, String filter) throws RQueryException {
+        return of(RQuery.defaultEngine(), entityType, filter);
+    }
+
+    /**
+     * Compile the filter for the entity type with the engine.
+     *
+     * @param engine     the engine, with the field mappers and the policies of the filter
+     * @param entityType class of the entity
+     * @param filter     the rquery, null or blank to match every entity
+     * @param <T>        type of entity
+     * @return the specification of the filter
+     * @throws RQueryException if a syntax or semantic error occurs
+     */
+    public static <T> RQuerySpecification<T> of(RQueryEngine engine, Class<T> entityType, String filter)
+            throws RQueryException {
+        requireNonNull(engine, "Engine cannot be null");
+        requireNonNull(entityType, "Entity type cannot be null");
+        CompiledQuery<T> compiled = filter == null || filter.trim().isEmpty() ? null : engine.compile(entityType, filter);
+        return new RQuerySpecification<>(compiled, new String[0], new JoinType[0]);
+    }
+
+    /**
+     * Fetch an association on the content query, like {@code author} or {@code comments.author}.
+     *
+     * @param path     the dotted path of the association
+     * @param joinType the join type of the fetch and of the filter joins of the path
+     * @return a copy of this specification with the fetch
+     */
+    public RQuerySpecification<T> withFetch(String path, JoinType joinType) {
+        String[] fetches = Arrays.copyOf(this.fetches, this.fetches.length + 1);
+        JoinType[] fetchTypes = Arrays.copyOf(this.fetchTypes, this.fetchTypes.length + 1);
+        fetches[fetches.length - 1] = requireNonNull(path, "Path cannot be null");
+        fetchTypes[fetchTypes.length - 1] = requireNonNull(joinType, "Join type cannot be null");
+        return new RQuerySpecification<>(compiledQuery, fetches, fetchTypes);
+    }
+
+    /**
+     * @return the compiled filter, or null if there is no filter
+     */
+    public CompiledQuery<T> getCompiledQuery() {
+        return compiledQuery;
+    }
+
+    /**
+     * @return the dotted paths of the fetched associations
+     */
+    String[] getFetches() {
+        return fetches.clone();
+    }
+
+    /**
+     * @return the canonical form of the filter, which ignores the differences of the source
+     * that do not change the result, and the fetches, equal for specifications that select the
+     * same entities
+     */
+    String toCanonicalString() {
+        StringBuilder canonical = new StringBuilder(compiledQuery == null ? "" : compiledQuery.toString());
+        for (int i = 0; i < fetches.length; i++) {
+            canonical.append(" fetch ").append(fetchTypes[i]).append(' ').append(fetches[i]);
+        }
+        return canonical.toString();
+    }
+
+    @Override
+    public Predicate toPredicate(Root<T> root, CriteriaQuery<?> query, CriteriaBuilder criteriaBuilder) {
+        JoinContext joins = JoinContext.of(root);
+        boolean selectsRoot = selectsRoot(root, query);
+        for (int i = 0; i < fetches.length; i++) {
+            withJoinType(joins, fetches[i], fetchTypes[i]);
+            if (selectsRoot) {
+                fetch(root, fetches[i], fetchTypes[i]);
+            }
+        }
+        return compiledQuery == null ? null : compiledQuery.toPredicate(joins, criteriaBuilder);
+    }
+
+    /**
+     * @return whether the query selects the root, which its fetches need; a query without a
+     * selection yet, like the count query of Spring Data, selects it when its result is the entity
+     */
+    private static boolean selectsRoot(Root<?> root, CriteriaQuery<?> query) {
+        Selection<?> selection = query.getSelection();
+        if (selection != null) {
+            return selection == root;
+        }
+        Class<?> resultType = query.getResultType();
+        return resultType != Object.class && resultType.isAssignableFrom(root.getJavaType());
+    }
+
+    private static void withJoinType(JoinContext joins, String path, JoinType joinType) {
+        for (int end = path.indexOf('.'); end >= 0; end = path.indexOf('.', end + 1)) {
+            joins.withJoinType(path.substring(0, end), joinType);
+        }
+        joins.withJoinType(path, joinType);
+    }
+
+    private static void fetch(Root<?> root, String path, JoinType joinType) {
+        FetchParent<?, ?> parent = root;
+        for (String name : path.split("\\.")) {
+            parent = fetchOnce(parent, name, joinType);
+        }
+    }
+
+    private static FetchParent<?, ?> fetchOnce(FetchParent<?, ?> parent, String name, JoinType joinType) {
+        for (Fetch<?, ?> fetch : parent.getFetches()) {
+            if (fetch.getAttribute().getName().equals(name) && fetch.getJoinType() == joinType) {
+                return fetch;
+            }
+        }
+        return parent.fetch(name, joinType);
+    }
+
+    private Object writeReplace() {
+        return new SerializedForm(compiledQuery == null ? null : compiledQuery.getEntityType(),
+                compiledQuery == null ? null : compiledQuery.getQuery(), fetches, fetchTypes);
+    }
+
+    private void readObject(ObjectInputStream stream) throws InvalidObjectException {
+        throw new InvalidObjectException("A specification is read from its serialized form");
+    }
+
+    @Override
+    public String toString() {
+        return compiledQuery == null ? "" : compiledQuery.getQuery();
+    }
+
+    /**
+     * The filter and the fetches of a specification, since its compiled query is not serializable.
+     */
+    private static final class SerializedForm implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+
+        private final Class<?> entityType;
+        private final String filter;
+        private final String[] fetches;
+        private final JoinType[] fetchTypes;
+
+        SerializedForm(Class<?> entityType, String filter, String[] fetches, JoinType[] fetchTypes) {
+            this.entityType = entityType;
+            this.filter = filter;
+            this.fetches = fetches;
+            this.fetchTypes = fetchTypes;
+        }
+
+        private Object readResolve() {
+            CompiledQuery<?> compiled = filter == null ? null : RQuery.defaultEngine().compile(entityType, filter);
+            return new RQuerySpecification<>(compiled, fetches, fetchTypes);
+        }
+    }
+}
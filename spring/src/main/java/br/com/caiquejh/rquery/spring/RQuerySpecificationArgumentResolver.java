@@ -0,0 +1,57 @@
+package br.com.caiquejh.rquery.spring;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+import org.springframework.core.MethodParameter;
+import org.springframework.core.ResolvableType;
+import org.springframework.web.bind.support.WebDataBinderFactory;
+import org.springframework.web.context.request.NativeWebRequest;
+import org.springframework.web.method.support.HandlerMethodArgumentResolver;
+import org.springframework.web.method.support.ModelAndViewContainer;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Resolve the {@link RQuerySpecification} parameters of the handler methods from a request
+ * parameter, {@code filter} by default, compiling the filter once per request.
+ *
+ * <p>The entity type is the type argument of the parameter, as in
+ * {@code RQuerySpecification<Person> filter}. A request without the parameter gets a
+ * specification that matches every entity.</p>
+ *
+ * @author Caique Oliveira
+ */
+public class RQuerySpecificationArgumentResolver implements HandlerMethodArgumentResolver {
+
+    public static final String DEFAULT_PARAMETER_NAME = "filter";
+
+    private final String parameterName;
+
+    public RQuerySpecificationArgumentResolver() {
+        this(DEFAULT_PARAMETER_NAME);
+    }
+
+    /**
+     * @param parameterName the name of the request parameter with the filter
+     */
+    public RQuerySpecificationArgumentResolver(String parameterName) {
+        this.parameterName = requireNonNull(parameterName, "Parameter name cannot be null");
+    }
+
+    @Override
+    public boolean supportsParameter(MethodParameter parameter) {
+        return RQuerySpecification.class.equals(parameter.getParameterType());
+    }
+
+    /**
+     * @throws RQueryException if the filter has a syntax or semantic error
+     */
+    @Override
+    public RQuerySpecification<?> resolveArgument(MethodParameter parameter, ModelAndViewContainer mavContainer,
+                                                  NativeWebRequest webRequest, WebDataBinderFactory binderFactory) {
+        Class<?> entityType = ResolvableType.forMethodParameter(parameter).resolveGeneric(0);
+        if (entityType == null) {
+            throw new IllegalStateException("The entity type of " + parameter + " must be declared");
+        }
+        return RQuerySpecification.of(entityType, webRequest.getParameter(parameterName));
+    }
+}
@@ -0,0 +1,142 @@
+package br.com.caiquejh.rquery.spring;
+
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+
+import javax.persistence.EntityManager;
+import javax.persistence.TypedQuery;
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Predicate;
+import javax.persistence.criteria.Root;
+import java.util.Iterator;
+import java.util.Spliterator;
+import java.util.Spliterators;
+import java.util.stream.Stream;
+import java.util.stream.StreamSupport;
+
+import static java.util.Objects.requireNonNull;
+
+/**
+ * Run queries whose entities are read as they are consumed, for exports of whole tables: the
+ * rows are fetched from a cursor, the specification is run once and without a count query,
+ * and the persistence context is cleared as the entities are consumed, so the memory used does
+ * not grow with the number of entities.
+ *
+ * <p>The stream must be consumed in a transaction, and closed. The persistence context is
+ * cleared before every {@link #withClearInterval(int) clear interval} entities are read, so an
+ * entity must not be used after the next ones are read, and changes to the entities are not
+ * saved.</p>
+ *
+ * @author Caique Oliveira
+ */
+public class StreamExecutor {
+
+    /**
+     * The default number of rows fetched at a time, and of entities read between clears.
+     */
+    public static final int DEFAULT_FETCH_SIZE = 1000;
+
+    private static final String FETCH_SIZE_HINT = "org.hibernate.fetchSize";
+    private static final String READ_ONLY_HINT = "org.hibernate.readOnly";
+
+    private final EntityManager entityManager;
+    private int fetchSize = DEFAULT_FETCH_SIZE;
+    private int clearInterval = DEFAULT_FETCH_SIZE;
+
+    public StreamExecutor(EntityManager entityManager) {
+        this.entityManager = requireNonNull(entityManager, "Entity manager cannot be null");
+    }
+
+    /**
+     * @param fetchSize the number of rows the JDBC driver fetches at a time, 1000 by default
+     * @return the instance this
+     * @throws IllegalArgumentException if the fetch size is not positive
+     */
+    public StreamExecutor withFetchSize(int fetchSize) {
+        if (fetchSize <= 0) {
+            throw new IllegalArgumentException("Fetch size must be positive");
+        }
+        this.fetchSize = fetchSize;
+        return this;
+    }
+
+    /**
+     * @param clearInterval the number of entities read between clears of the persistence
+     *                      context, 1000 by default
+     * @return the instance this
+     * @throws IllegalArgumentException if the interval is not positive
+     */
+    public StreamExecutor withClearInterval(int clearInterval) {
+        if (clearInterval <= 0) {
+            throw new IllegalArgumentException("Clear interval must be positive");
+        }
+        this.clearInterval = clearInterval;
+        return this;
+    }
+
+    /**
+     * Stream the entities matching the specification.
+     *
+     * @param entityType    class of the entity
+     * @param specification the filter, may be null
+     * @param sort          the order of the entities
+     * @param <T>           type of entity
+     * @return the entities, read as they are consumed, to be closed
+     */
+    public <T> Stream<T> stream(Class<T> entityType, Specification<T> specification, Sort sort) {
+        CriteriaBuilder builder = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = builder.createQuery(entityType);
+        Root<T> root = query.from(entityType);
+        Predicate filter = specification == null ? null : specification.toPredicate(root, query, builder);
+        if (filter != null) {
+            query.where(filter);
+        }
+        query.select(root).orderBy(QueryUtils.toOrders(sort, root, builder));
+
+        TypedQuery<T> typedQuery = entityManager.createQuery(query)
+                .setHint(FETCH_SIZE_HINT, fetchSize)
+                .setHint(READ_ONLY_HINT, true);
+        Stream<T> rows = typedQuery.getResultStream();
+        Iterator<T> iterator = new ClearingIterator<>(rows.iterator(), entityManager, clearInterval);
+        return StreamSupport.stream(Spliterators.spliteratorUnknownSize(iterator, Spliterator.ORDERED), false)
+                .onClose(rows::close);
+    }
+
+    /**
+     * Clear the persistence context every interval entities, before the next row is read, when
+     * the previous entities were already consumed. The rows are read by {@link #hasNext()}, so
+     * the entity returned next is still managed.
+     */
+    private static final class ClearingIterator<T> implements Iterator<T> {
+
+        private final Iterator<T> rows;
+        private final EntityManager entityManager;
+        private final int clearInterval;
+        private int read;
+        private int clearedAt;
+
+        ClearingIterator(Iterator<T> rows, EntityManager entityManager, int clearInterval) {
+            this.rows = rows;
+            this.entityManager = entityManager;
+            this.clearInterval = clearInterval;
+        }
+
+        @Override
+        public boolean hasNext() {
+            if (read != clearedAt && read % clearInterval == 0) {
+                entityManager.clear();
+                clearedAt = read;
+            }
+            return rows.hasNext();
+        }
+
+        @Override
+        public T next() {
+            T next = rows.next();
+            read++;
+            return next;
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package br.com.caiquejh.rquery.spring;
+
+import br.com.caiquejh.rquery.spring.model.Book;
+import br.com.caiquejh.rquery.spring.model.Writer;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class KeysetExecutorTest {
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = new MetadataSources(new StandardServiceRegistryBuilder().configure().build())
+                .buildMetadata().buildSessionFactory();
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            Writer ann = new Writer("Ann");
+            session.save(ann);
+            for (String title : Arrays.asList("A", "B", "B", "C", "D")) {
+                session.save(new Book(title, ann));
+            }
+            session.save(new Book("E", null));
+            Writer bob = new Writer("Bob");
+            session.save(bob);
+            for (String title : Arrays.asList(null, "X", null, "Y")) {
+                session.save(new Book(title, bob));
+            }
+            session.getTransaction().commit();
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void shouldPageThroughFilteredEntitiesAfterTheLastKey() {
+        RQuerySpecification<Book> specification = RQuerySpecification.of(Book.class, "writer.name = 'Ann'");
+        Sort sort = Sort.by(Sort.Direction.DESC, "title");
+        List<String> titles = new ArrayList<>();
+        List<Long> ids = new ArrayList<>();
+        int pages = 0;
+
+        try (Session session = sessionFactory.openSession()) {
+            KeysetExecutor executor = new KeysetExecutor(session);
+            KeysetSlice<Book> slice = executor.findAll(Book.class, specification, KeysetRequest.first(2, sort));
+            while (true) {
+                pages++;
+                slice.getContent().forEach(book -> {
+                    titles.add(book.getTitle());
+                    ids.add(book.getId());
+                });
+                if (!slice.hasNext()) {
+                    break;
+                }
+                slice = executor.findAll(Book.class, specification, KeysetRequest.of(2, sort, slice.getNext()));
+            }
+        }
+
+        assertEquals(3, pages);
+        assertEquals(Arrays.asList("D", "C", "B", "B", "A"), titles);
+        assertTrue(ids.get(2) < ids.get(3));
+    }
+
+    @Test
+    void shouldPageThroughNullSortKeysAfterTheOthers() {
+        RQuerySpecification<Book> specification = RQuerySpecification.of(Book.class, "writer.name = 'Bob'");
+        for (Sort.Direction direction : Sort.Direction.values()) {
+            for (int size = 1; size <= 3; size++) {
+                Sort sort = Sort.by(direction, "title");
+                List<Book> books = new ArrayList<>();
+                try (Session session = sessionFactory.openSession()) {
+                    KeysetExecutor executor = new KeysetExecutor(session);
+                    KeysetSlice<Book> slice = executor.findAll(Book.class, specification, KeysetRequest.first(size, sort));
+                    books.addAll(slice.getContent());
+                    while (slice.hasNext()) {
+                        slice = executor.findAll(Book.class, specification, KeysetRequest.of(size, sort, slice.getNext()));
+                        books.addAll(slice.getContent());
+                    }
+                }
+
+                List<String> titles = new ArrayList<>();
+                books.forEach(book -> titles.add(book.getTitle()));
+                assertEquals(direction.isAscending() ? Arrays.asList("X", "Y", null, null) : Arrays.asList("Y", "X", null, null),
+                        titles, direction + " by " + size);
+                assertTrue(books.get(2).getId() < books.get(3).getId());
+            }
+        }
+    }
+
+    @Test
+    void shouldRejectTokenOfAnotherSort() {
+        try (Session session = sessionFactory.openSession()) {
+            KeysetExecutor executor = new KeysetExecutor(session);
+            String next = executor.findAll(Book.class, null, KeysetRequest.first(1, Sort.by("title"))).getNext();
+
+            assertNotNull(next);
+            assertThrows(IllegalArgumentException.class,
+                    () -> executor.findAll(Book.class, null, KeysetRequest.of(1, Sort.by("id"), next)));
+            assertThrows(IllegalArgumentException.class,
+                    () -> executor.findAll(Book.class, null, KeysetRequest.of(1, Sort.by("title"), "not a token")));
+        }
+    }
+
+    @Test
+    void shouldKeepTheNanosecondsOfTimestamps() {
+        Timestamp timestamp = Timestamp.valueOf("2022-05-01 10:15:30.123456789");
+        String token = KeysetToken.encode("createdAt", new Object[]{timestamp});
+
+        assertEquals(timestamp, KeysetToken.decode(token, "createdAt", new Class<?>[]{Timestamp.class})[0]);
+        assertEquals(timestamp, KeysetToken.decode(token, "createdAt", new Class<?>[]{Date.class})[0]);
+    }
+}
@@ -0,0 +1,138 @@
+package br.com.caiquejh.rquery.spring;
+
+import br.com.caiquejh.rquery.spring.model.Book;
+import br.com.caiquejh.rquery.spring.model.Writer;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+import javax.persistence.criteria.CriteriaBuilder;
+import javax.persistence.criteria.CriteriaQuery;
+import javax.persistence.criteria.Root;
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Consumer;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class QueryResultCacheTest {
+
+    private SessionFactory sessionFactory;
+    private Writer ann;
+
+    @BeforeEach
+    void setUp() {
+        sessionFactory = new MetadataSources(new StandardServiceRegistryBuilder().configure().build())
+                .buildMetadata().buildSessionFactory();
+        ann = new Writer("Ann");
+        inTransaction(session -> {
+            session.save(ann);
+            session.save(new Book("A", ann));
+            session.save(new Book("B", null));
+        });
+    }
+
+    @AfterEach
+    void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void shouldInvalidateTheResultsReadingTheChangedTypes() {
+        QueryResultCache cache = new QueryResultCache(sessionFactory, 10, Duration.ofMinutes(1));
+        RQuerySpecification<Book> byWriter = RQuerySpecification.of(Book.class, "writer.name = 'Ann'");
+        RQuerySpecification<Book> byTitle = RQuerySpecification.of(Book.class, "title = 'B'");
+        AtomicInteger queries = new AtomicInteger();
+
+        assertEquals(1, count(cache, byWriter, queries));
+        assertEquals(1, count(cache, RQuerySpecification.of(Book.class, "(writer.name = 'Ann')"), queries));
+        assertEquals(1, count(cache, byTitle, queries));
+        assertEquals(2, queries.get());
+
+        inTransaction(session -> session.get(Writer.class, ann.getId()).setName("Bob"));
+        assertEquals(0, count(cache, byWriter, queries));
+        assertEquals(1, count(cache, byTitle, queries));
+        assertEquals(3, queries.get());
+
+        inTransaction(session -> session.save(new Book("B", null)));
+        assertEquals(2, count(cache, byTitle, queries));
+        assertEquals(0, count(cache, byWriter, queries));
+        assertEquals(5, queries.get());
+
+        QueryResultCacheStats stats = cache.stats();
+        assertEquals(2, stats.getHitCount());
+        assertEquals(5, stats.getMissCount());
+        assertEquals(3, stats.getInvalidationCount());
+        assertEquals(2, stats.getSize());
+    }
+
+    @Test
+    void shouldNotInvalidateOnRollback() {
+        QueryResultCache cache = new QueryResultCache(sessionFactory, 10, Duration.ofMinutes(1));
+        RQuerySpecification<Book> byTitle = RQuerySpecification.of(Book.class, "title = 'B'");
+        AtomicInteger queries = new AtomicInteger();
+        count(cache, byTitle, queries);
+
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            session.save(new Book("B", null));
+            session.flush();
+            session.getTransaction().rollback();
+        }
+
+        assertEquals(1, count(cache, byTitle, queries));
+        assertEquals(1, queries.get());
+    }
+
+    @Test
+    void shouldEvictByTimeToLiveAndSize() {
+        AtomicLong now = new AtomicLong();
+        QueryResultCache cache = new QueryResultCache(sessionFactory, 2, Duration.ofSeconds(10), now::get);
+        RQuerySpecification<Book> filter = RQuerySpecification.of(Book.class, "title = 'A'");
+
+        assertEquals("0", cache.get(Book.class, filter, PageRequest.of(0, 10), () -> "0"));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(9));
+        assertEquals("0", cache.get(Book.class, filter, PageRequest.of(0, 10), () -> "1"));
+        now.addAndGet(TimeUnit.SECONDS.toNanos(1));
+        assertEquals("2", cache.get(Book.class, filter, PageRequest.of(0, 10), () -> "2"));
+
+        cache.get(Book.class, filter, PageRequest.of(1, 10), () -> "3");
+        cache.get(Book.class, null, PageRequest.of(0, 10), () -> "4");
+        assertEquals("5", cache.get(Book.class, filter, PageRequest.of(0, 10), () -> "5"));
+        assertEquals(2, cache.stats().getSize());
+        assertEquals(3, cache.stats().getEvictionCount());
+    }
+
+    @Test
+    void shouldRejectSizeOrTimeToLiveNotPositive() {
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultCache(sessionFactory, 0, Duration.ofSeconds(1)));
+        assertThrows(IllegalArgumentException.class, () -> new QueryResultCache(sessionFactory, 1, Duration.ZERO));
+    }
+
+    private int count(QueryResultCache cache, RQuerySpecification<Book> filter, AtomicInteger queries) {
+        return cache.get(Book.class, filter, PageRequest.of(0, 10), () -> {
+            queries.incrementAndGet();
+            try (Session session = sessionFactory.openSession()) {
+                CriteriaBuilder builder = session.getCriteriaBuilder();
+                CriteriaQuery<Book> query = builder.createQuery(Book.class);
+                Root<Book> root = query.from(Book.class);
+                return session.createQuery(query.where(filter.toPredicate(root, query, builder))).getResultList().size();
+            }
+        });
+    }
+
+    private void inTransaction(Consumer<Session> work) {
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            work.accept(session);
+            session.getTransaction().commit();
+        }
+    }
+}
@@ -0,0 +1,57 @@
+package br.com.caiquejh.rquery.spring;
+
+import br.com.caiquejh.rquery.exception.RQueryException;
+import br.com.caiquejh.rquery.spring.model.Book;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.MethodParameter;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.ServletWebRequest;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RQuerySpecificationArgumentResolverTest {
+
+    private final RQuerySpecificationArgumentResolver resolver = new RQuerySpecificationArgumentResolver();
+
+    @Test
+    void shouldCompileFilterOfRequest() throws Exception {
+        MethodParameter parameter = parameter("list");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter("filter", "writer.name = 'Ann'");
+
+        assertTrue(resolver.supportsParameter(parameter));
+        RQuerySpecification<?> specification = resolver.resolveArgument(parameter, null, new ServletWebRequest(request), null);
+
+        assertEquals(Book.class, specification.getCompiledQuery().getEntityType());
+        assertEquals("writer.name = 'Ann'", specification.getCompiledQuery().getQuery());
+    }
+
+    @Test
+    void shouldFailOnInvalidFilter() throws Exception {
+        MethodParameter parameter = parameter("list");
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setParameter("filter", "writer.nickname = 'Ann'");
+
+        assertThrows(RQueryException.class, () -> resolver.resolveArgument(parameter, null, new ServletWebRequest(request), null));
+    }
+
+    @Test
+    void shouldNotSupportOtherParameters() throws Exception {
+        assertFalse(resolver.supportsParameter(parameter("other")));
+    }
+
+    private static MethodParameter parameter(String method) throws NoSuchMethodException {
+        Class<?> parameterType = method.equals("list") ? RQuerySpecification.class : String.class;
+        return new MethodParameter(Controller.class.getDeclaredMethod(method, parameterType), 0);
+    }
+
+    @SuppressWarnings("unused")
+    private static class Controller {
+
+        void list(RQuerySpecification<Book> filter) {
+        }
+
+        void other(String filter) {
+        }
+    }
+}
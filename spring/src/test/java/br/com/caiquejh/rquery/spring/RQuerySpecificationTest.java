@@ -0,0 +1,131 @@
+package br.com.caiquejh.rquery.spring;
+
+import br.com.caiquejh.rquery.RQuery;
+import br.com.caiquejh.rquery.spring.model.Book;
+import br.com.caiquejh.rquery.spring.model.Writer;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+
+import javax.persistence.criteria.*;
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class RQuerySpecificationTest {
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = new MetadataSources(new StandardServiceRegistryBuilder().configure().build())
+                .buildMetadata().buildSessionFactory();
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            Writer ann = new Writer("Ann");
+            Writer bob = new Writer("Bob");
+            session.save(ann);
+            session.save(bob);
+            session.save(new Book("A", ann));
+            session.save(new Book("B", bob));
+            session.save(new Book("C", null));
+            session.getTransaction().commit();
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void shouldReplayCompiledFilterOnContentAndCountQueries() {
+        RQuerySpecification<Book> specification = RQuerySpecification.of(Book.class, "writer.name is null or title = 'A'")
+                .withFetch("writer", JoinType.LEFT);
+        long parses = RQuery.parserStats().getParseCount();
+
+        try (Session session = sessionFactory.openSession()) {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+
+            CriteriaQuery<Book> content = builder.createQuery(Book.class);
+            Root<Book> contentRoot = content.from(Book.class);
+            content.where(specification.toPredicate(contentRoot, content, builder));
+            List<Book> books = session.createQuery(content).getResultList();
+
+            CriteriaQuery<Long> count = builder.createQuery(Long.class);
+            Root<Book> countRoot = count.from(Book.class);
+            count.where(specification.toPredicate(countRoot, count, builder)).select(builder.count(countRoot));
+            Long total = session.createQuery(count).getSingleResult();
+
+            assertEquals(2, books.size());
+            assertEquals(2L, total);
+            assertEquals(1, contentRoot.getFetches().size());
+            assertTrue(contentRoot.getJoins().isEmpty());
+            assertTrue(countRoot.getFetches().isEmpty());
+            assertEquals(JoinType.LEFT, countRoot.getJoins().iterator().next().getJoinType());
+        }
+        assertEquals(parses, RQuery.parserStats().getParseCount());
+    }
+
+    @Test
+    void shouldMatchEverythingWithoutFilter() {
+        RQuerySpecification<Book> specification = RQuerySpecification.of(Book.class, " ");
+
+        try (Session session = sessionFactory.openSession()) {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaQuery<Book> query = builder.createQuery(Book.class);
+            assertNull(specification.toPredicate(query.from(Book.class), query, builder));
+        }
+        assertNull(specification.getCompiledQuery());
+    }
+
+    @Test
+    void shouldNotFetchOnProjections() {
+        RQuerySpecification<Book> specification = RQuerySpecification.of(Book.class, "title = 'A'")
+                .withFetch("writer", JoinType.LEFT);
+
+        try (Session session = sessionFactory.openSession()) {
+            CriteriaBuilder builder = session.getCriteriaBuilder();
+            CriteriaQuery<Long> ids = builder.createQuery(Long.class);
+            Root<Book> idsRoot = ids.from(Book.class);
+            ids.select(idsRoot.get("id"));
+            ids.where(specification.toPredicate(idsRoot, ids, builder));
+
+            CriteriaQuery<Object> books = builder.createQuery(Object.class);
+            Root<Book> booksRoot = books.from(Book.class);
+            books.select(booksRoot);
+            books.where(specification.toPredicate(booksRoot, books, builder));
+
+            assertEquals(1, session.createQuery(ids).getResultList().size());
+            assertTrue(idsRoot.getFetches().isEmpty());
+            assertEquals(1, session.createQuery(books).getResultList().size());
+            assertEquals(1, booksRoot.getFetches().size());
+        }
+    }
+
+    @Test
+    void shouldCompileAgainWhenDeserialized() throws Exception {
+        RQuerySpecification<Book> specification = RQuerySpecification.of(Book.class, "title = 'A'")
+                .withFetch("writer", JoinType.LEFT);
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(specification);
+        }
+
+        RQuerySpecification<?> read;
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            read = (RQuerySpecification<?>) input.readObject();
+        }
+
+        assertEquals(specification.toCanonicalString(), read.toCanonicalString());
+        assertEquals(Book.class, read.getCompiledQuery().getEntityType());
+    }
+}
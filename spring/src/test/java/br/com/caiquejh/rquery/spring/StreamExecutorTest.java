@@ -0,0 +1,80 @@
+package br.com.caiquejh.rquery.spring;
+
+import br.com.caiquejh.rquery.spring.model.Book;
+import br.com.caiquejh.rquery.spring.model.Writer;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.boot.MetadataSources;
+import org.hibernate.boot.registry.StandardServiceRegistryBuilder;
+import org.junit.jupiter.api.AfterAll;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class StreamExecutorTest {
+
+    private static SessionFactory sessionFactory;
+
+    @BeforeAll
+    static void setUp() {
+        sessionFactory = new MetadataSources(new StandardServiceRegistryBuilder().configure().build())
+                .buildMetadata().buildSessionFactory();
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            Writer ann = new Writer("Ann");
+            session.save(ann);
+            for (String title : Arrays.asList("D", "B", "A", "C", "B")) {
+                session.save(new Book(title, ann));
+            }
+            session.save(new Book("E", null));
+            session.getTransaction().commit();
+        }
+    }
+
+    @AfterAll
+    static void tearDown() {
+        sessionFactory.close();
+    }
+
+    @Test
+    void shouldStreamFilteredEntitiesClearingThePersistenceContext() {
+        RQuerySpecification<Book> specification = RQuerySpecification.of(Book.class, "writer.name = 'Ann'");
+        List<Book> books = new ArrayList<>();
+
+        try (Session session = sessionFactory.openSession()) {
+            session.beginTransaction();
+            StreamExecutor executor = new StreamExecutor(session).withFetchSize(2).withClearInterval(2);
+            try (Stream<Book> stream = executor.stream(Book.class, specification, Sort.by("title", "id"))) {
+                stream.forEach(book -> {
+                    assertTrue(session.contains(book));
+                    books.add(book);
+                });
+            }
+
+            assertFalse(session.contains(books.get(0)));
+            assertFalse(session.contains(books.get(3)));
+            assertTrue(session.contains(books.get(4)));
+            session.getTransaction().commit();
+        }
+
+        assertEquals(Arrays.asList("A", "B", "B", "C", "D"), books.stream().map(Book::getTitle).collect(Collectors.toList()));
+    }
+
+    @Test
+    void shouldRejectSizesNotPositive() {
+        try (Session session = sessionFactory.openSession()) {
+            StreamExecutor executor = new StreamExecutor(session);
+
+            assertThrows(IllegalArgumentException.class, () -> executor.withFetchSize(0));
+            assertThrows(IllegalArgumentException.class, () -> executor.withClearInterval(-1));
+        }
+    }
+}
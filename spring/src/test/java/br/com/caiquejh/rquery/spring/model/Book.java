@@ -0,0 +1,38 @@
+package br.com.caiquejh.rquery.spring.model;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "books")
+public class Book {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String title;
+
+    @ManyToOne
+    @JoinColumn(name = "writer_id")
+    private Writer writer;
+
+    public Book() {
+    }
+
+    public Book(String title, Writer writer) {
+        this.title = title;
+        this.writer = writer;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+
+    public Writer getWriter() {
+        return writer;
+    }
+}
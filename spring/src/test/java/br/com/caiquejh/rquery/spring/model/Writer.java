@@ -0,0 +1,33 @@
+package br.com.caiquejh.rquery.spring.model;
+
+import javax.persistence.*;
+
+@Entity
+@Table(name = "writers")
+public class Writer {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    private String name;
+
+    public Writer() {
+    }
+
+    public Writer(String name) {
+        this.name = name;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public void setName(String name) {
+        this.name = name;
+    }
+}